@@ -35,6 +35,8 @@ import com.jme3.app.Application;
 import com.jme3.app.state.AbstractAppState;
 import com.jme3.app.state.AppStateManager;
 import com.jme3.bullet.PhysicsSpace.BroadphaseType;
+import com.jme3.bullet.control.SnapshotSyncManager;
+import com.jme3.bullet.control.TransformSyncManager;
 import com.jme3.bullet.debug.BulletDebugAppState;
 import com.jme3.bullet.debug.DebugConfiguration;
 import com.jme3.bullet.debug.DebugInitListener;
@@ -49,7 +51,9 @@ import com.jme3.scene.Spatial;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jme3utilities.Validate;
@@ -78,7 +82,18 @@ public class BulletAppState
          * Parallel threaded mode: physics update and rendering are executed in
          * parallel, update order is maintained.
          */
-        PARALLEL
+        PARALLEL,
+        /**
+         * Decoupled mode: physics is stepped on its own thread at a fixed rate
+         * (one step per {@code accuracy} interval), independent of the frame
+         * rate. Collision events are distributed on the physics thread, and
+         * RigidBodyControls are synchronized from interpolated snapshots by a
+         * SnapshotSyncManager. The render thread should access physics
+         * objects only via {@code PhysicsSpace.enqueue()}. Debug
+         * visualization reads native state on the render thread, so it's
+         * unavailable in this mode.
+         */
+        DECOUPLED
     }
     // *************************************************************************
     // constants and loggers
@@ -109,6 +124,26 @@ public class BulletAppState
      * AppState to manage the debug visualization, or null if none
      */
     private BulletDebugAppState debugAppState;
+    /**
+     * true to synchronize RigidBodyControls using a TransformSyncManager,
+     * false to let each control synchronize itself
+     */
+    private boolean enableTransformSync = false;
+
+    /**
+     * step the space once and publish a snapshot, in DECOUPLED mode
+     */
+    final private Runnable fixedRateStep = new Runnable() {
+        @Override
+        public void run() {
+            PhysicsSpace pSpace = debugConfig.getSpace();
+            snapshotManager.applyKinematicTargets();
+            float interval = isEnabled() ? pSpace.getAccuracy() * speed : 0f;
+            pSpace.update(interval);
+            pSpace.distributeEvents();
+            snapshotManager.capture();
+        }
+    };
 
     final private Callable<Boolean> parallelPhysicsUpdate
             = new Callable<Boolean>() {
@@ -135,6 +170,10 @@ public class BulletAppState
      * current physics task, or null if none
      */
     private Future physicsFuture;
+    /**
+     * periodic physics task in DECOUPLED mode, or null if none
+     */
+    private ScheduledFuture<?> fixedRateFuture;
     /**
      * number of solvers in the thread-safe pool
      */
@@ -148,10 +187,19 @@ public class BulletAppState
      * constraint solver for the PhysicsSpace to use (not null)
      */
     private SolverType solverType = SolverType.SI;
+    /**
+     * manager to synchronize RigidBodyControls from snapshots in DECOUPLED
+     * mode, or null if none
+     */
+    private SnapshotSyncManager snapshotManager;
     /**
      * threading mode to use (not null)
      */
     private ThreadingType threadingType = ThreadingType.SEQUENTIAL;
+    /**
+     * manager to synchronize RigidBodyControls, or null if none
+     */
+    private TransformSyncManager syncManager;
     /**
      * maximum coordinate values for the PhysicsSpace when using AXIS_SWEEP
      * broadphase algorithms (not null)
@@ -293,6 +341,16 @@ public class BulletAppState
         return result;
     }
 
+    /**
+     * Access the manager that synchronizes RigidBodyControls from snapshots.
+     *
+     * @return the pre-existing instance, or null if the threading type isn't
+     * DECOUPLED or no simulation is running
+     */
+    public SnapshotSyncManager getSnapshotSyncManager() {
+        return snapshotManager;
+    }
+
     /**
      * Determine which constraint solver the PhysicsSpace will use.
      *
@@ -323,6 +381,16 @@ public class BulletAppState
         return threadingType;
     }
 
+    /**
+     * Access the manager that synchronizes RigidBodyControls.
+     *
+     * @return the pre-existing instance, or null if transform sync is
+     * disabled or no simulation is running
+     */
+    public TransformSyncManager getTransformSyncManager() {
+        return syncManager;
+    }
+
     /**
      * Test whether debug visualization is enabled.
      *
@@ -343,6 +411,16 @@ public class BulletAppState
         return isRunning;
     }
 
+    /**
+     * Test whether RigidBodyControls will be synchronized by a
+     * TransformSyncManager.
+     *
+     * @return true if enabled, otherwise false
+     */
+    public boolean isTransformSyncEnabled() {
+        return enableTransformSync;
+    }
+
     /**
      * Alter the broadphase type the PhysicsSpace will use. Not allowed after
      * attaching the app state.
@@ -417,9 +495,21 @@ public class BulletAppState
         debugConfig.setCamera(camera);
     }
 
+    /**
+     * Alter the maximum distance from the debug camera for objects to be
+     * included in the debug visualization.
+     *
+     * @param radius the desired distance (in world units, &ge;0) or +Infinity
+     * for no limit (default=+Infinity)
+     */
+    public void setDebugCullingRadius(float radius) {
+        Validate.nonNegative(radius, "radius");
+        debugConfig.setCullingRadius(radius);
+    }
+
     /**
      * Enable or disable debug visualization. Changes take effect on the next
-     * update.
+     * update. Ignored while the threading type is DECOUPLED.
      *
      * @param debugEnabled true &rarr; enable, false &rarr; disable
      * (default=false)
@@ -438,6 +528,16 @@ public class BulletAppState
         debugConfig.setFilter(filter);
     }
 
+    /**
+     * Alter whether objects outside the debug camera's view frustum are
+     * omitted from the debug visualization.
+     *
+     * @param setting true to omit them, false to include them (default=false)
+     */
+    public void setDebugFrustumCulling(boolean setting) {
+        debugConfig.setFrustumCulling(setting);
+    }
+
     /**
      * Alter which gravity vectors are included in the debug visualization.
      *
@@ -580,6 +680,19 @@ public class BulletAppState
         this.threadingType = threadingType;
     }
 
+    /**
+     * Alter whether RigidBodyControls will be synchronized by a
+     * TransformSyncManager, which visits only bodies that are awake. This
+     * benefits large scenes where most bodies are asleep. Not allowed after
+     * attaching the app state.
+     *
+     * @param setting true to enable, false to disable (default=false)
+     */
+    public void setTransformSyncEnabled(boolean setting) {
+        assert !isRunning;
+        this.enableTransformSync = setting;
+    }
+
     /**
      * Alter the conversion from physics-space coordinates to world coordinates.
      *
@@ -645,10 +758,34 @@ public class BulletAppState
                 pSpace.addTickListener(this);
                 break;
 
+            case DECOUPLED:
+                success = startPhysicsOnExecutor();
+                assert success;
+
+                pSpace = debugConfig.getSpace();
+                assert pSpace != null;
+                this.snapshotManager = new SnapshotSyncManager(pSpace);
+                pSpace.addSpaceListener(snapshotManager);
+                long periodNanos
+                        = Math.round(pSpace.getAccuracy() * 1_000_000_000.0);
+                this.fixedRateFuture = executor.scheduleAtFixedRate(
+                        fixedRateStep, 0L, periodNanos, TimeUnit.NANOSECONDS);
+                break;
+
             default:
                 throw new IllegalStateException(threadingType.toString());
         }
 
+        if (enableTransformSync && threadingType != ThreadingType.DECOUPLED) {
+            this.syncManager = new TransformSyncManager(pSpace);
+            boolean doEnded = false;
+            boolean doProcessed = true;
+            boolean doStarted = false;
+            pSpace.addContactListener(
+                    syncManager, doEnded, doProcessed, doStarted);
+            pSpace.addSpaceListener(syncManager);
+        }
+
         setRunning(true);
     }
 
@@ -660,12 +797,30 @@ public class BulletAppState
             return;
         }
 
+        if (fixedRateFuture != null) {
+            fixedRateFuture.cancel(false);
+            this.fixedRateFuture = null;
+        }
         if (executor != null) {
             executor.shutdown();
+            if (threadingType == ThreadingType.DECOUPLED) {
+                awaitExecutorTermination();
+            }
             this.executor = null;
         }
         PhysicsSpace pSpace = debugConfig.getSpace();
         pSpace.removeTickListener(this);
+        if (snapshotManager != null) {
+            pSpace.removeSpaceListener(snapshotManager);
+            snapshotManager.releaseAll();
+            this.snapshotManager = null;
+        }
+        if (syncManager != null) {
+            pSpace.removeContactListener(syncManager);
+            pSpace.removeSpaceListener(syncManager);
+            syncManager.releaseAll();
+            this.syncManager = null;
+        }
         setPhysicsSpace(null);
         setRunning(false);
     }
@@ -883,7 +1038,7 @@ public class BulletAppState
         if (!isRunning) {
             startPhysics();
         }
-        if (threadingType == ThreadingType.PARALLEL) {
+        if (threadingType != ThreadingType.SEQUENTIAL) {
             PhysicsSpace pSpace = debugConfig.getSpace();
             CollisionSpace.setLocalThreadPhysicsSpace(pSpace);
         }
@@ -901,7 +1056,12 @@ public class BulletAppState
         super.update(tpf);
         this.tpf = tpf;
 
-        boolean enable = debugConfig.isEnabled();
+        /*
+         * In DECOUPLED mode, debug visualization would read native state
+         * while the physics thread is stepping.
+         */
+        boolean enable = debugConfig.isEnabled()
+                && threadingType != ThreadingType.DECOUPLED;
         if (enable && debugAppState == null) {
             // Start debug visualization.
             this.debugAppState = createDebugAppState();
@@ -913,8 +1073,17 @@ public class BulletAppState
             this.debugAppState = null;
         }
 
-        PhysicsSpace pSpace = debugConfig.getSpace();
-        pSpace.distributeEvents();
+        if (syncManager != null) {
+            syncManager.update();
+        }
+
+        if (threadingType == ThreadingType.DECOUPLED) {
+            checkFixedRateTask();
+            snapshotManager.update();
+        } else {
+            PhysicsSpace pSpace = debugConfig.getSpace();
+            pSpace.distributeEvents();
+        }
     }
     // *************************************************************************
     // PhysicsTickListener methods
@@ -942,4 +1111,44 @@ public class BulletAppState
     public void prePhysicsTick(PhysicsSpace space, float timeStep) {
         // do nothing
     }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Wait for the executor to finish any simulation step in progress, so
+     * the space isn't torn down while it's being stepped. A warning is
+     * logged each second the wait continues. Interrupts are deferred until
+     * the wait ends.
+     */
+    private void awaitExecutorTermination() {
+        boolean interrupted = false;
+        boolean terminated = false;
+        while (!terminated) {
+            try {
+                terminated = executor.awaitTermination(1L, TimeUnit.SECONDS);
+                if (!terminated) {
+                    logger.warning("still waiting for the physics thread");
+                }
+            } catch (InterruptedException exception) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Re-throw any exception that stopped the fixed-rate physics task.
+     */
+    private void checkFixedRateTask() {
+        if (fixedRateFuture != null && fixedRateFuture.isDone()) {
+            try {
+                fixedRateFuture.get();
+            } catch (InterruptedException | ExecutionException exception) {
+                throw new RuntimeException(exception);
+            }
+        }
+    }
 }
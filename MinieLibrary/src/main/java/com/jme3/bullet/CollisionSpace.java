@@ -41,7 +41,11 @@ import com.jme3.bullet.collision.shapes.ConvexShape;
 import com.jme3.bullet.objects.PhysicsGhostObject;
 import com.jme3.math.Transform;
 import com.jme3.math.Vector3f;
+import com.jme3.util.SafeArrayList;
 import com.simsilica.mathd.Vec3d;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -102,6 +106,11 @@ public class CollisionSpace extends NativePhysicsObject {
      */
     final private Map<Integer, PhysicsCollisionGroupListener> cgListeners
             = new ConcurrentHashMap<>(20);
+    /**
+     * list of registered membership listeners
+     */
+    final private Collection<CollisionSpaceListener> spaceListeners
+            = new SafeArrayList<>(CollisionSpaceListener.class);
     /**
      * map ghost IDs to added objects
      */
@@ -223,6 +232,19 @@ public class CollisionSpace extends NativePhysicsObject {
         }
     }
 
+    /**
+     * Register the specified listener for changes to the membership of this
+     * space.
+     *
+     * @param listener the listener to register (not null, alias created)
+     */
+    public void addSpaceListener(CollisionSpaceListener listener) {
+        Validate.nonNull(listener, "listener");
+        assert !spaceListeners.contains(listener);
+
+        spaceListeners.add(listener);
+    }
+
     /**
      * Perform a contact test. This will not detect contacts with soft bodies.
      *
@@ -291,6 +313,16 @@ public class CollisionSpace extends NativePhysicsObject {
         return numSolvers;
     }
 
+    /**
+     * Count how many membership listeners are registered with this space.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countSpaceListeners() {
+        int count = spaceListeners.size();
+        return count;
+    }
+
     /**
      * Remove all collision objects and physics joints.
      */
@@ -394,6 +426,15 @@ public class CollisionSpace extends NativePhysicsObject {
         return result;
     }
 
+    /**
+     * Access the registered membership listeners.
+     *
+     * @return the pre-existing collection (not null)
+     */
+    Collection<CollisionSpaceListener> getSpaceListeners() {
+        return spaceListeners;
+    }
+
     /**
      * Test whether a nontrivial closest-points algorithm is registered for the
      * specified collision shapes.
@@ -564,6 +605,114 @@ public class CollisionSpace extends NativePhysicsObject {
         return results;
     }
 
+    /**
+     * Perform a batch of ray-collision tests (raycasts) and record the closest
+     * hit of each ray in caller-supplied buffers. Intended for large sweeps of
+     * sensor rays, where allocating a list per ray and sorting its results
+     * would dominate the cost.
+     * <p>
+     * All buffers are accessed using absolute indices, so their positions and
+     * limits are unaffected. For a ray that hits nothing, the hit fraction is
+     * 1, the normal is zero, the PCO ID is zero, and both indices are -1.
+     *
+     * @param endpoints the ray endpoints: 6 floats per ray (fromX, fromY,
+     * fromZ, toX, toY, toZ) in physics-space coordinates (not null,
+     * unaffected)
+     * @param numRays the number of rays to test (&ge;0)
+     * @param storeFractions storage for hit fractions: one float per ray (not
+     * null, modified)
+     * @param storeNormals storage for hit normals: 3 floats per ray in
+     * physics-space coordinates (modified) or null if not needed
+     * @param storePcoIds storage for the native IDs of the objects hit: one
+     * long per ray (modified) or null if not needed
+     * @param storeIndices storage for the part and triangle indices of the
+     * hits: 2 ints per ray (modified) or null if not needed
+     * @return the number of rays that hit something (&ge;0, &le;numRays)
+     */
+    public int rayTestClosest(FloatBuffer endpoints, int numRays,
+            FloatBuffer storeFractions, FloatBuffer storeNormals,
+            LongBuffer storePcoIds, IntBuffer storeIndices) {
+        Validate.nonNull(endpoints, "endpoints");
+        Validate.nonNegative(numRays, "number of rays");
+        Validate.nonNull(storeFractions, "fraction storage");
+        Validate.require(endpoints.limit() >= 6 * numRays,
+                "6 floats per ray in endpoints");
+        Validate.require(storeFractions.limit() >= numRays,
+                "1 float per ray in storeFractions");
+        if (storeNormals != null) {
+            Validate.require(storeNormals.limit() >= 3 * numRays,
+                    "3 floats per ray in storeNormals");
+        }
+        if (storePcoIds != null) {
+            Validate.require(storePcoIds.limit() >= numRays,
+                    "1 long per ray in storePcoIds");
+        }
+        if (storeIndices != null) {
+            Validate.require(storeIndices.limit() >= 2 * numRays,
+                    "2 ints per ray in storeIndices");
+        }
+
+        // Allocate a single list and pair of vectors for the entire batch.
+        List<PhysicsRayTestResult> hits = new ArrayList<>(10);
+        Vector3f from = new Vector3f();
+        Vector3f to = new Vector3f();
+        Vector3f normal = new Vector3f();
+        long spaceId = nativeId();
+        int numHits = 0;
+
+        for (int rayIndex = 0; rayIndex < numRays; ++rayIndex) {
+            int floatIndex = 6 * rayIndex;
+            from.x = endpoints.get(floatIndex);
+            from.y = endpoints.get(floatIndex + 1);
+            from.z = endpoints.get(floatIndex + 2);
+            to.x = endpoints.get(floatIndex + 3);
+            to.y = endpoints.get(floatIndex + 4);
+            to.z = endpoints.get(floatIndex + 5);
+
+            hits.clear();
+            rayTestNative(from, to, spaceId, hits, rayTestFlags);
+
+            // Find the closest hit without sorting.
+            PhysicsRayTestResult closest = null;
+            float minFraction = 1f;
+            for (PhysicsRayTestResult hit : hits) {
+                float fraction = hit.getHitFraction();
+                if (closest == null || fraction < minFraction) {
+                    closest = hit;
+                    minFraction = fraction;
+                }
+            }
+
+            storeFractions.put(rayIndex, minFraction);
+            if (closest == null) {
+                normal.zero();
+            } else {
+                ++numHits;
+                closest.getHitNormalLocal(normal);
+            }
+            if (storeNormals != null) {
+                int normalIndex = 3 * rayIndex;
+                storeNormals.put(normalIndex, normal.x);
+                storeNormals.put(normalIndex + 1, normal.y);
+                storeNormals.put(normalIndex + 2, normal.z);
+            }
+            if (storePcoIds != null) {
+                long pcoId = (closest == null)
+                        ? 0L : closest.getCollisionObject().nativeId();
+                storePcoIds.put(rayIndex, pcoId);
+            }
+            if (storeIndices != null) {
+                int partIndex = (closest == null) ? -1 : closest.partIndex();
+                int triangleIndex
+                        = (closest == null) ? -1 : closest.triangleIndex();
+                storeIndices.put(2 * rayIndex, partIndex);
+                storeIndices.put(2 * rayIndex + 1, triangleIndex);
+            }
+        }
+
+        return numHits;
+    }
+
     /**
      * Perform a ray-collision test (raycast) and sort the results by ascending
      * hitFraction.
@@ -675,6 +824,18 @@ public class CollisionSpace extends NativePhysicsObject {
         }
     }
 
+    /**
+     * De-register the specified membership listener.
+     *
+     * @param listener the listener to de-register (not null)
+     */
+    public void removeSpaceListener(CollisionSpaceListener listener) {
+        Validate.nonNull(listener, "listener");
+
+        boolean success = spaceListeners.remove(listener);
+        assert success;
+    }
+
     /**
      * Alter whether the bounding boxes of inactive collision objects should be
      * recomputed during each {@code update()} (native field:
@@ -811,6 +972,29 @@ public class CollisionSpace extends NativePhysicsObject {
         setNativeId(spaceId);
         physicsSpaceTL.set(this);
     }
+    /**
+     * Notify all registered membership listeners that the specified collision
+     * object was added to this space.
+     *
+     * @param pco the object that was added (not null)
+     */
+    protected void notifyAdded(PhysicsCollisionObject pco) {
+        for (CollisionSpaceListener listener : spaceListeners) {
+            listener.collisionObjectAdded(this, pco);
+        }
+    }
+
+    /**
+     * Notify all registered membership listeners that the specified collision
+     * object was removed from this space.
+     *
+     * @param pco the object that was removed (not null)
+     */
+    protected void notifyRemoved(PhysicsCollisionObject pco) {
+        for (CollisionSpaceListener listener : spaceListeners) {
+            listener.collisionObjectRemoved(this, pco);
+        }
+    }
     // *************************************************************************
     // Java private methods
 
@@ -837,6 +1021,7 @@ public class CollisionSpace extends NativePhysicsObject {
 
         long spaceId = nativeId();
         addCollisionObject(spaceId, ghostId);
+        notifyAdded(ghost);
     }
 
     /**
@@ -887,6 +1072,7 @@ public class CollisionSpace extends NativePhysicsObject {
 
         long spaceId = nativeId();
         removeCollisionObject(spaceId, ghostId);
+        notifyRemoved(ghost);
     }
     // *************************************************************************
     // native private methods
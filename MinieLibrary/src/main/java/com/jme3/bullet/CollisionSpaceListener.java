@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet;
+
+import com.jme3.bullet.collision.PhysicsCollisionObject;
+import com.jme3.bullet.joints.PhysicsJoint;
+
+/**
+ * Callback interface for changes to the membership of a CollisionSpace.
+ * Callbacks are invoked on whichever thread adds or removes the object.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public interface CollisionSpaceListener {
+    /**
+     * Invoked immediately after a collision object is added to the space.
+     *
+     * @param space the space that was modified (not null)
+     * @param pco the object that was added (not null)
+     */
+    void collisionObjectAdded(CollisionSpace space, PhysicsCollisionObject pco);
+
+    /**
+     * Invoked immediately after a collision object is removed from the space.
+     *
+     * @param space the space that was modified (not null)
+     * @param pco the object that was removed (not null)
+     */
+    void collisionObjectRemoved(
+            CollisionSpace space, PhysicsCollisionObject pco);
+
+    /**
+     * Invoked immediately after a joint is added to a PhysicsSpace.
+     *
+     * @param space the space that was modified (not null)
+     * @param joint the joint that was added (not null)
+     */
+    void jointAdded(PhysicsSpace space, PhysicsJoint joint);
+
+    /**
+     * Invoked immediately after a joint is removed from a PhysicsSpace.
+     *
+     * @param space the space that was modified (not null)
+     * @param joint the joint that was removed (not null)
+     */
+    void jointRemoved(PhysicsSpace space, PhysicsJoint joint);
+}
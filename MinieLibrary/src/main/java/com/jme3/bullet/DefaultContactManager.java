@@ -36,11 +36,16 @@ import com.jme3.bullet.collision.PersistentManifolds;
 import com.jme3.bullet.collision.PhysicsCollisionEvent;
 import com.jme3.bullet.collision.PhysicsCollisionListener;
 import com.jme3.bullet.collision.PhysicsCollisionObject;
+import com.jme3.bullet.joints.PhysicsJoint;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 import jme3utilities.Validate;
 
@@ -50,6 +55,24 @@ import jme3utilities.Validate;
  * @author Stephen Gold sgold@sonic.net
  */
 public class DefaultContactManager implements ContactManager {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * Listeners routed to a single collision object, along with the native ID
+     * under which they are currently indexed.
+     */
+    private static class Route {
+        /**
+         * native ID under which the route is indexed, or zero if not indexed
+         */
+        private long indexedId = 0L;
+        /**
+         * subscribed listeners (not null)
+         */
+        final private List<PhysicsCollisionListener> listeners
+                = new ArrayList<>(2);
+    }
     // *************************************************************************
     // constants and loggers
 
@@ -76,6 +99,11 @@ public class DefaultContactManager implements ContactManager {
     // *************************************************************************
     // fields
 
+    /**
+     * true to capture contact-point data at the end of each simulation step,
+     * false to read the native points during distribution
+     */
+    private boolean captureContactPoints = false;
     /**
      * true to request {@code onContactEnded()} callbacks for the space, false
      * to skip them
@@ -91,6 +119,19 @@ public class DefaultContactManager implements ContactManager {
      * to skip them
      */
     private boolean doStarted = false;
+    /**
+     * true to recycle collision events after they are distributed, false to
+     * allocate a new event for each contact point
+     */
+    private boolean recycleEvents = false;
+    /**
+     * true if {@code membershipListener} is registered with the space
+     */
+    private boolean isTrackingMembership = false;
+    /**
+     * bitwise OR of all collision groups that have routed listeners
+     */
+    private int routedGroups = 0x0;
     /**
      * registered listeners for delayed notification of ongoing contacts
      */
@@ -111,6 +152,16 @@ public class DefaultContactManager implements ContactManager {
      */
     final private Deque<PhysicsCollisionEvent> startedEvents
             = new ArrayDeque<>(99);
+    /**
+     * PCEs queued during the current simulation step and not yet captured
+     */
+    final private List<PhysicsCollisionEvent> uncapturedEvents
+            = new ArrayList<>(99);
+    /**
+     * distributed PCEs available for re-use
+     */
+    final private Deque<PooledCollisionEvent> eventPool
+            = new ArrayDeque<>(99);
     /**
      * list of registered listeners for immediate contact notifications
      * (parallel with {@code immediateListenerFlags})
@@ -121,10 +172,89 @@ public class DefaultContactManager implements ContactManager {
      * with {@code immediateListeners})
      */
     final private List<Integer> immediateListenerFlags = new ArrayList<>(4);
+    /**
+     * reusable list of recipients for a single routed event
+     */
+    final private List<PhysicsCollisionListener> recipients
+            = new ArrayList<>(4);
+    /**
+     * routed listeners for new contacts, keyed by collision group
+     */
+    final private Map<Integer, List<PhysicsCollisionListener>> groupRoutes
+            = new HashMap<>(4);
+    /**
+     * routes for new contacts, keyed by the native IDs of the subscribed
+     * collision objects (primitive keys, to avoid boxing during callbacks)
+     */
+    final private StripedLongMap<Route> routesById = new StripedLongMap<>();
+    /**
+     * routes for new contacts, keyed by subscribed collision object (identity
+     * comparison, so routes survive changes to native IDs)
+     */
+    final private Map<PhysicsCollisionObject, Route> routesByPco
+            = new IdentityHashMap<>(64);
     /**
      * PhysicsSpace whose notifications are being managed
      */
     final private PhysicsSpace space;
+    /**
+     * listener to capture queued events at the end of each simulation step,
+     * after the solver has computed the impulses
+     */
+    final private PhysicsTickListener captureListener
+            = new PhysicsTickListener() {
+        @Override
+        public void prePhysicsTick(PhysicsSpace physicsSpace, float timeStep) {
+            // do nothing
+        }
+
+        @Override
+        public void physicsTick(PhysicsSpace physicsSpace, float timeStep) {
+            synchronized (DefaultContactManager.this) {
+                captureQueuedEvents();
+            }
+        }
+    };
+    /**
+     * listener to re-index routes when subscribed objects are added to (or
+     * removed from) the space
+     */
+    final private CollisionSpaceListener membershipListener
+            = new CollisionSpaceListener() {
+        @Override
+        public void collisionObjectAdded(CollisionSpace collisionSpace,
+                PhysicsCollisionObject pco) {
+            synchronized (DefaultContactManager.this) {
+                Route route = routesByPco.get(pco);
+                if (route != null) {
+                    indexRoute(pco, route);
+                }
+            }
+        }
+
+        @Override
+        public void collisionObjectRemoved(CollisionSpace collisionSpace,
+                PhysicsCollisionObject pco) {
+            // The native ID might change before the object is re-added.
+            synchronized (DefaultContactManager.this) {
+                Route route = routesByPco.get(pco);
+                if (route != null) {
+                    unindexRoute(route);
+                }
+            }
+        }
+
+        @Override
+        public void jointAdded(PhysicsSpace physicsSpace, PhysicsJoint joint) {
+            // do nothing
+        }
+
+        @Override
+        public void jointRemoved(
+                PhysicsSpace physicsSpace, PhysicsJoint joint) {
+            // do nothing
+        }
+    };
     // *************************************************************************
     // constructors
 
@@ -139,6 +269,262 @@ public class DefaultContactManager implements ContactManager {
         this.space = space;
     }
     // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Subscribe the specified listener to new contacts that involve the
+     * specified collision object. Unlike listeners registered using
+     * {@link #addCollisionListener(PhysicsCollisionListener)}, a routed
+     * listener is notified only of events that match its subscriptions.
+     * <p>
+     * Routes are keyed by native ID and re-indexed whenever the object is
+     * re-added to the space, so they survive rebuilds of the object.
+     *
+     * @param listener the listener to subscribe (not null, alias created)
+     * @param pco the collision object of interest (not null, alias created)
+     */
+    public synchronized void addCollisionListener(
+            PhysicsCollisionListener listener, PhysicsCollisionObject pco) {
+        Validate.nonNull(listener, "listener");
+        Validate.nonNull(pco, "collision object");
+        assert listener != this;
+        assert listener != space;
+
+        trackMembership();
+
+        Route route = routesByPco.get(pco);
+        if (route == null) {
+            route = new Route();
+            routesByPco.put(pco, route);
+            indexRoute(pco, route);
+        }
+        assert !route.listeners.contains(listener);
+        route.listeners.add(listener);
+
+        this.doStarted = true;
+    }
+
+    /**
+     * Subscribe the specified listener to new contacts that involve any of the
+     * specified collision objects. Each event is delivered at most once, even
+     * if both involved objects are in the collection.
+     *
+     * @param listener the listener to subscribe (not null, alias created)
+     * @param pcos the collision objects of interest (not null, unaffected)
+     */
+    public synchronized void addCollisionListener(
+            PhysicsCollisionListener listener,
+            Collection<? extends PhysicsCollisionObject> pcos) {
+        Validate.nonNull(listener, "listener");
+        Validate.nonNull(pcos, "collision objects");
+
+        for (PhysicsCollisionObject pco : pcos) {
+            addCollisionListener(listener, pco);
+        }
+    }
+
+    /**
+     * Subscribe the specified listener to new contacts in which either
+     * involved object belongs to the specified collision group.
+     *
+     * @param listener the listener to subscribe (not null, alias created)
+     * @param collisionGroup the collision group of interest (exactly one bit
+     * set)
+     */
+    public synchronized void addGroupCollisionListener(
+            PhysicsCollisionListener listener, int collisionGroup) {
+        Validate.nonNull(listener, "listener");
+        Validate.require(Integer.bitCount(collisionGroup) == 1,
+                "exactly one bit set in the collision group");
+        assert listener != this;
+        assert listener != space;
+
+        List<PhysicsCollisionListener> list = groupRoutes.get(collisionGroup);
+        if (list == null) {
+            list = new ArrayList<>(2);
+            groupRoutes.put(collisionGroup, list);
+        }
+        assert !list.contains(listener);
+        list.add(listener);
+        this.routedGroups |= collisionGroup;
+
+        this.doStarted = true;
+    }
+
+    /**
+     * Count how many recycled collision events are available for re-use.
+     *
+     * @return the count (&ge;0)
+     */
+    public synchronized int countPooledEvents() {
+        int result = eventPool.size();
+        return result;
+    }
+
+    /**
+     * Count how many routed subscriptions exist, counting each
+     * (listener, object) pair and each (listener, group) pair once.
+     *
+     * @return the count (&ge;0)
+     */
+    public synchronized int countRoutes() {
+        int result = 0;
+        for (Route route : routesByPco.values()) {
+            result += route.listeners.size();
+        }
+        for (List<PhysicsCollisionListener> list : groupRoutes.values()) {
+            result += list.size();
+        }
+
+        return result;
+    }
+
+    /**
+     * Test whether contact-point data are captured when events are queued.
+     *
+     * @return true if captured, false if listeners read the native points
+     */
+    public boolean isCapturingContactPoints() {
+        return captureContactPoints;
+    }
+
+    /**
+     * Test whether collision events are recycled after they are distributed.
+     *
+     * @return true if recycled, false if a new event is allocated for each
+     * contact point
+     */
+    public boolean isRecyclingEvents() {
+        return recycleEvents;
+    }
+
+    /**
+     * Unsubscribe the specified listener from new contacts that involve the
+     * specified collision object.
+     *
+     * @param listener the listener to unsubscribe (not null)
+     * @param pco the collision object (not null, unaffected)
+     */
+    public synchronized void removeCollisionListener(
+            PhysicsCollisionListener listener, PhysicsCollisionObject pco) {
+        Validate.nonNull(listener, "listener");
+        Validate.nonNull(pco, "collision object");
+
+        Route route = routesByPco.get(pco);
+        assert route != null;
+        boolean success = route.listeners.remove(listener);
+        assert success;
+
+        if (route.listeners.isEmpty()) {
+            unindexRoute(route);
+            routesByPco.remove(pco);
+            if (routesByPco.isEmpty()) {
+                untrackMembership();
+            }
+        }
+        updateFlags();
+    }
+
+    /**
+     * Unsubscribe the specified listener from new contacts that involve the
+     * specified collision group.
+     *
+     * @param listener the listener to unsubscribe (not null)
+     * @param collisionGroup the collision group (exactly one bit set)
+     */
+    public synchronized void removeGroupCollisionListener(
+            PhysicsCollisionListener listener, int collisionGroup) {
+        Validate.nonNull(listener, "listener");
+        Validate.require(Integer.bitCount(collisionGroup) == 1,
+                "exactly one bit set in the collision group");
+
+        List<PhysicsCollisionListener> list = groupRoutes.get(collisionGroup);
+        assert list != null;
+        boolean success = list.remove(listener);
+        assert success;
+
+        if (list.isEmpty()) {
+            groupRoutes.remove(collisionGroup);
+            this.routedGroups &= ~collisionGroup;
+        }
+        updateFlags();
+    }
+
+    /**
+     * Unsubscribe the specified listener from all routed subscriptions,
+     * whether by object or by group. Broadcast registrations are unaffected.
+     *
+     * @param listener the listener to unsubscribe (not null)
+     */
+    public synchronized void removeRoutes(PhysicsCollisionListener listener) {
+        Validate.nonNull(listener, "listener");
+
+        Iterator<Route> routeIterator = routesByPco.values().iterator();
+        while (routeIterator.hasNext()) {
+            Route route = routeIterator.next();
+            if (route.listeners.remove(listener)
+                    && route.listeners.isEmpty()) {
+                unindexRoute(route);
+                routeIterator.remove();
+            }
+        }
+
+        Iterator<Map.Entry<Integer, List<PhysicsCollisionListener>>> it
+                = groupRoutes.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, List<PhysicsCollisionListener>> entry
+                    = it.next();
+            List<PhysicsCollisionListener> list = entry.getValue();
+            if (list.remove(listener) && list.isEmpty()) {
+                this.routedGroups &= ~entry.getKey();
+                it.remove();
+            }
+        }
+
+        updateFlags();
+    }
+
+    /**
+     * Alter whether contact-point data are captured for queued events.
+     * Capture reads each field of the btManifoldPoint once, at the end of the
+     * simulation step in which the event was queued, so the impulses reflect
+     * that step's solver results. Listeners invoked by
+     * {@code distributeEvents()} then read plain Java fields and never see a
+     * point that Bullet has since recycled.
+     *
+     * @param desiredSetting true to capture, false to let listeners read the
+     * native points (default=false)
+     * @see PhysicsCollisionEvent#capture()
+     */
+    public synchronized void setCaptureContactPoints(boolean desiredSetting) {
+        if (desiredSetting && !captureContactPoints) {
+            space.addTickListener(captureListener);
+        } else if (!desiredSetting && captureContactPoints) {
+            space.removeTickListener(captureListener);
+            uncapturedEvents.clear();
+        }
+        this.captureContactPoints = desiredSetting;
+    }
+
+    /**
+     * Alter whether collision events are recycled after they are distributed.
+     * Recycling eliminates per-contact allocation during steady-state
+     * simulation.
+     * <p>
+     * While recycling is enabled, collision listeners must not retain
+     * references to events after {@code collision()} returns, since each
+     * event will be re-used for a different contact point.
+     *
+     * @param desiredSetting true to recycle events, false to allocate a new
+     * event for each contact point (default=false)
+     */
+    public synchronized void setRecycleEvents(boolean desiredSetting) {
+        this.recycleEvents = desiredSetting;
+        if (!desiredSetting) {
+            eventPool.clear();
+        }
+    }
+    // *************************************************************************
     // ContactManager methods that aren't ContactListener methods
 
     /**
@@ -234,11 +620,15 @@ public class DefaultContactManager implements ContactManager {
      */
     @Override
     public synchronized void distributeEvents() {
+        captureQueuedEvents(); // in case a step ended without a tick callback
+
         while (!startedEvents.isEmpty()) {
             PhysicsCollisionEvent event = startedEvents.pop();
             for (PhysicsCollisionListener listener : startedListeners) {
                 listener.collision(event);
             }
+            deliverRouted(event);
+            releaseEvent(event);
         }
 
         while (!ongoingEvents.isEmpty()) {
@@ -246,6 +636,7 @@ public class DefaultContactManager implements ContactManager {
             for (PhysicsCollisionListener listener : ongoingListeners) {
                 listener.collision(event);
             }
+            releaseEvent(event);
         }
     }
 
@@ -357,8 +748,7 @@ public class DefaultContactManager implements ContactManager {
         }
 
         if (!ongoingListeners.isEmpty()) {
-            PhysicsCollisionEvent event
-                    = new PhysicsCollisionEvent(pcoA, pcoB, pointId);
+            PhysicsCollisionEvent event = obtainEvent(pcoA, pcoB, pointId);
 
             // Queue the event to be handled later by distributeEvents().
             ongoingEvents.add(event);
@@ -383,7 +773,8 @@ public class DefaultContactManager implements ContactManager {
             }
         }
 
-        if (startedListeners.isEmpty()) {
+        boolean hasRoutes = !routesByPco.isEmpty() || routedGroups != 0x0;
+        if (startedListeners.isEmpty() && !hasRoutes) {
             return;
         }
         int numPoints = PersistentManifolds.countPoints(manifoldId);
@@ -397,11 +788,13 @@ public class DefaultContactManager implements ContactManager {
         long bodyBId = PersistentManifolds.getBodyBId(manifoldId);
         PhysicsCollisionObject pcoB
                 = PhysicsCollisionObject.findInstance(bodyBId);
+        if (startedListeners.isEmpty() && !isRouted(pcoA, pcoB)) {
+            return; // no subscriber is interested in this manifold
+        }
 
         for (int i = 0; i < numPoints; ++i) {
             long pointId = PersistentManifolds.getPointId(manifoldId, i);
-            PhysicsCollisionEvent event
-                    = new PhysicsCollisionEvent(pcoA, pcoB, pointId);
+            PhysicsCollisionEvent event = obtainEvent(pcoA, pcoB, pointId);
 
             // Queue the event to be handled later by distributeEvents().
             startedEvents.add(event);
@@ -410,6 +803,187 @@ public class DefaultContactManager implements ContactManager {
     // *************************************************************************
     // new private methods
 
+    /**
+     * Add the specified listeners to the recipients list, skipping any that
+     * are already present.
+     *
+     * @param listeners the listeners to add (may be null, unaffected)
+     */
+    private void addRecipients(List<PhysicsCollisionListener> listeners) {
+        if (listeners != null) {
+            for (PhysicsCollisionListener listener : listeners) {
+                if (!recipients.contains(listener)) {
+                    recipients.add(listener);
+                }
+            }
+        }
+    }
+
+    /**
+     * Capture the contact-point data of every event queued since the previous
+     * capture.
+     */
+    private void captureQueuedEvents() {
+        for (PhysicsCollisionEvent event : uncapturedEvents) {
+            event.capture();
+        }
+        uncapturedEvents.clear();
+    }
+
+    /**
+     * Deliver the specified new-contact event to each routed listener whose
+     * subscriptions match it, at most once per listener.
+     *
+     * @param event the event to deliver (not null)
+     */
+    private void deliverRouted(PhysicsCollisionEvent event) {
+        if (routesByPco.isEmpty() && routedGroups == 0x0) {
+            return;
+        }
+
+        PhysicsCollisionObject pcoA = event.getObjectA();
+        PhysicsCollisionObject pcoB = event.getObjectB();
+        Route routeA = routesById.get(pcoA.nativeId());
+        if (routeA != null) {
+            addRecipients(routeA.listeners);
+        }
+        Route routeB = routesById.get(pcoB.nativeId());
+        if (routeB != null) {
+            addRecipients(routeB.listeners);
+        }
+
+        int groups = routedGroups
+                & (pcoA.getCollisionGroup() | pcoB.getCollisionGroup());
+        if (groups != 0x0) {
+            for (Map.Entry<Integer, List<PhysicsCollisionListener>> entry
+                    : groupRoutes.entrySet()) {
+                if ((entry.getKey() & groups) != 0x0) {
+                    addRecipients(entry.getValue());
+                }
+            }
+        }
+
+        for (PhysicsCollisionListener listener : recipients) {
+            listener.collision(event);
+        }
+        recipients.clear();
+    }
+
+    /**
+     * Index the specified route under the current native ID of its collision
+     * object, replacing any previous index entry.
+     *
+     * @param pco the subscribed collision object (not null)
+     * @param route the route to index (not null)
+     */
+    private void indexRoute(PhysicsCollisionObject pco, Route route) {
+        unindexRoute(route);
+        if (pco.hasAssignedNativeObject()) {
+            long pcoId = pco.nativeId();
+            routesById.put(pcoId, route);
+            route.indexedId = pcoId;
+        }
+    }
+
+    /**
+     * Test whether any routed listener is subscribed to either of the
+     * specified collision objects or to their collision groups.
+     *
+     * @param pcoA the first involved object (not null, unaffected)
+     * @param pcoB the 2nd involved object (not null, unaffected)
+     * @return true if routed, otherwise false
+     */
+    private boolean isRouted(
+            PhysicsCollisionObject pcoA, PhysicsCollisionObject pcoB) {
+        if (routesById.containsKey(pcoA.nativeId())
+                || routesById.containsKey(pcoB.nativeId())) {
+            return true;
+        }
+
+        int groups = pcoA.getCollisionGroup() | pcoB.getCollisionGroup();
+        boolean result = (groups & routedGroups) != 0x0;
+
+        return result;
+    }
+
+    /**
+     * Obtain an event for the specified point of contact, recycling a pooled
+     * event if possible.
+     *
+     * @param pcoA the first involved object (not null)
+     * @param pcoB the 2nd involved object (not null)
+     * @param pointId the native ID of the {@code btManifoldPoint} (not zero)
+     * @return a new or recycled event (not null)
+     */
+    private PhysicsCollisionEvent obtainEvent(PhysicsCollisionObject pcoA,
+            PhysicsCollisionObject pcoB, long pointId) {
+        PhysicsCollisionEvent result;
+        if (!recycleEvents) {
+            result = new PhysicsCollisionEvent(pcoA, pcoB, pointId);
+
+        } else if (eventPool.isEmpty()) {
+            result = new PooledCollisionEvent(pcoA, pcoB, pointId);
+
+        } else {
+            PooledCollisionEvent pooled = eventPool.pop();
+            pooled.recycle(pcoA, pcoB, pointId);
+            result = pooled;
+        }
+        if (captureContactPoints) {
+            // Capture after the solver has run, at the end of the step.
+            uncapturedEvents.add(result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Return the specified event to the pool, if it's recyclable.
+     *
+     * @param event the event that was just distributed (not null)
+     */
+    private void releaseEvent(PhysicsCollisionEvent event) {
+        if (recycleEvents && event instanceof PooledCollisionEvent) {
+            eventPool.push((PooledCollisionEvent) event);
+        }
+    }
+
+    /**
+     * Register the membership listener with the space, if it isn't already
+     * registered.
+     */
+    private void trackMembership() {
+        if (!isTrackingMembership) {
+            space.addSpaceListener(membershipListener);
+            this.isTrackingMembership = true;
+        }
+    }
+
+    /**
+     * Remove the specified route from the native-ID index, if it's indexed.
+     *
+     * @param route the route to un-index (not null)
+     */
+    private void unindexRoute(Route route) {
+        long pcoId = route.indexedId;
+        if (pcoId != 0L) {
+            if (routesById.get(pcoId) == route) {
+                routesById.remove(pcoId);
+            }
+            route.indexedId = 0L;
+        }
+    }
+
+    /**
+     * De-register the membership listener from the space, if it's registered.
+     */
+    private void untrackMembership() {
+        if (isTrackingMembership) {
+            space.removeSpaceListener(membershipListener);
+            this.isTrackingMembership = false;
+        }
+    }
+
     /**
      * Update the doEnded, doProcessed, and doStarted flags after a listener is
      * removed.
@@ -424,6 +998,7 @@ public class DefaultContactManager implements ContactManager {
         this.doProcessed = ((union & invokeProcessed) != 0x0)
                 || !ongoingListeners.isEmpty();
         this.doStarted = ((union & invokeStarted) != 0x0)
-                || !startedListeners.isEmpty();
+                || !startedListeners.isEmpty() || !routesByPco.isEmpty()
+                || !groupRoutes.isEmpty();
     }
 }
@@ -318,6 +318,7 @@ public class DeformableSpace extends MultiBodySpace {
         if (!softBody.isWorldInfoProtected()) { // replace the world info
             softBody.setWorldInfo(getWorldInfo());
         }
+        notifyAdded(softBody);
     }
 
     private void removeSoftBody(PhysicsSoftBody softBody) {
@@ -334,6 +335,7 @@ public class DeformableSpace extends MultiBodySpace {
         softBodyMap.remove(softBodyId);
         long spaceId = nativeId();
         removeSoftBody(spaceId, softBodyId);
+        notifyRemoved(softBody);
     }
     // *************************************************************************
     // native private methods
@@ -31,6 +31,8 @@
  */
 package com.jme3.bullet;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -41,7 +43,8 @@ import java.util.logging.Logger;
 /**
  * Cache the methods used (by the physics cleaner thread) to free each type of
  * NativePhysicsObject. This is measurably faster than traversing the class
- * hierarchy for every instance.
+ * hierarchy for every instance. The methods are cached as method handles, which
+ * can be invoked without boxing the native ID.
  */
 final class FreeingMethods {
     // *************************************************************************
@@ -56,9 +59,10 @@ final class FreeingMethods {
     // fields
 
     /**
-     * map classes to methods - initialized lazily
+     * map classes to method handles - initialized lazily
      */
-    final private static Map<Class<? extends NativePhysicsObject>, Method[]> map
+    final private static
+            Map<Class<? extends NativePhysicsObject>, MethodHandle[]> map
             = new ConcurrentHashMap<>(30);
     // *************************************************************************
     // constructors
@@ -73,12 +77,14 @@ final class FreeingMethods {
 
     /**
      * Enumerate the methods used to free an instance of the specified class.
+     * Each method handle has the type (long)void.
      *
      * @param clazz which class (not null)
      * @return an internal array (not null, do not modify!)
      */
-    static Method[] listMethods(Class<? extends NativePhysicsObject> clazz) {
-        Method[] result = map.get(clazz);
+    static MethodHandle[] listMethods(
+            Class<? extends NativePhysicsObject> clazz) {
+        MethodHandle[] result = map.get(clazz);
         if (result == null) {
             result = generate(clazz);
             map.put(clazz, result);
@@ -95,16 +101,19 @@ final class FreeingMethods {
      * @param clazz the class to be freed (not null)
      * @return a new array
      */
-    private static Method[] generate(
+    private static MethodHandle[] generate(
             Class<? extends NativePhysicsObject> clazz) {
-        Collection<Method> methods = new ArrayList<>(4);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Collection<MethodHandle> methods = new ArrayList<>(4);
         for (Class<?> c = clazz; c != Object.class; c = c.getSuperclass()) {
             try {
                 Method method
                         = c.getDeclaredMethod("freeNativeObject", long.class);
                 method.setAccessible(true);
-                methods.add(method);
-            } catch (IllegalArgumentException
+                MethodHandle handle = lookup.unreflect(method);
+                methods.add(handle);
+            } catch (IllegalAccessException
+                    | IllegalArgumentException
                     | NoClassDefFoundError
                     | SecurityException exception) {
                 System.out.println("c = " + c.getName());
@@ -115,7 +124,7 @@ final class FreeingMethods {
         }
 
         int numMethods = methods.size();
-        Method[] result = new Method[numMethods];
+        MethodHandle[] result = new MethodHandle[numMethods];
         methods.toArray(result);
 
         return result;
@@ -0,0 +1,423 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet;
+
+import com.jme3.bullet.collision.GhostOverlapListener;
+import com.jme3.bullet.collision.PhysicsCollisionObject;
+import com.jme3.bullet.objects.PhysicsGhostObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * Track the objects overlapping selected ghosts and report enter/exit deltas
+ * once per simulation step.
+ * <p>
+ * After each step, the tracker reads each tracked ghost's overlaps once,
+ * stores them as a set of native IDs sorted in ascending order, and compares
+ * that set with the set from the previous step. Listeners are invoked only
+ * for ghosts whose overlaps changed, so trigger logic costs O(changes)
+ * instead of O(overlaps &times; polls). Steady-state tracking doesn't
+ * allocate.
+ * <p>
+ * A ghost that isn't in the space is treated as overlapping nothing.
+ * <p>
+ * Listeners may track or untrack ghosts, and register or de-register
+ * listeners, from within {@code overlapsChanged()}. Such changes take effect
+ * after the current step: each step processes the ghosts and listeners that
+ * were present when it began, skipping any ghost untracked meanwhile.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class GhostOverlapTracker implements PhysicsTickListener {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * A set of overlapping objects, sorted by native ID.
+     */
+    private static class OverlapSet {
+        /**
+         * number of objects in the set (&ge;0)
+         */
+        private int size = 0;
+        /**
+         * native IDs of the objects, in ascending order (parallel with
+         * {@code pcos})
+         */
+        private long[] ids = new long[8];
+        /**
+         * the objects (parallel with {@code ids})
+         */
+        private PhysicsCollisionObject[] pcos = new PhysicsCollisionObject[8];
+
+        /**
+         * Add the specified object, keeping the set sorted. Insertion sort is
+         * efficient here because overlap lists are short.
+         *
+         * @param pco the object to add (not null, alias created)
+         */
+        void add(PhysicsCollisionObject pco) {
+            if (size == ids.length) {
+                int newCapacity = 2 * size;
+                long[] newIds = new long[newCapacity];
+                System.arraycopy(ids, 0, newIds, 0, size);
+                this.ids = newIds;
+                PhysicsCollisionObject[] newPcos
+                        = new PhysicsCollisionObject[newCapacity];
+                System.arraycopy(pcos, 0, newPcos, 0, size);
+                this.pcos = newPcos;
+            }
+
+            long id = pco.nativeId();
+            int index = size;
+            while (index > 0 && ids[index - 1] > id) {
+                ids[index] = ids[index - 1];
+                pcos[index] = pcos[index - 1];
+                --index;
+            }
+            ids[index] = id;
+            pcos[index] = pco;
+            ++size;
+        }
+
+        /**
+         * Remove all objects from the set.
+         */
+        void clear() {
+            for (int i = 0; i < size; ++i) {
+                pcos[i] = null;
+            }
+            this.size = 0;
+        }
+    }
+
+    /**
+     * Overlap state of a single tracked ghost.
+     */
+    private static class GhostState {
+        /**
+         * true while the ghost is tracked, false once it's been untracked
+         */
+        private boolean isTracked = true;
+        /**
+         * the tracked ghost (not null)
+         */
+        final private PhysicsGhostObject ghost;
+        /**
+         * overlaps found after the latest step
+         */
+        private OverlapSet current = new OverlapSet();
+        /**
+         * overlaps found after the previous step
+         */
+        private OverlapSet previous = new OverlapSet();
+
+        /**
+         * Instantiate the state for the specified ghost.
+         *
+         * @param ghost the ghost to track (not null, alias created)
+         */
+        GhostState(PhysicsGhostObject ghost) {
+            this.ghost = ghost;
+        }
+    }
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(GhostOverlapTracker.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * registered listeners
+     */
+    final private List<GhostOverlapListener> listeners = new ArrayList<>(4);
+    /**
+     * state of each tracked ghost, in order of tracking
+     */
+    final private List<GhostState> states = new ArrayList<>(16);
+    /**
+     * reusable list of objects that started overlapping a ghost
+     */
+    final private List<PhysicsCollisionObject> entered = new ArrayList<>(8);
+    /**
+     * reusable list of objects that stopped overlapping a ghost
+     */
+    final private List<PhysicsCollisionObject> exited = new ArrayList<>(8);
+    /**
+     * reusable snapshot of the listeners, taken at the start of each step
+     */
+    final private List<GhostOverlapListener> listenerSnapshot
+            = new ArrayList<>(4);
+    /**
+     * reusable snapshot of the ghost states, taken at the start of each step
+     */
+    final private List<GhostState> stateSnapshot = new ArrayList<>(16);
+    /**
+     * space that contains the tracked ghosts (not null)
+     */
+    final private PhysicsSpace space;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a tracker for the specified space.
+     *
+     * @param space the space to be stepped (not null, alias created)
+     */
+    public GhostOverlapTracker(PhysicsSpace space) {
+        Validate.nonNull(space, "space");
+        this.space = space;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Register the specified listener.
+     *
+     * @param listener the listener to register (not null, alias created)
+     */
+    public void addListener(GhostOverlapListener listener) {
+        Validate.nonNull(listener, "listener");
+        assert !listeners.contains(listener);
+
+        listeners.add(listener);
+    }
+
+    /**
+     * Count the tracked ghosts.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countTracked() {
+        int result = states.size();
+        return result;
+    }
+
+    /**
+     * Access the space that contains the tracked ghosts.
+     *
+     * @return the pre-existing instance (not null)
+     */
+    public PhysicsSpace getSpace() {
+        return space;
+    }
+
+    /**
+     * Test whether the specified ghost is tracked.
+     *
+     * @param ghost the ghost to test (not null, unaffected)
+     * @return true if tracked, otherwise false
+     */
+    public boolean isTracked(PhysicsGhostObject ghost) {
+        Validate.nonNull(ghost, "ghost");
+
+        int index = findState(ghost);
+        boolean result = (index >= 0);
+
+        return result;
+    }
+
+    /**
+     * De-register the specified listener.
+     *
+     * @param listener the listener to de-register (not null)
+     */
+    public void removeListener(GhostOverlapListener listener) {
+        Validate.nonNull(listener, "listener");
+
+        boolean success = listeners.remove(listener);
+        assert success;
+    }
+
+    /**
+     * Start tracking the specified ghost. Objects already overlapping it will
+     * be reported as entering after the next step. The tracker registers
+     * itself as a tick listener when its first ghost is tracked.
+     *
+     * @param ghost the ghost to track (not null, not tracked, alias created)
+     */
+    public void track(PhysicsGhostObject ghost) {
+        Validate.nonNull(ghost, "ghost");
+        Validate.require(!isTracked(ghost), "an untracked ghost");
+
+        if (states.isEmpty()) {
+            space.addTickListener(this);
+        }
+        GhostState state = new GhostState(ghost);
+        states.add(state);
+    }
+
+    /**
+     * Stop tracking the specified ghost, without reporting exits. The tracker
+     * de-registers itself as a tick listener when its last ghost is
+     * untracked.
+     *
+     * @param ghost the ghost to untrack (not null, tracked)
+     */
+    public void untrack(PhysicsGhostObject ghost) {
+        Validate.nonNull(ghost, "ghost");
+        int index = findState(ghost);
+        Validate.require(index >= 0, "a tracked ghost");
+
+        GhostState state = states.remove(index);
+        state.isTracked = false;
+        if (states.isEmpty()) {
+            space.removeTickListener(this);
+        }
+    }
+    // *************************************************************************
+    // PhysicsTickListener methods
+
+    /**
+     * Callback from Bullet, invoked just before the physics is stepped.
+     *
+     * @param space the space that's about to be stepped (not null)
+     * @param timeStep the time per simulation step (in seconds, &ge;0)
+     */
+    @Override
+    public void prePhysicsTick(PhysicsSpace space, float timeStep) {
+        // do nothing
+    }
+
+    /**
+     * Callback from Bullet, invoked just after the physics has been stepped.
+     * Compare each tracked ghost's overlaps with those from the previous step
+     * and report any changes.
+     *
+     * @param space the space that was just stepped (not null)
+     * @param timeStep the time per simulation step (in seconds, &ge;0)
+     */
+    @Override
+    public void physicsTick(PhysicsSpace space, float timeStep) {
+        assert space == this.space;
+        /*
+         * Iterate over snapshots, since listeners might track or untrack
+         * ghosts, or register or de-register listeners.
+         */
+        stateSnapshot.addAll(states);
+        listenerSnapshot.addAll(listeners);
+
+        int numGhosts = stateSnapshot.size();
+        for (int ghostIndex = 0; ghostIndex < numGhosts; ++ghostIndex) {
+            GhostState state = stateSnapshot.get(ghostIndex);
+            if (!state.isTracked) {
+                continue; // untracked by a listener during this step
+            }
+            OverlapSet current = state.previous; // reuse the older set
+            current.clear();
+
+            PhysicsGhostObject ghost = state.ghost;
+            if (ghost.getCollisionSpace() == space) {
+                List<PhysicsCollisionObject> overlaps
+                        = ghost.getOverlappingObjects();
+                int numOverlaps = overlaps.size();
+                for (int i = 0; i < numOverlaps; ++i) {
+                    current.add(overlaps.get(i));
+                }
+            }
+
+            OverlapSet previous = state.current;
+            state.previous = previous;
+            state.current = current;
+
+            compare(previous, current);
+            if (!entered.isEmpty() || !exited.isEmpty()) {
+                int numListeners = listenerSnapshot.size();
+                for (int i = 0; i < numListeners; ++i) {
+                    GhostOverlapListener listener = listenerSnapshot.get(i);
+                    listener.overlapsChanged(ghost, entered, exited);
+                }
+                entered.clear();
+                exited.clear();
+            }
+        }
+
+        stateSnapshot.clear();
+        listenerSnapshot.clear();
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Merge 2 sorted sets to find the objects that entered or exited.
+     *
+     * @param previous the overlaps after the previous step (not null,
+     * unaffected)
+     * @param current the overlaps after the latest step (not null, unaffected)
+     */
+    private void compare(OverlapSet previous, OverlapSet current) {
+        int p = 0;
+        int c = 0;
+        while (p < previous.size || c < current.size) {
+            if (c == current.size) {
+                exited.add(previous.pcos[p]);
+                ++p;
+            } else if (p == previous.size) {
+                entered.add(current.pcos[c]);
+                ++c;
+            } else if (previous.ids[p] < current.ids[c]) {
+                exited.add(previous.pcos[p]);
+                ++p;
+            } else if (previous.ids[p] > current.ids[c]) {
+                entered.add(current.pcos[c]);
+                ++c;
+            } else {
+                ++p;
+                ++c;
+            }
+        }
+    }
+
+    /**
+     * Find the state of the specified ghost.
+     *
+     * @param ghost the ghost to find (not null, unaffected)
+     * @return the index in {@code states}, or -1 if not tracked
+     */
+    private int findState(PhysicsGhostObject ghost) {
+        int numGhosts = states.size();
+        for (int index = 0; index < numGhosts; ++index) {
+            if (states.get(index).ghost == ghost) {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -122,6 +122,9 @@ public class MultiBodySpace extends PhysicsSpace {
 
         long spaceId = nativeId();
         addMultiBody(spaceId, multiBodyId);
+        for (MultiBodyCollider collider : multiBody.listColliders()) {
+            notifyAdded(collider);
+        }
     }
 
     /**
@@ -181,6 +184,9 @@ public class MultiBodySpace extends PhysicsSpace {
         multiBodyMap.remove(multiBodyId);
         long spaceId = nativeId();
         removeMultiBody(spaceId, multiBodyId);
+        for (MultiBodyCollider collider : multiBody.listColliders()) {
+            notifyRemoved(collider);
+        }
     }
     // *************************************************************************
     // PhysicsSpace methods
@@ -31,9 +31,12 @@
  */
 package com.jme3.bullet;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.ref.ReferenceQueue;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 import jme3utilities.Validate;
 
@@ -60,11 +63,28 @@ abstract public class NativePhysicsObject
      * none
      */
     private long id = 0L;
+    /**
+     * cumulative number of native objects freed
+     */
+    final private static AtomicLong numFreed = new AtomicLong();
+    /**
+     * order trackers so that those of the same class are adjacent
+     */
+    final private static Comparator<NpoTracker> classComparator
+            = new Comparator<NpoTracker>() {
+        @Override
+        public int compare(NpoTracker t1, NpoTracker t2) {
+            int h1 = System.identityHashCode(t1.referentClass());
+            int h2 = System.identityHashCode(t2.referentClass());
+            int result = Integer.compare(h1, h2);
+            return result;
+        }
+    };
     /**
      * map native IDs to their trackers
      */
-    final private static Map<Long, NpoTracker> map
-            = new ConcurrentHashMap<>(999);
+    final private static StripedLongMap<NpoTracker> map
+            = new StripedLongMap<>();
     /**
      * weak references to all instances whose assigned native objects are
      * tracked and known to be unused
@@ -85,6 +105,32 @@ abstract public class NativePhysicsObject
     // *************************************************************************
     // new methods exposed
 
+    /**
+     * Count how many native objects have been freed since the native library
+     * was loaded. Suitable for export to application metrics.
+     *
+     * @return the cumulative count (&ge;0)
+     */
+    final public static long countFreed() {
+        long result = numFreed.get();
+        return result;
+    }
+
+    /**
+     * Count how many native objects are known to be unused but haven't yet
+     * been freed. Suitable for export to application metrics.
+     * <p>
+     * Every object the garbage collector has reported is counted, regardless
+     * of the cleaner policy.
+     *
+     * @return the count (&ge;0)
+     * @see PhysicsCleaner#countBacklog()
+     */
+    final public static int countPending() {
+        int result = PhysicsCleaner.countBacklog();
+        return result;
+    }
+
     /**
      * Count how many native objects are being tracked. This method is intended
      * for debugging.
@@ -109,17 +155,14 @@ abstract public class NativePhysicsObject
     }
 
     /**
-     * Free any assigned native objects that are known to be unused.
+     * Free any assigned native objects that are known to be unused, in
+     * batches, while the cleaner policy is BACKGROUND_THREAD. Blocks until the
+     * current thread is interrupted.
+     *
+     * @see PhysicsCleaner#setPolicy(PhysicsCleaner.Policy)
      */
     final public static void freeUnusedObjects() {
-        while (true) {
-            try {
-                NpoTracker tracker = (NpoTracker) weakReferenceQueue.remove();
-                tracker.freeTrackedObject();
-            } catch (InterruptedException exception) {
-                break;
-            }
-        }
+        PhysicsCleaner.runBackgroundThread();
     }
 
     /**
@@ -157,6 +200,40 @@ abstract public class NativePhysicsObject
         NpoTracker tracker = map.remove(nativeId);
         assert tracker != null;
     }
+
+    /**
+     * Free the tracked native objects of the specified trackers, grouping them
+     * by class so that the freeing methods are looked up only once per class.
+     * <p>
+     * Processed trackers are removed from the batch, even if an exception is
+     * thrown, so that afterward the batch contains only unprocessed trackers.
+     * A tracker whose freeing method throws counts as processed, since its
+     * map entry is already gone.
+     *
+     * @param batch the trackers to process (not null, modified)
+     */
+    static void freeBatch(List<NpoTracker> batch) {
+        Collections.sort(batch, classComparator);
+
+        Class<? extends NativePhysicsObject> currentClass = null;
+        MethodHandle[] methods = null;
+        int numProcessed = 0;
+        try {
+            for (NpoTracker tracker : batch) {
+                Class<? extends NativePhysicsObject> clazz
+                        = tracker.referentClass();
+                if (clazz != currentClass) {
+                    methods = FreeingMethods.listMethods(clazz);
+                    currentClass = clazz;
+                }
+                ++numProcessed;
+                tracker.freeTrackedObject(methods);
+                numFreed.incrementAndGet();
+            }
+        } finally {
+            batch.subList(0, numProcessed).clear();
+        }
+    }
     // *************************************************************************
     // new protected methods
 
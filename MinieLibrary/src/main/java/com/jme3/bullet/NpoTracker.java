@@ -31,9 +31,8 @@
  */
 package com.jme3.bullet;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.ref.WeakReference;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.logging.Logger;
 
 /**
@@ -84,24 +83,43 @@ class NpoTracker extends WeakReference<NativePhysicsObject> {
      * freeNativeObject(id) on its class and superclasses thereof.
      */
     void freeTrackedObject() {
-        int invocationCount = 0;
+        MethodHandle[] methods = FreeingMethods.listMethods(referentClass);
+        freeTrackedObject(methods);
+    }
+
+    /**
+     * Free the tracked native object using the specified freeing methods,
+     * which must have been obtained from {@code FreeingMethods} for the
+     * referent's class. This avoids repeated lookups when freeing many objects
+     * of the same class.
+     *
+     * @param methods the freeing methods to invoke (not null, not empty,
+     * unaffected)
+     */
+    void freeTrackedObject(MethodHandle[] methods) {
+        assert methods.length > 0 : methods.length;
 
         // Remove this tracker from the map BEFORE freeing the native object.
         NativePhysicsObject.removeTracker(id);
-        Method[] methods = FreeingMethods.listMethods(referentClass);
-        // Avoid re-boxing in case more than one method is invoked.
-        Object[] boxedId = {id};
-        for (Method method : methods) {
+        for (MethodHandle method : methods) {
             try {
-                method.invoke(null, boxedId);
-                ++invocationCount;
-            } catch (IllegalAccessException | IllegalArgumentException
-                   | InvocationTargetException exception) {
-                throw new RuntimeException(exception);
+                method.invokeExact(id);
+            } catch (Error | RuntimeException exception) {
+                throw exception;
+            } catch (Throwable throwable) {
+                throw new RuntimeException(throwable);
             }
         }
+    }
 
-        assert invocationCount > 0 : invocationCount;
+    /**
+     * Return the type of the referent.
+     *
+     * @return the pre-existing Class (not null)
+     */
+    Class<? extends NativePhysicsObject> referentClass() {
+        assert referentClass != null;
+        return referentClass;
     }
     // *************************************************************************
     // Object methods
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet;
+
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * Utility class to control when and where unused native objects get freed.
+ * <p>
+ * By default, a daemon thread named "Physics Cleaner" frees them as soon as
+ * the garbage collector reports them unused. Applications that need bounded
+ * latency can instead free them at the end of each
+ * {@code PhysicsSpace.update()}, subject to a time budget, or only when
+ * {@link #drain(int)} is invoked.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+final public class PhysicsCleaner {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * Enumerate the policies for freeing unused native objects.
+     */
+    public enum Policy {
+        /**
+         * free them on the "Physics Cleaner" thread (the default)
+         */
+        BACKGROUND_THREAD,
+        /**
+         * free them on the physics thread, at the end of each
+         * {@code PhysicsSpace.update()}, subject to a time budget
+         */
+        PHYSICS_UPDATE,
+        /**
+         * free them only during explicit invocations of
+         * {@code drain()} or {@code drainFor()}
+         */
+        EXPLICIT
+    }
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * maximum number of unused native objects to free in a single batch
+     */
+    final private static int maxBatchSize = 256;
+    /**
+     * number of unused native objects to free between clock checks in
+     * {@code drainFor()}
+     */
+    final private static int timedBatchSize = 16;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(PhysicsCleaner.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * trackers removed from the reference queue but not yet freed (guarded
+     * by {@code lock})
+     */
+    final private static Deque<NpoTracker> backlog = new ArrayDeque<>();
+    /**
+     * reusable batch for passing trackers to {@code freeBatch()} (guarded by
+     * {@code lock})
+     */
+    final private static List<NpoTracker> batch
+            = new ArrayList<>(maxBatchSize);
+    /**
+     * per-update time budget for the PHYSICS_UPDATE policy (in nanoseconds,
+     * &ge;0)
+     */
+    private static volatile long updateBudget = 500_000L;
+    /**
+     * synchronize access to the backlog and serialize freeing
+     */
+    final private static Object lock = new Object();
+    /**
+     * notified whenever the policy changes
+     */
+    final private static Object policyMonitor = new Object();
+    /**
+     * current policy
+     */
+    private static volatile Policy policy = Policy.BACKGROUND_THREAD;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * A private constructor to inhibit instantiation of this class.
+     */
+    private PhysicsCleaner() {
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Count how many unused native objects are waiting to be freed. Suitable
+     * for export to application metrics.
+     *
+     * @return the count (&ge;0)
+     */
+    public static int countBacklog() {
+        int result;
+        synchronized (lock) {
+            collect();
+            result = backlog.size();
+        }
+
+        return result;
+    }
+
+    /**
+     * Free up to the specified number of unused native objects, regardless of
+     * policy. This method may be invoked from any thread.
+     *
+     * @param maxObjects the maximum number to free (&ge;0)
+     * @return the number freed (&ge;0, &le;maxObjects)
+     */
+    public static int drain(int maxObjects) {
+        Validate.nonNegative(maxObjects, "max objects");
+
+        int result = 0;
+        synchronized (lock) {
+            collect();
+            while (result < maxObjects && !backlog.isEmpty()) {
+                int batchSize = Math.min(maxObjects - result, maxBatchSize);
+                result += freeUpTo(batchSize);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Free unused native objects until none remain or until the specified
+     * time has elapsed, regardless of policy. The budget is checked between
+     * small batches, so it may be slightly exceeded. This method may be
+     * invoked from any thread.
+     *
+     * @param maxNanoseconds the time budget (in nanoseconds, &ge;0)
+     * @return the number freed (&ge;0)
+     */
+    public static int drainFor(long maxNanoseconds) {
+        Validate.nonNegative(maxNanoseconds, "max nanoseconds");
+
+        long deadline = System.nanoTime() + maxNanoseconds;
+        int result = 0;
+        synchronized (lock) {
+            collect();
+            while (!backlog.isEmpty() && System.nanoTime() - deadline < 0L) {
+                result += freeUpTo(timedBatchSize);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Return the current policy.
+     *
+     * @return the enum value (not null)
+     */
+    public static Policy getPolicy() {
+        assert policy != null;
+        return policy;
+    }
+
+    /**
+     * Alter the policy. When switching away from BACKGROUND_THREAD, the
+     * "Physics Cleaner" thread stops freeing objects but remains alive.
+     *
+     * @param newPolicy the desired policy (not null, default=BACKGROUND_THREAD)
+     */
+    public static void setPolicy(Policy newPolicy) {
+        Validate.nonNull(newPolicy, "new policy");
+
+        synchronized (policyMonitor) {
+            policy = newPolicy;
+            policyMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Alter the per-update time budget for the PHYSICS_UPDATE policy.
+     *
+     * @param nanoseconds the desired budget (in nanoseconds, &ge;0,
+     * default=500000)
+     */
+    public static void setUpdateBudget(long nanoseconds) {
+        Validate.nonNegative(nanoseconds, "nanoseconds");
+        updateBudget = nanoseconds;
+    }
+
+    /**
+     * Return the per-update time budget for the PHYSICS_UPDATE policy.
+     *
+     * @return the budget (in nanoseconds, &ge;0)
+     */
+    public static long updateBudget() {
+        assert updateBudget >= 0L : updateBudget;
+        return updateBudget;
+    }
+
+    /**
+     * Free unused native objects at the end of a physics update, if the
+     * policy is PHYSICS_UPDATE. Invoked by {@code PhysicsSpace.update()}.
+     */
+    static void afterPhysicsUpdate() {
+        if (policy == Policy.PHYSICS_UPDATE) {
+            drainFor(updateBudget);
+        }
+    }
+
+    /**
+     * Free unused native objects while the policy is BACKGROUND_THREAD.
+     * Blocks until the current thread is interrupted.
+     */
+    static void runBackgroundThread() {
+        while (true) {
+            NpoTracker tracker;
+            try {
+                awaitBackgroundPolicy();
+                tracker = (NpoTracker)
+                        NativePhysicsObject.weakReferenceQueue.remove();
+            } catch (InterruptedException exception) {
+                break;
+            }
+
+            synchronized (lock) {
+                backlog.addLast(tracker);
+                collect();
+                /*
+                 * The policy might've changed while blocked in remove().
+                 * If so, leave the backlog for whoever is now responsible.
+                 */
+                if (policy == Policy.BACKGROUND_THREAD) {
+                    while (!backlog.isEmpty()) {
+                        freeUpTo(maxBatchSize);
+                    }
+                }
+            }
+        }
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Block until the policy is BACKGROUND_THREAD.
+     *
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    private static void awaitBackgroundPolicy() throws InterruptedException {
+        synchronized (policyMonitor) {
+            while (policy != Policy.BACKGROUND_THREAD) {
+                policyMonitor.wait();
+            }
+        }
+    }
+
+    /**
+     * Move all trackers from the reference queue to the backlog, without
+     * blocking. The caller must hold {@code lock}.
+     */
+    private static void collect() {
+        assert Thread.holdsLock(lock);
+
+        ReferenceQueue<NativePhysicsObject> queue
+                = NativePhysicsObject.weakReferenceQueue;
+        while (true) {
+            NpoTracker tracker = (NpoTracker) queue.poll();
+            if (tracker == null) {
+                break;
+            }
+            backlog.addLast(tracker);
+        }
+    }
+
+    /**
+     * Free up to the specified number of trackers from the head of the
+     * backlog. The caller must hold {@code lock}. If an exception is thrown,
+     * any trackers not yet processed are returned to the head of the backlog.
+     *
+     * @param maxObjects the maximum number to free (&ge;1, &le;maxBatchSize)
+     * @return the number freed (&ge;0)
+     */
+    private static int freeUpTo(int maxObjects) {
+        assert Thread.holdsLock(lock);
+        assert maxObjects > 0 && maxObjects <= maxBatchSize : maxObjects;
+
+        int result = Math.min(maxObjects, backlog.size());
+        for (int i = 0; i < result; ++i) {
+            batch.add(backlog.pollFirst());
+        }
+        try {
+            NativePhysicsObject.freeBatch(batch);
+        } finally {
+            // Return unprocessed trackers to the backlog, preserving order.
+            for (int i = batch.size() - 1; i >= 0; --i) {
+                backlog.addFirst(batch.get(i));
+            }
+            batch.clear();
+        }
+
+        return result;
+    }
+}
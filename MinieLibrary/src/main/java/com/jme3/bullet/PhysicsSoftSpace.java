@@ -327,6 +327,7 @@ public class PhysicsSoftSpace extends PhysicsSpace {
         if (!softBody.isWorldInfoProtected()) { // replace the world info
             softBody.setWorldInfo(getWorldInfo());
         }
+        notifyAdded(softBody);
     }
 
     private void removeSoftBody(PhysicsSoftBody softBody) {
@@ -343,6 +344,7 @@ public class PhysicsSoftSpace extends PhysicsSpace {
         softBodyMap.remove(softBodyId);
         long spaceId = nativeId();
         removeSoftBody(spaceId, softBodyId);
+        notifyRemoved(softBody);
     }
     // *************************************************************************
     // native private methods
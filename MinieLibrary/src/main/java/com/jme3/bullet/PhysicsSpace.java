@@ -43,10 +43,12 @@ import com.jme3.bullet.objects.PhysicsCharacter;
 import com.jme3.bullet.objects.PhysicsRigidBody;
 import com.jme3.bullet.objects.PhysicsVehicle;
 import com.jme3.bullet.util.NativeLibrary;
+import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 import com.jme3.util.SafeArrayList;
+import java.nio.FloatBuffer;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -390,6 +392,9 @@ public class PhysicsSpace
             boolean disableCollisions = false; // ignore lists are already set!
             addConstraintC(spaceId, jointId, disableCollisions);
         }
+        for (CollisionSpaceListener listener : getSpaceListeners()) {
+            listener.jointAdded(this, joint);
+        }
     }
 
     /**
@@ -436,6 +441,92 @@ public class PhysicsSpace
         return result;
     }
 
+    /**
+     * Copy the location and orientation (and optionally the velocities) of
+     * each rigid body in this space to the specified buffer in a single pass,
+     * for bulk synchronization with a scene graph.
+     * <p>
+     * Each body occupies one slot of 7 floats: location (x, y, z) followed by
+     * orientation (x, y, z, w), all in physics-space coordinates. If
+     * {@code includeVelocities} is true, each slot occupies 13 floats: the
+     * same 7, followed by the linear velocity (x, y, z) and the angular
+     * velocity (x, y, z). Velocities are written as zero for static and
+     * kinematic bodies. The buffer's position is unaffected.
+     * <p>
+     * This saves the per-body Java overhead of synchronization, but not the
+     * native calls: each body still costs several JNI calls (one for the
+     * activation test, 2 for the transform, and 2 more if velocities are
+     * included).
+     *
+     * @param storeStates storage for the states (not null, limit&ge;the slot
+     * size times the number of rigid bodies, modified)
+     * @param activeOnly true to skip bodies that aren't active, false to
+     * include all rigid bodies
+     * @param includeVelocities true to include velocities, false to exclude
+     * them
+     * @param storeBodies storage for the index table: cleared, then element i
+     * is set to the body in slot i (not null, modified)
+     * @return the number of slots written (&ge;0)
+     */
+    public int copyRigidBodyStates(FloatBuffer storeStates,
+            boolean activeOnly, boolean includeVelocities,
+            List<PhysicsRigidBody> storeBodies) {
+        Validate.nonNull(storeStates, "state storage");
+        Validate.nonNull(storeBodies, "body storage");
+        int slotSize = includeVelocities ? 13 : 7;
+        Validate.require(storeStates.limit() >= slotSize * rigidMap.size(),
+                "enough storage for all rigid bodies");
+
+        storeBodies.clear();
+        Vector3f tmpVector = new Vector3f();
+        Quaternion tmpRotation = new Quaternion();
+        int floatIndex = 0;
+        for (PhysicsRigidBody body : rigidMap.values()) {
+            if (activeOnly && !body.isActive()) {
+                continue;
+            }
+            if (floatIndex + slotSize > storeStates.limit()) {
+                break; // bodies were added concurrently
+            }
+
+            body.getPhysicsLocation(tmpVector);
+            storeStates.put(floatIndex, tmpVector.x);
+            storeStates.put(floatIndex + 1, tmpVector.y);
+            storeStates.put(floatIndex + 2, tmpVector.z);
+
+            body.getPhysicsRotation(tmpRotation);
+            storeStates.put(floatIndex + 3, tmpRotation.getX());
+            storeStates.put(floatIndex + 4, tmpRotation.getY());
+            storeStates.put(floatIndex + 5, tmpRotation.getZ());
+            storeStates.put(floatIndex + 6, tmpRotation.getW());
+
+            if (includeVelocities) {
+                boolean isDynamic = body.isDynamic();
+                if (isDynamic) {
+                    body.getLinearVelocity(tmpVector);
+                } else {
+                    tmpVector.zero();
+                }
+                storeStates.put(floatIndex + 7, tmpVector.x);
+                storeStates.put(floatIndex + 8, tmpVector.y);
+                storeStates.put(floatIndex + 9, tmpVector.z);
+
+                if (isDynamic) {
+                    body.getAngularVelocity(tmpVector);
+                }
+                storeStates.put(floatIndex + 10, tmpVector.x);
+                storeStates.put(floatIndex + 11, tmpVector.y);
+                storeStates.put(floatIndex + 12, tmpVector.z);
+            }
+
+            storeBodies.add(body);
+            floatIndex += slotSize;
+        }
+
+        int result = storeBodies.size();
+        return result;
+    }
+
     /**
      * Count how many collision listeners are registered with this space.
      *
@@ -794,6 +885,9 @@ public class PhysicsSpace
             long spaceId = nativeId();
             removeConstraint(spaceId, jointId);
         }
+        for (CollisionSpaceListener listener : getSpaceListeners()) {
+            listener.jointRemoved(this, joint);
+        }
     }
 
     /**
@@ -980,6 +1074,7 @@ public class PhysicsSpace
         assert accuracy > 0f : accuracy;
         stepSimulation(spaceId, timeInterval, maxSteps, accuracy, doEnded,
                 doProcessed, doStarted);
+        PhysicsCleaner.afterPhysicsUpdate();
     }
 
     /**
@@ -1290,6 +1385,7 @@ public class PhysicsSpace
 
         long actionId = character.getControllerId();
         addAction(spaceId, actionId);
+        notifyAdded(character);
     }
 
     /**
@@ -1348,6 +1444,7 @@ public class PhysicsSpace
             vehicleMap.put(actionId, vehicle);
             addAction(spaceId, actionId);
         }
+        notifyAdded(rigidBody);
     }
 
     /**
@@ -1432,6 +1529,7 @@ public class PhysicsSpace
         removeAction(spaceId, actionId);
 
         removeCharacterObject(spaceId, characterId);
+        notifyRemoved(character);
     }
 
     /**
@@ -1468,6 +1566,7 @@ public class PhysicsSpace
         rigidMap.remove(rigidBodyId);
 
         removeRigidBody(spaceId, rigidBodyId);
+        notifyRemoved(rigidBody);
     }
     // *************************************************************************
     // native private methods
@@ -0,0 +1,959 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet;
+
+import com.jme3.bullet.joints.Constraint;
+import com.jme3.bullet.joints.PhysicsJoint;
+import com.jme3.bullet.objects.PhysicsCharacter;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * Save the dynamic state of a PhysicsSpace at each tick in a ring buffer,
+ * restore any saved tick, and encode the difference between 2 ticks, for
+ * instance to roll back and re-simulate in server-authoritative netcode.
+ * <p>
+ * Each tick records every non-static rigid body (location, orientation,
+ * velocities, deactivation time, and activation state), every character
+ * (location, velocities, and walk direction), and the enabled flag of every
+ * Constraint. States are kept in primitive arrays that are reused as the
+ * ring wraps, so steady-state capturing doesn't allocate.
+ * <p>
+ * Objects are identified by their index in a roster, assigned in order of
+ * registration. Objects are registered automatically when first captured,
+ * but a history that decodes deltas must register the same objects in the
+ * same order as the history that encoded them. Native IDs aren't used,
+ * because they change when a body is rebuilt. The roster holds strong
+ * references, so unregister objects that are discarded for good. Their
+ * indices are never reused.
+ * <p>
+ * Capture and restore while the space isn't being stepped.
+ * <p>
+ * Restoring a tick doesn't make re-simulation deterministic: restore() resets
+ * only the states listed above, not the persistent contact manifolds, the
+ * solver's warm-starting impulses, or the broadphase's cache of overlapping
+ * pairs. A re-simulated step therefore diverges from the original. For
+ * reproducible replay, after restoring, remove the affected bodies from the
+ * space and add them back (or do so for the entire contents of the space),
+ * which discards their cached contacts.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class PhysicsSpaceHistory {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * States of one kind of object at a single tick: a fixed number of
+     * floats plus one byte per slot.
+     */
+    private static class Section {
+        /**
+         * number of slots in use (&ge;0)
+         */
+        private int count = 0;
+        /**
+         * number of floats per slot (&ge;0, &le;15)
+         */
+        final private int slotSize;
+        /**
+         * byte in each slot
+         */
+        private byte[] bytes = new byte[8];
+        /**
+         * floats of all slots, slotSize per slot
+         */
+        private float[] floats;
+        /**
+         * roster index of the object in each slot
+         */
+        private int[] ids = new int[8];
+
+        /**
+         * Instantiate an empty section.
+         *
+         * @param slotSize the number of floats per slot (&ge;0, &le;15)
+         */
+        Section(int slotSize) {
+            this.slotSize = slotSize;
+            this.floats = new float[8 * slotSize];
+        }
+
+        /**
+         * Append a slot for the specified object.
+         *
+         * @param id the roster index of the object (&ge;0)
+         * @return the index of the new slot (&ge;0)
+         */
+        int append(int id) {
+            reserve(count + 1);
+            int result = count;
+            ids[result] = id;
+            ++count;
+
+            return result;
+        }
+
+        /**
+         * Copy the specified section, reusing storage where possible.
+         *
+         * @param source the section to copy (not null, same slot size,
+         * unaffected)
+         */
+        void copy(Section source) {
+            assert source.slotSize == slotSize;
+
+            int numSlots = source.count;
+            reserve(numSlots);
+            System.arraycopy(source.ids, 0, ids, 0, numSlots);
+            System.arraycopy(source.bytes, 0, bytes, 0, numSlots);
+            System.arraycopy(
+                    source.floats, 0, floats, 0, numSlots * slotSize);
+            this.count = numSlots;
+        }
+
+        /**
+         * Remove the indexed slot by moving the last slot into its place.
+         *
+         * @param slot the index of the slot to remove (&ge;0, &lt;count)
+         */
+        void removeSlot(int slot) {
+            int last = count - 1;
+            ids[slot] = ids[last];
+            bytes[slot] = bytes[last];
+            System.arraycopy(floats, last * slotSize,
+                    floats, slot * slotSize, slotSize);
+            this.count = last;
+        }
+
+        /**
+         * Ensure the section can hold at least the specified number of
+         * slots.
+         *
+         * @param numSlots the required number of slots (&ge;0)
+         */
+        void reserve(int numSlots) {
+            if (ids.length < numSlots) {
+                int newLength = numSlots + numSlots / 2;
+                this.ids = Arrays.copyOf(ids, newLength);
+                this.bytes = Arrays.copyOf(bytes, newLength);
+                this.floats = Arrays.copyOf(floats, newLength * slotSize);
+            }
+        }
+    }
+
+    /**
+     * Dynamic state of the space at a single tick.
+     */
+    private static class Frame {
+        /**
+         * tick number of the state
+         */
+        private long tick;
+        /**
+         * characters: 12 floats per slot, byte unused
+         */
+        final private Section characters = new Section(characterSlotSize);
+        /**
+         * constraints: no floats, enabled flag in the byte
+         */
+        final private Section joints = new Section(0);
+        /**
+         * rigid bodies: 14 floats per slot, activation state in the byte
+         */
+        final private Section rigidBodies = new Section(bodySlotSize);
+
+        /**
+         * Copy the specified frame, reusing storage where possible.
+         *
+         * @param source the frame to copy (not null, unaffected)
+         */
+        void copy(Frame source) {
+            rigidBodies.copy(source.rigidBodies);
+            characters.copy(source.characters);
+            joints.copy(source.joints);
+            this.tick = source.tick;
+        }
+    }
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * number of floats per rigid body: location (3), orientation (4), linear
+     * velocity (3), angular velocity (3), and deactivation time (1)
+     */
+    final private static int bodySlotSize = 14;
+    /**
+     * mask bit for the byte of a slot in a delta record
+     */
+    final private static int byteBit = 1 << 15;
+    /**
+     * number of floats per character: location (3), linear velocity (3),
+     * angular velocity (3), and walk direction (3)
+     */
+    final private static int characterSlotSize = 12;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(PhysicsSpaceHistory.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * index of the newest frame in the ring
+     */
+    private int newest = -1;
+    /**
+     * number of frames saved (&ge;0, &le;ring.length)
+     */
+    private int numSaved = 0;
+    /**
+     * frame being decoded, swapped into the ring once complete
+     */
+    private Frame decoded = new Frame();
+    /**
+     * scratch map from roster index to slot index, -1 when unused
+     */
+    private int[] slotOf = new int[0];
+    /**
+     * ring buffer of frames, allocated lazily
+     */
+    final private Frame[] ring;
+    /**
+     * objects in order of registration, null for unregistered ones
+     */
+    final private List<Object> roster = new ArrayList<>(256);
+    /**
+     * map objects to roster indices (identity-based)
+     */
+    final private Map<Object, Integer> rosterIndices
+            = new IdentityHashMap<>(256);
+    /**
+     * space whose state is saved (not null)
+     */
+    final private PhysicsSpace space;
+    /**
+     * reusable orientation
+     */
+    final private Quaternion tmpRotation = new Quaternion();
+    /**
+     * reusable vector
+     */
+    final private Vector3f tmpVector = new Vector3f();
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate an empty history for the specified space.
+     *
+     * @param space the space whose state is to be saved (not null, alias
+     * created)
+     * @param capacity the maximum number of ticks retained (&ge;1)
+     */
+    public PhysicsSpaceHistory(PhysicsSpace space, int capacity) {
+        Validate.nonNull(space, "space");
+        Validate.positive(capacity, "capacity");
+
+        this.space = space;
+        this.ring = new Frame[capacity];
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Save the current state of the space as the specified tick. Any saved
+     * ticks at or after the specified one are discarded first, so after a
+     * rollback, re-simulated ticks replace the mispredicted ones. If the ring
+     * is full, the oldest tick is discarded.
+     *
+     * @param tick the tick number (greater than any tick retained from
+     * before the rollback, if any)
+     */
+    public void capture(long tick) {
+        Frame frame = startFrame(tick);
+
+        Section section = frame.rigidBodies;
+        section.reserve(space.countRigidBodies());
+        for (PhysicsRigidBody body : space.getRigidBodyList()) {
+            if (!body.isStatic()) {
+                int slot = section.append(register(body));
+                captureBody(body, section, slot);
+            }
+        }
+
+        section = frame.characters;
+        for (PhysicsCharacter character : space.getCharacterList()) {
+            int slot = section.append(register(character));
+            captureCharacter(character, section, slot);
+        }
+
+        section = frame.joints;
+        for (PhysicsJoint joint : space.getJointList()) {
+            if (joint instanceof Constraint) {
+                int slot = section.append(register(joint));
+                section.bytes[slot] = (byte) (joint.isEnabled() ? 1 : 0);
+            }
+        }
+    }
+
+    /**
+     * Return the maximum number of ticks retained.
+     *
+     * @return the count (&ge;1)
+     */
+    public int capacity() {
+        int result = ring.length;
+        return result;
+    }
+
+    /**
+     * Count the saved ticks.
+     *
+     * @return the count (&ge;0, &le;capacity)
+     */
+    public int countSaved() {
+        assert numSaved >= 0 && numSaved <= ring.length : numSaved;
+        return numSaved;
+    }
+
+    /**
+     * Decode a delta written by {@link #encodeDelta(long, long,
+     * java.nio.ByteBuffer)} or {@link #encodeFull(long, java.nio.ByteBuffer)}
+     * and save the resulting state under its tick. The base tick (if any)
+     * must be saved in this history. The state isn't restored to the space.
+     *
+     * @param source the encoded delta (not null, position advanced past the
+     * delta)
+     * @return the tick number of the decoded state
+     * @throws java.nio.BufferUnderflowException if the delta is truncated, in
+     * which case this history is unchanged
+     */
+    public long decodeDelta(ByteBuffer source) {
+        Validate.nonNull(source, "source");
+
+        boolean isFull = source.get() != 0;
+        long baseTick = source.getLong();
+        long tick = source.getLong();
+        Frame base = null;
+        if (!isFull) {
+            base = findFrame(baseTick);
+            if (base == null) {
+                throw new IllegalArgumentException(
+                        "Base tick " + baseTick + " isn't saved.");
+            }
+        }
+
+        /*
+         * Decode outside the ring, since starting the new frame
+         * might discard the base.
+         */
+        Frame frame = decoded;
+        if (base == null) {
+            frame.rigidBodies.count = 0;
+            frame.characters.count = 0;
+            frame.joints.count = 0;
+        } else {
+            frame.copy(base);
+        }
+        decodeSection(source, frame.rigidBodies, PhysicsRigidBody.class);
+        decodeSection(source, frame.characters, PhysicsCharacter.class);
+        decodeSection(source, frame.joints, Constraint.class);
+
+        this.decoded = startFrame(tick);
+        ring[newest] = frame;
+        frame.tick = tick;
+
+        return tick;
+    }
+
+    /**
+     * Encode the difference between 2 saved ticks. Only changed values are
+     * written, so objects at rest cost nothing.
+     *
+     * @param baseTick the tick the receiver already has (saved)
+     * @param tick the tick to encode (saved)
+     * @param storeResult storage for the delta (not null, position advanced)
+     * @return the number of bytes written (&gt;0)
+     * @throws java.nio.BufferOverflowException if storeResult is too small
+     */
+    public int encodeDelta(long baseTick, long tick, ByteBuffer storeResult) {
+        Frame base = findFrame(baseTick);
+        if (base == null) {
+            throw new IllegalArgumentException(
+                    "Base tick " + baseTick + " isn't saved.");
+        }
+        int result = encode(base, tick, storeResult);
+
+        return result;
+    }
+
+    /**
+     * Encode a saved tick in full, for a receiver without a base tick.
+     *
+     * @param tick the tick to encode (saved)
+     * @param storeResult storage for the encoding (not null, position
+     * advanced)
+     * @return the number of bytes written (&gt;0)
+     * @throws java.nio.BufferOverflowException if storeResult is too small
+     */
+    public int encodeFull(long tick, ByteBuffer storeResult) {
+        int result = encode(null, tick, storeResult);
+        return result;
+    }
+
+    /**
+     * Access the space whose state is saved.
+     *
+     * @return the pre-existing instance (not null)
+     */
+    public PhysicsSpace getSpace() {
+        assert space != null;
+        return space;
+    }
+
+    /**
+     * Test whether the specified tick is saved.
+     *
+     * @param tick the tick number
+     * @return true if saved, otherwise false
+     */
+    public boolean isSaved(long tick) {
+        boolean result = findFrame(tick) != null;
+        return result;
+    }
+
+    /**
+     * Return the newest saved tick.
+     *
+     * @return the tick number
+     * @throws IllegalStateException if no ticks are saved
+     */
+    public long newestTick() {
+        if (numSaved == 0) {
+            throw new IllegalStateException("No ticks are saved.");
+        }
+        long result = ring[newest].tick;
+
+        return result;
+    }
+
+    /**
+     * Return the oldest saved tick.
+     *
+     * @return the tick number
+     * @throws IllegalStateException if no ticks are saved
+     */
+    public long oldestTick() {
+        if (numSaved == 0) {
+            throw new IllegalStateException("No ticks are saved.");
+        }
+        int oldest = (newest - numSaved + 1 + ring.length) % ring.length;
+        long result = ring[oldest].tick;
+
+        return result;
+    }
+
+    /**
+     * Assign a roster index to the specified object, if it doesn't have one
+     * already.
+     *
+     * @param object a rigid body, character, or Constraint (not null, alias
+     * created)
+     * @return the roster index (&ge;0)
+     */
+    public int register(Object object) {
+        Validate.nonNull(object, "object");
+
+        Integer index = rosterIndices.get(object);
+        if (index == null) {
+            Validate.require(object instanceof PhysicsRigidBody
+                    || object instanceof PhysicsCharacter
+                    || object instanceof Constraint,
+                    "a rigid body, character, or constraint");
+            index = roster.size();
+            roster.add(object);
+            rosterIndices.put(object, index);
+        }
+        int result = index;
+
+        return result;
+    }
+
+    /**
+     * Restore the space to the specified saved tick. Objects no longer in
+     * the space are skipped, and objects added since the tick are left as
+     * they are. Saved ticks are retained.
+     *
+     * @param tick the tick to restore
+     * @return true if restored, false if the tick isn't saved
+     */
+    public boolean restore(long tick) {
+        Frame frame = findFrame(tick);
+        if (frame == null) {
+            return false;
+        }
+
+        Section section = frame.rigidBodies;
+        for (int slot = 0; slot < section.count; ++slot) {
+            PhysicsRigidBody body
+                    = (PhysicsRigidBody) roster.get(section.ids[slot]);
+            if (body != null && space.contains(body)) {
+                restoreBody(body, section, slot);
+            }
+        }
+
+        section = frame.characters;
+        for (int slot = 0; slot < section.count; ++slot) {
+            PhysicsCharacter character
+                    = (PhysicsCharacter) roster.get(section.ids[slot]);
+            if (character != null && space.contains(character)) {
+                restoreCharacter(character, section, slot);
+            }
+        }
+
+        section = frame.joints;
+        for (int slot = 0; slot < section.count; ++slot) {
+            Constraint joint = (Constraint) roster.get(section.ids[slot]);
+            if (joint != null && space.contains(joint)) {
+                joint.setEnabled(section.bytes[slot] != 0);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Release the roster's reference to the specified object, so it can be
+     * garbage collected. Its roster index isn't reused, and saved ticks that
+     * include it skip it during restore. If it's captured again, it gets a
+     * new index, so the histories that decode deltas must unregister it too.
+     *
+     * @param object the object to unregister (not null, unaffected)
+     * @return true if it was registered, otherwise false
+     */
+    public boolean unregister(Object object) {
+        Validate.nonNull(object, "object");
+
+        Integer index = rosterIndices.remove(object);
+        if (index == null) {
+            return false;
+        }
+        roster.set(index, null);
+
+        return true;
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Copy the state of the specified rigid body into the indexed slot.
+     *
+     * @param body the body to capture (not null, unaffected)
+     * @param section the rigid-body section (not null, modified)
+     * @param slot the index of the slot (&ge;0)
+     */
+    private void captureBody(
+            PhysicsRigidBody body, Section section, int slot) {
+        float[] floats = section.floats;
+        int offset = slot * bodySlotSize;
+
+        body.getPhysicsLocation(tmpVector);
+        offset = putVector(tmpVector, floats, offset);
+        body.getPhysicsRotation(tmpRotation);
+        floats[offset] = tmpRotation.getX();
+        floats[offset + 1] = tmpRotation.getY();
+        floats[offset + 2] = tmpRotation.getZ();
+        floats[offset + 3] = tmpRotation.getW();
+        offset += 4;
+        if (body.isDynamic()) {
+            body.getLinearVelocity(tmpVector);
+            offset = putVector(tmpVector, floats, offset);
+            body.getAngularVelocity(tmpVector);
+            offset = putVector(tmpVector, floats, offset);
+        } else { // velocities of kinematic bodies aren't accessible
+            Arrays.fill(floats, offset, offset + 6, 0f);
+            offset += 6;
+        }
+        floats[offset] = body.getDeactivationTime();
+
+        section.bytes[slot] = (byte) body.getActivationState();
+    }
+
+    /**
+     * Copy the state of the specified character into the indexed slot.
+     *
+     * @param character the character to capture (not null, unaffected)
+     * @param section the character section (not null, modified)
+     * @param slot the index of the slot (&ge;0)
+     */
+    private void captureCharacter(
+            PhysicsCharacter character, Section section, int slot) {
+        float[] floats = section.floats;
+        int offset = slot * characterSlotSize;
+
+        character.getPhysicsLocation(tmpVector);
+        offset = putVector(tmpVector, floats, offset);
+        character.getLinearVelocity(tmpVector);
+        offset = putVector(tmpVector, floats, offset);
+        character.getAngularVelocity(tmpVector);
+        offset = putVector(tmpVector, floats, offset);
+        character.getWalkDirection(tmpVector);
+        putVector(tmpVector, floats, offset);
+    }
+
+    /**
+     * Apply the records of one section of a delta.
+     *
+     * @param source the encoded delta (not null, position advanced)
+     * @param section the section to modify, pre-filled from the base (not
+     * null)
+     * @param kind the expected type of the objects (not null)
+     */
+    private void decodeSection(
+            ByteBuffer source, Section section, Class<?> kind) {
+        mapSlots(section);
+        try {
+            int numRecords = source.getInt();
+            for (int recordI = 0; recordI < numRecords; ++recordI) {
+                int id = source.getInt();
+                boolean isRemoval = id < 0;
+                if (isRemoval) {
+                    id = ~id;
+                }
+                if (id >= roster.size() || !kind.isInstance(roster.get(id))) {
+                    throw new IllegalArgumentException(
+                            "Roster index " + id + " doesn't match.");
+                }
+
+                int slot = slotOf[id];
+                if (isRemoval) {
+                    if (slot >= 0) {
+                        section.removeSlot(slot);
+                        slotOf[id] = -1;
+                        if (slot < section.count) { // the last slot was moved
+                            slotOf[section.ids[slot]] = slot;
+                        }
+                    }
+                    continue;
+                }
+
+                int mask = source.getShort() & 0xffff;
+                if (slot < 0) {
+                    slot = section.append(id);
+                    slotOf[id] = slot;
+                }
+                int offset = slot * section.slotSize;
+                for (int k = 0; k < section.slotSize; ++k) {
+                    if ((mask & (1 << k)) != 0) {
+                        section.floats[offset + k] = source.getFloat();
+                    }
+                }
+                if ((mask & byteBit) != 0) {
+                    section.bytes[slot] = source.get();
+                }
+            }
+        } finally {
+            // Leave the scratch map clean, even if the delta is malformed.
+            unmapSlots(section);
+        }
+    }
+
+    /**
+     * Encode the specified tick relative to the specified base frame.
+     *
+     * @param base the base frame, or null for a full encoding
+     * @param tick the tick to encode (saved)
+     * @param storeResult storage for the delta (not null, position advanced)
+     * @return the number of bytes written (&gt;0)
+     */
+    private int encode(Frame base, long tick, ByteBuffer storeResult) {
+        Validate.nonNull(storeResult, "storage");
+        Frame frame = findFrame(tick);
+        if (frame == null) {
+            throw new IllegalArgumentException(
+                    "Tick " + tick + " isn't saved.");
+        }
+
+        int startPosition = storeResult.position();
+        storeResult.put((byte) (base == null ? 1 : 0));
+        storeResult.putLong(base == null ? tick : base.tick);
+        storeResult.putLong(tick);
+        encodeSection(base == null ? null : base.rigidBodies,
+                frame.rigidBodies, storeResult);
+        encodeSection(base == null ? null : base.characters,
+                frame.characters, storeResult);
+        encodeSection(base == null ? null : base.joints,
+                frame.joints, storeResult);
+        int result = storeResult.position() - startPosition;
+
+        return result;
+    }
+
+    /**
+     * Write the records of one section of a delta: one per object that was
+     * added or changed, with a mask of the values that follow, and one per
+     * object that was removed.
+     *
+     * @param base the section of the base frame, or null if none
+     * @param section the section to encode (not null, unaffected)
+     * @param store storage for the records (not null, position advanced)
+     */
+    private void encodeSection(
+            Section base, Section section, ByteBuffer store) {
+        if (base != null) {
+            mapSlots(base);
+        } else {
+            reserveSlotMap();
+        }
+
+        try {
+            int countPosition = store.position();
+            store.putInt(0);
+            int numRecords = 0;
+
+            int slotSize = section.slotSize;
+            for (int slot = 0; slot < section.count; ++slot) {
+                int id = section.ids[slot];
+                int baseSlot = slotOf[id];
+                int offset = slot * slotSize;
+                int mask = 0;
+                if (baseSlot < 0) {
+                    mask = byteBit | ((1 << slotSize) - 1);
+                } else {
+                    int baseOffset = baseSlot * slotSize;
+                    for (int k = 0; k < slotSize; ++k) {
+                        if (Float.floatToRawIntBits(base.floats[baseOffset + k])
+                                != Float.floatToRawIntBits(
+                                        section.floats[offset + k])) {
+                            mask |= 1 << k;
+                        }
+                    }
+                    if (base.bytes[baseSlot] != section.bytes[slot]) {
+                        mask |= byteBit;
+                    }
+                    slotOf[id] = -2; // still present
+                }
+                if (mask == 0) {
+                    continue;
+                }
+
+                store.putInt(id);
+                store.putShort((short) mask);
+                for (int k = 0; k < slotSize; ++k) {
+                    if ((mask & (1 << k)) != 0) {
+                        store.putFloat(section.floats[offset + k]);
+                    }
+                }
+                if ((mask & byteBit) != 0) {
+                    store.put(section.bytes[slot]);
+                }
+                ++numRecords;
+            }
+
+            if (base != null) {
+                for (int baseSlot = 0; baseSlot < base.count; ++baseSlot) {
+                    int id = base.ids[baseSlot];
+                    if (slotOf[id] >= 0) { // removed since the base tick
+                        store.putInt(~id);
+                        ++numRecords;
+                    }
+                }
+            }
+            store.putInt(countPosition, numRecords);
+        } finally {
+            // Leave the scratch map clean, even if the storage overflows.
+            if (base != null) {
+                unmapSlots(base);
+            }
+        }
+    }
+
+    /**
+     * Find the saved frame for the specified tick.
+     *
+     * @param tick the tick number
+     * @return the pre-existing frame, or null if not saved
+     */
+    private Frame findFrame(long tick) {
+        for (int i = 0; i < numSaved; ++i) {
+            Frame frame = ring[(newest - i + ring.length) % ring.length];
+            if (frame.tick == tick) {
+                return frame;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Fill the scratch map with the slot of each object in the specified
+     * section.
+     *
+     * @param section the section to map (not null, unaffected)
+     */
+    private void mapSlots(Section section) {
+        reserveSlotMap();
+        for (int slot = 0; slot < section.count; ++slot) {
+            slotOf[section.ids[slot]] = slot;
+        }
+    }
+
+    /**
+     * Copy a vector into an array of floats.
+     *
+     * @param vector the vector to copy (not null, unaffected)
+     * @param floats the destination array (not null, modified)
+     * @param offset the index of the first float to write (&ge;0)
+     * @return the index after the last float written
+     */
+    private static int putVector(Vector3f vector, float[] floats, int offset) {
+        floats[offset] = vector.x;
+        floats[offset + 1] = vector.y;
+        floats[offset + 2] = vector.z;
+
+        return offset + 3;
+    }
+
+    /**
+     * Grow the scratch map to cover the whole roster, marking new entries
+     * unused.
+     */
+    private void reserveSlotMap() {
+        int rosterSize = roster.size();
+        if (slotOf.length < rosterSize) {
+            int oldLength = slotOf.length;
+            this.slotOf = Arrays.copyOf(slotOf, rosterSize + rosterSize / 2);
+            Arrays.fill(slotOf, oldLength, slotOf.length, -1);
+        }
+    }
+
+    /**
+     * Apply the state in the indexed slot to the specified rigid body.
+     *
+     * @param body the body to modify (not null)
+     * @param section the rigid-body section (not null, unaffected)
+     * @param slot the index of the slot (&ge;0)
+     */
+    private void restoreBody(
+            PhysicsRigidBody body, Section section, int slot) {
+        float[] f = section.floats;
+        int offset = slot * bodySlotSize;
+
+        tmpVector.set(f[offset], f[offset + 1], f[offset + 2]);
+        body.setPhysicsLocation(tmpVector);
+        tmpRotation.set(f[offset + 3], f[offset + 4], f[offset + 5],
+                f[offset + 6]);
+        body.setPhysicsRotation(tmpRotation);
+        if (body.isDynamic()) {
+            tmpVector.set(f[offset + 7], f[offset + 8], f[offset + 9]);
+            body.setLinearVelocity(tmpVector);
+            tmpVector.set(f[offset + 10], f[offset + 11], f[offset + 12]);
+            body.setAngularVelocity(tmpVector);
+        }
+        body.setDeactivationTime(f[offset + 13]);
+        // Restore activation last, since setting velocities activates.
+        body.setActivationState(section.bytes[slot]);
+    }
+
+    /**
+     * Apply the state in the indexed slot to the specified character.
+     *
+     * @param character the character to modify (not null)
+     * @param section the character section (not null, unaffected)
+     * @param slot the index of the slot (&ge;0)
+     */
+    private void restoreCharacter(
+            PhysicsCharacter character, Section section, int slot) {
+        float[] f = section.floats;
+        int offset = slot * characterSlotSize;
+
+        tmpVector.set(f[offset], f[offset + 1], f[offset + 2]);
+        character.setPhysicsLocation(tmpVector);
+        tmpVector.set(f[offset + 3], f[offset + 4], f[offset + 5]);
+        character.setLinearVelocity(tmpVector);
+        tmpVector.set(f[offset + 6], f[offset + 7], f[offset + 8]);
+        character.setAngularVelocity(tmpVector);
+        tmpVector.set(f[offset + 9], f[offset + 10], f[offset + 11]);
+        character.setWalkDirection(tmpVector);
+    }
+
+    /**
+     * Begin a new frame for the specified tick, discarding any saved frames
+     * at or after it and, if the ring is full, the oldest frame.
+     *
+     * @param tick the tick number
+     * @return an empty frame in the ring (not null)
+     */
+    private Frame startFrame(long tick) {
+        while (numSaved > 0 && ring[newest].tick >= tick) {
+            this.newest = (newest - 1 + ring.length) % ring.length;
+            --numSaved;
+        }
+
+        this.newest = (newest + 1) % ring.length;
+        if (numSaved < ring.length) {
+            ++numSaved;
+        }
+        Frame result = ring[newest];
+        if (result == null) {
+            result = new Frame();
+            ring[newest] = result;
+        }
+        result.tick = tick;
+        result.rigidBodies.count = 0;
+        result.characters.count = 0;
+        result.joints.count = 0;
+
+        return result;
+    }
+
+    /**
+     * Reset the scratch-map entries of the objects in the specified section.
+     *
+     * @param section the section to unmap (not null, unaffected)
+     */
+    private void unmapSlots(Section section) {
+        for (int slot = 0; slot < section.count; ++slot) {
+            slotOf[section.ids[slot]] = -1;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet;
+
+import com.jme3.bullet.collision.PhysicsCollisionListener;
+import com.jme3.bullet.collision.PhysicsCollisionObject;
+import com.jme3.bullet.collision.PhysicsRayTestResult;
+import com.jme3.bullet.collision.PhysicsSweepTestResult;
+import com.jme3.bullet.collision.shapes.ConvexShape;
+import com.jme3.bullet.util.NativeLibrary;
+import com.jme3.math.Transform;
+import com.jme3.math.Vector3f;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * Defer ray, sweep, and contact tests against a CollisionSpace and execute
+ * them in batches on a ForkJoinPool while the space is quiescent.
+ * <p>
+ * Queries may be submitted from any thread, at any time. Each submission
+ * returns a Future that completes when the batch containing it is executed.
+ * Batches are executed by {@link #executePending()}, which must be invoked
+ * while the space is not being stepped. If the scheduler is registered as a
+ * tick listener of a PhysicsSpace, pending queries are executed automatically
+ * after each simulation step, before the next step begins.
+ * <p>
+ * Parallel execution requires a thread-safe native library. With any other
+ * native library, batches are executed sequentially on the invoking thread.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class QueryScheduler implements PhysicsTickListener {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(QueryScheduler.class.getName());
+    /**
+     * true once the warning about a non-thread-safe native library has been
+     * logged, so that it's logged only once per process
+     */
+    final private static AtomicBoolean isWarned = new AtomicBoolean();
+    // *************************************************************************
+    // fields
+
+    /**
+     * true to execute batches in parallel, false to execute them sequentially
+     */
+    final private boolean isParallel;
+    /**
+     * space to be queried (not null)
+     */
+    final private CollisionSpace space;
+    /**
+     * pool used to execute queries in parallel (not null)
+     */
+    final private ForkJoinPool pool;
+    /**
+     * queries submitted but not yet executed, in order of submission
+     */
+    final private Queue<FutureTask<?>> pending
+            = new ConcurrentLinkedQueue<>();
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a scheduler for the specified space, using the common
+     * ForkJoinPool.
+     *
+     * @param space the space to be queried (not null, alias created)
+     */
+    public QueryScheduler(CollisionSpace space) {
+        this(space, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Instantiate a scheduler for the specified space, using the specified
+     * pool.
+     *
+     * @param space the space to be queried (not null, alias created)
+     * @param pool the pool used to execute queries (not null, alias created)
+     */
+    public QueryScheduler(CollisionSpace space, ForkJoinPool pool) {
+        Validate.nonNull(space, "space");
+        Validate.nonNull(pool, "pool");
+
+        this.space = space;
+        this.pool = pool;
+        this.isParallel = NativeLibrary.isThreadSafe();
+        if (!isParallel && isWarned.compareAndSet(false, true)) {
+            logger.warning("The native library isn't thread-safe, "
+                    + "so queries will be executed sequentially.");
+        }
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Enqueue a contact test. This will not detect contacts with soft bodies.
+     * <p>
+     * When executed in parallel, the listener may be invoked from any thread
+     * in the pool, so it should be thread-safe.
+     *
+     * @param pco the collision object to test (not null, alias created)
+     * @param listener the callback for reporting contacts (may be null, alias
+     * created)
+     * @return a new Future for the number of times the listener was invoked,
+     * or would have been if it weren't null (not null)
+     */
+    public Future<Integer> contactTest(final PhysicsCollisionObject pco,
+            final PhysicsCollisionListener listener) {
+        Validate.nonNull(pco, "collision object");
+
+        Callable<Integer> query = new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                int result = space.contactTest(pco, listener);
+                return result;
+            }
+        };
+        Future<Integer> result = enqueue(query);
+
+        return result;
+    }
+
+    /**
+     * Count the queries that have been submitted but not yet executed.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countPending() {
+        int result = pending.size();
+        return result;
+    }
+
+    /**
+     * Execute all pending queries and wait for them to complete. Must be
+     * invoked while the space is not being stepped.
+     *
+     * @return the number of queries executed (&ge;0)
+     */
+    public int executePending() {
+        List<FutureTask<?>> batch = new ArrayList<>(pending.size());
+        while (true) {
+            FutureTask<?> task = pending.poll();
+            if (task == null) {
+                break;
+            }
+            batch.add(task);
+        }
+
+        int numQueries = batch.size();
+        if (isParallel && numQueries > 1) {
+            Collection<Callable<Object>> callables
+                    = new ArrayList<>(numQueries);
+            for (FutureTask<?> task : batch) {
+                callables.add(Executors.callable(task));
+            }
+            /*
+             * Exceptions thrown by queries are captured by their futures,
+             * so invokeAll() returns only after every query has completed.
+             */
+            pool.invokeAll(callables);
+
+        } else {
+            for (FutureTask<?> task : batch) {
+                task.run();
+            }
+        }
+
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "Executed {0} queries on {1}.",
+                    new Object[]{numQueries, space});
+        }
+        return numQueries;
+    }
+
+    /**
+     * Access the space being queried.
+     *
+     * @return the pre-existing instance (not null)
+     */
+    public CollisionSpace getSpace() {
+        return space;
+    }
+
+    /**
+     * Test whether batches are executed in parallel. Parallel execution
+     * requires a thread-safe ("Mt") build of the native library, as reported
+     * by {@link com.jme3.bullet.util.NativeLibrary#isThreadSafe()}. With any
+     * other build, every batch executes sequentially on the invoking thread,
+     * regardless of the pool.
+     *
+     * @return true if parallel, false if sequential
+     */
+    public boolean isParallel() {
+        return isParallel;
+    }
+
+    /**
+     * Enqueue a ray-collision test (raycast). The results will be sorted by
+     * ascending hitFraction.
+     *
+     * @param from the starting location (in physics-space coordinates, not
+     * null, unaffected)
+     * @param to the ending location (in physics-space coordinates, not null,
+     * unaffected)
+     * @return a new Future for a new list of sorted results (not null)
+     */
+    public Future<List<PhysicsRayTestResult>> rayTest(
+            Vector3f from, Vector3f to) {
+        Validate.finite(from, "from");
+        Validate.finite(to, "to");
+
+        final Vector3f fromCopy = from.clone();
+        final Vector3f toCopy = to.clone();
+        Callable<List<PhysicsRayTestResult>> query
+                = new Callable<List<PhysicsRayTestResult>>() {
+            @Override
+            public List<PhysicsRayTestResult> call() {
+                List<PhysicsRayTestResult> result
+                        = space.rayTest(fromCopy, toCopy);
+                return result;
+            }
+        };
+        Future<List<PhysicsRayTestResult>> result = enqueue(query);
+
+        return result;
+    }
+
+    /**
+     * Enqueue a sweep-collision test. The results will be in arbitrary order.
+     * <p>
+     * The starting and ending locations must be at least 0.4 physics-space
+     * units apart.
+     *
+     * @param shape the shape to sweep (not null, convex, alias created)
+     * @param start the starting physics-space transform (not null, unaffected)
+     * @param end the ending physics-space transform (not null, unaffected)
+     * @param allowedCcdPenetration (in physics-space units)
+     * @return a new Future for a new list of results (not null)
+     */
+    public Future<List<PhysicsSweepTestResult>> sweepTest(
+            final ConvexShape shape, Transform start, Transform end,
+            final float allowedCcdPenetration) {
+        Validate.nonNull(shape, "shape");
+        Validate.nonNull(start, "start");
+        Validate.nonNull(end, "end");
+
+        final Transform startCopy = start.clone();
+        final Transform endCopy = end.clone();
+        Callable<List<PhysicsSweepTestResult>> query
+                = new Callable<List<PhysicsSweepTestResult>>() {
+            @Override
+            public List<PhysicsSweepTestResult> call() {
+                List<PhysicsSweepTestResult> result = new ArrayList<>(4);
+                space.sweepTest(shape, startCopy, endCopy, result,
+                        allowedCcdPenetration);
+                return result;
+            }
+        };
+        Future<List<PhysicsSweepTestResult>> result = enqueue(query);
+
+        return result;
+    }
+    // *************************************************************************
+    // PhysicsTickListener methods
+
+    /**
+     * Callback from Bullet, invoked just before the physics is stepped.
+     *
+     * @param space the space that's about to be stepped (not null)
+     * @param timeStep the time per simulation step (in seconds, &ge;0)
+     */
+    @Override
+    public void prePhysicsTick(PhysicsSpace space, float timeStep) {
+        // do nothing
+    }
+
+    /**
+     * Callback from Bullet, invoked just after the physics has been stepped.
+     * Executes all pending queries.
+     *
+     * @param space the space that was just stepped (not null)
+     * @param timeStep the time per simulation step (in seconds, &ge;0)
+     */
+    @Override
+    public void physicsTick(PhysicsSpace space, float timeStep) {
+        assert space == this.space : space;
+        executePending();
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Wrap the specified query in a task and add it to the pending queue.
+     *
+     * @param <V> the query's result type
+     * @param query the query to enqueue (not null)
+     * @return a new task (not null)
+     */
+    private <V> Future<V> enqueue(Callable<V> query) {
+        FutureTask<V> task = new FutureTask<>(query);
+        pending.add(task);
+
+        return task;
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * A thread-safe map from non-zero primitive {@code long} keys to values,
+ * without boxing. Entries are divided among lock stripes, each an
+ * open-addressing hash table with linear probing.
+ *
+ * @param <V> the type of value stored in the map
+ * @author Stephen Gold sgold@sonic.net
+ */
+final class StripedLongMap<V> {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * initial capacity of each stripe (power of 2)
+     */
+    final private static int initialCapacity = 64;
+    /**
+     * number of lock stripes (power of 2)
+     */
+    final private static int numStripes = 16;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(StripedLongMap.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * number of entries in each stripe
+     */
+    final private int[] sizes = new int[numStripes];
+    /**
+     * keys of each stripe, with zero indicating an empty slot
+     */
+    final private long[][] keys = new long[numStripes][];
+    /**
+     * lock object for each stripe
+     */
+    final private Object[] locks = new Object[numStripes];
+    /**
+     * values of each stripe (parallel with keys)
+     */
+    final private Object[][] values = new Object[numStripes][];
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate an empty map.
+     */
+    StripedLongMap() {
+        for (int stripe = 0; stripe < numStripes; ++stripe) {
+            keys[stripe] = new long[initialCapacity];
+            values[stripe] = new Object[initialCapacity];
+            locks[stripe] = new Object();
+        }
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Test whether the specified key has a mapping.
+     *
+     * @param key the key to test (not zero)
+     * @return true if mapped, otherwise false
+     */
+    boolean containsKey(long key) {
+        boolean result = (get(key) != null);
+        return result;
+    }
+
+    /**
+     * Look up the value for the specified key.
+     *
+     * @param key the key to look up (not zero)
+     * @return the mapped value, or null if none
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        assert key != 0L;
+
+        int hash = hash(key);
+        int stripe = stripeIndex(hash);
+        synchronized (locks[stripe]) {
+            long[] stripeKeys = keys[stripe];
+            int mask = stripeKeys.length - 1;
+            int slot = hash & mask;
+            while (stripeKeys[slot] != key) {
+                if (stripeKeys[slot] == 0L) {
+                    return null;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            return (V) values[stripe][slot];
+        }
+    }
+
+    /**
+     * Add or replace the mapping for the specified key.
+     *
+     * @param key the key to map (not zero)
+     * @param value the value to map it to (not null, alias created)
+     * @return the previously mapped value, or null if none
+     */
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        Validate.nonZero(key, "key");
+        Validate.nonNull(value, "value");
+
+        int hash = hash(key);
+        int stripe = stripeIndex(hash);
+        synchronized (locks[stripe]) {
+            long[] stripeKeys = keys[stripe];
+            int mask = stripeKeys.length - 1;
+            int slot = hash & mask;
+            while (stripeKeys[slot] != 0L) {
+                if (stripeKeys[slot] == key) {
+                    V previous = (V) values[stripe][slot];
+                    values[stripe][slot] = value;
+                    return previous;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            stripeKeys[slot] = key;
+            values[stripe][slot] = value;
+            ++sizes[stripe];
+            if (2 * sizes[stripe] > stripeKeys.length) {
+                // Keep the load factor at or below 1/2.
+                rehash(stripe, 2 * stripeKeys.length);
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Remove the mapping for the specified key, if any.
+     *
+     * @param key the key to remove (not zero)
+     * @return the previously mapped value, or null if none
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        assert key != 0L;
+
+        int hash = hash(key);
+        int stripe = stripeIndex(hash);
+        synchronized (locks[stripe]) {
+            long[] stripeKeys = keys[stripe];
+            Object[] stripeValues = values[stripe];
+            int mask = stripeKeys.length - 1;
+            int slot = hash & mask;
+            while (stripeKeys[slot] != key) {
+                if (stripeKeys[slot] == 0L) {
+                    return null;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            V result = (V) stripeValues[slot];
+            --sizes[stripe];
+            /*
+             * Empty the slot, then shift subsequent entries of the probe
+             * sequence backward so that lookups never stop short.
+             */
+            int gap = slot;
+            for (int next = (gap + 1) & mask;
+                    stripeKeys[next] != 0L;
+                    next = (next + 1) & mask) {
+                int home = hash(stripeKeys[next]) & mask;
+                boolean canMove = (next > gap)
+                        ? (home <= gap || home > next)
+                        : (home <= gap && home > next);
+                if (canMove) {
+                    stripeKeys[gap] = stripeKeys[next];
+                    stripeValues[gap] = stripeValues[next];
+                    gap = next;
+                }
+            }
+            stripeKeys[gap] = 0L;
+            stripeValues[gap] = null;
+
+            return result;
+        }
+    }
+
+    /**
+     * Count the mappings.
+     *
+     * @return the count (&ge;0)
+     */
+    int size() {
+        int result = 0;
+        for (int stripe = 0; stripe < numStripes; ++stripe) {
+            synchronized (locks[stripe]) {
+                result += sizes[stripe];
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Enumerate the mapped values.
+     *
+     * @return a new list of pre-existing values (not null)
+     */
+    @SuppressWarnings("unchecked")
+    List<V> values() {
+        List<V> result = new ArrayList<>(size());
+        for (int stripe = 0; stripe < numStripes; ++stripe) {
+            synchronized (locks[stripe]) {
+                Object[] stripeValues = values[stripe];
+                for (Object value : stripeValues) {
+                    if (value != null) {
+                        result.add((V) value);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Hash the specified key. Native IDs are aligned addresses, so their low
+     * bits are mostly zero; multiplication spreads them over all 32 bits.
+     *
+     * @param key the key to hash
+     * @return a 32-bit hash
+     */
+    private static int hash(long key) {
+        long product = key * 0x9E3779B97F4A7C15L;
+        int result = (int) (product ^ (product >>> 32));
+
+        return result;
+    }
+
+    /**
+     * Resize the specified stripe. Invoked while holding its lock.
+     *
+     * @param stripe the index of the stripe to resize
+     * @param newCapacity the desired capacity (power of 2)
+     */
+    private void rehash(int stripe, int newCapacity) {
+        long[] oldKeys = keys[stripe];
+        Object[] oldValues = values[stripe];
+        long[] newKeys = new long[newCapacity];
+        Object[] newValues = new Object[newCapacity];
+        int mask = newCapacity - 1;
+
+        for (int oldSlot = 0; oldSlot < oldKeys.length; ++oldSlot) {
+            long key = oldKeys[oldSlot];
+            if (key != 0L) {
+                int slot = hash(key) & mask;
+                while (newKeys[slot] != 0L) {
+                    slot = (slot + 1) & mask;
+                }
+                newKeys[slot] = key;
+                newValues[slot] = oldValues[oldSlot];
+            }
+        }
+
+        keys[stripe] = newKeys;
+        values[stripe] = newValues;
+    }
+
+    /**
+     * Select a stripe for the specified hash. The highest bits are used, since
+     * the lowest bits select slots within the stripe.
+     *
+     * @param hash the hash of a key
+     * @return the index of the stripe (&ge;0, &lt;numStripes)
+     */
+    private static int stripeIndex(int hash) {
+        int result = (hash >>> 28) & (numStripes - 1);
+        return result;
+    }
+}
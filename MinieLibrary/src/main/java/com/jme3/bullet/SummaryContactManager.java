@@ -0,0 +1,465 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet;
+
+import com.jme3.bullet.collision.ContactSummary;
+import com.jme3.bullet.collision.ContactSummaryListener;
+import com.jme3.bullet.collision.ManifoldPoints;
+import com.jme3.bullet.collision.PersistentManifolds;
+import com.jme3.bullet.collision.PhysicsCollisionObject;
+import com.jme3.math.Vector3f;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * A ContactManager that, in addition to the services of DefaultContactManager,
+ * folds contact points into a single ContactSummary per pair of collision
+ * objects, distributed once per interval to registered summary listeners.
+ * <p>
+ * Each pair is summarized once, regardless of which object Bullet reports as
+ * A: in every summary, object A is the one with the lower native ID, and
+ * normals are expressed accordingly.
+ * <p>
+ * Contact callbacks occur before the constraint solver runs, so the callbacks
+ * merely note which points were reported. Impulses and normals are read at
+ * the end of each simulation step, after the solver has computed them.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class SummaryContactManager extends DefaultContactManager {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * Track contact between a single pair of collision objects.
+     */
+    private static class PairRecord {
+        /**
+         * true if the record is in the dirty list
+         */
+        private boolean isDirty = false;
+        /**
+         * number of manifolds that currently link the pair (&ge;0)
+         */
+        private int numManifolds = 0;
+        /**
+         * summary for the current interval (not null)
+         */
+        final private ContactSummary summary;
+
+        /**
+         * Instantiate a record for the specified pair of objects.
+         *
+         * @param pcoA the first involved object (not null, alias created)
+         * @param pcoB the 2nd involved object (not null, alias created)
+         */
+        PairRecord(PhysicsCollisionObject pcoA, PhysicsCollisionObject pcoB) {
+            this.summary = new ContactSummary(pcoA, pcoB);
+        }
+    }
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger2
+            = Logger.getLogger(SummaryContactManager.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * registered listeners for contact summaries
+     */
+    final private Collection<ContactSummaryListener> summaryListeners
+            = new ArrayList<>(4);
+    /**
+     * true for each pending point whose pair was swapped (parallel with
+     * {@code pendingIds})
+     */
+    private boolean[] pendingReversed = new boolean[64];
+    /**
+     * number of points reported during the current simulation step (&ge;0)
+     */
+    private int numPending = 0;
+    /**
+     * records that have changed since the previous distributeEvents()
+     */
+    final private List<PairRecord> dirtyRecords = new ArrayList<>(99);
+    /**
+     * native IDs of the points reported during the current simulation step
+     */
+    private long[] pendingIds = new long[64];
+    /**
+     * map each object with the lower native ID to the records of pairs it
+     * heads (identity comparison, since native IDs change when objects are
+     * rebuilt)
+     */
+    final private Map<PhysicsCollisionObject, List<PairRecord>> recordMap
+            = new IdentityHashMap<>(99);
+    /**
+     * record of each pending point (parallel with {@code pendingIds})
+     */
+    private PairRecord[] pendingRecords = new PairRecord[64];
+    /**
+     * PhysicsSpace whose notifications are being managed
+     */
+    final private PhysicsSpace space;
+    /**
+     * listener to fold pending points into their records at the end of each
+     * simulation step, after the solver has computed the impulses
+     */
+    final private PhysicsTickListener foldListener
+            = new PhysicsTickListener() {
+        @Override
+        public void prePhysicsTick(PhysicsSpace physicsSpace, float timeStep) {
+            // do nothing
+        }
+
+        @Override
+        public void physicsTick(PhysicsSpace physicsSpace, float timeStep) {
+            synchronized (SummaryContactManager.this) {
+                foldPendingPoints();
+            }
+        }
+    };
+    /**
+     * temporary storage for a contact normal
+     */
+    final private Vector3f tmpNormal = new Vector3f();
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a manager for the specified PhysicsSpace.
+     *
+     * @param space the PhysicsSpace whose notifications will be managed (not
+     * null, alias created)
+     */
+    public SummaryContactManager(PhysicsSpace space) {
+        super(space);
+        this.space = space;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Register the specified listener for contact summaries.
+     * <p>
+     * During distributeEvents(), registered listeners are notified once for
+     * each pair of objects whose contact started, continued, or ended since the
+     * previous distributeEvents().
+     *
+     * @param listener the listener to register (not null, alias created)
+     */
+    public synchronized void addSummaryListener(
+            ContactSummaryListener listener) {
+        Validate.nonNull(listener, "listener");
+        assert !summaryListeners.contains(listener);
+
+        if (summaryListeners.isEmpty()) {
+            space.addTickListener(foldListener);
+        }
+        summaryListeners.add(listener);
+    }
+
+    /**
+     * Count how many summary listeners are registered.
+     *
+     * @return the count (&ge;0)
+     */
+    public synchronized int countSummaryListeners() {
+        int result = summaryListeners.size();
+        return result;
+    }
+
+    /**
+     * De-register the specified listener for contact summaries.
+     *
+     * @param listener the listener to de-register (not null)
+     */
+    public synchronized void removeSummaryListener(
+            ContactSummaryListener listener) {
+        Validate.nonNull(listener, "listener");
+
+        boolean success = summaryListeners.remove(listener);
+        assert success;
+
+        if (summaryListeners.isEmpty()) {
+            space.removeTickListener(foldListener);
+            recordMap.clear();
+            dirtyRecords.clear();
+            Arrays.fill(pendingRecords, 0, numPending, null);
+            this.numPending = 0;
+        }
+    }
+    // *************************************************************************
+    // DefaultContactManager methods
+
+    /**
+     * Distribute queued collision events and contact summaries to registered
+     * listeners.
+     */
+    @Override
+    public synchronized void distributeEvents() {
+        super.distributeEvents();
+
+        for (PairRecord record : dirtyRecords) {
+            ContactSummary summary = record.summary;
+            for (ContactSummaryListener listener : summaryListeners) {
+                listener.onContactSummary(summary);
+            }
+            summary.clear();
+            record.isDirty = false;
+
+            if (record.numManifolds == 0) {
+                PhysicsCollisionObject pcoA = summary.getObjectA();
+                List<PairRecord> list = recordMap.get(pcoA);
+                list.remove(record);
+                if (list.isEmpty()) {
+                    recordMap.remove(pcoA);
+                }
+            }
+        }
+        dirtyRecords.clear();
+    }
+
+    /**
+     * Invoked immediately after a contact manifold is destroyed.
+     *
+     * @param manifoldId the native ID of the {@code btPersistentManifold} (not
+     * zero)
+     */
+    @Override
+    public void onContactEnded(long manifoldId) {
+        super.onContactEnded(manifoldId);
+        if (summaryListeners.isEmpty()) {
+            return;
+        }
+
+        PairRecord record = findRecord(manifoldId);
+        if (record.numManifolds > 0) {
+            --record.numManifolds;
+        }
+        if (record.numManifolds == 0) {
+            record.summary.setEnded();
+        }
+        markDirty(record);
+    }
+
+    /**
+     * Invoked immediately after a contact point is refreshed without being
+     * destroyed. Skipped for Sphere-Sphere contacts.
+     *
+     * @param pcoA the first involved object (not null)
+     * @param pcoB the 2nd involved object (not null)
+     * @param pointId the native ID of the {@code btManifoldPoint} (not zero)
+     */
+    @Override
+    public void onContactProcessed(PhysicsCollisionObject pcoA,
+            PhysicsCollisionObject pcoB, long pointId) {
+        super.onContactProcessed(pcoA, pcoB, pointId);
+        if (summaryListeners.isEmpty()) {
+            return;
+        }
+
+        PairRecord record = findRecord(pcoA, pcoB);
+        notePoint(record, pcoA, pointId);
+        markDirty(record);
+    }
+
+    /**
+     * Invoked immediately after a contact manifold is created.
+     *
+     * @param manifoldId the native ID of the {@code btPersistentManifold} (not
+     * zero)
+     */
+    @Override
+    public void onContactStarted(long manifoldId) {
+        super.onContactStarted(manifoldId);
+        if (summaryListeners.isEmpty()) {
+            return;
+        }
+
+        long bodyAId = PersistentManifolds.getBodyAId(manifoldId);
+        PhysicsCollisionObject pcoA
+                = PhysicsCollisionObject.findInstance(bodyAId);
+        PairRecord record = findRecord(manifoldId);
+        if (record.numManifolds == 0) {
+            record.summary.setStarted();
+        }
+        ++record.numManifolds;
+
+        int numPoints = PersistentManifolds.countPoints(manifoldId);
+        for (int i = 0; i < numPoints; ++i) {
+            long pointId = PersistentManifolds.getPointId(manifoldId, i);
+            notePoint(record, pcoA, pointId);
+        }
+        markDirty(record);
+    }
+
+    /**
+     * Update the associated PhysicsSpace. This method should be invoked from
+     * the thread that created the space.
+     *
+     * @param timeInterval the time interval to simulate (in seconds, &ge;0)
+     * @param maxSteps the maximum number of steps of size {@code accuracy}
+     * (&ge;1) or 0 for a single step of size {@code timeInterval}
+     */
+    @Override
+    public void update(float timeInterval, int maxSteps) {
+        if (summaryListeners.isEmpty()) {
+            super.update(timeInterval, maxSteps);
+        } else {
+            // Summaries require all 3 kinds of native callbacks.
+            space.update(timeInterval, maxSteps, true, true, true);
+        }
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Find or create the record for the objects in the identified manifold.
+     *
+     * @param manifoldId the native ID of the {@code btPersistentManifold} (not
+     * zero)
+     * @return the pre-existing or new record (not null)
+     */
+    private PairRecord findRecord(long manifoldId) {
+        long bodyAId = PersistentManifolds.getBodyAId(manifoldId);
+        PhysicsCollisionObject pcoA
+                = PhysicsCollisionObject.findInstance(bodyAId);
+        long bodyBId = PersistentManifolds.getBodyBId(manifoldId);
+        PhysicsCollisionObject pcoB
+                = PhysicsCollisionObject.findInstance(bodyBId);
+        PairRecord result = findRecord(pcoA, pcoB);
+
+        return result;
+    }
+
+    /**
+     * Find or create the record for the specified pair of objects, in either
+     * order.
+     *
+     * @param pco1 the first involved object (not null)
+     * @param pco2 the 2nd involved object (not null)
+     * @return the pre-existing or new record (not null)
+     */
+    private PairRecord findRecord(
+            PhysicsCollisionObject pco1, PhysicsCollisionObject pco2) {
+        PhysicsCollisionObject pcoA;
+        PhysicsCollisionObject pcoB;
+        if (pco1.nativeId() <= pco2.nativeId()) {
+            pcoA = pco1;
+            pcoB = pco2;
+        } else {
+            pcoA = pco2;
+            pcoB = pco1;
+        }
+
+        List<PairRecord> list = recordMap.get(pcoA);
+        if (list == null) {
+            list = new ArrayList<>(4);
+            recordMap.put(pcoA, list);
+        } else {
+            for (PairRecord record : list) {
+                if (record.summary.getObjectB() == pcoB) {
+                    return record;
+                }
+            }
+        }
+
+        PairRecord result = new PairRecord(pcoA, pcoB);
+        list.add(result);
+
+        return result;
+    }
+
+    /**
+     * Fold each pending point into its record, then forget the points. Invoked
+     * at the end of each simulation step, after the solver has run.
+     */
+    private void foldPendingPoints() {
+        for (int i = 0; i < numPending; ++i) {
+            long pointId = pendingIds[i];
+            float impulse = ManifoldPoints.getAppliedImpulse(pointId);
+            ManifoldPoints.getNormalWorldOnB(pointId, tmpNormal);
+            if (pendingReversed[i]) {
+                tmpNormal.negateLocal();
+            }
+            pendingRecords[i].summary.addPoint(impulse, tmpNormal);
+            pendingRecords[i] = null;
+        }
+        this.numPending = 0;
+    }
+
+    /**
+     * Add the specified record to the dirty list, if it isn't already there.
+     *
+     * @param record the record to add (not null)
+     */
+    private void markDirty(PairRecord record) {
+        if (!record.isDirty) {
+            record.isDirty = true;
+            dirtyRecords.add(record);
+        }
+    }
+
+    /**
+     * Note the identified contact point for folding into the specified record
+     * once the solver has run.
+     *
+     * @param record the record to modify (not null)
+     * @param pcoA the object Bullet reports as A for the point (not null)
+     * @param pointId the native ID of the {@code btManifoldPoint} (not zero)
+     */
+    private void notePoint(PairRecord record, PhysicsCollisionObject pcoA,
+            long pointId) {
+        if (numPending == pendingIds.length) {
+            int newLength = 2 * numPending;
+            this.pendingIds = Arrays.copyOf(pendingIds, newLength);
+            this.pendingRecords = Arrays.copyOf(pendingRecords, newLength);
+            this.pendingReversed = Arrays.copyOf(pendingReversed, newLength);
+        }
+        pendingIds[numPending] = pointId;
+        pendingRecords[numPending] = record;
+        // If the pair was swapped, the normal must be reversed.
+        pendingReversed[numPending] = (record.summary.getObjectA() != pcoA);
+        ++numPending;
+    }
+}
@@ -115,6 +115,11 @@ public class BoneLink extends PhysicsLink {
      * submode when kinematic
      */
     private KinematicSubmode submode = KinematicSubmode.Animated;
+    /**
+     * true if {@link #preparePose()} has computed the managed-bone transforms
+     * for the next update, otherwise false
+     */
+    private boolean isPosePrepared = false;
     /**
      * reusable temporary storage for a 3x3 matrix
      */
@@ -128,6 +133,11 @@ public class BoneLink extends PhysicsLink {
      * local transform of each managed bone from the previous update
      */
     private Transform[] prevBoneTransforms = null;
+    /**
+     * managed-bone transforms computed by {@link #preparePose()}, allocated
+     * lazily
+     */
+    private Transform[] preparedTransforms = null;
     /**
      * local transform of each managed bone at the start of the most recent
      * blend interval
@@ -405,6 +415,34 @@ public class BoneLink extends PhysicsLink {
         setUserControl(true);
     }
 
+    /**
+     * Compute the kinematic transforms of the managed bones for the next
+     * update, without altering the armature. Reads only this link's own state
+     * and managed bones, so links of different controls may be prepared
+     * concurrently. Has no effect unless the link is kinematic and has been
+     * updated at least once.
+     */
+    void preparePose() {
+        this.isPosePrepared = false;
+        if (prevBoneTransforms == null || !(kinematicWeight() > 0f)) {
+            return;
+        }
+
+        int numManaged = countManaged();
+        if (preparedTransforms == null
+                || preparedTransforms.length != numManaged) {
+            this.preparedTransforms = new Transform[numManaged];
+            for (int managedI = 0; managedI < numManaged; ++managedI) {
+                preparedTransforms[managedI] = new Transform();
+            }
+        }
+        for (int managedI = 0; managedI < numManaged; ++managedI) {
+            computeKinematicTransform(managedI, preparedTransforms[managedI]);
+        }
+
+        this.isPosePrepared = true;
+    }
+
     /**
      * Immediately put this link into dynamic mode and lock its PhysicsJoint at
      * the specified rotation.
@@ -495,6 +533,8 @@ public class BoneLink extends PhysicsLink {
         this.endBoneTransforms = cloner.clone(endBoneTransforms);
         this.prevBoneTransforms = cloner.clone(prevBoneTransforms);
         this.startBoneTransforms = cloner.clone(startBoneTransforms);
+        this.isPosePrepared = false;
+        this.preparedTransforms = null;
     }
 
     /**
@@ -555,44 +595,10 @@ public class BoneLink extends PhysicsLink {
         Transform transform = new Transform();
         int numManaged = countManaged();
         for (int managedIndex = 0; managedIndex < numManaged; ++managedIndex) {
-            switch (submode) {
-                case Amputated:
-                    int boneIndex = boneIndex(managedIndex);
-                    getControl().copyBindTransform(boneIndex, transform);
-                    transform.setScale(0.001f);
-                    break;
-                case Animated:
-                    copyManagedTransform(managedIndex, transform);
-                    break;
-                case Bound:
-                    boneIndex = boneIndex(managedIndex);
-                    getControl().copyBindTransform(boneIndex, transform);
-                    break;
-                case Frozen:
-                    transform.set(prevBoneTransforms[managedIndex]);
-                    break;
-                case Reset:
-                    transform.set(endBoneTransforms[managedIndex]);
-                    break;
-                default:
-                    throw new IllegalStateException(submode.toString());
-            }
-
-            if (kinematicWeight() < 1f) { // not purely kinematic yet
-                /*
-                 * For a smooth transition, blend the saved bone transform
-                 * (from the start of the blend interval)
-                 * into the goal transform.
-                 */
-                Transform start = startBoneTransforms[managedIndex]; // alias
-                Quaternion startQuat = start.getRotation(); // alias
-                MyQuaternion.normalizeLocal(startQuat);
-                Quaternion endQuat = transform.getRotation(); // alias
-                if (startQuat.dot(endQuat) < 0f) {
-                    endQuat.multLocal(-1f);
-                } // TODO smarter sign flipping
-                MyQuaternion.normalizeLocal(endQuat);
-                MyMath.slerp(kinematicWeight(), start, transform, transform);
+            if (isPosePrepared) {
+                transform.set(preparedTransforms[managedIndex]);
+            } else {
+                computeKinematicTransform(managedIndex, transform);
             }
 
             // Update the managed bone.
@@ -708,6 +714,7 @@ public class BoneLink extends PhysicsLink {
         }
 
         super.update(tpf);
+        this.isPosePrepared = false;
 
         // Save copies of the latest managed-bone transforms.
         for (int managedIndex = 0; managedIndex < numManaged; ++managedIndex) {
@@ -741,6 +748,56 @@ public class BoneLink extends PhysicsLink {
     // *************************************************************************
     // private methods
 
+    /**
+     * Compute the kinematic local transform of the indexed managed bone,
+     * blending from the start of the blend interval if necessary.
+     *
+     * @param managedIndex which managed bone (&ge;0, &lt;numManaged)
+     * @param storeResult storage for the result (not null, modified)
+     */
+    private void computeKinematicTransform(
+            int managedIndex, Transform storeResult) {
+        switch (submode) {
+            case Amputated:
+                int boneIndex = boneIndex(managedIndex);
+                getControl().copyBindTransform(boneIndex, storeResult);
+                storeResult.setScale(0.001f);
+                break;
+            case Animated:
+                copyManagedTransform(managedIndex, storeResult);
+                break;
+            case Bound:
+                boneIndex = boneIndex(managedIndex);
+                getControl().copyBindTransform(boneIndex, storeResult);
+                break;
+            case Frozen:
+                storeResult.set(prevBoneTransforms[managedIndex]);
+                break;
+            case Reset:
+                storeResult.set(endBoneTransforms[managedIndex]);
+                break;
+            default:
+                throw new IllegalStateException(submode.toString());
+        }
+
+        if (kinematicWeight() < 1f) { // not purely kinematic yet
+            /*
+             * For a smooth transition, blend the saved bone transform
+             * (from the start of the blend interval)
+             * into the goal transform.
+             */
+            Transform start = startBoneTransforms[managedIndex]; // alias
+            Quaternion startQuat = start.getRotation(); // alias
+            MyQuaternion.normalizeLocal(startQuat);
+            Quaternion endQuat = storeResult.getRotation(); // alias
+            if (startQuat.dot(endQuat) < 0f) {
+                endQuat.multLocal(-1f);
+            } // TODO smarter sign flipping
+            MyQuaternion.normalizeLocal(endQuat);
+            MyMath.slerp(kinematicWeight(), start, storeResult, storeResult);
+        }
+    }
+
     /**
      * Copy the local transform of the indexed managed bone in this link.
      *
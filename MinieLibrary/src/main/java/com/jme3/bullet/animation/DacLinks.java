@@ -129,6 +129,21 @@ public class DacLinks
      * all links are ready for dynamic mode
      */
     private boolean isReady = false;
+    /**
+     * true if the link updates for the current frame were deferred to the
+     * pose scheduler, otherwise false
+     */
+    private boolean isUpdateDeferred = false;
+    /**
+     * time interval of the frame whose link updates were deferred (in
+     * seconds, &ge;0)
+     */
+    private float deferredTpf = 0f;
+    /**
+     * maximum number of hops from the torso for links to be added to the
+     * PhysicsSpace and ticked (&ge;0, default=MAX_VALUE)
+     */
+    private int linkDepthLimit = Integer.MAX_VALUE;
     /**
      * bone links in a pre-order, depth-first traversal of the link hierarchy
      */
@@ -145,6 +160,11 @@ public class DacLinks
      * helper control, or null if none
      */
     private PreComposer preComposer = null;
+    /**
+     * scheduler that updates the links of this control, or null if the
+     * control updates them itself
+     */
+    RagdollPoseScheduler poseScheduler = null;
     /**
      * Skeleton being controlled, or null for an Armature
      */
@@ -322,6 +342,27 @@ public class DacLinks
         return isReady;
     }
 
+    /**
+     * Test whether the link updates for the current frame were deferred to
+     * the pose scheduler.
+     *
+     * @return true if deferred, otherwise false
+     */
+    boolean isUpdateDeferred() {
+        return isUpdateDeferred;
+    }
+
+    /**
+     * Return the maximum number of hops from the torso for links to be
+     * simulated.
+     *
+     * @return the limit (&ge;0)
+     */
+    int linkDepthLimit() {
+        assert linkDepthLimit >= 0 : linkDepthLimit;
+        return linkDepthLimit;
+    }
+
     /**
      * Enumerate physics links of the specified type managed by this control.
      *
@@ -535,6 +576,18 @@ public class DacLinks
         return result;
     }
 
+    /**
+     * Compute the kinematic poses of the bone links for the deferred update,
+     * without altering the armature. Links of different controls may be
+     * prepared concurrently.
+     */
+    void preparePoses() {
+        assert isUpdateDeferred;
+        for (BoneLink boneLink : boneLinkList) {
+            boneLink.preparePose();
+        }
+    }
+
     /**
      * Rebuild the ragdoll. This is useful if you applied scale to the model
      * after it was initialized.
@@ -570,6 +623,42 @@ public class DacLinks
         }
     }
 
+    /**
+     * Alter the maximum number of hops from the torso for links to be
+     * simulated. Links beyond the limit are removed from the PhysicsSpace
+     * (along with their joints) and skipped during simulation steps, which
+     * makes distant characters cheaper. Intended for kinematic mode only: a
+     * link beyond the limit shouldn't be dynamic. Links that come back within
+     * the limit are re-added and resume tracking the animation on the next
+     * step.
+     *
+     * @param limit the desired limit (&ge;0, 0 &rarr; torso only,
+     * MAX_VALUE &rarr; all links)
+     */
+    void setLinkDepthLimit(int limit) {
+        Validate.nonNegative(limit, "limit");
+        if (limit == linkDepthLimit) {
+            return;
+        }
+
+        int oldLimit = linkDepthLimit;
+        this.linkDepthLimit = limit;
+        if (!added) {
+            return;
+        }
+
+        PhysicsSpace space = getPhysicsSpace();
+        Vector3f gravity = gravity(null);
+        for (BoneLink boneLink : boneLinkList) {
+            updateMembership(boneLink, oldLimit, space, gravity);
+        }
+        for (AttachmentLink link : attachmentLinks.values()) {
+            if (!link.isReleased()) {
+                updateMembership(link, oldLimit, space, gravity);
+            }
+        }
+    }
+
     /**
      * Alter the mass of the specified link.
      *
@@ -592,6 +681,17 @@ public class DacLinks
         }
     }
 
+    /**
+     * Perform the deferred link updates for the current frame, using any
+     * poses prepared by {@link #preparePoses()}.
+     */
+    void updateDeferredLinks() {
+        assert isUpdateDeferred;
+
+        updateLinks(deferredTpf);
+        this.isUpdateDeferred = false;
+    }
+
     /**
      * Verify that this control is ready for dynamic mode, which implies that it
      * is added to a Spatial, added to a PhysicsSpace, and the physics has been
@@ -674,6 +774,9 @@ public class DacLinks
         }
 
         for (BoneLink boneLink : boneLinkList) {
+            if (!isWithinDepthLimit(boneLink)) {
+                continue;
+            }
             rigidBody = boneLink.getRigidBody();
             space.addCollisionObject(rigidBody);
             rigidBody.setGravity(gravity);
@@ -683,6 +786,9 @@ public class DacLinks
         }
 
         for (AttachmentLink link : attachmentLinks.values()) {
+            if (!isWithinDepthLimit(link)) {
+                continue;
+            }
             rigidBody = link.getRigidBody();
             space.addCollisionObject(rigidBody);
             rigidBody.setGravity(gravity);
@@ -757,6 +863,8 @@ public class DacLinks
         this.transformer = cloner.clone(transformer);
         this.bindTransforms = cloner.clone(bindTransforms);
         this.torsoLink = cloner.clone(torsoLink);
+        this.isUpdateDeferred = false;
+        this.poseScheduler = null;
     }
 
     /**
@@ -1020,6 +1128,18 @@ public class DacLinks
         this.bindTransforms
                 = RagUtils.readTransformArray(capsule, tagBindTransforms);
         this.torsoLink = (TorsoLink) capsule.readSavable(tagTorsoLink, null);
+        /*
+         * Link depths aren't serialized. Recompute them in pre-order,
+         * so that each parent is current before its children.
+         */
+        if (boneLinkList != null) {
+            for (BoneLink link : boneLinkList) {
+                link.updateDepth();
+            }
+        }
+        for (AttachmentLink link : attachmentLinks.values()) {
+            link.updateDepth();
+        }
     }
 
     /**
@@ -1037,6 +1157,9 @@ public class DacLinks
         }
 
         for (BoneLink boneLink : boneLinks.values()) {
+            if (!isWithinDepthLimit(boneLink)) {
+                continue;
+            }
             rigidBody = boneLink.getRigidBody();
             space.removeCollisionObject(rigidBody);
 
@@ -1045,7 +1168,7 @@ public class DacLinks
         }
 
         for (AttachmentLink link : attachmentLinks.values()) {
-            if (!link.isReleased()) {
+            if (!link.isReleased() && isWithinDepthLimit(link)) {
                 rigidBody = link.getRigidBody();
                 space.removeCollisionObject(rigidBody);
 
@@ -1318,14 +1441,12 @@ public class DacLinks
             preComposer.saveArmature();
         }
 
-        if (torsoLink != null) {
-            torsoLink.update(tpf);
-        }
-        for (BoneLink boneLink : boneLinkList) {
-            boneLink.update(tpf);
-        }
-        for (AttachmentLink link : attachmentLinks.values()) {
-            link.update(tpf);
+        this.isUpdateDeferred
+                = poseScheduler != null && poseScheduler.isActive();
+        if (isUpdateDeferred) {
+            this.deferredTpf = tpf;
+        } else {
+            updateLinks(tpf);
         }
     }
 
@@ -1354,7 +1475,10 @@ public class DacLinks
         capsule.write(links, tagAttachmentLinks, new AttachmentLink[0]);
 
         capsule.write(armature, tagArmature, null);
-        // isReady and boneLinks are never written.
+        /*
+         * isReady, isUpdateDeferred, deferredTpf, boneLinks,
+         * linkDepthLimit, and poseScheduler are never written.
+         */
         capsule.write(preComposer, tagPreComposer, null);
         capsule.write(skeleton, tagSkeleton, null);
         capsule.write(transformer, tagTransformer, null);
@@ -1378,10 +1502,14 @@ public class DacLinks
 
         torsoLink.postTick();
         for (BoneLink boneLink : boneLinkList) {
-            boneLink.postTick();
+            if (isWithinDepthLimit(boneLink)) {
+                boneLink.postTick();
+            }
         }
         for (AttachmentLink link : attachmentLinks.values()) {
-            link.postTick();
+            if (isWithinDepthLimit(link)) {
+                link.postTick();
+            }
         }
 
         this.isReady = true;
@@ -1401,10 +1529,14 @@ public class DacLinks
 
         torsoLink.preTick(timeStep);
         for (BoneLink boneLink : boneLinkList) {
-            boneLink.preTick(timeStep);
+            if (isWithinDepthLimit(boneLink)) {
+                boneLink.preTick(timeStep);
+            }
         }
         for (AttachmentLink link : attachmentLinks.values()) {
-            link.preTick(timeStep);
+            if (isWithinDepthLimit(link)) {
+                link.preTick(timeStep);
+            }
         }
     }
     // *************************************************************************
@@ -1744,6 +1876,18 @@ public class DacLinks
         }
     }
 
+    /**
+     * Test whether the specified link lies within the depth limit.
+     *
+     * @param link the link to test (not null, unaffected)
+     * @return true if within the limit, otherwise false
+     */
+    private boolean isWithinDepthLimit(PhysicsLink link) {
+        boolean result = linkDepthLimit == Integer.MAX_VALUE
+                || link.depth() <= linkDepthLimit;
+        return result;
+    }
+
     /**
      * Sort the controls of the controlled spatial, such that this Control will
      * come BEFORE the specified Control.
@@ -1776,6 +1920,52 @@ public class DacLinks
         }
     }
 
+    /**
+     * Add or remove the specified link's body and joint after a change to the
+     * depth limit.
+     *
+     * @param link the link to update (not null)
+     * @param oldLimit the previous depth limit (&ge;0)
+     * @param space the PhysicsSpace (not null)
+     * @param gravity the gravity vector for this control (not null,
+     * unaffected)
+     */
+    private void updateMembership(PhysicsLink link, int oldLimit,
+            PhysicsSpace space, Vector3f gravity) {
+        int depth = link.depth();
+        boolean wasWithin = (depth <= oldLimit);
+        boolean isWithin = (depth <= linkDepthLimit);
+
+        PhysicsRigidBody rigidBody = link.getRigidBody();
+        PhysicsJoint joint = link.getJoint();
+        if (wasWithin && !isWithin) {
+            space.removeJoint(joint);
+            space.removeCollisionObject(rigidBody);
+        } else if (isWithin && !wasWithin) {
+            space.addCollisionObject(rigidBody);
+            rigidBody.setGravity(gravity);
+            space.addJoint(joint);
+        }
+    }
+
+    /**
+     * Update the torso link, the bone links, and the attachment links, in
+     * that order.
+     *
+     * @param tpf the time interval between frames (in seconds, &ge;0)
+     */
+    private void updateLinks(float tpf) {
+        if (torsoLink != null) {
+            torsoLink.update(tpf);
+        }
+        for (BoneLink boneLink : boneLinkList) {
+            boneLink.update(tpf);
+        }
+        for (AttachmentLink link : attachmentLinks.values()) {
+            link.update(tpf);
+        }
+    }
+
     /**
      * Validate the model's armature.
      */
@@ -35,6 +35,8 @@ import com.jme3.anim.Armature;
 import com.jme3.anim.Joint;
 import com.jme3.animation.Bone;
 import com.jme3.animation.Skeleton;
+import com.jme3.bullet.ContactManager;
+import com.jme3.bullet.DefaultContactManager;
 import com.jme3.bullet.PhysicsSpace;
 import com.jme3.bullet.RotationOrder;
 import com.jme3.bullet.collision.PhysicsCollisionEvent;
@@ -63,6 +65,7 @@ import com.jme3.util.SafeArrayList;
 import com.jme3.util.clone.Cloner;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Logger;
 import jme3utilities.MyMesh;
@@ -990,8 +993,8 @@ public class DynamicAnimControl
     protected void addPhysics() {
         super.addPhysics();
 
+        subscribeContacts();
         PhysicsSpace space = getPhysicsSpace();
-        space.addCollisionListener(this);
         space.addTickListener(this);
 
         for (IKJoint ikJoint : ikJoints) {
@@ -1041,6 +1044,21 @@ public class DynamicAnimControl
                 tagCenterVelocity, new Vector3f());
     }
 
+    /**
+     * Rebuild the ragdoll, then re-subscribe to contacts, since rebuilding
+     * replaces the rigid bodies of the links.
+     * <p>
+     * Allowed only when the control IS added to a Spatial.
+     */
+    @Override
+    public void rebuild() {
+        super.rebuild();
+        if (added) {
+            unsubscribeContacts();
+            subscribeContacts();
+        }
+    }
+
     /**
      * Remove all managed physics objects from the PhysicsSpace.
      */
@@ -1048,8 +1066,8 @@ public class DynamicAnimControl
     protected void removePhysics() {
         super.removePhysics();
 
+        unsubscribeContacts();
         PhysicsSpace space = getPhysicsSpace();
-        space.removeCollisionListener(this);
         space.removeTickListener(this);
 
         for (IKJoint ikJoint : ikJoints) {
@@ -1058,6 +1076,22 @@ public class DynamicAnimControl
         }
     }
 
+    /**
+     * Alter the maximum number of hops from the torso for links to be
+     * simulated, then re-subscribe to contacts that involve the links.
+     *
+     * @param limit the desired limit (&ge;0, 0 &rarr; torso only,
+     * MAX_VALUE &rarr; all links)
+     */
+    @Override
+    void setLinkDepthLimit(int limit) {
+        super.setLinkDepthLimit(limit);
+        if (added) {
+            unsubscribeContacts();
+            subscribeContacts();
+        }
+    }
+
     /**
      * Update this Control. Invoked once per frame during the logical-state
      * update, provided the control is added to a scene. Do not invoke directly
@@ -1251,4 +1285,34 @@ public class DynamicAnimControl
         velocitySum.mult(invMass, centerVelocity);
         this.ragdollMass = (float) massSum;
     }
+
+    /**
+     * Subscribe this control to contacts. With a DefaultContactManager, only
+     * contacts that involve the ragdoll's current rigid bodies are routed
+     * here.
+     */
+    private void subscribeContacts() {
+        PhysicsSpace space = getPhysicsSpace();
+        ContactManager manager = space.getContactManager();
+        if (manager instanceof DefaultContactManager) {
+            PhysicsRigidBody[] bodies = listRigidBodies();
+            ((DefaultContactManager) manager)
+                    .addCollisionListener(this, Arrays.asList(bodies));
+        } else {
+            space.addCollisionListener(this);
+        }
+    }
+
+    /**
+     * Cancel the subscriptions made by {@link #subscribeContacts()}.
+     */
+    private void unsubscribeContacts() {
+        PhysicsSpace space = getPhysicsSpace();
+        ContactManager manager = space.getContactManager();
+        if (manager instanceof DefaultContactManager) {
+            ((DefaultContactManager) manager).removeRoutes(this);
+        } else {
+            space.removeCollisionListener(this);
+        }
+    }
 }
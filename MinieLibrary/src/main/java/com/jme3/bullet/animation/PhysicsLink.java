@@ -121,6 +121,10 @@ abstract public class PhysicsLink implements JmeCloneable, Savable {
      * kinematic, progresses from 0 to 1 during the blend interval)
      */
     private float kinematicWeight = 1f;
+    /**
+     * number of hops from the torso in the link hierarchy (&ge;0)
+     */
+    private int depth = 0;
     /**
      * corresponding Joint in the Armature, or null for a skeleton bone
      */
@@ -290,6 +294,17 @@ abstract public class PhysicsLink implements JmeCloneable, Savable {
         return density;
     }
 
+    /**
+     * Return the number of hops from the torso to this link, as cached when
+     * the parent was assigned.
+     *
+     * @return the count (&ge;0)
+     */
+    int depth() {
+        assert depth >= 0 : depth;
+        return depth;
+    }
+
     /**
      * Disable all IK controllers.
      */
@@ -545,6 +560,14 @@ abstract public class PhysicsLink implements JmeCloneable, Savable {
         }
     }
 
+    /**
+     * Recompute the cached depth from the parent's depth. The parent's depth
+     * must already be current.
+     */
+    void updateDepth() {
+        this.depth = (parent == null) ? 0 : parent.depth + 1;
+    }
+
     /**
      * Copy the body's linear velocity, or an estimate thereof.
      *
@@ -644,6 +667,7 @@ abstract public class PhysicsLink implements JmeCloneable, Savable {
 
         this.parent = parent;
         parent.children.add(this);
+        updateDepth();
     }
 
     /**
@@ -0,0 +1,575 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet.animation;
+
+import com.jme3.bounding.BoundingBox;
+import com.jme3.bounding.BoundingSphere;
+import com.jme3.bounding.BoundingVolume;
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.shapes.CapsuleCollisionShape;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Spatial;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * Choose a level of detail for each ragdoll in a crowd, based on its distance
+ * from the viewer or on a tier forced by the application.
+ * <p>
+ * Nearby characters are fully simulated. More distant ones simulate only the
+ * links near the torso, then a single capsule, and the farthest ones aren't
+ * simulated at all. A character is demoted from the full tier only after all
+ * its links are kinematic, so no ragdoll is frozen in mid-fall, and promotions
+ * always resume in kinematic mode, from the pose the animation has reached.
+ * <p>
+ * The manager takes over the enabled state of each managed control. Don't
+ * put a character into ragdoll mode unless it's in the {@code Dynamic} tier.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class RagdollLodManager {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * Enumerate the levels of detail, from most detailed to least.
+     */
+    public enum Tier {
+        /**
+         * all links simulated, ragdoll mode allowed
+         */
+        Dynamic,
+        /**
+         * kinematic, with links beyond the depth limit removed from the space
+         */
+        Kinematic,
+        /**
+         * links removed, replaced by a single kinematic capsule
+         */
+        Proxy,
+        /**
+         * nothing simulated
+         */
+        Detached
+    }
+
+    /**
+     * Level-of-detail state of a single character.
+     */
+    private static class Entry {
+        /**
+         * control of the character (not null)
+         */
+        final private DynamicAnimControl control;
+        /**
+         * capsule that stands in for the character in the Proxy tier, or null
+         * if none
+         */
+        private PhysicsRigidBody proxy;
+        /**
+         * tier forced by the application, or null to select by distance
+         */
+        private Tier forcedTier;
+        /**
+         * current tier (not null)
+         */
+        private Tier tier = Tier.Dynamic;
+
+        /**
+         * Instantiate an entry in the Dynamic tier.
+         *
+         * @param control the control of the character (not null, alias
+         * created)
+         */
+        Entry(DynamicAnimControl control) {
+            this.control = control;
+        }
+    }
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(RagdollLodManager.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * fraction by which a distance threshold is reduced for promotions, to
+     * prevent rapid switching near a threshold (&ge;0, &lt;1)
+     */
+    private float hysteresis = 0.1f;
+    /**
+     * distance beyond which each tier after Dynamic is selected (in physics
+     * units, ascending)
+     */
+    final private float[] thresholds = {20f, 50f, 100f};
+    /**
+     * maximum number of hops from the torso for links simulated in the
+     * Kinematic tier (&ge;0)
+     */
+    private int kinematicDepth = 1;
+    /**
+     * managed characters in order of addition
+     */
+    final private List<Entry> entries = new ArrayList<>(32);
+    /**
+     * map controls to entries
+     */
+    final private Map<DynamicAnimControl, Entry> entryMap
+            = new IdentityHashMap<>(32);
+    /**
+     * reusable vector for proxy locations
+     */
+    final private Vector3f tmpCenter = new Vector3f();
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Manage the specified control. The character starts in the Dynamic tier.
+     *
+     * @param control the control to manage (not null, not already managed)
+     */
+    public void add(DynamicAnimControl control) {
+        Validate.nonNull(control, "control");
+        Validate.require(
+                !entryMap.containsKey(control), "an unmanaged control");
+
+        Entry entry = new Entry(control);
+        entries.add(entry);
+        entryMap.put(control, entry);
+    }
+
+    /**
+     * Count the managed characters in the specified tier.
+     *
+     * @param tier the tier to count (not null)
+     * @return the count (&ge;0)
+     */
+    public int countInTier(Tier tier) {
+        Validate.nonNull(tier, "tier");
+
+        int result = 0;
+        for (Entry entry : entries) {
+            if (entry.tier == tier) {
+                ++result;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Count the managed characters.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countManaged() {
+        int result = entries.size();
+        return result;
+    }
+
+    /**
+     * Return the tier forced on the specified character.
+     *
+     * @param control the control of the character (not null, managed)
+     * @return the tier, or null if selected by distance
+     */
+    public Tier getForcedTier(DynamicAnimControl control) {
+        Entry entry = findEntry(control);
+        Tier result = entry.forcedTier;
+
+        return result;
+    }
+
+    /**
+     * Return the fraction by which distance thresholds are reduced for
+     * promotions.
+     *
+     * @return the fraction (&ge;0, &lt;1)
+     */
+    public float getHysteresis() {
+        assert hysteresis >= 0f && hysteresis < 1f : hysteresis;
+        return hysteresis;
+    }
+
+    /**
+     * Return the maximum number of hops from the torso for links simulated in
+     * the Kinematic tier.
+     *
+     * @return the limit (&ge;0)
+     */
+    public int getKinematicDepth() {
+        assert kinematicDepth >= 0 : kinematicDepth;
+        return kinematicDepth;
+    }
+
+    /**
+     * Access the capsule that stands in for the specified character, for
+     * instance to alter its collision groups.
+     *
+     * @param control the control of the character (not null, managed)
+     * @return the pre-existing body, or null if the character isn't in the
+     * Proxy tier
+     */
+    public PhysicsRigidBody getProxy(DynamicAnimControl control) {
+        Entry entry = findEntry(control);
+        PhysicsRigidBody result = entry.proxy;
+
+        return result;
+    }
+
+    /**
+     * Return the current tier of the specified character.
+     *
+     * @param control the control of the character (not null, managed)
+     * @return the tier (not null)
+     */
+    public Tier getTier(DynamicAnimControl control) {
+        Entry entry = findEntry(control);
+        Tier result = entry.tier;
+
+        return result;
+    }
+
+    /**
+     * Test whether the specified control is managed.
+     *
+     * @param control the control to test (not null, unaffected)
+     * @return true if managed, otherwise false
+     */
+    public boolean isManaged(DynamicAnimControl control) {
+        Validate.nonNull(control, "control");
+
+        boolean result = entryMap.containsKey(control);
+        return result;
+    }
+
+    /**
+     * Stop managing the specified control, restoring it to the Dynamic tier.
+     *
+     * @param control the control to release (not null, managed)
+     */
+    public void remove(DynamicAnimControl control) {
+        Entry entry = findEntry(control);
+        changeTier(entry, Tier.Dynamic);
+
+        entries.remove(entry);
+        entryMap.remove(control);
+    }
+
+    /**
+     * Alter the distance beyond which each tier is selected. The distances
+     * are measured from the viewer to the controlled spatial.
+     *
+     * @param kinematic the distance for the Kinematic tier (&ge;0)
+     * @param proxy the distance for the Proxy tier (&ge;kinematic)
+     * @param detached the distance for the Detached tier (&ge;proxy)
+     */
+    public void setDistances(float kinematic, float proxy, float detached) {
+        Validate.nonNegative(kinematic, "kinematic distance");
+        Validate.require(proxy >= kinematic, "proxy distance >= kinematic");
+        Validate.require(detached >= proxy, "detached distance >= proxy");
+
+        thresholds[0] = kinematic;
+        thresholds[1] = proxy;
+        thresholds[2] = detached;
+    }
+
+    /**
+     * Force the specified character into the specified tier, regardless of
+     * distance. The change takes effect during the next update.
+     *
+     * @param control the control of the character (not null, managed)
+     * @param tier the desired tier, or null to select by distance
+     */
+    public void setForcedTier(DynamicAnimControl control, Tier tier) {
+        Entry entry = findEntry(control);
+        entry.forcedTier = tier;
+    }
+
+    /**
+     * Alter the fraction by which distance thresholds are reduced for
+     * promotions. (default=0.1)
+     *
+     * @param fraction the desired fraction (&ge;0, &lt;1)
+     */
+    public void setHysteresis(float fraction) {
+        Validate.fraction(fraction, "fraction");
+        Validate.require(fraction < 1f, "fraction < 1");
+
+        this.hysteresis = fraction;
+    }
+
+    /**
+     * Alter the maximum number of hops from the torso for links simulated in
+     * the Kinematic tier. Characters already in that tier are updated
+     * immediately. (default=1)
+     *
+     * @param depth the desired limit (&ge;0, 0 &rarr; torso only)
+     */
+    public void setKinematicDepth(int depth) {
+        Validate.nonNegative(depth, "depth");
+
+        this.kinematicDepth = depth;
+        for (Entry entry : entries) {
+            if (entry.tier == Tier.Kinematic) {
+                entry.control.setLinkDepthLimit(depth);
+            }
+        }
+    }
+
+    /**
+     * Select a tier for each managed character and move the proxy capsules.
+     * Invoke once per frame from the render thread, after the scene graph's
+     * geometric state has been updated and while the space isn't being
+     * stepped.
+     *
+     * @param viewerLocation the location of the viewer, typically the
+     * camera (in physics-space coordinates, not null, unaffected)
+     */
+    public void update(Vector3f viewerLocation) {
+        Validate.finite(viewerLocation, "viewer location");
+
+        int numEntries = entries.size();
+        for (int i = 0; i < numEntries; ++i) {
+            Entry entry = entries.get(i);
+            Spatial spatial = entry.control.getSpatial();
+            if (spatial == null) {
+                continue;
+            }
+
+            Tier desired = entry.forcedTier;
+            if (desired == null) {
+                float distance = spatial.getWorldTranslation()
+                        .distance(viewerLocation);
+                desired = selectTier(distance, entry.tier);
+            }
+            changeTier(entry, desired);
+
+            if (entry.proxy != null) {
+                proxyCenter(spatial, tmpCenter);
+                entry.proxy.setPhysicsLocation(tmpCenter);
+            }
+        }
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Move the specified character to the specified tier, unless it's in
+     * ragdoll mode.
+     *
+     * @param entry the state of the character (not null)
+     * @param desired the desired tier (not null)
+     */
+    private void changeTier(Entry entry, Tier desired) {
+        if (desired == entry.tier) {
+            return;
+        }
+        DynamicAnimControl control = entry.control;
+        if (entry.tier == Tier.Dynamic && !isFullyKinematic(control)) {
+            return; // defer the demotion until the ragdoll settles
+        }
+
+        if (entry.proxy != null) {
+            PhysicsSpace space = (PhysicsSpace) entry.proxy
+                    .getCollisionSpace();
+            if (space != null) {
+                space.removeCollisionObject(entry.proxy);
+            }
+            entry.proxy = null;
+        }
+
+        switch (desired) {
+            case Dynamic:
+                control.setLinkDepthLimit(Integer.MAX_VALUE);
+                control.setEnabled(true);
+                break;
+
+            case Kinematic:
+                control.setLinkDepthLimit(kinematicDepth);
+                control.setEnabled(true);
+                break;
+
+            case Proxy:
+                control.setEnabled(false);
+                entry.proxy = createProxy(control);
+                break;
+
+            case Detached:
+                control.setEnabled(false);
+                break;
+
+            default:
+                throw new IllegalArgumentException(desired.toString());
+        }
+        entry.tier = desired;
+    }
+
+    /**
+     * Create a kinematic capsule that encloses the specified character and
+     * add it to the character's space.
+     *
+     * @param control the control of the character (not null)
+     * @return a new body, or null if the control isn't in a space or spatial
+     */
+    private static PhysicsRigidBody createProxy(DynamicAnimControl control) {
+        PhysicsSpace space = control.getPhysicsSpace();
+        Spatial spatial = control.getSpatial();
+        if (space == null || spatial == null) {
+            return null;
+        }
+
+        float radius;
+        float height;
+        BoundingVolume bound = spatial.getWorldBound();
+        if (bound instanceof BoundingBox) {
+            BoundingBox box = (BoundingBox) bound;
+            radius = Math.max(box.getXExtent(), box.getZExtent());
+            height = Math.max(2f * (box.getYExtent() - radius), 0f);
+        } else if (bound instanceof BoundingSphere) {
+            radius = ((BoundingSphere) bound).getRadius();
+            height = 0f;
+        } else {
+            return null;
+        }
+        if (!(radius > 0f)) {
+            return null;
+        }
+
+        CapsuleCollisionShape shape
+                = new CapsuleCollisionShape(radius, height);
+        PhysicsRigidBody result = new PhysicsRigidBody(shape);
+        result.setKinematic(true);
+        result.setUserObject(spatial);
+        Vector3f center = proxyCenter(spatial, null);
+        result.setPhysicsLocation(center);
+        space.addCollisionObject(result);
+
+        return result;
+    }
+
+    /**
+     * Find the entry for the specified control.
+     *
+     * @param control the control to find (not null, unaffected)
+     * @return the pre-existing entry (not null)
+     */
+    private Entry findEntry(DynamicAnimControl control) {
+        Validate.nonNull(control, "control");
+
+        Entry result = entryMap.get(control);
+        if (result == null) {
+            throw new IllegalArgumentException("The control isn't managed.");
+        }
+
+        return result;
+    }
+
+    /**
+     * Test whether all links of the specified control are kinematic.
+     *
+     * @param control the control to test (not null, unaffected)
+     * @return true if all are kinematic, otherwise false
+     */
+    private static boolean isFullyKinematic(DynamicAnimControl control) {
+        TorsoLink torso = control.getTorsoLink();
+        if (torso != null && !torso.isKinematic()) {
+            return false;
+        }
+        for (BoneLink link : control.getBoneLinks()) {
+            if (!link.isKinematic()) {
+                return false;
+            }
+        }
+        for (AttachmentLink link : control.listAttachmentLinks()) {
+            if (!link.isReleased() && !link.isKinematic()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Determine where to place the proxy of the specified spatial.
+     *
+     * @param spatial the controlled spatial (not null, unaffected)
+     * @param storeResult storage for the result (modified if not null)
+     * @return the location (in physics-space coordinates, either storeResult
+     * or a new vector)
+     */
+    private static Vector3f proxyCenter(Spatial spatial, Vector3f storeResult) {
+        Vector3f result = (storeResult == null) ? new Vector3f() : storeResult;
+
+        BoundingVolume bound = spatial.getWorldBound();
+        if (bound == null) {
+            result.set(spatial.getWorldTranslation());
+        } else {
+            result.set(bound.getCenter());
+        }
+
+        return result;
+    }
+
+    /**
+     * Select a tier for the specified distance. Thresholds for tiers more
+     * detailed than the current one are reduced by the hysteresis fraction.
+     *
+     * @param distance the distance from the viewer (&ge;0)
+     * @param current the current tier (not null)
+     * @return the selected tier (not null)
+     */
+    private Tier selectTier(float distance, Tier current) {
+        int ordinal = 0;
+        for (int i = 0; i < thresholds.length; ++i) {
+            float threshold = thresholds[i];
+            if (i < current.ordinal()) {
+                threshold *= 1f - hysteresis;
+            }
+            if (distance > threshold) {
+                ordinal = i + 1;
+            }
+        }
+        Tier result = Tier.values()[ordinal];
+
+        return result;
+    }
+}
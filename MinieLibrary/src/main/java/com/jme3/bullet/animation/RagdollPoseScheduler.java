@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet.animation;
+
+import com.jme3.renderer.RenderManager;
+import com.jme3.renderer.ViewPort;
+import com.jme3.scene.control.AbstractControl;
+import com.jme3.util.clone.Cloner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * Helper control to compute the kinematic poses of many DynamicAnimControl
+ * instances in parallel.
+ * <p>
+ * Each member control defers its per-frame link updates to the scheduler.
+ * When the scheduler is updated, it blends the kinematic bone poses of all
+ * deferred members on a ForkJoinPool, without touching any armature, and
+ * then applies the poses (and performs the remaining link updates) one
+ * member at a time, in the usual link order. The parallel phase makes no
+ * native calls and doesn't alter the scene graph.
+ * <p>
+ * The scheduler must be updated after the models it manages, for instance
+ * by adding it to a Node attached as the last child of the root node. While
+ * the scheduler is disabled or not added to a Spatial, its members update
+ * their own links.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class RagdollPoseScheduler extends AbstractControl {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * Task to prepare the poses of a range of deferred members.
+     */
+    private class PoseTask extends RecursiveAction {
+        /**
+         * index of the first member to prepare (&ge;0)
+         */
+        final private int fromIndex;
+        /**
+         * index after the last member to prepare (&ge;fromIndex)
+         */
+        final private int toIndex;
+
+        /**
+         * Instantiate a task for the specified range of deferred members.
+         *
+         * @param fromIndex the index of the first member (&ge;0)
+         * @param toIndex the index after the last member (&ge;fromIndex)
+         */
+        PoseTask(int fromIndex, int toIndex) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        /**
+         * Prepare the poses, splitting the range if it's large.
+         */
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex <= batchSize) {
+                for (int i = fromIndex; i < toIndex; ++i) {
+                    deferred.get(i).preparePoses();
+                }
+            } else {
+                int middle = (fromIndex + toIndex) >>> 1;
+                invokeAll(new PoseTask(fromIndex, middle),
+                        new PoseTask(middle, toIndex));
+            }
+        }
+    }
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * maximum number of members prepared by a single task
+     */
+    final private static int batchSize = 4;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(RagdollPoseScheduler.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * pool used to prepare poses in parallel (not null)
+     */
+    private ForkJoinPool pool;
+    /**
+     * members that deferred their link updates during the current frame
+     */
+    private List<DacLinks> deferred = new ArrayList<>(16);
+    /**
+     * all members, in order of addition
+     */
+    private List<DacLinks> members = new ArrayList<>(16);
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate an enabled scheduler that uses the common ForkJoinPool.
+     */
+    public RagdollPoseScheduler() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Instantiate an enabled scheduler that uses the specified pool.
+     *
+     * @param pool the pool used to prepare poses in parallel (not null, alias
+     * created)
+     */
+    public RagdollPoseScheduler(ForkJoinPool pool) {
+        Validate.nonNull(pool, "pool");
+        this.pool = pool;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Add the specified control to the members of this scheduler.
+     *
+     * @param control the control to add (not null, not a member of any
+     * scheduler)
+     */
+    public void add(DynamicAnimControl control) {
+        Validate.nonNull(control, "control");
+        Validate.require(control.poseScheduler == null, "not in a scheduler");
+
+        control.poseScheduler = this;
+        members.add(control);
+    }
+
+    /**
+     * Count the members of this scheduler.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countMembers() {
+        int result = members.size();
+        return result;
+    }
+
+    /**
+     * Test whether this scheduler will update its members during the current
+     * frame.
+     *
+     * @return true if it will, otherwise false
+     */
+    boolean isActive() {
+        boolean result = isEnabled() && getSpatial() != null;
+        return result;
+    }
+
+    /**
+     * Remove the specified control from the members of this scheduler. From
+     * the next frame on, the control updates its own links. If the control
+     * already deferred its link updates for the current frame, they are
+     * performed immediately.
+     *
+     * @param control the control to remove (not null, a member of this
+     * scheduler)
+     */
+    public void remove(DynamicAnimControl control) {
+        Validate.nonNull(control, "control");
+        Validate.require(control.poseScheduler == this, "a member");
+
+        members.remove(control);
+        control.poseScheduler = null;
+        if (control.isUpdateDeferred()) {
+            control.updateDeferredLinks();
+        }
+    }
+    // *************************************************************************
+    // AbstractControl methods
+
+    /**
+     * Callback from {@link com.jme3.util.clone.Cloner} to convert this
+     * shallow-cloned Control into a deep-cloned one, using the specified Cloner
+     * and original to resolve copied fields. The clone has no members.
+     *
+     * @param cloner the Cloner that's cloning this Control (not null)
+     * @param original the instance from which this Control was shallow-cloned
+     * (not null, unaffected)
+     */
+    @Override
+    public void cloneFields(Cloner cloner, Object original) {
+        super.cloneFields(cloner, original);
+
+        this.deferred = new ArrayList<>(16);
+        this.members = new ArrayList<>(16);
+    }
+
+    /**
+     * Update this control. Invoked once per frame during the logical-state
+     * update, provided the control is enabled and added to a scene. Should be
+     * invoked only by a subclass or by AbstractControl.
+     *
+     * @param tpf the time interval between frames (in seconds, &ge;0)
+     */
+    @Override
+    protected void controlUpdate(float tpf) {
+        for (DacLinks member : members) {
+            if (member.isUpdateDeferred()) {
+                deferred.add(member);
+            }
+        }
+
+        int numDeferred = deferred.size();
+        if (numDeferred > 1 && pool.getParallelism() > 1) {
+            pool.invoke(new PoseTask(0, numDeferred));
+        }
+        for (int i = 0; i < numDeferred; ++i) {
+            deferred.get(i).updateDeferredLinks();
+        }
+
+        deferred.clear();
+    }
+
+    /**
+     * Render this Control. Invoked once per ViewPort per frame, provided the
+     * Control is enabled and added to a scene. Should be invoked only by a
+     * subclass or by AbstractControl.
+     *
+     * @param rm the render manager (unused)
+     * @param vp the view port to render (unused)
+     */
+    @Override
+    protected void controlRender(RenderManager rm, ViewPort vp) {
+        // do nothing
+    }
+}
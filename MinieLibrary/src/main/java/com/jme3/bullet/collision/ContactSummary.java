@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet.collision;
+
+import com.jme3.math.Vector3f;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * Summarize the contact points between a single pair of collision objects
+ * during an interval of simulation, typically one frame.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class ContactSummary {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(ContactSummary.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * true if contact ended during the interval
+     */
+    private boolean ended;
+    /**
+     * true if contact started during the interval
+     */
+    private boolean started;
+    /**
+     * largest impulse applied at any of the points (&ge;0)
+     */
+    private float maxImpulse;
+    /**
+     * number of contact points summarized (&ge;0)
+     */
+    private int numPoints;
+    /**
+     * first object involved in the contact (typically a PhysicsRigidBody)
+     */
+    final private PhysicsCollisionObject pcoA;
+    /**
+     * 2nd object involved in the contact (typically a PhysicsRigidBody)
+     */
+    final private PhysicsCollisionObject pcoB;
+    /**
+     * sum of the contact normals on object B (in physics-space coordinates)
+     */
+    final private Vector3f normalSum = new Vector3f();
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate an empty summary for the specified pair of objects.
+     *
+     * @param pcoA the first involved object (not null, alias created)
+     * @param pcoB the 2nd involved object (not null, alias created)
+     */
+    public ContactSummary(
+            PhysicsCollisionObject pcoA, PhysicsCollisionObject pcoB) {
+        Validate.nonNull(pcoA, "object A");
+        Validate.nonNull(pcoB, "object B");
+
+        this.pcoA = pcoA;
+        this.pcoB = pcoB;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Fold a contact point into this summary.
+     *
+     * @param appliedImpulse the impulse applied at the point
+     * @param normalWorldOnB the contact normal on object B (in physics-space
+     * coordinates, not null, unaffected)
+     */
+    public void addPoint(float appliedImpulse, Vector3f normalWorldOnB) {
+        Validate.finite(normalWorldOnB, "normal");
+
+        ++numPoints;
+        this.maxImpulse = Math.max(maxImpulse, Math.abs(appliedImpulse));
+        normalSum.addLocal(normalWorldOnB);
+    }
+
+    /**
+     * Compute the average contact normal on object B.
+     *
+     * @param storeResult storage for the result (modified if not null)
+     * @return a unit vector (in physics-space coordinates, either storeResult
+     * or a new vector, not null) or a zero vector if no points were summarized
+     */
+    public Vector3f averageNormal(Vector3f storeResult) {
+        Vector3f result = (storeResult == null) ? new Vector3f() : storeResult;
+
+        result.set(normalSum);
+        double lengthSquared = result.lengthSquared();
+        if (lengthSquared > 0.0) {
+            result.divideLocal((float) Math.sqrt(lengthSquared));
+        }
+
+        return result;
+    }
+
+    /**
+     * Reset the per-interval data, so the summary can be reused for the next
+     * interval.
+     */
+    public void clear() {
+        this.ended = false;
+        this.started = false;
+        this.maxImpulse = 0f;
+        this.numPoints = 0;
+        normalSum.zero();
+    }
+
+    /**
+     * Count the contact points summarized.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countPoints() {
+        assert numPoints >= 0 : numPoints;
+        return numPoints;
+    }
+
+    /**
+     * Access collision object A.
+     *
+     * @return the pre-existing object (not null)
+     */
+    public PhysicsCollisionObject getObjectA() {
+        assert pcoA != null;
+        return pcoA;
+    }
+
+    /**
+     * Access collision object B.
+     *
+     * @return the pre-existing object (not null)
+     */
+    public PhysicsCollisionObject getObjectB() {
+        assert pcoB != null;
+        return pcoB;
+    }
+
+    /**
+     * Test whether the contact ended during the interval.
+     *
+     * @return true if ended, otherwise false
+     */
+    public boolean hasEnded() {
+        return ended;
+    }
+
+    /**
+     * Test whether the contact started during the interval.
+     *
+     * @return true if started, otherwise false
+     */
+    public boolean hasStarted() {
+        return started;
+    }
+
+    /**
+     * Test whether the contact was ongoing throughout the interval, neither
+     * starting nor ending.
+     *
+     * @return true if ongoing, otherwise false
+     */
+    public boolean isOngoing() {
+        boolean result = !started && !ended;
+        return result;
+    }
+
+    /**
+     * Return the largest impulse applied at any of the summarized points.
+     *
+     * @return the magnitude of the impulse (&ge;0)
+     */
+    public float maxImpulse() {
+        assert maxImpulse >= 0f : maxImpulse;
+        return maxImpulse;
+    }
+
+    /**
+     * Record that the contact ended during the interval.
+     */
+    public void setEnded() {
+        this.ended = true;
+    }
+
+    /**
+     * Record that the contact started during the interval.
+     */
+    public void setStarted() {
+        this.started = true;
+    }
+    // *************************************************************************
+    // Object methods
+
+    /**
+     * Represent this summary as a String.
+     *
+     * @return a descriptive string of text (not null, not empty)
+     */
+    @Override
+    public String toString() {
+        String result = pcoA + "/" + pcoB + " points=" + numPoints
+                + " maxImpulse=" + maxImpulse;
+        if (started) {
+            result += " started";
+        }
+        if (ended) {
+            result += " ended";
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet.collision;
+
+import com.jme3.bullet.objects.PhysicsGhostObject;
+import java.util.List;
+
+/**
+ * Interface to receive the objects that started or stopped overlapping a
+ * ghost during a simulation step, instead of polling the ghost for its full
+ * overlap list.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public interface GhostOverlapListener {
+    /**
+     * Callback to report changes in the set of objects overlapping a tracked
+     * ghost. Invoked on the physics thread, just after a simulation step, and
+     * only for ghosts whose overlaps changed during that step.
+     * <p>
+     * Implementors: don't retain references to the lists, as they will be
+     * reused after this method returns.
+     *
+     * @param ghost the ghost whose overlaps changed (not null)
+     * @param entered the objects that started overlapping the ghost (not null,
+     * reusable)
+     * @param exited the objects that stopped overlapping the ghost (not null,
+     * reusable)
+     */
+    void overlapsChanged(PhysicsGhostObject ghost,
+            List<PhysicsCollisionObject> entered,
+            List<PhysicsCollisionObject> exited);
+}
@@ -47,6 +47,98 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
     // *************************************************************************
     // constants and loggers
 
+    /**
+     * offset of the applied impulse in {@code capturedFloats}
+     */
+    final private static int appliedImpulseOffset = 0;
+    /**
+     * offset of the applied lateral impulse #1 in {@code capturedFloats}
+     */
+    final private static int appliedImpulseLateral1Offset = 1;
+    /**
+     * offset of the applied lateral impulse #2 in {@code capturedFloats}
+     */
+    final private static int appliedImpulseLateral2Offset = 2;
+    /**
+     * offset of the combined friction in {@code capturedFloats}
+     */
+    final private static int combinedFrictionOffset = 3;
+    /**
+     * offset of the combined restitution in {@code capturedFloats}
+     */
+    final private static int combinedRestitutionOffset = 4;
+    /**
+     * offset of the combined rolling friction in {@code capturedFloats}
+     */
+    final private static int combinedRollingFrictionOffset = 5;
+    /**
+     * offset of the combined spinning friction in {@code capturedFloats}
+     */
+    final private static int combinedSpinningFrictionOffset = 6;
+    /**
+     * offset of the separation distance in {@code capturedFloats}
+     */
+    final private static int distance1Offset = 7;
+    /**
+     * offset of the lateral friction direction #1 in {@code capturedFloats}
+     */
+    final private static int lateralFrictionDir1Offset = 8;
+    /**
+     * offset of the lateral friction direction #2 in {@code capturedFloats}
+     */
+    final private static int lateralFrictionDir2Offset = 11;
+    /**
+     * offset of the local point on A in {@code capturedFloats}
+     */
+    final private static int localPointAOffset = 14;
+    /**
+     * offset of the local point on B in {@code capturedFloats}
+     */
+    final private static int localPointBOffset = 17;
+    /**
+     * offset of the normal on B in {@code capturedFloats}
+     */
+    final private static int normalWorldOnBOffset = 20;
+    /**
+     * offset of the world position on A in {@code capturedFloats}
+     */
+    final private static int positionWorldOnAOffset = 23;
+    /**
+     * offset of the world position on B in {@code capturedFloats}
+     */
+    final private static int positionWorldOnBOffset = 26;
+    /**
+     * number of elements in {@code capturedFloats}
+     */
+    final private static int numCapturedFloats = 29;
+    /**
+     * offset of the contact-point flags in {@code capturedInts}
+     */
+    final private static int flagsOffset = 0;
+    /**
+     * offset of the triangle index in A in {@code capturedInts}
+     */
+    final private static int index0Offset = 1;
+    /**
+     * offset of the triangle index in B in {@code capturedInts}
+     */
+    final private static int index1Offset = 2;
+    /**
+     * offset of the lifetime in {@code capturedInts}
+     */
+    final private static int lifeTimeOffset = 3;
+    /**
+     * offset of the part index in A in {@code capturedInts}
+     */
+    final private static int partId0Offset = 4;
+    /**
+     * offset of the part index in B in {@code capturedInts}
+     */
+    final private static int partId1Offset = 5;
+    /**
+     * number of elements in {@code capturedInts}
+     */
+    final private static int numCapturedInts = 6;
     /**
      * message logger for this class
      */
@@ -55,14 +147,31 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
     // *************************************************************************
     // fields
 
+    /**
+     * true if the contact-point data have been captured, false if getters
+     * read the native btManifoldPoint
+     */
+    private boolean isCaptured = false;
+    /**
+     * captured floating-point data, or null if never captured
+     */
+    private float[] capturedFloats;
+    /**
+     * captured integer data, or null if never captured
+     */
+    private int[] capturedInts;
+    /**
+     * temporary storage for captured vectors, or null if never captured
+     */
+    private Vector3f tmpVector;
     /**
      * first object involved in the collision (typically a PhysicsRigidBody)
      */
-    final private PhysicsCollisionObject pcoA;
+    private PhysicsCollisionObject pcoA;
     /**
      * 2nd object involved in the collision (typically a PhysicsRigidBody)
      */
-    final private PhysicsCollisionObject pcoB;
+    private PhysicsCollisionObject pcoB;
     // *************************************************************************
     // constructors
 
@@ -86,6 +195,62 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
     // *************************************************************************
     // new methods exposed
 
+    /**
+     * Copy all fields of the native btManifoldPoint into this event, so that
+     * subsequent getters read plain Java fields instead of the native point.
+     * Invoke this while the point is still valid and after the solver has
+     * run, typically at the end of the simulation step in which the event was
+     * queued. Invoked earlier, for instance from a contact callback during
+     * collision detection, the applied impulses would be zero or stale.
+     * <p>
+     * The contact-point flags are captured too, so
+     * {@link #isLateralFrictionInitialized()} is also answered from the
+     * captured data.
+     */
+    public void capture() {
+        this.isCaptured = false;
+        if (capturedFloats == null) {
+            this.capturedFloats = new float[numCapturedFloats];
+            this.capturedInts = new int[numCapturedInts];
+            this.tmpVector = new Vector3f();
+        }
+        float[] floats = capturedFloats;
+        int[] ints = capturedInts;
+
+        floats[appliedImpulseOffset] = getAppliedImpulse();
+        floats[appliedImpulseLateral1Offset] = getAppliedImpulseLateral1();
+        floats[appliedImpulseLateral2Offset] = getAppliedImpulseLateral2();
+        floats[combinedFrictionOffset] = getCombinedFriction();
+        floats[combinedRestitutionOffset] = getCombinedRestitution();
+        floats[combinedRollingFrictionOffset] = getCombinedRollingFriction();
+        floats[combinedSpinningFrictionOffset] = getCombinedSpinningFriction();
+        floats[distance1Offset] = getDistance1();
+
+        getLateralFrictionDir1(tmpVector);
+        storeCaptured(lateralFrictionDir1Offset, tmpVector);
+        getLateralFrictionDir2(tmpVector);
+        storeCaptured(lateralFrictionDir2Offset, tmpVector);
+        getLocalPointA(tmpVector);
+        storeCaptured(localPointAOffset, tmpVector);
+        getLocalPointB(tmpVector);
+        storeCaptured(localPointBOffset, tmpVector);
+        getNormalWorldOnB(tmpVector);
+        storeCaptured(normalWorldOnBOffset, tmpVector);
+        getPositionWorldOnA(tmpVector);
+        storeCaptured(positionWorldOnAOffset, tmpVector);
+        getPositionWorldOnB(tmpVector);
+        storeCaptured(positionWorldOnBOffset, tmpVector);
+
+        ints[flagsOffset] = getFlags();
+        ints[index0Offset] = getIndex0();
+        ints[index1Offset] = getIndex1();
+        ints[lifeTimeOffset] = getLifeTime();
+        ints[partId0Offset] = getPartId0();
+        ints[partId1Offset] = getPartId1();
+
+        this.isCaptured = true;
+    }
+
     /**
      * Access the user object of collision object A, provided it's a Spatial.
      * For compatibility with jme3-jbullet.
@@ -146,8 +311,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * in the solver mode
      */
     public float getAppliedImpulse() {
-        long nativeId = nativeId();
-        float result = ManifoldPoints.getAppliedImpulse(nativeId);
+        float result;
+        if (isCaptured) {
+            result = capturedFloats[appliedImpulseOffset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getAppliedImpulse(nativeId);
+        }
 
         return result;
     }
@@ -159,8 +329,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * @return the calculated impulse component
      */
     public float getAppliedImpulseLateral1() {
-        long nativeId = nativeId();
-        float result = ManifoldPoints.getAppliedImpulseLateral1(nativeId);
+        float result;
+        if (isCaptured) {
+            result = capturedFloats[appliedImpulseLateral1Offset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getAppliedImpulseLateral1(nativeId);
+        }
 
         return result;
     }
@@ -172,8 +347,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * @return the calculate impulse component
      */
     public float getAppliedImpulseLateral2() {
-        long nativeId = nativeId();
-        float result = ManifoldPoints.getAppliedImpulseLateral2(nativeId);
+        float result;
+        if (isCaptured) {
+            result = capturedFloats[appliedImpulseLateral2Offset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getAppliedImpulseLateral2(nativeId);
+        }
 
         return result;
     }
@@ -186,8 +366,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * @return the friction product
      */
     public float getCombinedFriction() {
-        long nativeId = nativeId();
-        float result = ManifoldPoints.getCombinedFriction(nativeId);
+        float result;
+        if (isCaptured) {
+            result = capturedFloats[combinedFrictionOffset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getCombinedFriction(nativeId);
+        }
 
         return result;
     }
@@ -200,8 +385,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * @return the restitution product
      */
     public float getCombinedRestitution() {
-        long nativeId = nativeId();
-        float result = ManifoldPoints.getCombinedRestitution(nativeId);
+        float result;
+        if (isCaptured) {
+            result = capturedFloats[combinedRestitutionOffset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getCombinedRestitution(nativeId);
+        }
 
         return result;
     }
@@ -213,8 +403,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * @return the combined friction
      */
     public float getCombinedRollingFriction() {
-        long nativeId = nativeId();
-        float result = ManifoldPoints.getCombinedRollingFriction(nativeId);
+        float result;
+        if (isCaptured) {
+            result = capturedFloats[combinedRollingFrictionOffset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getCombinedRollingFriction(nativeId);
+        }
 
         return result;
     }
@@ -226,8 +421,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * @return the combined friction
      */
     public float getCombinedSpinningFriction() {
-        long nativeId = nativeId();
-        float result = ManifoldPoints.getCombinedSpinningFriction(nativeId);
+        float result;
+        if (isCaptured) {
+            result = capturedFloats[combinedSpinningFrictionOffset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getCombinedSpinningFriction(nativeId);
+        }
 
         return result;
     }
@@ -239,8 +439,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * @return the distance (in physics-space units)
      */
     public float getDistance1() {
-        long nativeId = nativeId();
-        float result = ManifoldPoints.getDistance1(nativeId);
+        float result;
+        if (isCaptured) {
+            result = capturedFloats[distance1Offset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getDistance1(nativeId);
+        }
 
         return result;
     }
@@ -252,8 +457,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * @see com.jme3.bullet.collision.ContactPointFlag
      */
     public int getFlags() {
-        long nativeId = nativeId();
-        int result = ManifoldPoints.getFlags(nativeId);
+        int result;
+        if (isCaptured) {
+            result = capturedInts[flagsOffset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getFlags(nativeId);
+        }
 
         return result;
     }
@@ -276,8 +486,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * undefined
      */
     public int getIndex0() {
-        long nativeId = nativeId();
-        int result = ManifoldPoints.getIndex0(nativeId);
+        int result;
+        if (isCaptured) {
+            result = capturedInts[index0Offset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getIndex0(nativeId);
+        }
 
         return result;
     }
@@ -300,8 +515,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * undefined
      */
     public int getIndex1() {
-        long nativeId = nativeId();
-        int result = ManifoldPoints.getIndex1(nativeId);
+        int result;
+        if (isCaptured) {
+            result = capturedInts[index1Offset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getIndex1(nativeId);
+        }
 
         return result;
     }
@@ -316,8 +536,12 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
     public Vector3f getLateralFrictionDir1(Vector3f storeResult) {
         Vector3f result = (storeResult == null) ? new Vector3f() : storeResult;
 
-        long nativeId = nativeId();
-        ManifoldPoints.getLateralFrictionDir1(nativeId, result);
+        if (isCaptured) {
+            copyCaptured(lateralFrictionDir1Offset, result);
+        } else {
+            long nativeId = nativeId();
+            ManifoldPoints.getLateralFrictionDir1(nativeId, result);
+        }
 
         return result;
     }
@@ -332,8 +556,12 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
     public Vector3f getLateralFrictionDir2(Vector3f storeResult) {
         Vector3f result = (storeResult == null) ? new Vector3f() : storeResult;
 
-        long nativeId = nativeId();
-        ManifoldPoints.getLateralFrictionDir2(nativeId, result);
+        if (isCaptured) {
+            copyCaptured(lateralFrictionDir2Offset, result);
+        } else {
+            long nativeId = nativeId();
+            ManifoldPoints.getLateralFrictionDir2(nativeId, result);
+        }
 
         return result;
     }
@@ -344,8 +572,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * @return the duration (in timesteps, &ge;0)
      */
     public int getLifeTime() {
-        long nativeId = nativeId();
-        int result = ManifoldPoints.getLifeTime(nativeId);
+        int result;
+        if (isCaptured) {
+            result = capturedInts[lifeTimeOffset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getLifeTime(nativeId);
+        }
 
         return result;
     }
@@ -360,8 +593,12 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
     public Vector3f getLocalPointA(Vector3f storeResult) {
         Vector3f result = (storeResult == null) ? new Vector3f() : storeResult;
 
-        long nativeId = nativeId();
-        ManifoldPoints.getLocalPointA(nativeId, result);
+        if (isCaptured) {
+            copyCaptured(localPointAOffset, result);
+        } else {
+            long nativeId = nativeId();
+            ManifoldPoints.getLocalPointA(nativeId, result);
+        }
 
         return result;
     }
@@ -376,8 +613,12 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
     public Vector3f getLocalPointB(Vector3f storeResult) {
         Vector3f result = (storeResult == null) ? new Vector3f() : storeResult;
 
-        long nativeId = nativeId();
-        ManifoldPoints.getLocalPointB(nativeId, result);
+        if (isCaptured) {
+            copyCaptured(localPointBOffset, result);
+        } else {
+            long nativeId = nativeId();
+            ManifoldPoints.getLocalPointB(nativeId, result);
+        }
 
         return result;
     }
@@ -402,8 +643,12 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
     public Vector3f getNormalWorldOnB(Vector3f storeResult) {
         Vector3f result = (storeResult == null) ? new Vector3f() : storeResult;
 
-        long nativeId = nativeId();
-        ManifoldPoints.getNormalWorldOnB(nativeId, result);
+        if (isCaptured) {
+            copyCaptured(normalWorldOnBOffset, result);
+        } else {
+            long nativeId = nativeId();
+            ManifoldPoints.getNormalWorldOnB(nativeId, result);
+        }
 
         return result;
     }
@@ -423,8 +668,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * @return the index of the collision-shape part (&ge;0) or -1 if undefined
      */
     public int getPartId0() {
-        long nativeId = nativeId();
-        int result = ManifoldPoints.getPartId0(nativeId);
+        int result;
+        if (isCaptured) {
+            result = capturedInts[partId0Offset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getPartId0(nativeId);
+        }
 
         return result;
     }
@@ -444,8 +694,13 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
      * @return the index of the collision-shape part (&ge;0) or -1 if undefined
      */
     public int getPartId1() {
-        long nativeId = nativeId();
-        int result = ManifoldPoints.getPartId1(nativeId);
+        int result;
+        if (isCaptured) {
+            result = capturedInts[partId1Offset];
+        } else {
+            long nativeId = nativeId();
+            result = ManifoldPoints.getPartId1(nativeId);
+        }
 
         return result;
     }
@@ -470,8 +725,12 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
     public Vector3f getPositionWorldOnA(Vector3f storeResult) {
         Vector3f result = (storeResult == null) ? new Vector3f() : storeResult;
 
-        long nativeId = nativeId();
-        ManifoldPoints.getPositionWorldOnA(nativeId, result);
+        if (isCaptured) {
+            copyCaptured(positionWorldOnAOffset, result);
+        } else {
+            long nativeId = nativeId();
+            ManifoldPoints.getPositionWorldOnA(nativeId, result);
+        }
 
         return result;
     }
@@ -496,12 +755,26 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
     public Vector3f getPositionWorldOnB(Vector3f storeResult) {
         Vector3f result = (storeResult == null) ? new Vector3f() : storeResult;
 
-        long nativeId = nativeId();
-        ManifoldPoints.getPositionWorldOnB(nativeId, result);
+        if (isCaptured) {
+            copyCaptured(positionWorldOnBOffset, result);
+        } else {
+            long nativeId = nativeId();
+            ManifoldPoints.getPositionWorldOnB(nativeId, result);
+        }
 
         return result;
     }
 
+    /**
+     * Test whether the contact-point data have been captured.
+     *
+     * @return true if captured, false if getters read the native point
+     * @see #capture()
+     */
+    public boolean isCaptured() {
+        return isCaptured;
+    }
+
     /**
      * Test whether the contact point's lateral friction is initialized.
      *
@@ -513,4 +786,97 @@ public class PhysicsCollisionEvent extends NativePhysicsObject {
 
         return result;
     }
+    // *************************************************************************
+    // new protected methods
+
+    /**
+     * Re-assign this event to a different point of contact, so that the
+     * instance can be recycled. Any listener holding a reference to this event
+     * will see the new contact point.
+     *
+     * @param pcoA the first involved object (not null, alias created)
+     * @param pcoB the 2nd involved object (not null, alias created)
+     * @param manifoldPointId the native ID of the btManifoldPoint (not zero)
+     */
+    protected void reassign(PhysicsCollisionObject pcoA,
+            PhysicsCollisionObject pcoB, long manifoldPointId) {
+        Validate.nonNull(pcoA, "object A");
+        Validate.nonNull(pcoB, "object B");
+        Validate.nonZero(manifoldPointId, "manifold point ID");
+
+        this.pcoA = pcoA;
+        this.pcoB = pcoB;
+        this.isCaptured = false;
+        if (hasAssignedNativeObject()) {
+            unassignNativeObject();
+        }
+        super.setNativeIdNotTracked(manifoldPointId);
+    }
+    // *************************************************************************
+    // NativePhysicsObject methods
+
+    /**
+     * Test for equivalence with another object. Events are equivalent if
+     * they describe the same point of contact between the same objects,
+     * regardless of whether either event is recyclable.
+     *
+     * @param otherObject the object to compare (may be null, unaffected)
+     * @return true if {@code this} and {@code otherObject} are equivalent,
+     * otherwise false
+     */
+    @Override
+    public boolean equals(Object otherObject) {
+        boolean result;
+        if (otherObject == this) {
+            result = true;
+        } else if (otherObject instanceof PhysicsCollisionEvent) {
+            PhysicsCollisionEvent otherEvent
+                    = (PhysicsCollisionEvent) otherObject;
+            result = otherEvent.nativeId() == nativeId()
+                    && otherEvent.getObjectA() == pcoA
+                    && otherEvent.getObjectB() == pcoB;
+        } else {
+            result = false;
+        }
+
+        return result;
+    }
+
+    /**
+     * Return the hash code for this instance, based on the native ID of the
+     * btManifoldPoint.
+     *
+     * @return a 32-bit value for use in hashing
+     */
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        return result;
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Copy a captured vector to the specified storage.
+     *
+     * @param offset the offset of the first component in
+     * {@code capturedFloats}
+     * @param storeResult storage for the result (not null, modified)
+     */
+    private void copyCaptured(int offset, Vector3f storeResult) {
+        storeResult.set(capturedFloats[offset], capturedFloats[offset + 1],
+                capturedFloats[offset + 2]);
+    }
+
+    /**
+     * Store the specified vector in {@code capturedFloats}.
+     *
+     * @param offset the offset of the first component
+     * @param vector the vector to store (not null, unaffected)
+     */
+    private void storeCaptured(int offset, Vector3f vector) {
+        capturedFloats[offset] = vector.x;
+        capturedFloats[offset + 1] = vector.y;
+        capturedFloats[offset + 2] = vector.z;
+    }
 }
@@ -1066,6 +1066,25 @@ abstract public class PhysicsCollisionObject
         }
     }
 
+    /**
+     * Alter this object's activation state (native field: m_activationState1),
+     * for instance to restore a saved state. Unlike {@code activate()}, this
+     * can put an object to sleep.
+     * <p>
+     * Deactivation doesn't affect a PhysicsCharacter or PhysicsGhostObject.
+     *
+     * @param desiredState the desired state (1=active tag, 2=island sleeping,
+     * 3=wants deactivation, 4=disable deactivation, 5=disable simulation)
+     * @see Activation
+     */
+    public void setActivationState(int desiredState) {
+        Validate.inRange(desiredState, "desired state",
+                Activation.firstValue, Activation.lastValue);
+
+        long objectId = nativeId();
+        setActivationState(objectId, desiredState);
+    }
+
     /**
      * Alter this object's anisotropic friction (native field:
      * m_anisotropicFriction).
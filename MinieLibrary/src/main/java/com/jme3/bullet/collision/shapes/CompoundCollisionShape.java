@@ -32,10 +32,8 @@
 package com.jme3.bullet.collision.shapes;
 
 import com.jme3.bullet.CollisionSpace;
-import com.jme3.bullet.PhysicsSpace;
-import com.jme3.bullet.collision.PhysicsCollisionObject;
 import com.jme3.bullet.collision.shapes.infos.ChildCollisionShape;
-import com.jme3.bullet.objects.PhysicsGhostObject;
+import com.jme3.bullet.collision.shapes.infos.CompoundConnectivity;
 import com.jme3.bullet.util.DebugShapeFactory;
 import com.jme3.export.InputCapsule;
 import com.jme3.export.JmeExporter;
@@ -206,6 +204,18 @@ public class CompoundCollisionShape extends CollisionShape {
         addChildShape(shape, offset, rotation);
     }
 
+    /**
+     * Analyze the connectivity of the children. Only children with
+     * overlapping bounding boxes are tested in the narrow phase.
+     *
+     * @param space the space to use for tests, or null to create a new space
+     * @return a new instance
+     */
+    public CompoundConnectivity connectivity(CollisionSpace space) {
+        CompoundConnectivity result = new CompoundConnectivity(this, space);
+        return result;
+    }
+
     /**
      * Generate a connectivity matrix for the children.
      *
@@ -214,41 +224,13 @@ public class CompoundCollisionShape extends CollisionShape {
      * child intersects with the jth child
      */
     public boolean[][] connectivityMatrix(CollisionSpace space) {
-        int numChildren = children.size();
+        CompoundConnectivity connectivity = connectivity(space);
+        int numChildren = connectivity.countChildren();
         boolean[][] result = new boolean[numChildren][numChildren];
-        Matrix3f tmpRotation = new Matrix3f();
-        Vector3f tmpOffset = new Vector3f();
-
-        // Generate a ghost object for each child.
-        PhysicsGhostObject[] ghosts = new PhysicsGhostObject[numChildren];
         for (int childI = 0; childI < numChildren; ++childI) {
-            result[childI][childI] = true;
-
-            ChildCollisionShape child = children.get(childI);
-            CollisionShape shape = child.getShape();
-            PhysicsGhostObject ghost = new PhysicsGhostObject(shape);
-            child.copyOffset(tmpOffset);
-            ghost.setPhysicsLocation(tmpOffset);
-            child.copyRotationMatrix(tmpRotation);
-            ghost.setPhysicsRotation(tmpRotation);
-            ghosts[childI] = ghost;
-        }
-
-        CollisionSpace testSpace = (space == null)
-                ? new CollisionSpace(
-                        tmpOffset, tmpOffset, PhysicsSpace.BroadphaseType.DBVT)
-                : space;
-
-        // Test each pair of children for intersections.
-        for (int childI = 0; childI < numChildren - 1; ++childI) {
-            PhysicsCollisionObject iPco = ghosts[childI];
-
-            for (int childJ = childI + 1; childJ < numChildren; ++childJ) {
-                PhysicsCollisionObject jPco = ghosts[childJ];
-                int numIntersections = testSpace.pairTest(iPco, jPco, null);
-                boolean intersects = (numIntersections > 0);
-                result[childI][childJ] = intersects;
-                result[childJ][childI] = intersects;
+            for (int childJ = 0; childJ < numChildren; ++childJ) {
+                result[childI][childJ]
+                        = connectivity.intersects(childI, childJ);
             }
         }
 
@@ -292,9 +274,8 @@ public class CompoundCollisionShape extends CollisionShape {
     /**
      * Enumerate disconnected groups of connected children.
      * <p>
-     * A graph-coloring algorithm is applied to the connectivity matrix. Each
-     * node in the graph represents a child, and each color represents a group
-     * of connected children.
+     * Groups are found using union-find on the sparse connectivity of the
+     * children, and numbered in order of their lowest-indexed child.
      *
      * @param space the space to use for tests, or null to create a new space
      * @param storeMap storage for the mapping from children to groups (not
@@ -306,55 +287,12 @@ public class CompoundCollisionShape extends CollisionShape {
         int numNodes = children.size();
         Validate.require(storeMap.length == numNodes, "the correct length");
 
-        boolean[][] connected = connectivityMatrix(space);
-
-        // Begin with all nodes colorless.
-        for (int nodeI = 0; nodeI < numNodes; ++nodeI) {
-            storeMap[nodeI] = -1; // -1 means colorless
-        }
-        int numColorlessNodes = numNodes;
-
-        int numAssignedColors = 0;
-        while (numColorlessNodes > 0) {
-            // Assign a new color to the first colorless node, if any.
-            int newColor = -1;
-            for (int nodeI = numAssignedColors; nodeI < numNodes; ++nodeI) {
-                if (storeMap[nodeI] == -1) {
-                    newColor = numAssignedColors;
-                    ++numAssignedColors;
-                    storeMap[nodeI] = newColor;
-                    --numColorlessNodes;
-                    break; // for
-                }
-            }
-            if (newColor == -1) { // Every node must be colored.
-                break; // while
-            }
-            /*
-             * Color any colorless nodes
-             * that connect to nodes having the new color.
-             */
-            boolean progress = true;
-            while (progress) {
-                progress = false;
-                for (int i = 0; i < numNodes; ++i) {
-                    if (storeMap[i] == newColor) {
-                        for (int j = 0; j < numNodes; ++j) {
-                            if (storeMap[j] == -1 && connected[i][j]) {
-                                storeMap[j] = newColor;
-                                --numColorlessNodes;
-                                progress = true;
-                            }
-                        }
-                    }
-                }
-            }
-        }
+        CompoundConnectivity connectivity = connectivity(space);
+        int result = connectivity.groupMap(storeMap);
 
-        // Every node has been colored.
-        assert numAssignedColors >= 0 : numAssignedColors;
-        assert numAssignedColors <= children.size() : numAssignedColors;
-        return numAssignedColors;
+        assert result >= 0 : result;
+        assert result <= numNodes : result;
+        return result;
     }
 
     /**
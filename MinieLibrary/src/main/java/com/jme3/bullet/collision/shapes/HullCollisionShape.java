@@ -86,16 +86,13 @@ public class HullCollisionShape extends ConvexShape {
     // fields
 
     /**
-     * direct buffer for passing vertices to Bullet
+     * direct buffer for passing vertices to Bullet, also the only Java copy of
+     * the mesh coordinates (capacity a multiple of 3)
      * <p>
      * A Java reference must persist after createShape() completes, or else the
      * buffer might get garbage collected.
      */
     private FloatBuffer directBuffer;
-    /**
-     * array of mesh coordinates (not null, not empty, length a multiple of 3)
-     */
-    private float[] points;
     // *************************************************************************
     // constructors
 
@@ -117,16 +114,16 @@ public class HullCollisionShape extends ConvexShape {
         Validate.nonEmpty(locations, "locations");
 
         int numLocations = locations.size();
-        this.points = new float[numAxes * numLocations];
+        float[] points = new float[numAxes * numLocations];
         int j = 0;
         for (Vector3f location : locations) {
-            this.points[j + PhysicsSpace.AXIS_X] = location.x;
-            this.points[j + PhysicsSpace.AXIS_Y] = location.y;
-            this.points[j + PhysicsSpace.AXIS_Z] = location.z;
+            points[j + PhysicsSpace.AXIS_X] = location.x;
+            points[j + PhysicsSpace.AXIS_Y] = location.y;
+            points[j + PhysicsSpace.AXIS_Z] = location.z;
             j += numAxes;
         }
 
-        createShape();
+        createShape(points);
     }
 
     /**
@@ -142,8 +139,7 @@ public class HullCollisionShape extends ConvexShape {
         Validate.require(
                 points.length % numAxes == 0, "length a multiple of 3");
 
-        this.points = points.clone();
-        createShape();
+        createShape(points);
     }
 
     /**
@@ -160,11 +156,10 @@ public class HullCollisionShape extends ConvexShape {
         Validate.positive(numFloats, "limit");
         Validate.require(numFloats % numAxes == 0, "limit a multiple of 3");
 
-        this.points = new float[numFloats];
-        for (int i = 0; i < numFloats; ++i) {
-            this.points[i] = flippedBuffer.get(i);
-        }
-
+        this.directBuffer = BufferUtils.createFloatBuffer(numFloats);
+        FloatBuffer source = flippedBuffer.duplicate();
+        source.rewind();
+        directBuffer.put(source); // bulk copy
         createShape();
     }
 
@@ -178,10 +173,10 @@ public class HullCollisionShape extends ConvexShape {
      */
     public HullCollisionShape(Mesh... meshes) {
         Validate.nonEmpty(meshes, "meshes");
-        this.points = getPoints(meshes);
+        float[] points = getPoints(meshes);
         Validate.require(points.length > 0, "at least one vertex");
 
-        createShape();
+        createShape(points);
     }
 
     /**
@@ -206,18 +201,18 @@ public class HullCollisionShape extends ConvexShape {
 
         // Transform corner locations to shape coordinates.
         int numFloats = numAxes * cornerLocations.size();
-        this.points = new float[numFloats];
+        float[] points = new float[numFloats];
         int floatIndex = 0;
         Vector3f tempVector = new Vector3f();
         for (Vector3f location : cornerLocations) {
             rectangularSolid.localToWorld(location, tempVector);
-            this.points[floatIndex + PhysicsSpace.AXIS_X] = tempVector.x;
-            this.points[floatIndex + PhysicsSpace.AXIS_Y] = tempVector.y;
-            this.points[floatIndex + PhysicsSpace.AXIS_Z] = tempVector.z;
+            points[floatIndex + PhysicsSpace.AXIS_X] = tempVector.x;
+            points[floatIndex + PhysicsSpace.AXIS_Y] = tempVector.y;
+            points[floatIndex + PhysicsSpace.AXIS_Z] = tempVector.z;
             floatIndex += numAxes;
         }
 
-        createShape();
+        createShape(points);
     }
 
     /**
@@ -231,16 +226,16 @@ public class HullCollisionShape extends ConvexShape {
         Validate.nonEmpty(locations, "points");
 
         int numFloats = numAxes * locations.length;
-        this.points = new float[numFloats];
+        float[] points = new float[numFloats];
         int floatIndex = 0;
         for (Vector3f location : locations) {
-            this.points[floatIndex + PhysicsSpace.AXIS_X] = location.x;
-            this.points[floatIndex + PhysicsSpace.AXIS_Y] = location.y;
-            this.points[floatIndex + PhysicsSpace.AXIS_Z] = location.z;
+            points[floatIndex + PhysicsSpace.AXIS_X] = location.x;
+            points[floatIndex + PhysicsSpace.AXIS_Y] = location.y;
+            points[floatIndex + PhysicsSpace.AXIS_Z] = location.z;
             floatIndex += numAxes;
         }
 
-        createShape();
+        createShape(points);
     }
 
     /**
@@ -252,8 +247,8 @@ public class HullCollisionShape extends ConvexShape {
     public HullCollisionShape(Vhacd4Hull vhacd4Hull) {
         Validate.nonNull(vhacd4Hull, "V-HACD hull");
 
-        this.points = vhacd4Hull.clonePositions();
-        createShape();
+        float[] points = vhacd4Hull.clonePositions();
+        createShape(points);
     }
 
     /**
@@ -265,8 +260,8 @@ public class HullCollisionShape extends ConvexShape {
     public HullCollisionShape(VHACDHull vhacdHull) {
         Validate.nonNull(vhacdHull, "V-HACD hull");
 
-        this.points = vhacdHull.clonePositions();
-        createShape();
+        float[] points = vhacdHull.clonePositions();
+        createShape(points);
     }
     // *************************************************************************
     // new methods exposed
@@ -284,11 +279,9 @@ public class HullCollisionShape extends ConvexShape {
                 Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
 
         Vector3f location = new Vector3f();
-        for (int floatI = 0; floatI < points.length; floatI += numAxes) {
-            float x = points[floatI + PhysicsSpace.AXIS_X];
-            float y = points[floatI + PhysicsSpace.AXIS_Y];
-            float z = points[floatI + PhysicsSpace.AXIS_Z];
-            location.set(x, y, z);
+        int numFloats = directBuffer.capacity();
+        for (int floatI = 0; floatI < numFloats; floatI += numAxes) {
+            MyBuffer.get(directBuffer, floatI, location);
             MyVector3f.accumulateMinima(minima, location);
             MyVector3f.accumulateMaxima(maxima, location);
         }
@@ -341,7 +334,7 @@ public class HullCollisionShape extends ConvexShape {
      * @return the count (&gt;0)
      */
     public int countMeshVertices() {
-        int length = points.length;
+        int length = directBuffer.capacity();
         assert (length % numAxes == 0) : length;
         int result = length / numAxes;
 
@@ -360,16 +353,20 @@ public class HullCollisionShape extends ConvexShape {
         Vector3f result = (storeResult == null) ? new Vector3f() : storeResult;
 
         result.zero();
-        for (int i = 0; i < points.length; i += numAxes) {
-            float x = FastMath.abs(points[i + PhysicsSpace.AXIS_X]);
+        int numFloats = directBuffer.capacity();
+        for (int i = 0; i < numFloats; i += numAxes) {
+            float x = FastMath.abs(
+                    directBuffer.get(i + PhysicsSpace.AXIS_X));
             if (x > result.x) {
                 result.x = x;
             }
-            float y = FastMath.abs(points[i + PhysicsSpace.AXIS_Y]);
+            float y = FastMath.abs(
+                    directBuffer.get(i + PhysicsSpace.AXIS_Y));
             if (y > result.y) {
                 result.y = y;
             }
-            float z = FastMath.abs(points[i + PhysicsSpace.AXIS_Z]);
+            float z = FastMath.abs(
+                    directBuffer.get(i + PhysicsSpace.AXIS_Z));
             if (z > result.z) {
                 result.z = z;
             }
@@ -522,8 +519,11 @@ public class HullCollisionShape extends ConvexShape {
     @Override
     public void cloneFields(Cloner cloner, Object original) {
         super.cloneFields(cloner, original);
-        this.directBuffer = null; // directBuffer is never cloned.
-        this.points = cloner.clone(points);
+        // The shallow clone shares directBuffer, so copy it.
+        FloatBuffer source = directBuffer.duplicate();
+        source.clear();
+        this.directBuffer = BufferUtils.createFloatBuffer(source.capacity());
+        directBuffer.put(source); // bulk copy
         createShape();
     }
 
@@ -570,12 +570,13 @@ public class HullCollisionShape extends ConvexShape {
 
         // for backwards compatibility
         Mesh mesh = (Mesh) capsule.readSavable(tagHullMesh, null);
+        float[] points;
         if (mesh != null) {
-            this.points = getPoints(mesh);
+            points = getPoints(mesh);
         } else {
-            this.points = capsule.readFloatArray(tagPoints, new float[0]);
+            points = capsule.readFloatArray(tagPoints, new float[0]);
         }
-        createShape();
+        createShape(points);
     }
 
     /**
@@ -609,19 +610,16 @@ public class HullCollisionShape extends ConvexShape {
      * Instantiate the configured shape in Bullet.
      */
     private void createShape() {
-        assert directBuffer == null : directBuffer;
-
-        int numFloats = points.length;
+        int numFloats = directBuffer.capacity();
         assert numFloats != 0;
         assert (numFloats % numAxes == 0) : numFloats;
         int numVertices = numFloats / numAxes;
 
-        this.directBuffer = BufferUtils.createFloatBuffer(numFloats);
-        for (float f : points) {
+        for (int i = 0; i < numFloats; ++i) {
+            float f = directBuffer.get(i);
             if (!Float.isFinite(f)) {
                 throw new IllegalArgumentException("illegal coordinate: " + f);
             }
-            directBuffer.put(f);
         }
 
         long shapeId = createShapeF(directBuffer, numVertices);
@@ -632,6 +630,19 @@ public class HullCollisionShape extends ConvexShape {
         setMargin(margin);
     }
 
+    /**
+     * Copy the specified coordinates to a new direct buffer and instantiate
+     * the configured shape in Bullet.
+     *
+     * @param points the mesh coordinates (not null, not empty, length a
+     * multiple of 3, unaffected)
+     */
+    private void createShape(float[] points) {
+        assert directBuffer == null : directBuffer;
+        this.directBuffer = BufferUtils.createFloatBuffer(points);
+        createShape();
+    }
+
     /**
      * Copy the vertex positions from JME mesh(es).
      *
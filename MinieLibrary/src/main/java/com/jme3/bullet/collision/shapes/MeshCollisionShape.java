@@ -268,6 +268,15 @@ public class MeshCollisionShape extends CollisionShape {
         return result;
     }
 
+    /**
+     * Test whether the shape uses quantized AABB compression.
+     *
+     * @return true if compressed, otherwise false
+     */
+    public boolean isCompressed() {
+        return useCompression;
+    }
+
     /**
      * Serialize the BVH to a byte array.
      *
@@ -0,0 +1,503 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet.collision.shapes.infos;
+
+import com.jme3.bounding.BoundingBox;
+import com.jme3.bullet.CollisionSpace;
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import com.jme3.bullet.collision.shapes.CompoundCollisionShape;
+import com.jme3.bullet.objects.PhysicsGhostObject;
+import com.jme3.math.Matrix3f;
+import com.jme3.math.Vector3f;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * Connectivity of the children of a CompoundCollisionShape: which children
+ * intersect, and which groups of children are connected.
+ * <p>
+ * Child bounding boxes are sorted along the X axis and swept, so that only
+ * children with overlapping boxes are tested in the narrow phase. Adjacency
+ * is stored as a list of neighbors per child, and groups are found using
+ * union-find, so the work grows with the number of contacts rather than with
+ * the square of the number of children.
+ * <p>
+ * After construction, children can be removed without further narrow-phase
+ * tests. Children keep the indices they had when the instance was created.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class CompoundConnectivity {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(CompoundConnectivity.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * true for each child that's been removed
+     */
+    final private boolean[] isRemoved;
+    /**
+     * number of children not removed (&ge;0)
+     */
+    private int numActive;
+    /**
+     * number of narrow-phase tests performed (&ge;0)
+     */
+    private int numPairTests = 0;
+    /**
+     * number of neighbors of each child
+     */
+    final private int[] numNeighbors;
+    /**
+     * union-find parent of each child
+     */
+    final private int[] parent;
+    /**
+     * union-find tree size of each root
+     */
+    final private int[] treeSize;
+    /**
+     * neighbors of each child, in arbitrary order
+     */
+    final private int[][] neighbors;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Analyze the children of the specified shape.
+     *
+     * @param compound the shape to analyze (not null, unaffected)
+     * @param space the space to use for tests, or null to create a new space
+     */
+    public CompoundConnectivity(
+            CompoundCollisionShape compound, CollisionSpace space) {
+        Validate.nonNull(compound, "compound");
+
+        ChildCollisionShape[] children = compound.listChildren();
+        int numChildren = children.length;
+        this.isRemoved = new boolean[numChildren];
+        this.numActive = numChildren;
+        this.numNeighbors = new int[numChildren];
+        this.parent = new int[numChildren];
+        this.treeSize = new int[numChildren];
+        this.neighbors = new int[numChildren][];
+
+        // Calculate the bounding box of each child.
+        final BoundingBox[] bounds = new BoundingBox[numChildren];
+        Matrix3f tmpRotation = new Matrix3f();
+        Vector3f tmpOffset = new Vector3f();
+        Integer[] order = new Integer[numChildren];
+        for (int childI = 0; childI < numChildren; ++childI) {
+            ChildCollisionShape child = children[childI];
+            child.copyOffset(tmpOffset);
+            child.copyRotationMatrix(tmpRotation);
+            bounds[childI] = child.getShape().boundingBox(
+                    tmpOffset, tmpRotation, null);
+            order[childI] = childI;
+        }
+
+        // Sort the children by the minimum X of their bounding boxes.
+        final Vector3f[] minima = new Vector3f[numChildren];
+        final Vector3f[] maxima = new Vector3f[numChildren];
+        for (int childI = 0; childI < numChildren; ++childI) {
+            minima[childI] = bounds[childI].getMin(null);
+            maxima[childI] = bounds[childI].getMax(null);
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i, Integer j) {
+                int result = Float.compare(minima[i].x, minima[j].x);
+                return result;
+            }
+        });
+
+        // Sweep along the X axis, testing pairs whose boxes overlap.
+        CollisionSpace testSpace = space;
+        PhysicsGhostObject[] ghosts = new PhysicsGhostObject[numChildren];
+        for (int sortedI = 0; sortedI < numChildren - 1; ++sortedI) {
+            int childI = order[sortedI];
+            Vector3f iMax = maxima[childI];
+            Vector3f iMin = minima[childI];
+
+            for (int sortedJ = sortedI + 1; sortedJ < numChildren; ++sortedJ) {
+                int childJ = order[sortedJ];
+                Vector3f jMin = minima[childJ];
+                if (jMin.x > iMax.x) {
+                    break; // No later child can overlap in X.
+                }
+                Vector3f jMax = maxima[childJ];
+                if (jMin.y > iMax.y || jMax.y < iMin.y
+                        || jMin.z > iMax.z || jMax.z < iMin.z) {
+                    continue;
+                }
+
+                if (testSpace == null) {
+                    testSpace = new CollisionSpace(new Vector3f(),
+                            new Vector3f(), PhysicsSpace.BroadphaseType.DBVT);
+                }
+                PhysicsGhostObject iGhost
+                        = ghost(children, childI, ghosts);
+                PhysicsGhostObject jGhost
+                        = ghost(children, childJ, ghosts);
+                int numIntersections
+                        = testSpace.pairTest(iGhost, jGhost, null);
+                ++numPairTests;
+                if (numIntersections > 0) {
+                    addNeighbor(childI, childJ);
+                    addNeighbor(childJ, childI);
+                }
+            }
+        }
+
+        rebuildGroups();
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Count the children that haven't been removed.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countActive() {
+        assert numActive >= 0 : numActive;
+        return numActive;
+    }
+
+    /**
+     * Count the children analyzed, including any that have been removed.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countChildren() {
+        int result = parent.length;
+        return result;
+    }
+
+    /**
+     * Count the disconnected groups of connected children.
+     *
+     * @return the count (&ge;0, &le;number of active children)
+     */
+    public int countGroups() {
+        int result = 0;
+        for (int childI = 0; childI < parent.length; ++childI) {
+            if (!isRemoved[childI] && parent[childI] == childI) {
+                ++result;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Count the neighbors of the indexed child.
+     *
+     * @param childIndex the index of the child (&ge;0, &lt;numChildren)
+     * @return the count (&ge;0)
+     */
+    public int countNeighbors(int childIndex) {
+        Validate.inRange(childIndex, "child index", 0, parent.length - 1);
+        int result = numNeighbors[childIndex];
+        return result;
+    }
+
+    /**
+     * Count the narrow-phase tests performed during construction.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countPairTests() {
+        assert numPairTests >= 0 : numPairTests;
+        return numPairTests;
+    }
+
+    /**
+     * Number the groups of connected children in order of their
+     * lowest-indexed child, and map each child to its group.
+     *
+     * @param storeMap storage for the mapping from children to groups (not
+     * null, length = number of children, modified, -1 for removed children)
+     * @return the number of groups found (&ge;0, &le;number of active
+     * children)
+     */
+    public int groupMap(int[] storeMap) {
+        Validate.nonNull(storeMap, "storage for map");
+        int numChildren = parent.length;
+        Validate.require(storeMap.length == numChildren, "the correct length");
+
+        Arrays.fill(storeMap, -1);
+        int result = 0;
+        for (int childI = 0; childI < numChildren; ++childI) {
+            if (!isRemoved[childI]) {
+                int root = find(childI); // not necessarily the lowest index
+                if (storeMap[root] == -1) {
+                    storeMap[root] = result;
+                    ++result;
+                }
+                storeMap[childI] = storeMap[root];
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Test whether the indexed children intersect.
+     *
+     * @param childI the index of the first child (&ge;0, &lt;numChildren)
+     * @param childJ the index of the 2nd child (&ge;0, &lt;numChildren)
+     * @return true if they intersect or are the same active child, otherwise
+     * false
+     */
+    public boolean intersects(int childI, int childJ) {
+        Validate.inRange(childI, "first index", 0, parent.length - 1);
+        Validate.inRange(childJ, "2nd index", 0, parent.length - 1);
+
+        if (isRemoved[childI] || isRemoved[childJ]) {
+            return false;
+        } else if (childI == childJ) {
+            return true;
+        }
+        int[] list = neighbors[childI];
+        for (int k = 0; k < numNeighbors[childI]; ++k) {
+            if (list[k] == childJ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Test whether the indexed children belong to the same group.
+     *
+     * @param childI the index of the first child (&ge;0, &lt;numChildren)
+     * @param childJ the index of the 2nd child (&ge;0, &lt;numChildren)
+     * @return true if both are active and connected, otherwise false
+     */
+    public boolean isConnected(int childI, int childJ) {
+        Validate.inRange(childI, "first index", 0, parent.length - 1);
+        Validate.inRange(childJ, "2nd index", 0, parent.length - 1);
+
+        boolean result = !isRemoved[childI] && !isRemoved[childJ]
+                && find(childI) == find(childJ);
+        return result;
+    }
+
+    /**
+     * Test whether the indexed child has been removed.
+     *
+     * @param childIndex the index of the child (&ge;0, &lt;numChildren)
+     * @return true if removed, otherwise false
+     */
+    public boolean isRemoved(int childIndex) {
+        Validate.inRange(childIndex, "child index", 0, parent.length - 1);
+        boolean result = isRemoved[childIndex];
+        return result;
+    }
+
+    /**
+     * Remove the indexed child from the analysis, without performing any
+     * narrow-phase tests. Only the group that contained the child is
+     * re-analyzed.
+     *
+     * @param childIndex the index of the child to remove (&ge;0,
+     * &lt;numChildren, not already removed)
+     */
+    public void removeChild(int childIndex) {
+        Validate.inRange(childIndex, "child index", 0, parent.length - 1);
+        Validate.require(!isRemoved[childIndex], "an active child");
+
+        int oldRoot = find(childIndex);
+        isRemoved[childIndex] = true;
+        --numActive;
+
+        int[] list = neighbors[childIndex];
+        for (int k = 0; k < numNeighbors[childIndex]; ++k) {
+            removeNeighbor(list[k], childIndex);
+        }
+        numNeighbors[childIndex] = 0;
+        neighbors[childIndex] = null;
+        /*
+         * Removal can split the group, which union-find can't undo,
+         * so reset the group's members and re-unite them from their edges.
+         */
+        int numChildren = parent.length;
+        boolean[] inGroup = new boolean[numChildren];
+        for (int childI = 0; childI < numChildren; ++childI) {
+            inGroup[childI] = (find(childI) == oldRoot);
+        }
+        for (int childI = 0; childI < numChildren; ++childI) {
+            if (inGroup[childI]) {
+                parent[childI] = childI;
+                treeSize[childI] = 1;
+            }
+        }
+        for (int childI = 0; childI < numChildren; ++childI) {
+            if (inGroup[childI] && !isRemoved[childI]) {
+                unite(childI);
+            }
+        }
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Append a neighbor to the indexed child's list.
+     *
+     * @param childIndex the index of the child (&ge;0)
+     * @param neighbor the index of the neighbor (&ge;0)
+     */
+    private void addNeighbor(int childIndex, int neighbor) {
+        int[] list = neighbors[childIndex];
+        int count = numNeighbors[childIndex];
+        if (list == null) {
+            list = new int[4];
+            neighbors[childIndex] = list;
+        } else if (count == list.length) {
+            list = Arrays.copyOf(list, 2 * count);
+            neighbors[childIndex] = list;
+        }
+        list[count] = neighbor;
+        numNeighbors[childIndex] = count + 1;
+    }
+
+    /**
+     * Find the root of the indexed child's union-find tree, halving the path
+     * along the way.
+     *
+     * @param childIndex the index of the child (&ge;0)
+     * @return the index of the root (&ge;0)
+     */
+    private int find(int childIndex) {
+        int result = childIndex;
+        while (parent[result] != result) {
+            parent[result] = parent[parent[result]];
+            result = parent[result];
+        }
+
+        return result;
+    }
+
+    /**
+     * Access the ghost object for the indexed child, creating it if
+     * necessary.
+     *
+     * @param children the children being analyzed (not null)
+     * @param childIndex the index of the child (&ge;0)
+     * @param ghosts the ghost for each child, or null if not created yet (not
+     * null, modified)
+     * @return the ghost object (not null)
+     */
+    private static PhysicsGhostObject ghost(ChildCollisionShape[] children,
+            int childIndex, PhysicsGhostObject[] ghosts) {
+        PhysicsGhostObject result = ghosts[childIndex];
+        if (result == null) {
+            ChildCollisionShape child = children[childIndex];
+            CollisionShape shape = child.getShape();
+            result = new PhysicsGhostObject(shape);
+            result.setPhysicsLocation(child.copyOffset(null));
+            result.setPhysicsRotation(child.copyRotationMatrix(null));
+            ghosts[childIndex] = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Reset union-find for all children and unite every active child with
+     * its neighbors.
+     */
+    private void rebuildGroups() {
+        int numChildren = parent.length;
+        for (int childI = 0; childI < numChildren; ++childI) {
+            parent[childI] = childI;
+            treeSize[childI] = 1;
+        }
+        for (int childI = 0; childI < numChildren; ++childI) {
+            if (!isRemoved[childI]) {
+                unite(childI);
+            }
+        }
+    }
+
+    /**
+     * Remove a neighbor from the indexed child's list.
+     *
+     * @param childIndex the index of the child (&ge;0)
+     * @param neighbor the index of the neighbor to remove (&ge;0)
+     */
+    private void removeNeighbor(int childIndex, int neighbor) {
+        int[] list = neighbors[childIndex];
+        int last = numNeighbors[childIndex] - 1;
+        for (int k = 0; k <= last; ++k) {
+            if (list[k] == neighbor) {
+                list[k] = list[last];
+                numNeighbors[childIndex] = last;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Unite the indexed child's tree with those of its neighbors, by size.
+     *
+     * @param childIndex the index of the child (&ge;0, active)
+     */
+    private void unite(int childIndex) {
+        int[] list = neighbors[childIndex];
+        for (int k = 0; k < numNeighbors[childIndex]; ++k) {
+            int rootA = find(childIndex);
+            int rootB = find(list[k]);
+            if (rootA != rootB) {
+                if (treeSize[rootA] < treeSize[rootB]) {
+                    int swap = rootA;
+                    rootA = rootB;
+                    rootB = swap;
+                }
+                parent[rootB] = rootA;
+                treeSize[rootA] += treeSize[rootB];
+            }
+        }
+    }
+}
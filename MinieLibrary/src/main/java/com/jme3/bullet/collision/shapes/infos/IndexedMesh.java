@@ -496,6 +496,30 @@ public class IndexedMesh
         return cornerLocations;
     }
 
+    /**
+     * Access the configured index data, for instance to hash it without
+     * copying.
+     *
+     * @return the pre-existing instance (not null, never flipped) -- do not
+     * modify!
+     */
+    public IndexBuffer getIndexBuffer() {
+        assert indices != null;
+        return indices;
+    }
+
+    /**
+     * Access the configured position data, for instance to hash it without
+     * copying.
+     *
+     * @return the pre-existing direct buffer, 3 floats per vertex (not null,
+     * never flipped) -- do not modify!
+     */
+    public FloatBuffer getVertexPositions() {
+        assert vertexPositions != null;
+        return vertexPositions;
+    }
+
     /**
      * Calculate how far the mesh extends from some origin.
      *
@@ -754,9 +778,9 @@ public class IndexedMesh
 
         int numFloats = vertexPositions.capacity();
         float[] floatArray = new float[numFloats];
-        for (int offset = 0; offset < numFloats; ++offset) {
-            floatArray[offset] = vertexPositions.get(offset);
-        }
+        FloatBuffer duplicate = vertexPositions.duplicate();
+        duplicate.clear();
+        duplicate.get(floatArray); // bulk copy
         capsule.write(floatArray, tagVertices, null);
     }
     // *************************************************************************
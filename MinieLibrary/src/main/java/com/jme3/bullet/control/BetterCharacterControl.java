@@ -52,6 +52,8 @@ import com.jme3.scene.Spatial;
 import com.jme3.util.TempVars;
 import com.jme3.util.clone.Cloner;
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -79,6 +81,29 @@ public class BetterCharacterControl
     // *************************************************************************
     // constants and loggers
 
+    /**
+     * for each subclass, whether its probes can be batched, which requires
+     * that it not override {@code checkOnGround()} or
+     * {@code checkCanUnDuck()}
+     */
+    final private static ClassValue<Boolean> canBatchProbes
+            = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != BetterCharacterControl.class;
+                    c = c.getSuperclass()) {
+                for (Method method : c.getDeclaredMethods()) {
+                    String name = method.getName();
+                    if (method.getParameterTypes().length == 0
+                            && (name.equals("checkCanUnDuck")
+                            || name.equals("checkOnGround"))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    };
     /**
      * message logger for this class
      */
@@ -115,6 +140,11 @@ public class BetterCharacterControl
      * true when un-ducking has been requested for the next simulation step
      */
     private boolean wantToUnDuck = false;
+    /**
+     * value of {@code wantToUnDuck} when the batched probes were prepared,
+     * so the probes and their evaluation agree even if it changes meanwhile
+     */
+    private boolean probeUnDuck = false;
     /**
      * damping factor for horizontal motion, applied before each simulation step
      */
@@ -141,6 +171,19 @@ public class BetterCharacterControl
      * underlying rigid body
      */
     private PhysicsRigidBody rigidBody;
+    /**
+     * crowd manager that batches this character's probes, or null if the
+     * character probes on its own
+     */
+    volatile CharacterCrowdManager crowd = null;
+    /**
+     * reusable list of results from the ground probe
+     */
+    private List<PhysicsSweepTestResult> groundResults = new ArrayList<>(4);
+    /**
+     * reusable list of results from the head-clearance probe
+     */
+    private List<PhysicsSweepTestResult> headResults = new ArrayList<>(4);
     /**
      * orientation of the character's body (in physics-space coordinates)
      */
@@ -161,6 +204,14 @@ public class BetterCharacterControl
      * temporary ending transform for sweep tests
      */
     private Transform sweepEnd = new Transform();
+    /**
+     * start of the head-clearance probe (in physics-space coordinates)
+     */
+    private Transform headBegin = new Transform();
+    /**
+     * end of the head-clearance probe (in physics-space coordinates)
+     */
+    private Transform headEnd = new Transform();
     /**
      * rigid-body base location (in physics-space coordinates)
      */
@@ -243,6 +294,25 @@ public class BetterCharacterControl
     // *************************************************************************
     // new methods exposed
 
+    /**
+     * Evaluate the results of the batched probes and perform the rest of the
+     * pre-tick processing. Invoked by a CharacterCrowdManager, after
+     * {@link #runProbes(com.jme3.bullet.PhysicsSpace)}. A subclass that
+     * overrides {@code checkOnGround()} or {@code checkCanUnDuck()} isn't
+     * batched, so its overrides are invoked here instead.
+     */
+    void applyProbes() {
+        boolean canUnDuck;
+        if (canBatchProbes.get(getClass())) {
+            this.onGround = hitsOtherObject(groundResults);
+            canUnDuck = probeUnDuck && !hitsOtherObject(headResults);
+        } else {
+            checkOnGround();
+            canUnDuck = probeUnDuck && checkCanUnDuck();
+        }
+        completePreTick(canUnDuck);
+    }
+
     /**
      * Return the collision-shape height multiplier for ducking.
      *
@@ -432,6 +502,20 @@ public class BetterCharacterControl
         this.wantToJump = true;
     }
 
+    /**
+     * Configure the ground and head-clearance probes for a batched pass.
+     * Invoked by a CharacterCrowdManager, on the physics thread.
+     */
+    void prepareProbes() {
+        this.probeUnDuck = wantToUnDuck;
+        if (canBatchProbes.get(getClass())) {
+            setGroundProbe();
+            if (probeUnDuck) {
+                setHeadProbe();
+            }
+        }
+    }
+
     /**
      * Alter the character's forward (+Z) direction, provided it's in dynamic
      * mode.
@@ -452,6 +536,26 @@ public class BetterCharacterControl
         updateLocalCoordinateSystem();
     }
 
+    /**
+     * Perform the probes configured by {@link #prepareProbes()}. Invoked by a
+     * CharacterCrowdManager, possibly on a worker thread, so it mustn't alter
+     * anything other than the result lists.
+     *
+     * @param space the space to probe (not null)
+     */
+    void runProbes(PhysicsSpace space) {
+        if (!canBatchProbes.get(getClass())) {
+            return; // applyProbes() will invoke the overridden methods
+        }
+
+        space.sweepTest(sweepShape, sweepBegin, sweepEnd, groundResults);
+        if (probeUnDuck) {
+            space.sweepTest(sweepShape, headBegin, headEnd, headResults);
+        } else {
+            headResults.clear();
+        }
+    }
+
     /**
      * Alter the character's ducking state. When ducked, the character's
      * collision-shape height is scaled by duckedFactor to make it shorter.
@@ -589,7 +693,9 @@ public class BetterCharacterControl
         updateLocalCoordinateSystem();
 
         space.addCollisionObject(rigidBody);
-        space.addTickListener(this);
+        if (!isCrowdManaged(space)) {
+            space.addTickListener(this);
+        }
     }
 
     /**
@@ -605,9 +711,14 @@ public class BetterCharacterControl
     public void cloneFields(Cloner cloner, Object original) {
         super.cloneFields(cloner, original);
 
+        this.crowd = null;
+        this.groundResults = new ArrayList<>(4);
+        this.headResults = new ArrayList<>(4);
         this.sweepShape = null;
         this.sweepEnd = cloner.clone(sweepEnd);
         this.sweepBegin = cloner.clone(sweepBegin);
+        this.headBegin = cloner.clone(headBegin);
+        this.headEnd = cloner.clone(headEnd);
         this.jumpImpulse = cloner.clone(jumpImpulse);
         this.localForward = cloner.clone(localForward);
         this.localToWorld = cloner.clone(localToWorld);
@@ -671,7 +782,9 @@ public class BetterCharacterControl
     protected void removePhysics() {
         PhysicsSpace space = getPhysicsSpace();
         space.removeCollisionObject(rigidBody);
-        space.removeTickListener(this);
+        if (!isCrowdManaged(space)) {
+            space.removeTickListener(this);
+        }
     }
 
     /**
@@ -793,17 +906,8 @@ public class BetterCharacterControl
     @Override
     public void prePhysicsTick(PhysicsSpace space, float timeStep) {
         checkOnGround();
-
-        if (wantToUnDuck && checkCanUnDuck()) {
-            setHeightPercent(1f);
-            this.wantToUnDuck = false;
-            this.isDucked = false;
-        }
-
-        if (rigidBody.isDynamic()) {
-            dynamicPreTick();
-        }
-        this.wantToJump = false;
+        boolean canUnDuck = wantToUnDuck && checkCanUnDuck();
+        completePreTick(canUnDuck);
     }
     // *************************************************************************
     // new protected methods
@@ -868,38 +972,12 @@ public class BetterCharacterControl
      * @return true if able to unduck, otherwise false
      */
     protected boolean checkCanUnDuck() {
-        /*
-         * Sweep a sphere upward, from the current location
-         * of the upper hemisphere to its (hypothetical) unducked location.
-         */
-        Vector3f startLocation = sweepBegin.getTranslation(); // alias
-        startLocation.set(baseLocation);
-        float currentHeight = getFinalHeight();
-        float bodyRadius = getFinalRadius();
-        MyVector3f.accumulateScaled(
-                startLocation, localUp, currentHeight - bodyRadius);
-
-        Vector3f endLocation = sweepEnd.getTranslation(); // alias
-        endLocation.set(baseLocation);
-        MyVector3f.accumulateScaled(
-                endLocation, localUp, initialHeight - bodyRadius);
-
-        if (sweepShape == null || sweepShape.getRadius() != bodyRadius) {
-            this.sweepShape = new SphereCollisionShape(bodyRadius);
-        }
+        setHeadProbe();
         PhysicsSpace space = getPhysicsSpace();
-        List<PhysicsSweepTestResult> results
-                = space.sweepTest(sweepShape, sweepBegin, sweepEnd);
+        space.sweepTest(sweepShape, headBegin, headEnd, headResults);
 
         // Search for a collision object other than the character's body.
-        boolean isObstructed = false;
-        for (PhysicsSweepTestResult result : results) {
-            PhysicsCollisionObject object = result.getCollisionObject();
-            if (!object.equals(rigidBody)) {
-                isObstructed = true;
-                break;
-            }
-        }
+        boolean isObstructed = hitsOtherObject(headResults);
 
         return !isObstructed;
     }
@@ -908,37 +986,12 @@ public class BetterCharacterControl
      * Update the internal {@code onGround} status.
      */
     protected void checkOnGround() {
-        /*
-         * Sweep a sphere downward, from the center of the capsule
-         * to one collision margin below the center of its lower hemisphere.
-         */
-        Vector3f startLocation = sweepBegin.getTranslation(); // alias
-        startLocation.set(baseLocation);
-        float scaledHeight = getFinalHeight();
-        MyVector3f.accumulateScaled(startLocation, localUp, scaledHeight / 2f);
-
-        Vector3f endLocation = sweepEnd.getTranslation(); // alias
-        endLocation.set(baseLocation);
-        float bodyRadius = getFinalRadius();
-        float margin = rigidBody.getCollisionShape().getMargin();
-        MyVector3f.accumulateScaled(endLocation, localUp, bodyRadius - margin);
-
-        if (sweepShape == null || sweepShape.getRadius() != bodyRadius) {
-            this.sweepShape = new SphereCollisionShape(bodyRadius);
-        }
+        setGroundProbe();
         PhysicsSpace space = getPhysicsSpace();
-        List<PhysicsSweepTestResult> results
-                = space.sweepTest(sweepShape, sweepBegin, sweepEnd);
+        space.sweepTest(sweepShape, sweepBegin, sweepEnd, groundResults);
 
         // Search for a collision object other than the character's body.
-        boolean isSupported = false;
-        for (PhysicsSweepTestResult result : results) {
-            PhysicsCollisionObject object = result.getCollisionObject();
-            if (!object.equals(rigidBody)) {
-                isSupported = true;
-                break;
-            }
-        }
+        boolean isSupported = hitsOtherObject(groundResults);
 
         // Update the status.
         this.onGround = isSupported;
@@ -1032,6 +1085,24 @@ public class BetterCharacterControl
     // *************************************************************************
     // private methods
 
+    /**
+     * Complete the pre-tick processing once the probes have been evaluated.
+     *
+     * @param canUnDuck true to emerge from the ducked state, otherwise false
+     */
+    private void completePreTick(boolean canUnDuck) {
+        if (canUnDuck) {
+            setHeightPercent(1f);
+            this.wantToUnDuck = false;
+            this.isDucked = false;
+        }
+
+        if (rigidBody.isDynamic()) {
+            dynamicPreTick();
+        }
+        this.wantToJump = false;
+    }
+
     /**
      * Apply impulses and delta vees to the dynamic rigid body. Invoked just
      * before the physics is stepped.
@@ -1075,4 +1146,83 @@ public class BetterCharacterControl
         }
         vars.release();
     }
+
+    /**
+     * Test whether the specified sweep-test results include a collision object
+     * other than the character's body.
+     *
+     * @param results the results to search (not null, unaffected)
+     * @return true if another object was hit, otherwise false
+     */
+    private boolean hitsOtherObject(List<PhysicsSweepTestResult> results) {
+        boolean result = false;
+        for (PhysicsSweepTestResult sweepResult : results) {
+            PhysicsCollisionObject object = sweepResult.getCollisionObject();
+            if (!object.equals(rigidBody)) {
+                result = true;
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Test whether this character's probes are batched by a crowd manager for
+     * the specified space.
+     *
+     * @param space the space to test (may be null)
+     * @return true if managed, otherwise false
+     */
+    private boolean isCrowdManaged(PhysicsSpace space) {
+        CharacterCrowdManager manager = crowd;
+        boolean result = manager != null && manager.getSpace() == space;
+
+        return result;
+    }
+
+    /**
+     * Configure the ground probe: a sphere swept downward, from the center of
+     * the capsule to one collision margin below the center of its lower
+     * hemisphere.
+     */
+    private void setGroundProbe() {
+        Vector3f startLocation = sweepBegin.getTranslation(); // alias
+        startLocation.set(baseLocation);
+        float scaledHeight = getFinalHeight();
+        MyVector3f.accumulateScaled(startLocation, localUp, scaledHeight / 2f);
+
+        Vector3f endLocation = sweepEnd.getTranslation(); // alias
+        endLocation.set(baseLocation);
+        float bodyRadius = getFinalRadius();
+        float margin = rigidBody.getCollisionShape().getMargin();
+        MyVector3f.accumulateScaled(endLocation, localUp, bodyRadius - margin);
+
+        if (sweepShape == null || sweepShape.getRadius() != bodyRadius) {
+            this.sweepShape = new SphereCollisionShape(bodyRadius);
+        }
+    }
+
+    /**
+     * Configure the head-clearance probe: a sphere swept upward, from the
+     * current location of the upper hemisphere to its (hypothetical) unducked
+     * location.
+     */
+    private void setHeadProbe() {
+        Vector3f startLocation = headBegin.getTranslation(); // alias
+        startLocation.set(baseLocation);
+        float currentHeight = getFinalHeight();
+        float bodyRadius = getFinalRadius();
+        MyVector3f.accumulateScaled(
+                startLocation, localUp, currentHeight - bodyRadius);
+
+        Vector3f endLocation = headEnd.getTranslation(); // alias
+        endLocation.set(baseLocation);
+        MyVector3f.accumulateScaled(
+                endLocation, localUp, initialHeight - bodyRadius);
+
+        if (sweepShape == null || sweepShape.getRadius() != bodyRadius) {
+            this.sweepShape = new SphereCollisionShape(bodyRadius);
+        }
+    }
 }
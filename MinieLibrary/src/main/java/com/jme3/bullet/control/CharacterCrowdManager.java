@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet.control;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.PhysicsTickListener;
+import com.jme3.bullet.util.NativeLibrary;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * Batch the ground and head-clearance probes of many BetterCharacterControl
+ * instances into a single pass before each simulation step.
+ * <p>
+ * Each member character stops registering itself as a tick listener.
+ * Instead, the manager configures every member's probes, performs all the
+ * sweeps (in parallel, if the native library is thread-safe), and then lets
+ * each member apply its results. The probes reuse per-character result
+ * lists, so steady-state probing doesn't allocate lists.
+ * <p>
+ * Members must be added and removed while the space is not being stepped.
+ * A member whose class overrides {@code checkOnGround()} or
+ * {@code checkCanUnDuck()} isn't batched: its overrides are invoked, one
+ * member at a time, when the results are applied.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class CharacterCrowdManager implements PhysicsTickListener {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * Task to run the probes of a range of active members.
+     */
+    private class ProbeTask extends RecursiveAction {
+        /**
+         * index of the first member to probe (&ge;0)
+         */
+        final private int fromIndex;
+        /**
+         * index after the last member to probe (&ge;fromIndex)
+         */
+        final private int toIndex;
+
+        /**
+         * Instantiate a task for the specified range of active members.
+         *
+         * @param fromIndex the index of the first member (&ge;0)
+         * @param toIndex the index after the last member (&ge;fromIndex)
+         */
+        ProbeTask(int fromIndex, int toIndex) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        /**
+         * Run the probes, splitting the range if it's large.
+         */
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex <= batchSize) {
+                for (int i = fromIndex; i < toIndex; ++i) {
+                    active.get(i).runProbes(space);
+                }
+            } else {
+                int middle = (fromIndex + toIndex) >>> 1;
+                invokeAll(new ProbeTask(fromIndex, middle),
+                        new ProbeTask(middle, toIndex));
+            }
+        }
+    }
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * maximum number of members probed by a single task
+     */
+    final private static int batchSize = 32;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(CharacterCrowdManager.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * true to probe in parallel, false to probe sequentially
+     */
+    final private boolean isParallel;
+    /**
+     * pool used to probe in parallel (not null)
+     */
+    final private ForkJoinPool pool;
+    /**
+     * members added to the space during the current step
+     */
+    final private List<BetterCharacterControl> active = new ArrayList<>(64);
+    /**
+     * all members, in order of addition
+     */
+    final private List<BetterCharacterControl> members = new ArrayList<>(64);
+    /**
+     * space in which the members are simulated (not null)
+     */
+    final private PhysicsSpace space;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a manager for the specified space, using the common
+     * ForkJoinPool.
+     *
+     * @param space the space in which members are simulated (not null, alias
+     * created)
+     */
+    public CharacterCrowdManager(PhysicsSpace space) {
+        this(space, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Instantiate a manager for the specified space, using the specified pool.
+     *
+     * @param space the space in which members are simulated (not null, alias
+     * created)
+     * @param pool the pool used to probe in parallel (not null, alias
+     * created)
+     */
+    public CharacterCrowdManager(PhysicsSpace space, ForkJoinPool pool) {
+        Validate.nonNull(space, "space");
+        Validate.nonNull(pool, "pool");
+
+        this.space = space;
+        this.pool = pool;
+        this.isParallel = NativeLibrary.isThreadSafe();
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Add the specified character to the crowd. The manager registers itself
+     * as a tick listener when its first member is added.
+     *
+     * @param character the character to add (not null, not a member of any
+     * crowd)
+     */
+    public void add(BetterCharacterControl character) {
+        Validate.nonNull(character, "character");
+        Validate.require(character.crowd == null, "not in a crowd");
+
+        if (members.isEmpty()) {
+            space.addTickListener(this);
+        }
+        if (character.added && character.getPhysicsSpace() == space) {
+            space.removeTickListener(character);
+        }
+        character.crowd = this;
+        members.add(character);
+    }
+
+    /**
+     * Count the members of the crowd.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countMembers() {
+        int result = members.size();
+        return result;
+    }
+
+    /**
+     * Access the space in which the members are simulated.
+     *
+     * @return the pre-existing instance (not null)
+     */
+    public PhysicsSpace getSpace() {
+        return space;
+    }
+
+    /**
+     * Test whether probes are performed in parallel.
+     *
+     * @return true if parallel, false if sequential
+     */
+    public boolean isParallel() {
+        return isParallel;
+    }
+
+    /**
+     * Remove the specified character from the crowd. The manager de-registers
+     * itself as a tick listener when its last member is removed.
+     *
+     * @param character the character to remove (not null, a member of this
+     * crowd)
+     */
+    public void remove(BetterCharacterControl character) {
+        Validate.nonNull(character, "character");
+        Validate.require(character.crowd == this, "a member of this crowd");
+
+        members.remove(character);
+        character.crowd = null;
+        if (character.added && character.getPhysicsSpace() == space) {
+            space.addTickListener(character);
+        }
+        if (members.isEmpty()) {
+            space.removeTickListener(this);
+        }
+    }
+    // *************************************************************************
+    // PhysicsTickListener methods
+
+    /**
+     * Callback from Bullet, invoked just before the physics is stepped.
+     *
+     * @param space the space that's about to be stepped (not null)
+     * @param timeStep the time per simulation step (in seconds, &ge;0)
+     */
+    @Override
+    public void prePhysicsTick(PhysicsSpace space, float timeStep) {
+        assert space == this.space;
+
+        // Configure the probes sequentially, since that may create shapes.
+        active.clear();
+        for (BetterCharacterControl member : members) {
+            if (member.added && member.getPhysicsSpace() == space) {
+                member.prepareProbes();
+                active.add(member);
+            }
+        }
+
+        int numActive = active.size();
+        if (isParallel && numActive > batchSize) {
+            pool.invoke(new ProbeTask(0, numActive));
+        } else {
+            for (BetterCharacterControl member : active) {
+                member.runProbes(space);
+            }
+        }
+
+        for (BetterCharacterControl member : active) {
+            member.applyProbes();
+        }
+    }
+
+    /**
+     * Callback from Bullet, invoked just after the physics has been stepped.
+     *
+     * @param space the space that was just stepped (not null)
+     * @param timeStep the time per simulation step (in seconds, &ge;0)
+     */
+    @Override
+    public void physicsTick(PhysicsSpace space, float timeStep) {
+        for (BetterCharacterControl member : active) {
+            member.physicsTick(space, timeStep);
+        }
+    }
+}
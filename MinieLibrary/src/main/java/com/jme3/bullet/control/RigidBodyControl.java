@@ -42,6 +42,7 @@ import com.jme3.export.InputCapsule;
 import com.jme3.export.JmeExporter;
 import com.jme3.export.JmeImporter;
 import com.jme3.export.OutputCapsule;
+import com.jme3.math.Matrix3f;
 import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 import com.jme3.renderer.RenderManager;
@@ -54,6 +55,9 @@ import com.jme3.scene.control.Control;
 import com.jme3.scene.shape.Box;
 import com.jme3.scene.shape.Sphere;
 import com.jme3.util.clone.Cloner;
+import com.simsilica.mathd.Matrix3d;
+import com.simsilica.mathd.Quatd;
+import com.simsilica.mathd.Vec3d;
 import java.io.IOException;
 import java.util.logging.Logger;
 import jme3utilities.MySpatial;
@@ -111,6 +115,11 @@ public class RigidBodyControl
      * true&rarr;Control is enabled, false&rarr;Control is disabled
      */
     private boolean enabled = true;
+    /**
+     * true&rarr;enqueued for the next update of the sync manager (accessed
+     * only by TransformSyncManager)
+     */
+    volatile boolean isWoken = false;
     /**
      * true&rarr; kinematic body follows Spatial, false&rarr;Spatial follows
      * kinematic body
@@ -120,10 +129,20 @@ public class RigidBodyControl
      * space to which the body is (or would be) added
      */
     private PhysicsSpace space = null;
+    /**
+     * manager that synchronizes this control's transform from snapshots, or
+     * null if none (set only by SnapshotSyncManager)
+     */
+    volatile SnapshotSyncManager snapshotManager = null;
     /**
      * Spatial to which this Control is added, or null if none
      */
     private Spatial spatial;
+    /**
+     * manager that synchronizes this control's transform, or null if the
+     * control synchronizes itself (accessed only by TransformSyncManager)
+     */
+    volatile TransformSyncManager syncManager = null;
     // *************************************************************************
     // constructors
 
@@ -171,6 +190,28 @@ public class RigidBodyControl
     // *************************************************************************
     // new methods exposed
 
+    /**
+     * Apply the physics transform (and optionally the scale) to the
+     * controlled spatial, unless the Control is disabled, the body is
+     * kinematic and follows the spatial, or the spatial ignores transforms.
+     * Invoked by {@code update()} or by the sync manager.
+     */
+    void applyPhysicsTransform() {
+        if (!enabled || spatial == null) {
+            return;
+        }
+        if (isKinematic() && kinematicSpatial) {
+            return;
+        }
+
+        if (!MySpatial.isIgnoringTransforms(spatial)) {
+            getMotionState().applyTransform(spatial);
+            if (applyScale) {
+                applySpatialScale();
+            }
+        }
+    }
+
     /**
      * Access the controlled spatial.
      *
@@ -375,6 +416,9 @@ public class RigidBodyControl
         if (space == newSpace) {
             return;
         }
+        if (syncManager != null) {
+            syncManager.release(this);
+        }
         if (added) {
             space.removeCollisionObject(this);
             this.added = false;
@@ -437,31 +481,51 @@ public class RigidBodyControl
         }
 
         if (isKinematic() && kinematicSpatial) {
-            setPhysicsLocation(getSpatialTranslation());
-            setPhysicsRotation(getSpatialRotation());
+            Vector3f newScale = null;
             if (applyScale) {
                 CollisionShape shape = getCollisionShape();
-                Vector3f newScale = copySpatialScale(null);
+                newScale = copySpatialScale(null);
                 if (!shape.canScale(newScale)) {
                     float factor = MyMath.cubeRoot(
                             newScale.x * newScale.y * newScale.z);
                     newScale.set(factor, factor, factor);
                 }
-                if (shape.canScale(newScale)) {
-                    setPhysicsScale(newScale);
+                if (!shape.canScale(newScale)) {
+                    newScale = null;
                 }
             }
 
-        } else if (!MySpatial.isIgnoringTransforms(spatial)) {
-            getMotionState().applyTransform(spatial);
-            if (applyScale) {
-                applySpatialScale();
+            SnapshotSyncManager manager = snapshotManager;
+            if (manager == null) {
+                setPhysicsLocation(getSpatialTranslation());
+                setPhysicsRotation(getSpatialRotation());
+                if (newScale != null) {
+                    setPhysicsScale(newScale);
+                }
+            } else { // the body belongs to the physics thread
+                manager.postKinematicTarget(this, getSpatialTranslation(),
+                        getSpatialRotation(), newScale);
             }
+
+        } else if (syncManager == null && snapshotManager == null) {
+            applyPhysicsTransform();
         }
     }
     // *************************************************************************
     // PhysicsRigidBody methods
 
+    /**
+     * Reactivate this body if it has been deactivated due to lack of motion.
+     * Also invoked when forces, impulses, or velocities are applied.
+     *
+     * @param forceFlag true to force activation
+     */
+    @Override
+    public void activate(boolean forceFlag) {
+        super.activate(forceFlag);
+        markSyncDirty();
+    }
+
     /**
      * Callback from {@link com.jme3.util.clone.Cloner} to convert this
      * shallow-cloned Control into a deep-cloned one, using the specified Cloner
@@ -479,6 +543,9 @@ public class RigidBodyControl
         assert old.hasAssignedNativeObject();
 
         super.cloneFields(cloner, original);
+        this.isWoken = false;
+        this.snapshotManager = null;
+        this.syncManager = null;
         if (hasAssignedNativeObject()) {
             return;
         }
@@ -509,6 +576,90 @@ public class RigidBodyControl
         setUserObject(spatial);
     }
 
+    /**
+     * Alter this body's activation state.
+     *
+     * @param desiredState the desired state (1=active tag, 2=island sleeping,
+     * 3=wants deactivation, 4=disable deactivation, 5=disable simulation)
+     */
+    @Override
+    public void setActivationState(int desiredState) {
+        super.setActivationState(desiredState);
+        markSyncDirty();
+    }
+
+    /**
+     * Directly relocate this body's center of mass.
+     *
+     * @param location the desired location (in physics-space coordinates, not
+     * null, finite, unaffected)
+     */
+    @Override
+    public void setPhysicsLocation(Vector3f location) {
+        super.setPhysicsLocation(location);
+        markSyncDirty();
+    }
+
+    /**
+     * Directly relocate this body's center of mass.
+     *
+     * @param location the desired location (in physics-space coordinates, not
+     * null, unaffected)
+     */
+    @Override
+    public void setPhysicsLocationDp(Vec3d location) {
+        super.setPhysicsLocationDp(location);
+        markSyncDirty();
+    }
+
+    /**
+     * Directly alter this body's orientation.
+     *
+     * @param orientation the desired orientation (rotation matrix relative to
+     * physics-space coordinates, not null, unaffected)
+     */
+    @Override
+    public void setPhysicsRotation(Matrix3f orientation) {
+        super.setPhysicsRotation(orientation);
+        markSyncDirty();
+    }
+
+    /**
+     * Directly reorient this body.
+     *
+     * @param orientation the desired orientation (relative to physics-space
+     * coordinates, not null, not zero, unaffected)
+     */
+    @Override
+    public void setPhysicsRotation(Quaternion orientation) {
+        super.setPhysicsRotation(orientation);
+        markSyncDirty();
+    }
+
+    /**
+     * Directly reorient this body.
+     *
+     * @param orientation the desired orientation (rotation matrix relative to
+     * physics-space coordinates, not null, unaffected)
+     */
+    @Override
+    public void setPhysicsRotationDp(Matrix3d orientation) {
+        super.setPhysicsRotationDp(orientation);
+        markSyncDirty();
+    }
+
+    /**
+     * Directly reorient this body.
+     *
+     * @param orientation the desired orientation (relative to physics-space
+     * coordinates, not null, unaffected)
+     */
+    @Override
+    public void setPhysicsRotationDp(Quatd orientation) {
+        super.setPhysicsRotationDp(orientation);
+        markSyncDirty();
+    }
+
     /**
      * Serialize this Control to the specified exporter, for example when saving
      * to a J3O file.
@@ -614,4 +765,15 @@ public class RigidBodyControl
 
         return result;
     }
+
+    /**
+     * Notify the sync manager (if any) that this body may have moved or woken
+     * up, so that its spatial gets synchronized during the next update.
+     */
+    private void markSyncDirty() {
+        TransformSyncManager manager = syncManager;
+        if (manager != null && !(kinematicSpatial && isKinematic())) {
+            manager.markDirty(this);
+        }
+    }
 }
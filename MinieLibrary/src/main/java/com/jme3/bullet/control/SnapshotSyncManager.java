@@ -0,0 +1,594 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet.control;
+
+import com.jme3.bullet.CollisionSpace;
+import com.jme3.bullet.CollisionSpaceListener;
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.PhysicsCollisionObject;
+import com.jme3.bullet.joints.PhysicsJoint;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import jme3utilities.MySpatial;
+import jme3utilities.Validate;
+import jme3utilities.math.MyQuaternion;
+
+/**
+ * Synchronize the spatials of RigidBodyControls from snapshots of body
+ * states, for a space that's stepped on its own thread.
+ * <p>
+ * After each simulation step, the physics thread invokes {@link #capture()}
+ * to copy the location and orientation of every rigid body into a private
+ * buffer and publish it. The render thread invokes {@link #update()}, which
+ * copies the two most recent snapshots and applies a blend of them to the
+ * spatials, so motion stays smooth when the frame rate and the step rate
+ * differ. The displayed state lags the simulation by up to one step.
+ * <p>
+ * Publishing and copying each hold a lock only long enough to exchange or
+ * copy arrays, so neither thread waits for the other's real work. A claimed
+ * control no longer applies its physics transform in {@code update()}.
+ * Physics scale isn't synchronized.
+ * <p>
+ * Controls are claimed when added to the space and released when removed,
+ * so the manager must be registered as a CollisionSpaceListener before any
+ * controls are added. A claimed kinematic control that follows its spatial
+ * posts the spatial's transform instead of writing it to the body. The
+ * physics thread applies the posted transforms by invoking
+ * {@link #applyKinematicTargets()} before each step.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class SnapshotSyncManager implements CollisionSpaceListener {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * Transform posted by a kinematic control for the next step.
+     */
+    private static class KinematicTarget {
+        /**
+         * true to apply the scale, false to leave the body's scale unchanged
+         */
+        private boolean applyScale;
+        /**
+         * desired orientation (in physics-space coordinates)
+         */
+        final private Quaternion rotation = new Quaternion();
+        /**
+         * desired location (in physics-space coordinates)
+         */
+        final private Vector3f location = new Vector3f();
+        /**
+         * desired scale of the collision shape
+         */
+        final private Vector3f scale = new Vector3f();
+    }
+
+    /**
+     * Body states at the end of a single simulation step.
+     */
+    private static class Snapshot {
+        /**
+         * number of slots in use (&ge;0)
+         */
+        private int count = 0;
+        /**
+         * value of {@code System.nanoTime()} when the snapshot was captured
+         */
+        private long nanoTime = 0L;
+        /**
+         * body in each slot
+         */
+        final private List<PhysicsRigidBody> bodies = new ArrayList<>(64);
+        /**
+         * location and orientation of each body, 7 floats per slot
+         */
+        private float[] states = new float[0];
+        /**
+         * buffer that wraps the states array
+         */
+        private FloatBuffer buffer = FloatBuffer.wrap(states);
+
+        /**
+         * Copy the specified snapshot, reusing storage where possible.
+         *
+         * @param source the snapshot to copy (not null, unaffected)
+         */
+        void copy(Snapshot source) {
+            int numFloats = slotSize * source.count;
+            reserve(numFloats);
+            System.arraycopy(source.states, 0, states, 0, numFloats);
+            bodies.clear();
+            bodies.addAll(source.bodies);
+            this.count = source.count;
+            this.nanoTime = source.nanoTime;
+        }
+
+        /**
+         * Ensure the states array holds at least the specified number of
+         * floats.
+         *
+         * @param numFloats the required number of floats (&ge;0)
+         */
+        void reserve(int numFloats) {
+            if (states.length < numFloats) {
+                this.states = new float[numFloats + numFloats / 2];
+                this.buffer = FloatBuffer.wrap(states);
+            }
+        }
+    }
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * number of floats per body: location (3) followed by orientation (4)
+     */
+    final private static int slotSize = 7;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(SnapshotSyncManager.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * true to blend the 2 most recent snapshots, false to apply only the
+     * latest one
+     */
+    private volatile boolean interpolate = true;
+    /**
+     * true if the current pair of snapshots has been applied in full
+     */
+    private boolean pairApplied = false;
+    /**
+     * number of snapshots published (guarded by the lock)
+     */
+    private long publishedCount = 0L;
+    /**
+     * number of published snapshots seen by the render thread
+     */
+    private long seenCount = 0L;
+    /**
+     * targets that have been applied, for reuse (guarded by the lock)
+     */
+    final private List<KinematicTarget> spareTargets = new ArrayList<>(16);
+    /**
+     * controls claimed by this manager (guarded by the lock)
+     */
+    final private List<RigidBodyControl> claimed = new ArrayList<>(64);
+    /**
+     * targets being applied (physics thread only)
+     */
+    private Map<RigidBodyControl, KinematicTarget> appliedTargets
+            = new IdentityHashMap<>(16);
+    /**
+     * targets posted since the previous step (guarded by the lock)
+     */
+    private Map<RigidBodyControl, KinematicTarget> postedTargets
+            = new IdentityHashMap<>(16);
+    /**
+     * lock that guards the published snapshots
+     */
+    final private Object lock = new Object();
+    /**
+     * space whose bodies are synchronized (not null)
+     */
+    final private PhysicsSpace space;
+    /**
+     * reusable orientation for interpolation (render thread only)
+     */
+    final private Quaternion tmpRotation = new Quaternion();
+    /**
+     * reusable orientation for interpolation (render thread only)
+     */
+    final private Quaternion tmpRotation2 = new Quaternion();
+    /**
+     * reusable inverse rotation of a parent node (render thread only)
+     */
+    final private Quaternion tmpInverse = new Quaternion();
+    /**
+     * snapshot being filled (physics thread only)
+     */
+    private Snapshot back = new Snapshot();
+    /**
+     * most recent published snapshot, or null if none (guarded by the lock)
+     */
+    private Snapshot latest = null;
+    /**
+     * 2nd most recent published snapshot, or null if none (guarded by the
+     * lock)
+     */
+    private Snapshot previous = null;
+    /**
+     * copy of the most recent snapshot (render thread only)
+     */
+    final private Snapshot renderLatest = new Snapshot();
+    /**
+     * copy of the 2nd most recent snapshot (render thread only)
+     */
+    final private Snapshot renderPrevious = new Snapshot();
+    /**
+     * reusable location for interpolation (render thread only)
+     */
+    final private Vector3f tmpLocation = new Vector3f();
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a manager for the specified space, with no claimed controls.
+     *
+     * @param space the space whose bodies are to be synchronized (not null,
+     * alias created)
+     */
+    public SnapshotSyncManager(PhysicsSpace space) {
+        Validate.nonNull(space, "space");
+        this.space = space;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Apply the transforms posted by kinematic controls since the previous
+     * invocation. Should be invoked on the physics thread before each
+     * simulation step.
+     */
+    public void applyKinematicTargets() {
+        synchronized (lock) {
+            Map<RigidBodyControl, KinematicTarget> swap = appliedTargets;
+            this.appliedTargets = postedTargets;
+            this.postedTargets = swap;
+        }
+
+        for (Map.Entry<RigidBodyControl, KinematicTarget> entry
+                : appliedTargets.entrySet()) {
+            RigidBodyControl control = entry.getKey();
+            KinematicTarget target = entry.getValue();
+            control.setPhysicsLocation(target.location);
+            control.setPhysicsRotation(target.rotation);
+            if (target.applyScale) {
+                control.setPhysicsScale(target.scale);
+            }
+        }
+
+        synchronized (lock) {
+            spareTargets.addAll(appliedTargets.values());
+        }
+        appliedTargets.clear();
+    }
+
+    /**
+     * Capture and publish the states of all rigid bodies in the space. Should
+     * be invoked on the physics thread after each simulation step.
+     */
+    public void capture() {
+        int numBodies = space.countRigidBodies();
+        back.reserve(slotSize * numBodies);
+        boolean activeOnly = false;
+        boolean includeVelocities = false;
+        back.count = space.copyRigidBodyStates(
+                back.buffer, activeOnly, includeVelocities, back.bodies);
+        back.nanoTime = System.nanoTime();
+
+        synchronized (lock) {
+            Snapshot recycled = previous;
+            this.previous = latest;
+            this.latest = back;
+            this.back = (recycled == null) ? new Snapshot() : recycled;
+            ++publishedCount;
+        }
+    }
+
+    /**
+     * Count the controls claimed by this manager.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countClaimed() {
+        synchronized (lock) {
+            int result = claimed.size();
+            return result;
+        }
+    }
+
+    /**
+     * Access the space whose bodies are synchronized.
+     *
+     * @return the pre-existing instance (not null)
+     */
+    public PhysicsSpace getSpace() {
+        assert space != null;
+        return space;
+    }
+
+    /**
+     * Test whether the 2 most recent snapshots are blended.
+     *
+     * @return true if blended, false if only the latest is applied
+     */
+    public boolean isInterpolating() {
+        return interpolate;
+    }
+
+    /**
+     * Post the transform of the specified kinematic control's spatial, to be
+     * applied to its body before the next step. Invoked on the render thread
+     * by the control, in place of altering the body directly.
+     *
+     * @param control the control to move (not null, claimed by this manager)
+     * @param location the desired location (in physics-space coordinates,
+     * not null, unaffected)
+     * @param rotation the desired orientation (in physics-space coordinates,
+     * not null, unaffected)
+     * @param scale the desired scale of the collision shape (unaffected) or
+     * null to leave it unchanged
+     */
+    void postKinematicTarget(RigidBodyControl control, Vector3f location,
+            Quaternion rotation, Vector3f scale) {
+        synchronized (lock) {
+            KinematicTarget target = postedTargets.get(control);
+            if (target == null) {
+                int numSpares = spareTargets.size();
+                target = (numSpares == 0) ? new KinematicTarget()
+                        : spareTargets.remove(numSpares - 1);
+                postedTargets.put(control, target);
+            }
+
+            target.location.set(location);
+            target.rotation.set(rotation);
+            target.applyScale = (scale != null);
+            if (scale != null) {
+                target.scale.set(scale);
+            }
+        }
+    }
+
+    /**
+     * Release all claimed controls, so that they synchronize their own
+     * transforms again, for instance before discarding this manager.
+     */
+    public void releaseAll() {
+        synchronized (lock) {
+            for (RigidBodyControl control : claimed) {
+                control.snapshotManager = null;
+            }
+            claimed.clear();
+            postedTargets.clear();
+        }
+    }
+
+    /**
+     * Alter whether the 2 most recent snapshots are blended.
+     *
+     * @param setting true to blend them, false to apply only the latest one
+     * (default=true)
+     */
+    public void setInterpolating(boolean setting) {
+        this.interpolate = setting;
+    }
+
+    /**
+     * Apply the published body states to the spatials of claimed
+     * RigidBodyControls. Should be invoked once per frame from the render
+     * thread, before the scene's logical state is updated.
+     */
+    public void update() {
+        synchronized (lock) {
+            if (publishedCount != seenCount) { // new snapshots were published
+                if (latest != null) {
+                    renderLatest.copy(latest);
+                }
+                if (previous != null) {
+                    renderPrevious.copy(previous);
+                } else {
+                    renderPrevious.copy(renderLatest);
+                }
+                this.seenCount = publishedCount;
+                this.pairApplied = false;
+            }
+        }
+
+        float alpha = 1f;
+        long stepNanos = renderLatest.nanoTime - renderPrevious.nanoTime;
+        if (interpolate && stepNanos > 0L) {
+            long sinceLatest = System.nanoTime() - renderLatest.nanoTime;
+            alpha = FastMath.clamp((float) sinceLatest / stepNanos, 0f, 1f);
+        }
+
+        int numSlots = renderLatest.count;
+        for (int slot = 0; slot < numSlots; ++slot) {
+            PhysicsRigidBody body = renderLatest.bodies.get(slot);
+            if (body instanceof RigidBodyControl) {
+                applySlot(slot, (RigidBodyControl) body, alpha);
+            }
+        }
+        this.pairApplied = true;
+    }
+    // *************************************************************************
+    // CollisionSpaceListener methods
+
+    /**
+     * Claim a RigidBodyControl that was added to the space, unless another
+     * manager already claimed it.
+     *
+     * @param space the space that was modified (not null)
+     * @param pco the object that was added (not null)
+     */
+    @Override
+    public void collisionObjectAdded(
+            CollisionSpace space, PhysicsCollisionObject pco) {
+        if (pco instanceof RigidBodyControl) {
+            RigidBodyControl control = (RigidBodyControl) pco;
+            synchronized (lock) {
+                if (control.snapshotManager == null
+                        && control.syncManager == null) {
+                    control.snapshotManager = this;
+                    claimed.add(control);
+                }
+            }
+        }
+    }
+
+    /**
+     * Release a RigidBodyControl that was removed from the space, discarding
+     * any transform it posted.
+     *
+     * @param space the space that was modified (not null)
+     * @param pco the object that was removed (not null)
+     */
+    @Override
+    public void collisionObjectRemoved(
+            CollisionSpace space, PhysicsCollisionObject pco) {
+        if (pco instanceof RigidBodyControl) {
+            RigidBodyControl control = (RigidBodyControl) pco;
+            synchronized (lock) {
+                if (control.snapshotManager == this) {
+                    control.snapshotManager = null;
+                    claimed.remove(control);
+                    postedTargets.remove(control);
+                }
+            }
+        }
+    }
+
+    /**
+     * Invoked after a joint is added to the space. (Ignored.)
+     *
+     * @param space the space that was modified (not null)
+     * @param joint the joint that was added (not null)
+     */
+    @Override
+    public void jointAdded(PhysicsSpace space, PhysicsJoint joint) {
+        // do nothing
+    }
+
+    /**
+     * Invoked after a joint is removed from the space. (Ignored.)
+     *
+     * @param space the space that was modified (not null)
+     * @param joint the joint that was removed (not null)
+     */
+    @Override
+    public void jointRemoved(PhysicsSpace space, PhysicsJoint joint) {
+        // do nothing
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Apply the blended state of the indexed slot to the specified control.
+     *
+     * @param slot the index of the slot in the latest snapshot (&ge;0)
+     * @param control the control in that slot (not null)
+     * @param alpha the blend fraction (0&rarr;previous, 1&rarr;latest)
+     */
+    private void applySlot(int slot, RigidBodyControl control, float alpha) {
+        if (control.snapshotManager != this) {
+            return; // not claimed, or claimed by some other manager
+        }
+
+        Spatial spatial = control.getSpatial();
+        if (!control.isEnabled() || spatial == null
+                || (control.isKinematic() && control.isKinematicSpatial())
+                || MySpatial.isIgnoringTransforms(spatial)) {
+            return;
+        }
+
+        float[] end = renderLatest.states;
+        int offset = slot * slotSize;
+        boolean matched = slot < renderPrevious.count
+                && renderPrevious.bodies.get(slot) == control;
+        if (matched && pairApplied
+                && isSameSlot(renderPrevious.states, end, offset)) {
+            return; // at rest, and its final state was already applied
+        }
+
+        tmpLocation.set(end[offset], end[offset + 1], end[offset + 2]);
+        tmpRotation.set(end[offset + 3], end[offset + 4], end[offset + 5],
+                end[offset + 6]);
+        if (matched && alpha < 1f) {
+            float[] start = renderPrevious.states;
+            float x = start[offset];
+            float y = start[offset + 1];
+            float z = start[offset + 2];
+            tmpLocation.set(x + alpha * (tmpLocation.x - x),
+                    y + alpha * (tmpLocation.y - y),
+                    z + alpha * (tmpLocation.z - z));
+            tmpRotation2.set(start[offset + 3], start[offset + 4],
+                    start[offset + 5], start[offset + 6]);
+            tmpRotation2.slerp(tmpRotation, alpha);
+            tmpRotation.set(tmpRotation2);
+        }
+
+        Node parent = spatial.getParent();
+        if (!control.isApplyPhysicsLocal() && parent != null) {
+            // Convert from physics-space coordinates to local coordinates.
+            tmpInverse.set(parent.getWorldRotation());
+            tmpInverse.inverseLocal();
+            tmpLocation.subtractLocal(parent.getWorldTranslation());
+            tmpLocation.divideLocal(parent.getWorldScale());
+            MyQuaternion.rotate(tmpInverse, tmpLocation, tmpLocation);
+            tmpInverse.mult(tmpRotation, tmpRotation);
+        }
+        spatial.setLocalTranslation(tmpLocation);
+        spatial.setLocalRotation(tmpRotation);
+    }
+
+    /**
+     * Test whether 2 state arrays have identical values in the slot at the
+     * specified offset.
+     *
+     * @param a the first array (not null, unaffected)
+     * @param b the 2nd array (not null, unaffected)
+     * @param offset the index of the slot's first float (&ge;0)
+     * @return true if identical, otherwise false
+     */
+    private static boolean isSameSlot(float[] a, float[] b, int offset) {
+        for (int i = offset; i < offset + slotSize; ++i) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
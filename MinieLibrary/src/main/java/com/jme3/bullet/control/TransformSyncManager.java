@@ -0,0 +1,470 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet.control;
+
+import com.jme3.bullet.CollisionSpace;
+import com.jme3.bullet.CollisionSpaceListener;
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.ContactListener;
+import com.jme3.bullet.collision.PhysicsCollisionObject;
+import com.jme3.bullet.joints.PhysicsJoint;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * Synchronize the spatials of many RigidBodyControls, visiting only those
+ * bodies whose transforms may have changed since the previous frame.
+ * <p>
+ * A claimed control no longer applies its physics transform in
+ * {@code update()}. Instead, {@link #update()} applies the transforms of the
+ * "awake" controls, then drops any whose bodies have gone to sleep. Sleeping
+ * bodies are woken by contact-processed callbacks, by the control's own
+ * activation and repositioning methods (such as {@code activate()},
+ * {@code applyImpulse()}, and {@code setPhysicsLocation()}), and by
+ * {@link #markDirty(com.jme3.bullet.control.RigidBodyControl)}. A round-robin
+ * scan that checks a few claimed controls each frame serves as a backstop
+ * for bodies woken only on the native side, for instance by a joint.
+ * <p>
+ * The first {@code update()} claims every RigidBodyControl in the space.
+ * After that, controls are claimed and released individually as they're
+ * added to and removed from the space. Until claimed, a new control
+ * synchronizes itself as usual.
+ * <p>
+ * Kinematic controls that follow their spatials are unaffected.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TransformSyncManager
+        implements CollisionSpaceListener, ContactListener {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(TransformSyncManager.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * true if every control in the space should be claimed during the next
+     * update
+     */
+    private boolean needsClaimAll = true;
+    /**
+     * maximum number of claimed controls to check for activity per update
+     * (&ge;0)
+     */
+    private int scanBudget = 64;
+    /**
+     * index of the next claimed control to scan
+     */
+    private int scanIndex = 0;
+    /**
+     * controls claimed by this manager, in no particular order (indexed for
+     * the round-robin scan)
+     */
+    final private List<RigidBodyControl> claimed = new ArrayList<>(64);
+    /**
+     * map each claimed control to its index in {@code claimed}
+     * (identity-based, for constant-time release)
+     */
+    final private Map<RigidBodyControl, Integer> claimedIndex
+            = new IdentityHashMap<>(64);
+    /**
+     * controls added to or removed from the space since the previous update
+     * (thread-safe)
+     */
+    final private Queue<RigidBodyControl> membershipChanges
+            = new ConcurrentLinkedQueue<>();
+    /**
+     * space whose bodies are synchronized (not null)
+     */
+    final private PhysicsSpace space;
+    /**
+     * controls woken since the previous update, possibly with duplicates
+     * (thread-safe)
+     */
+    final private Queue<RigidBodyControl> woken
+            = new ConcurrentLinkedQueue<>();
+    /**
+     * claimed controls whose transforms may have changed (identity-based,
+     * because native IDs change when a body is rebuilt)
+     */
+    final private Set<RigidBodyControl> awake = Collections.newSetFromMap(
+            new IdentityHashMap<RigidBodyControl, Boolean>(64));
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a manager for the specified space, with no claimed controls.
+     * To receive contact callbacks, the manager must also be added to the
+     * space as a ContactListener with {@code doProcessed=true}. To track
+     * controls added later, it must also be added as a space listener.
+     *
+     * @param space the space whose bodies are to be synchronized (not null,
+     * alias created)
+     */
+    public TransformSyncManager(PhysicsSpace space) {
+        Validate.nonNull(space, "space");
+        this.space = space;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Claim the specified control, so that its transform will be synchronized
+     * by this manager instead of by the control itself.
+     *
+     * @param control the control to claim (not null)
+     */
+    public void claim(RigidBodyControl control) {
+        Validate.nonNull(control, "control");
+
+        if (control.syncManager == this) {
+            return;
+        } else if (control.syncManager != null) {
+            control.syncManager.release(control);
+        }
+
+        control.syncManager = this;
+        claimedIndex.put(control, claimed.size());
+        claimed.add(control);
+        awake.add(control); // for the initial synchronization
+    }
+
+    /**
+     * Claim every RigidBodyControl currently added to the space.
+     *
+     * @return the number of controls newly claimed (&ge;0)
+     */
+    public int claimAll() {
+        int result = 0;
+        for (PhysicsRigidBody body : space.getRigidBodyList()) {
+            if (body instanceof RigidBodyControl) {
+                RigidBodyControl control = (RigidBodyControl) body;
+                if (control.syncManager != this) {
+                    claim(control);
+                    ++result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Count the controls that are currently awake.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countAwake() {
+        int result = awake.size();
+        return result;
+    }
+
+    /**
+     * Count the claimed controls.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countClaimed() {
+        int result = claimed.size();
+        return result;
+    }
+
+    /**
+     * Access the space whose bodies are synchronized.
+     *
+     * @return the pre-existing instance (not null)
+     */
+    public PhysicsSpace getSpace() {
+        assert space != null;
+        return space;
+    }
+
+    /**
+     * Request synchronization of the specified control during the next
+     * update, for instance after repositioning its body. This method may be
+     * invoked from any thread.
+     *
+     * @param control the control to synchronize (not null)
+     */
+    public void markDirty(RigidBodyControl control) {
+        Validate.nonNull(control, "control");
+        wake(control);
+    }
+
+    /**
+     * Release the specified control, so that it synchronizes its own
+     * transform again. If the control isn't claimed by this manager, this
+     * method has no effect.
+     *
+     * @param control the control to release (not null)
+     */
+    public void release(RigidBodyControl control) {
+        Validate.nonNull(control, "control");
+
+        if (control.syncManager == this) {
+            control.syncManager = null;
+            /*
+             * Swap the last claimed control into the vacated index,
+             * so that removal takes constant time.
+             */
+            int index = claimedIndex.remove(control);
+            int lastIndex = claimed.size() - 1;
+            RigidBodyControl last = claimed.remove(lastIndex);
+            if (index < lastIndex) {
+                claimed.set(index, last);
+                claimedIndex.put(last, index);
+            }
+            awake.remove(control);
+        }
+    }
+
+    /**
+     * Release all claimed controls, for instance before discarding this
+     * manager.
+     */
+    public void releaseAll() {
+        for (RigidBodyControl control : claimed) {
+            control.syncManager = null;
+        }
+        claimed.clear();
+        claimedIndex.clear();
+        awake.clear();
+        membershipChanges.clear();
+        this.needsClaimAll = true;
+    }
+
+    /**
+     * Return the maximum number of claimed controls checked for activity
+     * during each update.
+     *
+     * @return the count (&ge;0)
+     */
+    public int scanBudget() {
+        assert scanBudget >= 0 : scanBudget;
+        return scanBudget;
+    }
+
+    /**
+     * Alter the maximum number of claimed controls checked for activity during
+     * each update. The scan catches bodies that wake up without generating
+     * contact-processed callbacks.
+     *
+     * @param numControls the desired count (&ge;0, default=64)
+     */
+    public void setScanBudget(int numControls) {
+        Validate.nonNegative(numControls, "number of controls");
+        this.scanBudget = numControls;
+    }
+
+    /**
+     * Apply the physics transforms of all awake controls to their spatials.
+     * Should be invoked once per frame from the render thread, before the
+     * scene's logical state is updated.
+     */
+    public void update() {
+        if (needsClaimAll) {
+            membershipChanges.clear();
+            claimAll();
+            this.needsClaimAll = false;
+        }
+        for (RigidBodyControl control = membershipChanges.poll();
+                control != null; control = membershipChanges.poll()) {
+            if (space.contains(control)) {
+                if (control.syncManager == null) {
+                    claim(control);
+                }
+            } else {
+                release(control);
+            }
+        }
+
+        for (RigidBodyControl control = woken.poll(); control != null;
+                control = woken.poll()) {
+            control.isWoken = false;
+            if (control.syncManager == this) {
+                awake.add(control);
+            }
+        }
+
+        int numClaimed = claimed.size();
+        int numToScan = Math.min(scanBudget, numClaimed);
+        for (int i = 0; i < numToScan; ++i) {
+            if (scanIndex >= numClaimed) {
+                this.scanIndex = 0;
+            }
+            RigidBodyControl control = claimed.get(scanIndex);
+            ++scanIndex;
+            if (!awake.contains(control) && control.isActive()) {
+                awake.add(control);
+            }
+        }
+
+        Iterator<RigidBodyControl> iterator = awake.iterator();
+        while (iterator.hasNext()) {
+            RigidBodyControl control = iterator.next();
+            control.applyPhysicsTransform();
+            if (!control.isActive()) {
+                iterator.remove(); // final transform has been applied
+            }
+        }
+    }
+    // *************************************************************************
+    // CollisionSpaceListener methods
+
+    /**
+     * Invoked immediately after a collision object is added to the space.
+     * Arranges for any RigidBodyControl to be claimed during the next update.
+     *
+     * @param space the space that was modified (not null)
+     * @param pco the object that was added (not null)
+     */
+    @Override
+    public void collisionObjectAdded(
+            CollisionSpace space, PhysicsCollisionObject pco) {
+        if (pco instanceof RigidBodyControl) {
+            membershipChanges.add((RigidBodyControl) pco);
+        }
+    }
+
+    /**
+     * Invoked immediately after a collision object is removed from the space.
+     * Arranges for any RigidBodyControl to be released during the next
+     * update.
+     *
+     * @param space the space that was modified (not null)
+     * @param pco the object that was removed (not null)
+     */
+    @Override
+    public void collisionObjectRemoved(
+            CollisionSpace space, PhysicsCollisionObject pco) {
+        if (pco instanceof RigidBodyControl) {
+            membershipChanges.add((RigidBodyControl) pco);
+        }
+    }
+
+    /**
+     * Invoked immediately after a joint is added to a PhysicsSpace. Not used.
+     *
+     * @param space the space that was modified (not null)
+     * @param joint the joint that was added (not null)
+     */
+    @Override
+    public void jointAdded(PhysicsSpace space, PhysicsJoint joint) {
+        // do nothing
+    }
+
+    /**
+     * Invoked immediately after a joint is removed from a PhysicsSpace. Not
+     * used.
+     *
+     * @param space the space that was modified (not null)
+     * @param joint the joint that was removed (not null)
+     */
+    @Override
+    public void jointRemoved(PhysicsSpace space, PhysicsJoint joint) {
+        // do nothing
+    }
+    // *************************************************************************
+    // ContactListener methods
+
+    /**
+     * Invoked immediately after a contact manifold is removed. Not used.
+     *
+     * @param manifoldId the native ID of the {@code btPersistentManifold} (not
+     * zero)
+     */
+    @Override
+    public void onContactEnded(long manifoldId) {
+        // do nothing
+    }
+
+    /**
+     * Invoked immediately after a contact point is refreshed without being
+     * removed. Wakes any claimed controls involved.
+     *
+     * @param pcoA the first involved object (not null)
+     * @param pcoB the 2nd involved object (not null)
+     * @param manifoldPointId the native ID of the {@code btManifoldPoint} (not
+     * zero)
+     */
+    @Override
+    public void onContactProcessed(PhysicsCollisionObject pcoA,
+            PhysicsCollisionObject pcoB, long manifoldPointId) {
+        if (pcoA instanceof RigidBodyControl) {
+            wake((RigidBodyControl) pcoA);
+        }
+        if (pcoB instanceof RigidBodyControl) {
+            wake((RigidBodyControl) pcoB);
+        }
+    }
+
+    /**
+     * Invoked immediately after a contact manifold is created. Not used.
+     *
+     * @param manifoldId the native ID of the {@code btPersistentManifold} (not
+     * zero)
+     */
+    @Override
+    public void onContactStarted(long manifoldId) {
+        // do nothing
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Enqueue the specified control for the next update, unless it's already
+     * enqueued or claimed by some other manager.
+     *
+     * @param control the control to wake (not null)
+     */
+    private void wake(RigidBodyControl control) {
+        if (control.syncManager == this && !control.isWoken) {
+            control.isWoken = true;
+            woken.add(control);
+        }
+    }
+}
@@ -34,6 +34,9 @@ package com.jme3.bullet.debug;
 import com.jme3.app.Application;
 import com.jme3.app.state.BaseAppState;
 import com.jme3.asset.AssetManager;
+import com.jme3.bounding.BoundingBox;
+import com.jme3.bullet.CollisionSpace;
+import com.jme3.bullet.CollisionSpaceListener;
 import com.jme3.bullet.PhysicsSpace;
 import com.jme3.bullet.collision.PhysicsCollisionObject;
 import com.jme3.bullet.joints.Anchor;
@@ -50,15 +53,20 @@ import com.jme3.material.Material;
 import com.jme3.material.RenderState;
 import com.jme3.math.ColorRGBA;
 import com.jme3.math.Transform;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
 import com.jme3.renderer.RenderManager;
 import com.jme3.renderer.ViewPort;
 import com.jme3.renderer.queue.RenderQueue;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 import com.jme3.scene.control.Control;
-import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jme3utilities.MyAsset;
@@ -138,18 +146,88 @@ public class BulletDebugAppState extends BaseAppState {
      * application's asset manager: set by initialize()
      */
     private AssetManager assetManager;
+    /**
+     * true if culling was applied during the current update
+     */
+    private boolean isCulling = false;
+    /**
+     * temporary storage for a bounding box in physics-space coordinates
+     */
+    final private BoundingBox tmpBox = new BoundingBox();
+    /**
+     * temporary storage for a bounding box in world coordinates
+     */
+    final private BoundingBox tmpWorldBox = new BoundingBox();
     /**
      * configuration
      */
     final private DebugConfiguration configuration;
     /**
      * map collision objects to transformed visualization nodes
+     * (identity-based, because native IDs change when an object is rebuilt)
+     */
+    final private Map<PhysicsCollisionObject, Node> pcoMap
+            = new IdentityHashMap<>(64);
+    /**
+     * map physics joints to visualization nodes (identity-based)
+     */
+    final private Map<PhysicsJoint, Node> jointMap = new IdentityHashMap<>(64);
+    /**
+     * collision objects and joints whose membership in the tracked space
+     * changed since the previous update, possibly with duplicates
+     * (thread-safe)
+     */
+    final private Queue<Object> changedObjects
+            = new ConcurrentLinkedQueue<>();
+    /**
+     * joints in the tracked space, whether visualized or not
+     * (identity-based)
      */
-    private HashMap<PhysicsCollisionObject, Node> pcoMap = new HashMap<>(64);
+    final private Set<PhysicsJoint> joints = Collections.newSetFromMap(
+            new IdentityHashMap<PhysicsJoint, Boolean>(64));
+    /**
+     * vehicles in the tracked space (identity-based)
+     */
+    final private Set<PhysicsVehicle> vehicles = Collections.newSetFromMap(
+            new IdentityHashMap<PhysicsVehicle, Boolean>(8));
+    /**
+     * collision objects that survived culling during the current update
+     * (identity-based)
+     */
+    final private Set<PhysicsCollisionObject> inView = Collections
+            .newSetFromMap(new IdentityHashMap<PhysicsCollisionObject, Boolean>(
+                    64));
+    /**
+     * listener to enqueue membership changes of the tracked space
+     */
+    final private CollisionSpaceListener spaceListener
+            = new CollisionSpaceListener() {
+        @Override
+        public void collisionObjectAdded(
+                CollisionSpace space, PhysicsCollisionObject pco) {
+            changedObjects.add(pco);
+        }
+
+        @Override
+        public void collisionObjectRemoved(
+                CollisionSpace space, PhysicsCollisionObject pco) {
+            changedObjects.add(pco);
+        }
+
+        @Override
+        public void jointAdded(PhysicsSpace space, PhysicsJoint joint) {
+            changedObjects.add(joint);
+        }
+
+        @Override
+        public void jointRemoved(PhysicsSpace space, PhysicsJoint joint) {
+            changedObjects.add(joint);
+        }
+    };
     /**
-     * map physics joints to visualization nodes
+     * space whose membership is tracked, or null if none
      */
-    private HashMap<PhysicsJoint, Node> jointMap = new HashMap<>(64);
+    private PhysicsSpace trackedSpace = null;
     /**
      * materials for rigid bodies (and vehicle chassis and colliders) that are
      * responsive and either static or kinematic or inactive
@@ -368,6 +446,18 @@ public class BulletDebugAppState extends BaseAppState {
         return white;
     }
 
+    /**
+     * Test whether the specified collision object survived culling during the
+     * current update.
+     *
+     * @param pco the object to test (not null, unaffected)
+     * @return true if it's in view or culling is disabled, otherwise false
+     */
+    boolean isInView(PhysicsCollisionObject pco) {
+        boolean result = !isCulling || inView.contains(pco);
+        return result;
+    }
+
     /**
      * Alter which angular velocities are visualized. For internal use only.
      *
@@ -521,8 +611,7 @@ public class BulletDebugAppState extends BaseAppState {
      *
      * @return the pre-existing instance
      */
-    protected HashMap<PhysicsCollisionObject, Node> getPcoMap() {
-        // TODO should return Map<>
+    protected Map<PhysicsCollisionObject, Node> getPcoMap() {
         return pcoMap;
     }
 
@@ -623,8 +712,8 @@ public class BulletDebugAppState extends BaseAppState {
                 : pcoMap.entrySet()) {
             DebugAppStateFilter filter = configuration.getFilter();
             PhysicsCollisionObject pco = entry.getKey();
-            boolean displayShape
-                    = (filter == null) || filter.displayObject(pco);
+            boolean displayShape = isInView(pco)
+                    && (filter == null || filter.displayObject(pco));
 
             Node node = entry.getValue();
             Control control;
@@ -693,7 +782,10 @@ public class BulletDebugAppState extends BaseAppState {
      */
     @Override
     protected void cleanup(Application app) {
-        // do nothing
+        if (trackedSpace != null) {
+            trackedSpace.removeSpaceListener(spaceListener);
+            this.trackedSpace = null;
+        }
     }
 
     /**
@@ -762,7 +854,9 @@ public class BulletDebugAppState extends BaseAppState {
     public void update(float tpf) {
         super.update(tpf);
 
+        trackSpace();
         updatePcoMap();
+        updateInView();
         updateShapes();
         updateVehicles();
         updateBoundingBoxes();
@@ -785,6 +879,84 @@ public class BulletDebugAppState extends BaseAppState {
     // *************************************************************************
     // private methods
 
+    /**
+     * Create and attach visualization nodes for the specified collision
+     * object.
+     *
+     * @param pco the collision object to visualize (not null)
+     */
+    private void addPcoNodes(PhysicsCollisionObject pco) {
+        // 2 nodes for each PCO
+        Node parent = new Node(pco.toString());
+        attachChild(parent);
+        Node node = new Node(pco + " transformed");
+        parent.attachChild(node);
+        pcoMap.put(pco, node);
+        if (pco instanceof PhysicsVehicle) {
+            vehicles.add((PhysicsVehicle) pco);
+        }
+        pcoAdded(pco);
+    }
+
+    /**
+     * Test whether either end of the specified joint survived culling during
+     * the current update.
+     *
+     * @param joint the joint to test (not null, unaffected)
+     * @return true if either end is in view or culling is disabled, otherwise
+     * false
+     */
+    private boolean isInView(PhysicsJoint joint) {
+        if (!isCulling) {
+            return true;
+        }
+
+        PhysicsBody bodyA = joint.getBodyA();
+        PhysicsBody bodyB = joint.getBodyB();
+        boolean result = (bodyA != null && inView.contains(bodyA))
+                || (bodyB != null && inView.contains(bodyB));
+
+        return result;
+    }
+
+    /**
+     * Start tracking membership changes of the configured PhysicsSpace, if it
+     * isn't already tracked. When the space changes, all visualization nodes
+     * are rebuilt.
+     */
+    private void trackSpace() {
+        PhysicsSpace space = configuration.getSpace();
+        if (space == trackedSpace) {
+            return;
+        }
+
+        if (trackedSpace != null) {
+            trackedSpace.removeSpaceListener(spaceListener);
+        }
+        changedObjects.clear();
+        for (Map.Entry<PhysicsCollisionObject, Node> entry
+                : pcoMap.entrySet()) {
+            Node parent = entry.getValue().getParent();
+            parent.removeFromParent();
+            pcoRemoved(entry.getKey());
+        }
+        pcoMap.clear();
+        vehicles.clear();
+        for (Node node : jointMap.values()) {
+            node.removeFromParent();
+        }
+        jointMap.clear();
+        joints.clear();
+
+        this.trackedSpace = space;
+        // Register before scanning, so that no change is missed.
+        space.addSpaceListener(spaceListener);
+        for (PhysicsCollisionObject pco : space.getPcoList()) {
+            addPcoNodes(pco);
+        }
+        joints.addAll(space.getJointList());
+    }
+
     /**
      * Synchronize the angular-velocity debug controls with the dynamic rigid
      * bodies in the PhysicsSpace.
@@ -800,6 +972,7 @@ public class BulletDebugAppState extends BaseAppState {
             PhysicsCollisionObject pco = entry.getKey();
             boolean display = pco instanceof PhysicsRigidBody
                     && ((PhysicsRigidBody) pco).isDynamic()
+                    && isInView(pco)
                     && filter.displayObject(pco);
 
             Node transformedNode = entry.getValue();
@@ -830,7 +1003,7 @@ public class BulletDebugAppState extends BaseAppState {
         for (Map.Entry<PhysicsCollisionObject, Node> entry
                 : pcoMap.entrySet()) {
             PhysicsCollisionObject pco = entry.getKey();
-            boolean display = filter.displayObject(pco);
+            boolean display = isInView(pco) && filter.displayObject(pco);
 
             Node transformedNode = entry.getValue();
             Node parent = transformedNode.getParent();
@@ -865,6 +1038,7 @@ public class BulletDebugAppState extends BaseAppState {
             boolean display = pco instanceof PhysicsBody
                     && !pco.isStatic()
                     && !pcoIsKinematic
+                    && isInView(pco)
                     && filter.displayObject(pco);
 
             Node transformedNode = entry.getValue();
@@ -882,78 +1056,126 @@ public class BulletDebugAppState extends BaseAppState {
         }
     }
 
+    /**
+     * Determine which collision objects survive distance and frustum culling
+     * during the current update.
+     */
+    private void updateInView() {
+        inView.clear();
+        Camera camera = configuration.getCamera();
+        this.isCulling = configuration.isCulling() && camera != null;
+        if (!isCulling) {
+            return;
+        }
+
+        Spatial transformSpatial = configuration.getTransformSpatial();
+        Transform physicsToWorld = (transformSpatial == null)
+                ? null : transformSpatial.getWorldTransform(); // alias
+        float radius = configuration.cullingRadius();
+        boolean cullFrustum = configuration.isFrustumCulling();
+        Vector3f cameraLocation = camera.getLocation(); // alias
+        /*
+         * Camera.contains() uses and updates the plane state,
+         * so reset it for each test and restore it afterward.
+         */
+        int savePlaneState = camera.getPlaneState();
+        for (PhysicsCollisionObject pco : pcoMap.keySet()) {
+            BoundingBox worldBox = pco.boundingBox(tmpBox);
+            if (physicsToWorld != null) {
+                tmpBox.transform(physicsToWorld, tmpWorldBox);
+                worldBox = tmpWorldBox;
+            }
+            if (worldBox.distanceToEdge(cameraLocation) > radius) {
+                continue;
+            }
+            if (cullFrustum) {
+                camera.setPlaneState(0);
+                Camera.FrustumIntersect intersect = camera.contains(worldBox);
+                if (intersect == Camera.FrustumIntersect.Outside) {
+                    continue;
+                }
+            }
+            inView.add(pco);
+        }
+        camera.setPlaneState(savePlaneState);
+    }
+
     /**
      * Synchronize the joint debug controls with the joints in the PhysicsSpace.
      */
     private void updateJoints() {
         DebugAppStateFilter filter = configuration.getFilter();
-        HashMap<PhysicsJoint, Node> oldMap = jointMap;
-        // create new map
-        jointMap = new HashMap<>(oldMap.size());
-        PhysicsSpace space = configuration.getSpace();
-        Collection<PhysicsJoint> list = space.getJointList();
-        for (PhysicsJoint joint : list) {
-            if (filter == null || filter.displayObject(joint)) {
-                Node node = oldMap.remove(joint);
-                if (node == null) {
-                    node = new Node(joint.toString());
-                    attachChild(node);
-
-                    Control control;
-                    if (joint instanceof Anchor) {
-                        logger.log(Level.FINE, "Create new AnchorDebugControl");
-                        Anchor anchor = (Anchor) joint;
-                        control = new AnchorDebugControl(this, anchor);
-
-                    } else if (joint instanceof Constraint) {
-                        logger.log(Level.FINE,
-                                "Create new ConstraintDebugControl");
-                        Constraint constraint = (Constraint) joint;
-                        control = new ConstraintDebugControl(this, constraint);
-
-                    } else {
-                        logger.log(Level.FINE,
-                                "Create new SoftJointDebugControl");
-                        SoftPhysicsJoint softJoint = (SoftPhysicsJoint) joint;
-                        control = new SoftJointDebugControl(this, softJoint);
-                    }
-                    node.addControl(control);
+        for (PhysicsJoint joint : joints) {
+            boolean display = isInView(joint)
+                    && (filter == null || filter.displayObject(joint));
+            Node node = jointMap.get(joint);
+            if (node == null && display) {
+                node = new Node(joint.toString());
+                attachChild(node);
+
+                Control control;
+                if (joint instanceof Anchor) {
+                    logger.log(Level.FINE, "Create new AnchorDebugControl");
+                    Anchor anchor = (Anchor) joint;
+                    control = new AnchorDebugControl(this, anchor);
+
+                } else if (joint instanceof Constraint) {
+                    logger.log(Level.FINE, "Create new ConstraintDebugControl");
+                    Constraint constraint = (Constraint) joint;
+                    control = new ConstraintDebugControl(this, constraint);
+
+                } else {
+                    logger.log(Level.FINE, "Create new SoftJointDebugControl");
+                    SoftPhysicsJoint softJoint = (SoftPhysicsJoint) joint;
+                    control = new SoftJointDebugControl(this, softJoint);
                 }
+                node.addControl(control);
                 jointMap.put(joint, node);
+
+            } else if (node != null && !display) {
+                jointMap.remove(joint);
+                node.removeFromParent();
             }
         }
-        // Detach any leftover nodes.
-        for (Node node : oldMap.values()) {
-            node.removeFromParent();
-        }
     }
 
     /**
-     * Synchronize the visualization nodes with the collision objects in the
-     * PhysicsSpace.
+     * Synchronize the visualization nodes with the collision objects and
+     * joints whose membership in the PhysicsSpace changed since the previous
+     * update.
      */
     private void updatePcoMap() {
-        // Create visualization nodes for PCOs that have been added.
-        HashMap<PhysicsCollisionObject, Node> oldMap = pcoMap;
-        this.pcoMap = new HashMap<>(oldMap.size());
-        PhysicsSpace space = configuration.getSpace();
-        Collection<PhysicsCollisionObject> list = space.getPcoList();
-        for (PhysicsCollisionObject pco : list) {
-            Node node = oldMap.remove(pco);
-            if (node == null) {
-                // 2 nodes for each PCO
-                Node parent = new Node(pco.toString());
-                attachChild(parent);
-                node = new Node(pco + " transformed");
-                parent.attachChild(node);
-            }
-            pcoMap.put(pco, node);
-        }
+        for (Object object = changedObjects.poll(); object != null;
+                object = changedObjects.poll()) {
+            if (object instanceof PhysicsCollisionObject) {
+                PhysicsCollisionObject pco = (PhysicsCollisionObject) object;
+                boolean isMember = pco.hasAssignedNativeObject()
+                        && trackedSpace.contains(pco);
+                Node transformedNode = pcoMap.get(pco);
+                if (isMember && transformedNode == null) {
+                    addPcoNodes(pco);
+                } else if (!isMember && transformedNode != null) {
+                    pcoMap.remove(pco);
+                    vehicles.remove(pco);
+                    Node parent = transformedNode.getParent();
+                    parent.removeFromParent();
+                    pcoRemoved(pco);
+                }
 
-        // Detach nodes of PCOs that have been removed from the space.
-        for (Node transformedNode : oldMap.values()) {
-            Node parent = transformedNode.getParent();
-            parent.removeFromParent();
+            } else {
+                PhysicsJoint joint = (PhysicsJoint) object;
+                boolean isMember = joint.hasAssignedNativeObject()
+                        && trackedSpace.contains(joint);
+                if (isMember) {
+                    joints.add(joint);
+                } else {
+                    joints.remove(joint);
+                    Node node = jointMap.remove(joint);
+                    if (node != null) {
+                        node.removeFromParent();
+                    }
+                }
+            }
         }
     }
 
@@ -970,7 +1192,8 @@ public class BulletDebugAppState extends BaseAppState {
         for (Map.Entry<PhysicsCollisionObject, Node> entry
                 : pcoMap.entrySet()) {
             PhysicsCollisionObject pco = entry.getKey();
-            boolean display = filter.displayObject(pco)
+            boolean display = isInView(pco)
+                    && filter.displayObject(pco)
                     && pco.getCcdMotionThreshold() > 0f
                     && pco.getCcdSweptSphereRadius() > 0f;
 
@@ -995,9 +1218,9 @@ public class BulletDebugAppState extends BaseAppState {
      */
     private void updateVehicles() {
         DebugAppStateFilter filter = configuration.getFilter();
-        PhysicsSpace space = configuration.getSpace();
-        for (PhysicsVehicle vehicle : space.getVehicleList()) {
-            boolean display = (filter == null || filter.displayObject(vehicle));
+        for (PhysicsVehicle vehicle : vehicles) {
+            boolean display = isInView(vehicle)
+                    && (filter == null || filter.displayObject(vehicle));
 
             Node node = pcoMap.get(vehicle);
             Control control = node.getControl(BulletVehicleDebugControl.class);
@@ -1028,6 +1251,7 @@ public class BulletDebugAppState extends BaseAppState {
             PhysicsCollisionObject pco = entry.getKey();
             boolean display = pco instanceof PhysicsRigidBody
                     && ((PhysicsRigidBody) pco).isDynamic()
+                    && isInView(pco)
                     && filter.displayObject(pco);
 
             Node transformedNode = entry.getValue();
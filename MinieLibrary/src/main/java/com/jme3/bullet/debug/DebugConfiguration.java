@@ -62,6 +62,11 @@ public class DebugConfiguration {
      * true if-and-only-if (debug) visualization is enabled
      */
     private boolean isEnabled = false;
+    /**
+     * true if objects outside the camera's view frustum are omitted from the
+     * visualization
+     */
+    private boolean isFrustumCulling = false;
     /**
      * limit which angular velocities are visualized, or null to visualize no
      * angular velocities
@@ -110,6 +115,11 @@ public class DebugConfiguration {
      * axis arrows
      */
     private float axisLineWidth = 1f;
+    /**
+     * maximum distance from the camera to an object's bounding box for the
+     * object to be visualized (in world units, &ge;0)
+     */
+    private float cullingRadius = Float.POSITIVE_INFINITY;
     /**
      * line width for PhysicsJoint arrows (in pixels, &ge;1)
      */
@@ -164,6 +174,17 @@ public class DebugConfiguration {
         return axisLineWidth;
     }
 
+    /**
+     * Determine the maximum distance from the camera for objects to be
+     * visualized.
+     *
+     * @return the distance (in world units, &ge;0) or +Infinity for no limit
+     */
+    public float cullingRadius() {
+        assert cullingRadius >= 0f : cullingRadius;
+        return cullingRadius;
+    }
+
     /**
      * Access the filter that limits which angular velocities are visualized.
      *
@@ -275,6 +296,17 @@ public class DebugConfiguration {
         }
     }
 
+    /**
+     * Test whether any form of culling is configured.
+     *
+     * @return true if configured, otherwise false
+     */
+    boolean isCulling() {
+        boolean result = isFrustumCulling
+                || cullingRadius < Float.POSITIVE_INFINITY;
+        return result;
+    }
+
     /**
      * Test whether (debug) visualization is enabled.
      *
@@ -284,6 +316,16 @@ public class DebugConfiguration {
         return isEnabled;
     }
 
+    /**
+     * Test whether objects outside the camera's view frustum are omitted from
+     * the visualization.
+     *
+     * @return true if omitted, otherwise false
+     */
+    public boolean isFrustumCulling() {
+        return isFrustumCulling;
+    }
+
     /**
      * Determine the line width of joint arrows.
      *
@@ -374,6 +416,18 @@ public class DebugConfiguration {
         this.camera = camera;
     }
 
+    /**
+     * Alter the maximum distance from the camera for objects to be visualized.
+     * Debug controls of more distant objects are removed.
+     *
+     * @param radius the desired distance (in world units, &ge;0) or +Infinity
+     * for no limit (default=+Infinity)
+     */
+    public void setCullingRadius(float radius) {
+        Validate.nonNegative(radius, "radius");
+        this.cullingRadius = radius;
+    }
+
     /**
      * Alter whether (debug) visualization is enabled. Changes take effect on
      * the next update.
@@ -394,6 +448,16 @@ public class DebugConfiguration {
         this.filter = filter;
     }
 
+    /**
+     * Alter whether objects outside the camera's view frustum are omitted from
+     * the visualization. Debug controls of omitted objects are removed.
+     *
+     * @param setting true to omit them, false to visualize them (default=false)
+     */
+    public void setFrustumCulling(boolean setting) {
+        this.isFrustumCulling = setting;
+    }
+
     /**
      * Alter which gravity vectors are included in the visualization.
      *
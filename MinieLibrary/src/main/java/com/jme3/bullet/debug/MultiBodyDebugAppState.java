@@ -31,14 +31,11 @@
  */
 package com.jme3.bullet.debug;
 
-import com.jme3.bullet.MultiBody;
-import com.jme3.bullet.MultiBodySpace;
+import com.jme3.bullet.collision.PhysicsCollisionObject;
 import com.jme3.bullet.objects.MultiBodyCollider;
 import com.jme3.scene.Node;
 import com.jme3.scene.control.Control;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -61,9 +58,11 @@ public class MultiBodyDebugAppState extends BulletDebugAppState {
     // fields
 
     /**
-     * map multibodies to visualization nodes
+     * map multibody colliders in the tracked space to visualization nodes
+     * (identity-based, maintained as membership changes)
      */
-    private HashMap<MultiBodyCollider, Node> colliderMap = new HashMap<>(64);
+    final private Map<MultiBodyCollider, Node> colliderMap
+            = new IdentityHashMap<>(64);
     // *************************************************************************
     // constructors
 
@@ -79,6 +78,35 @@ public class MultiBodyDebugAppState extends BulletDebugAppState {
     // *************************************************************************
     // BulletDebugAppState methods
 
+    /**
+     * Create a visualization node for a collider that joined the tracked
+     * space.
+     *
+     * @param pco the object that joined (not null)
+     */
+    @Override
+    protected void pcoAdded(PhysicsCollisionObject pco) {
+        if (pco instanceof MultiBodyCollider) {
+            Node node = new Node(pco.toString());
+            attachChild(node);
+            colliderMap.put((MultiBodyCollider) pco, node);
+        }
+    }
+
+    /**
+     * Detach the visualization node of a collider that left the tracked
+     * space.
+     *
+     * @param pco the object that left (not null)
+     */
+    @Override
+    protected void pcoRemoved(PhysicsCollisionObject pco) {
+        Node node = colliderMap.remove(pco);
+        if (node != null) {
+            node.removeFromParent();
+        }
+    }
+
     /**
      * Synchronize the collision-shape debug controls and axis visualizers with
      * the collision objects in the PhysicsSpace.
@@ -95,39 +123,13 @@ public class MultiBodyDebugAppState extends BulletDebugAppState {
      * Synchronize the collider debug controls with the MultiBodySpace.
      */
     private void updateMultiBodies() {
-        HashMap<MultiBodyCollider, Node> oldMap = colliderMap;
-        // create new map
-        this.colliderMap = new HashMap<>(oldMap.size());
-        DebugConfiguration config = getConfiguration();
-        MultiBodySpace pSpace = (MultiBodySpace) config.getSpace();
-        Collection<MultiBody> list = pSpace.getMultiBodyList();
-        for (MultiBody multiBody : list) {
-            List<MultiBodyCollider> list2 = multiBody.listColliders();
-            for (MultiBodyCollider collider : list2) {
-                Node node = oldMap.remove(collider);
-                if (node == null) {
-                    node = new Node(collider.toString());
-                    attachChild(node);
-                }
-                colliderMap.put(collider, node);
-            }
-        }
-
-        // Detach nodes of colliders that have been removed from the space.
-        for (Node node : oldMap.values()) {
-            node.removeFromParent();
-        }
-        /*
-         * Synchronize the collider debug controls and axis visualizers
-         * with the colliders in the PhysicsSpace.
-         */
         BulletDebugAppState.DebugAppStateFilter filter
                 = getConfiguration().getFilter();
         for (Map.Entry<MultiBodyCollider, Node> entry
                 : colliderMap.entrySet()) {
             MultiBodyCollider collider = entry.getKey();
-            boolean displayShape = (filter == null)
-                    || filter.displayObject(collider);
+            boolean displayShape = isInView(collider)
+                    && (filter == null || filter.displayObject(collider));
 
             Node node = entry.getValue();
             Control control = node.getControl(ColliderDebugControl.class);
@@ -32,7 +32,6 @@
 package com.jme3.bullet.debug;
 
 import com.jme3.asset.AssetManager;
-import com.jme3.bullet.PhysicsSoftSpace;
 import com.jme3.bullet.collision.PhysicsCollisionObject;
 import com.jme3.bullet.objects.PhysicsSoftBody;
 import com.jme3.material.Material;
@@ -41,8 +40,7 @@ import com.jme3.math.ColorRGBA;
 import com.jme3.scene.Node;
 import com.jme3.scene.control.Control;
 import com.jme3.texture.Texture;
-import java.util.Collection;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -80,9 +78,11 @@ public class SoftDebugAppState extends BulletDebugAppState {
      */
     private BulletDebugAppState.DebugAppStateFilter windVelocityFilter;
     /**
-     * map soft bodies to visualization nodes
+     * map soft bodies in the tracked space to visualization nodes
+     * (identity-based, maintained as membership changes)
      */
-    private HashMap<PhysicsSoftBody, Node> softBodies = new HashMap<>(64);
+    final private Map<PhysicsSoftBody, Node> softBodies
+            = new IdentityHashMap<>(64);
     /**
      * material for visualizing all soft-body anchors
      */
@@ -217,6 +217,35 @@ public class SoftDebugAppState extends BulletDebugAppState {
     // *************************************************************************
     // BulletDebugAppState methods
 
+    /**
+     * Create a visualization node for a soft body that joined the tracked
+     * space.
+     *
+     * @param pco the object that joined (not null)
+     */
+    @Override
+    protected void pcoAdded(PhysicsCollisionObject pco) {
+        if (pco instanceof PhysicsSoftBody) {
+            Node node = new Node(pco.toString());
+            attachChild(node);
+            softBodies.put((PhysicsSoftBody) pco, node);
+        }
+    }
+
+    /**
+     * Detach the visualization node of a soft body that left the tracked
+     * space.
+     *
+     * @param pco the object that left (not null)
+     */
+    @Override
+    protected void pcoRemoved(PhysicsCollisionObject pco) {
+        Node node = softBodies.remove(pco);
+        if (node != null) {
+            node.removeFromParent();
+        }
+    }
+
     /**
      * Initialize the materials.
      *
@@ -298,35 +327,12 @@ public class SoftDebugAppState extends BulletDebugAppState {
      * Synchronize the soft-body debug controls with the PhysicsSoftSpace.
      */
     private void updateSoftBodies() {
-        HashMap<PhysicsSoftBody, Node> oldMap = softBodies;
-        // create new map
-        this.softBodies = new HashMap<>(oldMap.size());
-        DebugConfiguration config = getConfiguration();
-        PhysicsSoftSpace pSpace = (PhysicsSoftSpace) config.getSpace();
-        Collection<PhysicsSoftBody> list = pSpace.getSoftBodyList();
-        for (PhysicsSoftBody softBody : list) {
-            Node node = oldMap.remove(softBody);
-            if (node == null) {
-                node = new Node(softBody.toString());
-                attachChild(node);
-            }
-            softBodies.put(softBody, node);
-        }
-
-        // Detach nodes of soft bodies that have been removed from the space.
-        for (Node node : oldMap.values()) {
-            node.removeFromParent();
-        }
-        /*
-         * Synchronize the soft-body debug controls and axis visualizers
-         * with the soft bodies in the PhysicsSpace.
-         */
         BulletDebugAppState.DebugAppStateFilter filter
                 = getConfiguration().getFilter();
         for (Map.Entry<PhysicsSoftBody, Node> entry : softBodies.entrySet()) {
             PhysicsSoftBody softBody = entry.getKey();
-            boolean displayShape = (filter == null)
-                    || filter.displayObject(softBody);
+            boolean displayShape = isInView(softBody)
+                    && (filter == null || filter.displayObject(softBody));
 
             Node node = entry.getValue();
             Control control = node.getControl(SoftBodyDebugControl.class);
@@ -46,7 +46,7 @@ import com.simsilica.mathd.Matrix3d;
 import com.simsilica.mathd.Quatd;
 import com.simsilica.mathd.Vec3d;
 import java.io.IOException;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -86,10 +86,11 @@ public class PhysicsGhostObject extends PhysicsCollisionObject {
     // fields
 
     /**
-     * TODO reused list
+     * overlapping objects found by the latest
+     * {@link #getOverlappingObjects()}, reused to avoid allocation
      */
     private List<PhysicsCollisionObject> overlappingObjects
-            = new LinkedList<>();
+            = new ArrayList<>(4);
     // *************************************************************************
     // constructors
 
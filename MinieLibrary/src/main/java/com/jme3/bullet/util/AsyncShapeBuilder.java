@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet.util;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.PhysicsCollisionObject;
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import com.jme3.bullet.collision.shapes.GImpactCollisionShape;
+import com.jme3.bullet.collision.shapes.HullCollisionShape;
+import com.jme3.bullet.collision.shapes.MeshCollisionShape;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.Spatial;
+import java.nio.FloatBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * Build collision shapes on a pool of worker threads, so that BVH
+ * generation and hull computation don't stall the render or physics
+ * threads, for instance while streaming terrain chunks.
+ * <p>
+ * Each build returns a CompletableFuture for the new shape. Inputs must not
+ * be modified until the future completes. Finished shapes can be handed to
+ * the physics thread with {@link #addWhenBuilt(
+ * java.util.concurrent.CompletableFuture, com.jme3.bullet.PhysicsSpace,
+ * java.util.function.Function)}, which creates the collision object and
+ * adds it to the space via {@link PhysicsSpace#enqueue(
+ * java.util.concurrent.Callable)}.
+ * <p>
+ * Each build creates its own native shape from its own inputs, and touches
+ * no native state shared with the physics space, so builds don't require a
+ * thread-safe native library. A single input object shouldn't be used by
+ * concurrent builds, however.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class AsyncShapeBuilder {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(AsyncShapeBuilder.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * executor that runs the builds (not null)
+     */
+    final private Executor executor;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a builder that uses the common ForkJoinPool.
+     */
+    public AsyncShapeBuilder() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Instantiate a builder that uses the specified executor.
+     *
+     * @param executor the executor to run the builds (not null, alias
+     * created)
+     */
+    public AsyncShapeBuilder(Executor executor) {
+        Validate.nonNull(executor, "executor");
+
+        this.executor = executor;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * After the specified shape is built, create a collision object for it
+     * and add the object to the specified space, both on the physics thread
+     * during the next simulation step.
+     *
+     * @param <T> the type of collision object
+     * @param shapeFuture the future for the shape (not null)
+     * @param space the space to add to (not null, alias created)
+     * @param factory creates the collision object from the finished shape,
+     * invoked on the physics thread (not null, alias created)
+     * @return a new future that completes with the collision object after
+     * it's been added to the space
+     */
+    public <T extends PhysicsCollisionObject> CompletableFuture<T>
+            addWhenBuilt(
+            CompletableFuture<? extends CollisionShape> shapeFuture,
+            final PhysicsSpace space,
+            final Function<CollisionShape, T> factory) {
+        Validate.nonNull(shapeFuture, "shape future");
+        Validate.nonNull(space, "space");
+        Validate.nonNull(factory, "factory");
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        shapeFuture.whenComplete(
+                new BiConsumer<CollisionShape, Throwable>() {
+            @Override
+            public void accept(
+                    final CollisionShape shape, Throwable failure) {
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                    return;
+                }
+                space.enqueue(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        try {
+                            T pco = factory.apply(shape);
+                            space.addCollisionObject(pco);
+                            result.complete(pco);
+                        } catch (RuntimeException exception) {
+                            result.completeExceptionally(exception);
+                        }
+                        return null;
+                    }
+                });
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Build a shape using the specified supplier.
+     *
+     * @param <T> the type of shape
+     * @param supplier the function that builds the shape (not null)
+     * @return a new future that completes with the shape
+     */
+    public <T extends CollisionShape> CompletableFuture<T>
+            build(Supplier<T> supplier) {
+        Validate.nonNull(supplier, "supplier");
+
+        CompletableFuture<T> result
+                = CompletableFuture.supplyAsync(supplier, executor);
+        return result;
+    }
+
+    /**
+     * Build a GImpact shape from the specified JME meshes.
+     *
+     * @param jmeMeshes the meshes on which to base the shape (not null,
+     * unaffected)
+     * @return a new future that completes with the shape
+     */
+    public CompletableFuture<GImpactCollisionShape> gimpactShape(
+            final Mesh... jmeMeshes) {
+        Validate.nonEmpty(jmeMeshes, "JME meshes");
+
+        CompletableFuture<GImpactCollisionShape> result = build(
+                new Supplier<GImpactCollisionShape>() {
+            @Override
+            public GImpactCollisionShape get() {
+                return new GImpactCollisionShape(jmeMeshes);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Build a hull shape from the specified flipped buffer of coordinates.
+     *
+     * @param flippedBuffer the coordinates on which to base the shape (not
+     * null, limit&gt;0, limit a multiple of 3, unaffected)
+     * @return a new future that completes with the shape
+     */
+    public CompletableFuture<HullCollisionShape> hullShape(
+            final FloatBuffer flippedBuffer) {
+        Validate.nonNull(flippedBuffer, "flipped buffer");
+
+        CompletableFuture<HullCollisionShape> result = build(
+                new Supplier<HullCollisionShape>() {
+            @Override
+            public HullCollisionShape get() {
+                return new HullCollisionShape(flippedBuffer);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Build a hull shape from the specified JME meshes.
+     *
+     * @param jmeMeshes the meshes on which to base the shape (not null,
+     * unaffected)
+     * @return a new future that completes with the shape
+     */
+    public CompletableFuture<HullCollisionShape> hullShape(
+            final Mesh... jmeMeshes) {
+        Validate.nonEmpty(jmeMeshes, "JME meshes");
+
+        CompletableFuture<HullCollisionShape> result = build(
+                new Supplier<HullCollisionShape>() {
+            @Override
+            public HullCollisionShape get() {
+                return new HullCollisionShape(jmeMeshes);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Build a mesh shape, including its BVH, from the specified JME mesh.
+     *
+     * @param jmeMesh the mesh on which to base the shape (not null,
+     * unaffected)
+     * @param useCompression true to use quantized AABB compression
+     * @return a new future that completes with the shape
+     */
+    public CompletableFuture<MeshCollisionShape> meshShape(
+            final Mesh jmeMesh, final boolean useCompression) {
+        Validate.nonNull(jmeMesh, "JME mesh");
+
+        CompletableFuture<MeshCollisionShape> result = build(
+                new Supplier<MeshCollisionShape>() {
+            @Override
+            public MeshCollisionShape get() {
+                return new MeshCollisionShape(jmeMesh, useCompression);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Build a static shape for the specified model, as
+     * {@link CollisionShapeFactory#createMeshShape(com.jme3.scene.Spatial)}
+     * does. The model must not be modified (nor attached to a live scene
+     * graph) until the future completes.
+     *
+     * @param modelRoot the model on which to base the shape (not null,
+     * unaffected)
+     * @return a new future that completes with the shape
+     */
+    public CompletableFuture<CollisionShape> modelShape(
+            final Spatial modelRoot) {
+        Validate.nonNull(modelRoot, "model root");
+
+        CompletableFuture<CollisionShape> result = build(
+                new Supplier<CollisionShape>() {
+            @Override
+            public CollisionShape get() {
+                return CollisionShapeFactory.createMeshShape(modelRoot);
+            }
+        });
+
+        return result;
+    }
+}
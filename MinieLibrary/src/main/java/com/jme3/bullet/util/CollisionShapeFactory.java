@@ -47,10 +47,12 @@ import com.jme3.scene.Spatial;
 import com.jme3.scene.UserData;
 import com.jme3.scene.VertexBuffer;
 import com.jme3.scene.mesh.IndexBuffer;
+import com.jme3.scene.mesh.IndexIntBuffer;
 import com.jme3.terrain.Terrain;
 import com.jme3.util.BufferUtils;
 import java.nio.Buffer;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -87,6 +89,13 @@ final public class CollisionShapeFactory {
     final public static Logger logger
             = Logger.getLogger(CollisionShapeFactory.class.getName());
     // *************************************************************************
+    // fields
+
+    /**
+     * cache for convex decompositions, or null to always run V-HACD
+     */
+    private static volatile DecompositionCache decompositionCache = null;
+    // *************************************************************************
     // constructors
 
     /**
@@ -288,42 +297,63 @@ final public class CollisionShapeFactory {
         Validate.nonNull(modelRoot, "model root");
         Validate.nonNull(parameters, "parameters");
 
-        Mesh mergedMesh = makeMergedMesh(modelRoot);
-
+        // Merge the geometries directly into a pair of direct buffers.
+        Mesh mergedMesh = makeMergedMesh(modelRoot, true);
         FloatBuffer positionBuffer
                 = mergedMesh.getFloatBuffer(VertexBuffer.Type.Position);
-        int numFloats = positionBuffer.limit();
-        float[] positionArray = new float[numFloats];
-        for (int offset = 0; offset < numFloats; ++offset) {
-            positionArray[offset] = positionBuffer.get(offset);
-        }
+        IntBuffer indexBuffer = (IntBuffer) mergedMesh
+                .getBuffer(VertexBuffer.Type.Index).getData();
 
-        IndexBuffer indexBuffer = mergedMesh.getIndicesAsList();
-        int numIndices = indexBuffer.size();
-        int[] indexArray = new int[numIndices];
-        for (int offset = 0; offset < numIndices; ++offset) {
-            indexArray[offset] = indexBuffer.get(offset);
-        }
+        CompoundCollisionShape result = createVhacdShape(
+                positionBuffer, indexBuffer, parameters, addResult);
 
-        // Use the V-HACD algorithm to generate a list of hulls.
-        List<VHACDHull> vhacdHulls
-                = VHACD.compute(positionArray, indexArray, parameters);
-        /*
-         * Convert each V-HACD hull to a HullCollisionShape
-         * and add that to the result.
-         */
-        CompoundCollisionShape result;
-        if (addResult == null) {
-            int numHulls = vhacdHulls.size();
-            result = new CompoundCollisionShape(numHulls);
-        } else {
-            result = addResult;
+        return result;
+    }
+
+    /**
+     * Create a shape for a dynamic object using classic V-HACD, reading the
+     * mesh directly from buffers. The buffers are passed to native code
+     * without copying, and their entire capacity is used.
+     *
+     * @param positions the positions of all mesh vertices (not null, direct,
+     * capacity a multiple of 3, unaffected)
+     * @param indices the vertex indices of all mesh triangles (not null,
+     * direct, capacity a multiple of 3, unaffected)
+     * @param parameters (not null, unaffected)
+     * @param addResult the compound shape to append to (modified if not null)
+     * @return a compound shape (either addResult or a new shape, not null)
+     */
+    public static CompoundCollisionShape createVhacdShape(
+            FloatBuffer positions, IntBuffer indices,
+            VHACDParameters parameters, CompoundCollisionShape addResult) {
+        Validate.nonNull(positions, "positions");
+        Validate.nonNull(indices, "indices");
+        Validate.nonNull(parameters, "parameters");
+
+        // Consult the cache, if any.
+        DecompositionCache cache = decompositionCache;
+        String key = null;
+        List<float[]> hullPositions = null;
+        if (cache != null) {
+            key = DecompositionCache.key(positions, indices, parameters);
+            hullPositions = cache.load(key);
         }
-        for (VHACDHull vhacdHull : vhacdHulls) {
-            HullCollisionShape hullShape = new HullCollisionShape(vhacdHull);
-            result.addChildShape(hullShape);
+
+        if (hullPositions == null) {
+            // Use the V-HACD algorithm to generate a list of hulls.
+            List<VHACDHull> vhacdHulls
+                    = VHACD.compute(positions, indices, parameters);
+            hullPositions = new ArrayList<>(vhacdHulls.size());
+            for (VHACDHull vhacdHull : vhacdHulls) {
+                hullPositions.add(vhacdHull.clonePositions());
+            }
+            if (cache != null) {
+                cache.store(key, hullPositions);
+            }
         }
 
+        CompoundCollisionShape result = addHulls(hullPositions, addResult);
+
         return result;
     }
 
@@ -341,46 +371,115 @@ final public class CollisionShapeFactory {
         Validate.nonNull(modelRoot, "model root");
         Validate.nonNull(parameters, "parameters");
 
-        Mesh mergedMesh = makeMergedMesh(modelRoot);
-
+        // Merge the geometries directly into a pair of direct buffers.
+        Mesh mergedMesh = makeMergedMesh(modelRoot, true);
         FloatBuffer positionBuffer
                 = mergedMesh.getFloatBuffer(VertexBuffer.Type.Position);
-        int numFloats = positionBuffer.limit();
-        float[] positionArray = new float[numFloats];
-        for (int offset = 0; offset < numFloats; ++offset) {
-            positionArray[offset] = positionBuffer.get(offset);
+        IntBuffer indexBuffer = (IntBuffer) mergedMesh
+                .getBuffer(VertexBuffer.Type.Index).getData();
+
+        CompoundCollisionShape result = createVhacdShape(
+                positionBuffer, indexBuffer, parameters, addResult);
+
+        return result;
+    }
+
+    /**
+     * Create a shape for a dynamic object using V-HACD version 4, reading the
+     * mesh directly from buffers. The buffers are passed to native code
+     * without copying, and their entire capacity is used.
+     *
+     * @param positions the positions of all mesh vertices (not null, direct,
+     * capacity a multiple of 3, unaffected)
+     * @param indices the vertex indices of all mesh triangles (not null,
+     * direct, capacity a multiple of 3, unaffected)
+     * @param parameters (not null, unaffected)
+     * @param addResult the compound shape to append to (modified if not null)
+     * @return a compound shape (either addResult or a new shape, not null)
+     */
+    public static CompoundCollisionShape createVhacdShape(
+            FloatBuffer positions, IntBuffer indices,
+            Vhacd4Parameters parameters, CompoundCollisionShape addResult) {
+        Validate.nonNull(positions, "positions");
+        Validate.nonNull(indices, "indices");
+        Validate.nonNull(parameters, "parameters");
+
+        // Consult the cache, if any.
+        DecompositionCache cache = decompositionCache;
+        String key = null;
+        List<float[]> hullPositions = null;
+        if (cache != null) {
+            key = DecompositionCache.key(positions, indices, parameters);
+            hullPositions = cache.load(key);
         }
 
-        IndexBuffer indexBuffer = mergedMesh.getIndicesAsList();
-        int numIndices = indexBuffer.size();
-        int[] indexArray = new int[numIndices];
-        for (int offset = 0; offset < numIndices; ++offset) {
-            indexArray[offset] = indexBuffer.get(offset);
+        if (hullPositions == null) {
+            // Use the V-HACD algorithm to generate a list of hulls.
+            List<Vhacd4Hull> vhacdHulls
+                    = Vhacd4.compute(positions, indices, parameters);
+            hullPositions = new ArrayList<>(vhacdHulls.size());
+            for (Vhacd4Hull vhacdHull : vhacdHulls) {
+                hullPositions.add(vhacdHull.clonePositions());
+            }
+            if (cache != null) {
+                cache.store(key, hullPositions);
+            }
         }
 
-        // Use the V-HACD algorithm to generate a list of hulls.
-        List<Vhacd4Hull> vhacdHulls
-                = Vhacd4.compute(positionArray, indexArray, parameters);
-        /*
-         * Convert each V-HACD hull to a HullCollisionShape
-         * and add that to the result.
-         */
+        CompoundCollisionShape result = addHulls(hullPositions, addResult);
+
+        return result;
+    }
+
+    /**
+     * Access the cache used by {@code createVhacdShape()}.
+     *
+     * @return the pre-existing instance, or null if decompositions aren't
+     * cached
+     */
+    public static DecompositionCache getDecompositionCache() {
+        return decompositionCache;
+    }
+
+    /**
+     * Alter the cache used by {@code createVhacdShape()}. When a cache is set,
+     * each decomposition is keyed by the merged mesh and the parameters, and
+     * V-HACD runs only on a cache miss.
+     *
+     * @param cache the desired cache (alias created) or null to always run
+     * V-HACD (default=null)
+     */
+    public static void setDecompositionCache(DecompositionCache cache) {
+        decompositionCache = cache;
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Convert each hull to a HullCollisionShape and add it to a compound
+     * shape.
+     *
+     * @param hullPositions the vertex positions of each hull (not null,
+     * unaffected)
+     * @param addResult the compound shape to append to (modified if not null)
+     * @return a compound shape (either addResult or a new shape, not null)
+     */
+    private static CompoundCollisionShape addHulls(List<float[]> hullPositions,
+            CompoundCollisionShape addResult) {
         CompoundCollisionShape result;
         if (addResult == null) {
-            int numHulls = vhacdHulls.size();
+            int numHulls = hullPositions.size();
             result = new CompoundCollisionShape(numHulls);
         } else {
             result = addResult;
         }
-        for (Vhacd4Hull vhacdHull : vhacdHulls) {
-            HullCollisionShape hullShape = new HullCollisionShape(vhacdHull);
+        for (float[] positions : hullPositions) {
+            HullCollisionShape hullShape = new HullCollisionShape(positions);
             result.addChildShape(hullShape);
         }
 
         return result;
     }
-    // *************************************************************************
-    // private methods
 
     /**
      * Append transformed mesh triangles to a merged mesh.
@@ -589,6 +688,22 @@ final public class CollisionShapeFactory {
      * @return a new, indexed Mesh in Triangles mode, its bounds not set
      */
     private static Mesh makeMergedMesh(Spatial modelRoot) {
+        Mesh result = makeMergedMesh(modelRoot, false);
+        return result;
+    }
+
+    /**
+     * Generate a Mesh that merges the triangles of non-empty geometries that
+     * aren't tagged with {@code UserData.JME_PHYSICSIGNORE}. The triangles are
+     * streamed into buffers that are pre-sized to fit the merged mesh.
+     *
+     * @param modelRoot the model on which to base the shape (not null,
+     * unaffected)
+     * @param intIndices true to store the indices in a direct IntBuffer, false
+     * to use the smallest suitable index format
+     * @return a new, indexed Mesh in Triangles mode, its bounds not set
+     */
+    private static Mesh makeMergedMesh(Spatial modelRoot, boolean intIndices) {
         List<Geometry> untaggedGeometries;
         if (modelRoot instanceof Geometry) {
             /*
@@ -631,8 +746,14 @@ final public class CollisionShapeFactory {
             totalVertices += numVertices;
         }
 
-        IndexBuffer indexBuffer
-                = IndexBuffer.createIndexBuffer(totalVertices, totalIndices);
+        IndexBuffer indexBuffer;
+        if (intIndices) {
+            IntBuffer intBuffer = BufferUtils.createIntBuffer(totalIndices);
+            indexBuffer = new IndexIntBuffer(intBuffer);
+        } else {
+            indexBuffer = IndexBuffer.createIndexBuffer(
+                    totalVertices, totalIndices);
+        }
         int totalFloats = numAxes * totalVertices;
         FloatBuffer positionBuffer = BufferUtils.createFloatBuffer(totalFloats);
 
@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+import vhacd.VHACDParameters;
+import vhacd4.Vhacd4Parameters;
+
+/**
+ * A persistent, content-addressed cache for convex decompositions.
+ * <p>
+ * Each entry is keyed by a SHA-256 digest of the input mesh and the
+ * decomposition parameters, and stores the vertex positions of the resulting
+ * hulls in a compact binary file. Entries are written atomically, so several
+ * processes may share a cache directory.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class DecompositionCache {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * size of the scratch buffer used for hashing (in bytes)
+     */
+    final private static int chunkBytes = 8_192;
+    /**
+     * version number of the file format
+     */
+    final private static int formatVersion = 1;
+    /**
+     * magic number at the start of each cache file ("VHCD")
+     */
+    final private static int magic = 0x56484344;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(DecompositionCache.class.getName());
+    /**
+     * filename suffix for cache entries
+     */
+    final private static String suffix = ".hulls";
+    // *************************************************************************
+    // fields
+
+    /**
+     * directory that contains the cache entries
+     */
+    final private File directory;
+    // *************************************************************************
+    // constructors
+
+    /**
+     * Instantiate a cache in the specified directory. The directory is created
+     * when the first entry is stored.
+     *
+     * @param directory the directory for cache entries (not null)
+     */
+    public DecompositionCache(File directory) {
+        Validate.nonNull(directory, "directory");
+        this.directory = directory;
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Delete all entries from the cache.
+     *
+     * @return the number of entries deleted (&ge;0)
+     */
+    public int clear() {
+        int result = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(suffix) && file.delete()) {
+                    ++result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Access the directory that contains the cache entries.
+     *
+     * @return the pre-existing instance (not null)
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Generate the key for a classic V-HACD decomposition.
+     *
+     * @param positions the positions of all mesh vertices (not null,
+     * unaffected)
+     * @param indices the vertex indices of all mesh triangles (not null,
+     * unaffected)
+     * @param parameters the tuning parameters (not null, unaffected)
+     * @return a new hexadecimal string (not null, not empty)
+     */
+    public static String key(float[] positions, int[] indices,
+            VHACDParameters parameters) {
+        Validate.nonNull(positions, "positions");
+        Validate.nonNull(indices, "indices");
+
+        String result = key(FloatBuffer.wrap(positions),
+                IntBuffer.wrap(indices), parameters);
+        return result;
+    }
+
+    /**
+     * Generate the key for a classic V-HACD decomposition, reading the mesh
+     * directly from buffers. The entire capacity of each buffer is hashed.
+     *
+     * @param positions the positions of all mesh vertices (not null,
+     * unaffected)
+     * @param indices the vertex indices of all mesh triangles (not null,
+     * unaffected)
+     * @param parameters the tuning parameters (not null, unaffected)
+     * @return a new hexadecimal string (not null, not empty)
+     */
+    public static String key(FloatBuffer positions, IntBuffer indices,
+            VHACDParameters parameters) {
+        Validate.nonNull(parameters, "parameters");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            parameters.toOutputStream(bytes);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+        String result = key("classic", bytes.toByteArray(), positions, indices);
+
+        return result;
+    }
+
+    /**
+     * Generate the key for a V-HACD version 4 decomposition.
+     *
+     * @param positions the positions of all mesh vertices (not null,
+     * unaffected)
+     * @param indices the vertex indices of all mesh triangles (not null,
+     * unaffected)
+     * @param parameters the tuning parameters (not null, unaffected)
+     * @return a new hexadecimal string (not null, not empty)
+     */
+    public static String key(float[] positions, int[] indices,
+            Vhacd4Parameters parameters) {
+        Validate.nonNull(positions, "positions");
+        Validate.nonNull(indices, "indices");
+
+        String result = key(FloatBuffer.wrap(positions),
+                IntBuffer.wrap(indices), parameters);
+        return result;
+    }
+
+    /**
+     * Generate the key for a V-HACD version 4 decomposition, reading the mesh
+     * directly from buffers. The entire capacity of each buffer is hashed.
+     *
+     * @param positions the positions of all mesh vertices (not null,
+     * unaffected)
+     * @param indices the vertex indices of all mesh triangles (not null,
+     * unaffected)
+     * @param parameters the tuning parameters (not null, unaffected)
+     * @return a new hexadecimal string (not null, not empty)
+     */
+    public static String key(FloatBuffer positions, IntBuffer indices,
+            Vhacd4Parameters parameters) {
+        Validate.nonNull(parameters, "parameters");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            parameters.toOutputStream(bytes);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+        String result = key("v4", bytes.toByteArray(), positions, indices);
+
+        return result;
+    }
+
+    /**
+     * Load the hulls stored under the specified key. A missing, truncated, or
+     * corrupt entry is treated as a cache miss.
+     *
+     * @param key the key of the entry (not null, not empty)
+     * @return a new list of vertex-position arrays (one per hull), or null if
+     * the entry isn't available
+     */
+    public List<float[]> load(String key) {
+        Validate.nonEmpty(key, "key");
+
+        File file = new File(directory, key + suffix);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        List<float[]> result;
+        try (DataInputStream dis = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            int fileMagic = dis.readInt();
+            int fileVersion = dis.readInt();
+            if (fileMagic != magic || fileVersion != formatVersion) {
+                return null;
+            }
+
+            int numHulls = dis.readInt();
+            result = new ArrayList<>(numHulls);
+            for (int hullIndex = 0; hullIndex < numHulls; ++hullIndex) {
+                int numFloats = dis.readInt();
+                float[] positions = new float[numFloats];
+                for (int i = 0; i < numFloats; ++i) {
+                    positions[i] = dis.readFloat();
+                }
+                result.add(positions);
+            }
+
+        } catch (IOException | RuntimeException exception) {
+            logger.log(Level.WARNING, "Ignoring unreadable cache entry {0}",
+                    file);
+            result = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Store the specified hulls under the specified key, replacing any
+     * existing entry. Failures are logged and otherwise ignored.
+     *
+     * @param key the key of the entry (not null, not empty)
+     * @param hulls the vertex positions of each hull (not null, unaffected)
+     */
+    public void store(String key, List<float[]> hulls) {
+        Validate.nonEmpty(key, "key");
+        Validate.nonNull(hulls, "hulls");
+
+        File file = new File(directory, key + suffix);
+        File tempFile = null;
+        try {
+            Files.createDirectories(directory.toPath());
+            tempFile = File.createTempFile(key, ".tmp", directory);
+            try (DataOutputStream dos = new DataOutputStream(
+                    new BufferedOutputStream(
+                            new FileOutputStream(tempFile)))) {
+                dos.writeInt(magic);
+                dos.writeInt(formatVersion);
+                dos.writeInt(hulls.size());
+                for (float[] positions : hulls) {
+                    dos.writeInt(positions.length);
+                    for (float coordinate : positions) {
+                        dos.writeFloat(coordinate);
+                    }
+                }
+            }
+
+            try {
+                Files.move(tempFile.toPath(), file.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(tempFile.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            tempFile = null;
+
+        } catch (IOException exception) {
+            logger.log(Level.WARNING, "Failed to store cache entry {0}",
+                    file);
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Generate a key from an algorithm name, encoded parameters, and a mesh.
+     *
+     * @param algorithm the name of the decomposition algorithm (not null)
+     * @param parameterBytes the encoded parameters (not null, unaffected)
+     * @param positions the positions of all mesh vertices (not null,
+     * unaffected)
+     * @param indices the vertex indices of all mesh triangles (not null,
+     * unaffected)
+     * @return a new hexadecimal string (not null, not empty)
+     */
+    private static String key(String algorithm, byte[] parameterBytes,
+            FloatBuffer positions, IntBuffer indices) {
+        Validate.nonNull(positions, "positions");
+        Validate.nonNull(indices, "indices");
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new RuntimeException(exception);
+        }
+
+        ByteBuffer chunk = ByteBuffer.allocate(chunkBytes);
+        chunk.putInt(formatVersion);
+        chunk.put(algorithm.getBytes(StandardCharsets.US_ASCII));
+        chunk.putInt(parameterBytes.length);
+        chunk.put(parameterBytes);
+
+        int numFloats = positions.capacity();
+        chunk.putInt(numFloats);
+        for (int i = 0; i < numFloats; ++i) {
+            if (chunk.remaining() < 4) {
+                updateDigest(digest, chunk);
+            }
+            chunk.putFloat(positions.get(i));
+        }
+
+        updateDigest(digest, chunk);
+        int numIndices = indices.capacity();
+        chunk.putInt(numIndices);
+        for (int i = 0; i < numIndices; ++i) {
+            if (chunk.remaining() < 4) {
+                updateDigest(digest, chunk);
+            }
+            chunk.putInt(indices.get(i));
+        }
+        updateDigest(digest, chunk);
+
+        byte[] hash = digest.digest();
+        StringBuilder builder = new StringBuilder(2 * hash.length);
+        for (byte b : hash) {
+            builder.append(String.format("%02x", b & 0xff));
+        }
+        String result = builder.toString();
+
+        return result;
+    }
+
+    /**
+     * Feed the contents of the specified buffer to the specified digest, then
+     * clear the buffer.
+     *
+     * @param digest the digest to update (not null, modified)
+     * @param chunk the buffer to consume (not null, modified)
+     */
+    private static void updateDigest(MessageDigest digest, ByteBuffer chunk) {
+        chunk.flip();
+        digest.update(chunk);
+        chunk.clear();
+    }
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet.util;
+
+import com.jme3.bullet.collision.shapes.MeshCollisionShape;
+import com.jme3.bullet.collision.shapes.infos.IndexedMesh;
+import com.jme3.math.Vector3f;
+import com.jme3.system.JmeSystem;
+import com.jme3.system.Platform;
+import com.jme3.util.BufferUtils;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * A compact binary format for mesh collision shapes, designed for fast
+ * loading of large static levels.
+ * <p>
+ * Vertex positions and indices are stored as little-endian arrays, aligned
+ * to 4 bytes, so that a memory-mapped file can be handed to Bullet without
+ * intermediate copies on little-endian platforms. On other platforms, and
+ * for heap buffers, each array is bulk-copied into a direct buffer.
+ * <p>
+ * Bullet's serialized BVH is specific to the native platform, so a file may
+ * carry a BVH for each of several platforms. The BVH for the current
+ * platform is used if present; otherwise the BVH is rebuilt.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+final public class MeshShapeCodec {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * number of bytes in an int or float
+     */
+    final private static int bytesPer = 4;
+    /**
+     * flag bit for quantized AABB compression
+     */
+    final private static int compressionFlag = 0x1;
+    /**
+     * version number of the format
+     */
+    final private static int formatVersion = 1;
+    /**
+     * number of bytes in the header
+     */
+    final private static int headerBytes = 9 * bytesPer;
+    /**
+     * magic number at the start of each encoding ("MSHC")
+     */
+    final private static int magic = 0x4d534843;
+    /**
+     * number of axes in a vector
+     */
+    final private static int numAxes = 3;
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(MeshShapeCodec.class.getName());
+    // *************************************************************************
+    // constructors
+
+    /**
+     * A private constructor to inhibit instantiation of this class.
+     */
+    private MeshShapeCodec() {
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Decode a shape from the specified buffer. If the buffer is direct and
+     * the native byte order is little-endian, the new shape aliases the
+     * buffer's contents.
+     *
+     * @param source the encoded shape, starting at its position (not null,
+     * position advanced past the encoding)
+     * @return a new shape
+     */
+    public static MeshCollisionShape decode(ByteBuffer source) {
+        Validate.nonNull(source, "source");
+
+        ByteBuffer buffer = source.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < headerBytes || buffer.getInt() != magic) {
+            throw new IllegalArgumentException("Not an encoded mesh shape.");
+        }
+        int version = buffer.getInt();
+        if (version != formatVersion) {
+            throw new IllegalArgumentException(
+                    "Unsupported format version: " + version);
+        }
+        int flags = buffer.getInt();
+        boolean useCompression = (flags & compressionFlag) != 0;
+        Vector3f scale = new Vector3f(
+                buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+        float margin = buffer.getFloat();
+        int numSubmeshes = buffer.getInt();
+        int numBvhs = buffer.getInt();
+
+        boolean alias = buffer.isDirect()
+                && ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+        IndexedMesh[] submeshes = new IndexedMesh[numSubmeshes];
+        for (int submeshI = 0; submeshI < numSubmeshes; ++submeshI) {
+            int numVertices = buffer.getInt();
+            int numIndices = buffer.getInt();
+
+            ByteBuffer bytes = section(buffer, numAxes * numVertices);
+            FloatBuffer positions = bytes.asFloatBuffer();
+            if (!alias) {
+                FloatBuffer copy = BufferUtils.createFloatBuffer(
+                        positions.capacity());
+                copy.put(positions); // bulk copy
+                positions = copy;
+            }
+
+            bytes = section(buffer, numIndices);
+            IntBuffer indices = bytes.asIntBuffer();
+            if (!alias) {
+                IntBuffer copy
+                        = BufferUtils.createIntBuffer(indices.capacity());
+                copy.put(indices); // bulk copy
+                indices = copy;
+            }
+
+            submeshes[submeshI] = new IndexedMesh(positions, indices);
+        }
+
+        String platformName = JmeSystem.getPlatform().name();
+        byte[] bvhBytes = null;
+        for (int bvhI = 0; bvhI < numBvhs; ++bvhI) {
+            int nameLength = buffer.getInt();
+            byte[] name = new byte[nameLength];
+            buffer.get(name);
+            skipPadding(buffer, nameLength);
+            int numBytes = buffer.getInt();
+            String bvhPlatform
+                    = new String(name, StandardCharsets.US_ASCII);
+            if (bvhPlatform.equals(platformName)) {
+                bvhBytes = new byte[numBytes];
+                buffer.get(bvhBytes);
+            } else {
+                buffer.position(buffer.position() + numBytes);
+            }
+            skipPadding(buffer, numBytes);
+        }
+        source.position(source.position() + buffer.position());
+
+        MeshCollisionShape result;
+        if (useCompression && bvhBytes != null) {
+            result = new MeshCollisionShape(bvhBytes, submeshes);
+        } else {
+            result = new MeshCollisionShape(useCompression, submeshes);
+        }
+        result.setScale(scale);
+        result.setMargin(margin);
+
+        return result;
+    }
+
+    /**
+     * Encode the specified shape, including its BVH (if compressed) for the
+     * current platform.
+     *
+     * @param shape the shape to encode (not null, unaffected)
+     * @return a new heap buffer, flipped
+     */
+    public static ByteBuffer encode(MeshCollisionShape shape) {
+        ByteBuffer result = encode(shape, null);
+        return result;
+    }
+
+    /**
+     * Encode the specified shape, including its BVH (if compressed) for the
+     * current platform plus BVHs for other platforms, typically obtained by
+     * running {@link MeshCollisionShape#serializeBvh()} on those platforms.
+     *
+     * @param shape the shape to encode (not null, unaffected)
+     * @param otherBvhs serialized BVHs for other platforms (unaffected) or
+     * null for none
+     * @return a new heap buffer, flipped
+     */
+    public static ByteBuffer encode(
+            MeshCollisionShape shape, Map<Platform, byte[]> otherBvhs) {
+        Validate.nonNull(shape, "shape");
+
+        Map<String, byte[]> bvhs = new LinkedHashMap<>(4);
+        boolean useCompression = shape.isCompressed();
+        if (useCompression) {
+            Platform platform = JmeSystem.getPlatform();
+            bvhs.put(platform.name(), shape.serializeBvh());
+            if (otherBvhs != null) {
+                for (Map.Entry<Platform, byte[]> entry
+                        : otherBvhs.entrySet()) {
+                    String name = entry.getKey().name();
+                    if (!bvhs.containsKey(name)) {
+                        bvhs.put(name, entry.getValue());
+                    }
+                }
+            }
+        }
+
+        // Calculate the size of the encoding.
+        int numSubmeshes = shape.countSubmeshes();
+        int numBytes = headerBytes;
+        for (int submeshI = 0; submeshI < numSubmeshes; ++submeshI) {
+            IndexedMesh submesh = shape.getSubmesh(submeshI);
+            int numIndices = submesh.countTriangles() * numAxes;
+            int numFloats = submesh.countVertices() * numAxes;
+            numBytes += bytesPer * (2 + numFloats + numIndices);
+        }
+        for (Map.Entry<String, byte[]> entry : bvhs.entrySet()) {
+            numBytes += 2 * bytesPer + padded(entry.getKey().length())
+                    + padded(entry.getValue().length);
+        }
+
+        ByteBuffer result
+                = ByteBuffer.allocate(numBytes).order(ByteOrder.LITTLE_ENDIAN);
+        result.putInt(magic);
+        result.putInt(formatVersion);
+        result.putInt(useCompression ? compressionFlag : 0);
+        Vector3f scale = shape.getScale(null);
+        result.putFloat(scale.x).putFloat(scale.y).putFloat(scale.z);
+        result.putFloat(shape.getMargin());
+        result.putInt(numSubmeshes);
+        result.putInt(bvhs.size());
+
+        for (int submeshI = 0; submeshI < numSubmeshes; ++submeshI) {
+            IndexedMesh submesh = shape.getSubmesh(submeshI);
+            FloatBuffer positions = submesh.copyVertexPositions();
+            positions.flip();
+            IntBuffer indices = submesh.copyIndices();
+            indices.flip();
+
+            result.putInt(positions.limit() / numAxes);
+            result.putInt(indices.limit());
+            result.asFloatBuffer().put(positions); // bulk copy
+            result.position(result.position() + bytesPer * positions.limit());
+            result.asIntBuffer().put(indices); // bulk copy
+            result.position(result.position() + bytesPer * indices.limit());
+        }
+
+        for (Map.Entry<String, byte[]> entry : bvhs.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.US_ASCII);
+            result.putInt(name.length);
+            result.put(name);
+            putPadding(result, name.length);
+
+            byte[] bvhBytes = entry.getValue();
+            result.putInt(bvhBytes.length);
+            result.put(bvhBytes);
+            putPadding(result, bvhBytes.length);
+        }
+        assert !result.hasRemaining() : result.remaining();
+        result.flip();
+
+        return result;
+    }
+
+    /**
+     * Read a shape from the specified file by memory-mapping it.
+     *
+     * @param file the file to read (not null)
+     * @return a new shape
+     * @throws IOException if the file can't be read
+     */
+    public static MeshCollisionShape read(File file) throws IOException {
+        Validate.nonNull(file, "file");
+
+        ByteBuffer mapped;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                FileChannel channel = raf.getChannel()) {
+            mapped = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+        }
+        MeshCollisionShape result = decode(mapped);
+
+        return result;
+    }
+
+    /**
+     * Write the specified shape to the specified file, including its BVH (if
+     * compressed) for the current platform.
+     *
+     * @param shape the shape to write (not null, unaffected)
+     * @param file the destination file (not null)
+     * @throws IOException if the file can't be written
+     */
+    public static void write(MeshCollisionShape shape, File file)
+            throws IOException {
+        Validate.nonNull(file, "file");
+
+        ByteBuffer encoded = encode(shape);
+        try (FileOutputStream stream = new FileOutputStream(file);
+                FileChannel channel = stream.getChannel()) {
+            while (encoded.hasRemaining()) {
+                channel.write(encoded);
+            }
+        }
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Round a byte count up to a multiple of 4.
+     *
+     * @param numBytes the count to round (&ge;0)
+     * @return the rounded count
+     */
+    private static int padded(int numBytes) {
+        int result = (numBytes + bytesPer - 1) & ~(bytesPer - 1);
+        return result;
+    }
+
+    /**
+     * Write zeros to align the buffer after a field of the specified length.
+     *
+     * @param buffer the buffer to write (not null, position advanced)
+     * @param numBytes the length of the preceding field (&ge;0)
+     */
+    private static void putPadding(ByteBuffer buffer, int numBytes) {
+        for (int i = numBytes; i < padded(numBytes); ++i) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    /**
+     * Slice an array of 4-byte elements from the specified buffer.
+     *
+     * @param buffer the buffer to read (not null, position advanced past the
+     * array)
+     * @param numElements the number of elements in the array (&ge;0)
+     * @return a new little-endian buffer that shares content with the
+     * original
+     */
+    private static ByteBuffer section(ByteBuffer buffer, int numElements) {
+        int numBytes = bytesPer * numElements;
+        int start = buffer.position();
+        ByteBuffer result = buffer.duplicate();
+        result.limit(start + numBytes);
+        result = result.slice().order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(start + numBytes);
+
+        return result;
+    }
+
+    /**
+     * Skip the zeros that align the buffer after a field of the specified
+     * length.
+     *
+     * @param buffer the buffer to read (not null, position advanced)
+     * @param numBytes the length of the preceding field (&ge;0)
+     */
+    private static void skipPadding(ByteBuffer buffer, int numBytes) {
+        buffer.position(buffer.position() + padded(numBytes) - numBytes);
+    }
+}
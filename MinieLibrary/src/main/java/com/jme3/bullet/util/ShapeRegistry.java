@@ -0,0 +1,494 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet.util;
+
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import com.jme3.bullet.collision.shapes.HullCollisionShape;
+import com.jme3.bullet.collision.shapes.MeshCollisionShape;
+import com.jme3.bullet.collision.shapes.infos.CompoundMesh;
+import com.jme3.bullet.collision.shapes.infos.IndexedMesh;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.mesh.IndexBuffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import jme3utilities.Validate;
+
+/**
+ * An interning registry for hull and mesh collision shapes, so that identical
+ * props share a single shape, and thus a single native hull or BVH, instead
+ * of building one per instance.
+ * <p>
+ * Each shape is keyed by a SHA-256 digest of its content and scale factors.
+ * Bullet can't share one triangle-mesh BVH between different scales, so each
+ * distinct scale gets its own interned shape.
+ * <p>
+ * Scale factors are compared bit for bit, so scales that differ only by
+ * rounding (for instance, world scales accumulated through a scene graph)
+ * produce separate shapes. Quantize scales before lookup if that matters.
+ * Likewise, altering the scale of a returned shape affects every user of it
+ * without re-keying it: apply a different scale by looking up another shape
+ * instead.
+ * <p>
+ * Shapes returned by a registry are shared: treat them as immutable. The
+ * registry holds strong references until {@link #remove(
+ * com.jme3.bullet.collision.shapes.CollisionShape)} or {@link #clear()} is
+ * invoked. All methods are thread-safe. Keys are computed without locking,
+ * and each key is built under its own lock, so lookups of different shapes
+ * proceed in parallel, while concurrent lookups of the same shape wait for a
+ * single build.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class ShapeRegistry {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * Hold the interned shape for a single key. Building is guarded by the
+     * entry's monitor.
+     */
+    private static class Entry {
+        /**
+         * the interned shape, or null if not built yet
+         */
+        private volatile CollisionShape shape;
+    }
+
+    /**
+     * Accumulate content into a SHA-256 digest.
+     */
+    private static class KeyBuilder {
+        /**
+         * scratch buffer for batching digest updates
+         */
+        final private ByteBuffer chunk = ByteBuffer.allocate(chunkBytes);
+        /**
+         * digest being accumulated
+         */
+        final private MessageDigest digest;
+
+        /**
+         * Start a key for the specified kind of shape.
+         *
+         * @param kind a distinct code for each kind of shape
+         */
+        KeyBuilder(int kind) {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException exception) {
+                throw new RuntimeException(exception);
+            }
+            chunk.putInt(kind);
+        }
+
+        /**
+         * Finish the key.
+         *
+         * @return a new hexadecimal string (not null, not empty)
+         */
+        String finish() {
+            flush();
+            byte[] hash = digest.digest();
+            StringBuilder builder = new StringBuilder(2 * hash.length);
+            for (byte b : hash) {
+                builder.append(String.format("%02x", b & 0xff));
+            }
+            String result = builder.toString();
+
+            return result;
+        }
+
+        /**
+         * Pass the contents of the chunk to the digest.
+         */
+        void flush() {
+            chunk.flip();
+            digest.update(chunk);
+            chunk.clear();
+        }
+
+        /**
+         * Append a float.
+         *
+         * @param value the value to append
+         */
+        void putFloat(float value) {
+            if (chunk.remaining() < 4) {
+                flush();
+            }
+            chunk.putFloat(value);
+        }
+
+        /**
+         * Append the length and contents of a float buffer, from 0 to its
+         * limit.
+         *
+         * @param buffer the buffer to append (not null, unaffected)
+         */
+        void putFloats(FloatBuffer buffer) {
+            int numFloats = buffer.limit();
+            putInt(numFloats);
+            for (int i = 0; i < numFloats; ++i) {
+                putFloat(buffer.get(i));
+            }
+        }
+
+        /**
+         * Append an int.
+         *
+         * @param value the value to append
+         */
+        void putInt(int value) {
+            if (chunk.remaining() < 4) {
+                flush();
+            }
+            chunk.putInt(value);
+        }
+
+        /**
+         * Append scale factors.
+         *
+         * @param scale the scale factors (not null, unaffected)
+         */
+        void putScale(Vector3f scale) {
+            putFloat(scale.x);
+            putFloat(scale.y);
+            putFloat(scale.z);
+        }
+    }
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * size of the scratch buffer used for hashing (in bytes)
+     */
+    final private static int chunkBytes = 8_192;
+    /**
+     * key code for a mesh from a CompoundMesh
+     */
+    final private static int compoundMeshKind = 2;
+    /**
+     * key code for a hull from coordinates
+     */
+    final private static int hullKind = 1;
+    /**
+     * key code for a mesh from a JME mesh
+     */
+    final private static int jmeMeshKind = 3;
+    /**
+     * function to create an empty entry for a new key
+     */
+    final private static Function<String, Entry> newEntry
+            = new Function<String, Entry>() {
+        @Override
+        public Entry apply(String key) {
+            return new Entry();
+        }
+    };
+    /**
+     * message logger for this class
+     */
+    final public static Logger logger
+            = Logger.getLogger(ShapeRegistry.class.getName());
+    // *************************************************************************
+    // fields
+
+    /**
+     * number of lookups that returned an existing shape
+     */
+    final private AtomicLong numHits = new AtomicLong();
+    /**
+     * number of lookups that created a shape
+     */
+    final private AtomicLong numMisses = new AtomicLong();
+    /**
+     * interned shapes (and shapes being built), keyed by content digest
+     */
+    final private ConcurrentMap<String, Entry> entries
+            = new ConcurrentHashMap<>(64);
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Remove all shapes from the registry. The shapes themselves are
+     * unaffected.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Count the lookups that returned an existing shape.
+     *
+     * @return the count (&ge;0)
+     */
+    public long countHits() {
+        long result = numHits.get();
+
+        assert result >= 0L : result;
+        return result;
+    }
+
+    /**
+     * Count the lookups that created a shape.
+     *
+     * @return the count (&ge;0)
+     */
+    public long countMisses() {
+        long result = numMisses.get();
+
+        assert result >= 0L : result;
+        return result;
+    }
+
+    /**
+     * Count the interned shapes.
+     *
+     * @return the count (&ge;0)
+     */
+    public int countShapes() {
+        int result = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.shape != null) { // ignore shapes still being built
+                ++result;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Return a shared hull based on the specified coordinates and scale.
+     *
+     * @param points the coordinates on which to base the shape (not null, not
+     * empty, length a multiple of 3, unaffected)
+     * @param scale the desired scale factors (not null, unaffected)
+     * @return a shape with the specified scale, new or pre-existing
+     */
+    public HullCollisionShape hull(float[] points, Vector3f scale) {
+        Validate.nonEmpty(points, "points");
+
+        HullCollisionShape result = hull(FloatBuffer.wrap(points), scale);
+        return result;
+    }
+
+    /**
+     * Return a shared hull based on the specified flipped buffer and scale.
+     *
+     * @param flippedBuffer the coordinates on which to base the shape (not
+     * null, limit&gt;0, limit a multiple of 3, unaffected)
+     * @param scale the desired scale factors (not null, unaffected)
+     * @return a shape with the specified scale, new or pre-existing
+     */
+    public HullCollisionShape hull(
+            FloatBuffer flippedBuffer, Vector3f scale) {
+        Validate.nonNull(flippedBuffer, "flipped buffer");
+        Validate.nonNull(scale, "scale");
+
+        KeyBuilder builder = new KeyBuilder(hullKind);
+        builder.putScale(scale);
+        builder.putFloats(flippedBuffer);
+        String key = builder.finish();
+
+        Entry entry = entries.computeIfAbsent(key, newEntry);
+        HullCollisionShape result;
+        synchronized (entry) {
+            result = (HullCollisionShape) entry.shape;
+            if (result == null) {
+                try {
+                    result = new HullCollisionShape(flippedBuffer);
+                    result.setScale(scale);
+                } catch (RuntimeException exception) {
+                    // Don't leave an empty entry behind.
+                    entries.remove(key, entry);
+                    throw exception;
+                }
+                entry.shape = result;
+                numMisses.incrementAndGet();
+            } else {
+                numHits.incrementAndGet();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Return a shared mesh shape based on the specified CompoundMesh and
+     * scale.
+     *
+     * @param mesh the mesh on which to base the shape (not null, must contain
+     * at least one triangle, unaffected)
+     * @param useCompression true to use quantized AABB compression
+     * @param scale the desired scale factors (not null, unaffected)
+     * @return a shape with the specified scale, new or pre-existing
+     */
+    public MeshCollisionShape mesh(
+            CompoundMesh mesh, boolean useCompression, Vector3f scale) {
+        Validate.nonNull(mesh, "mesh");
+        Validate.nonNull(scale, "scale");
+
+        KeyBuilder builder = new KeyBuilder(compoundMeshKind);
+        builder.putInt(useCompression ? 1 : 0);
+        builder.putScale(scale);
+        builder.putScale(mesh.getScale(null));
+        int numSubmeshes = mesh.countSubmeshes();
+        builder.putInt(numSubmeshes);
+        for (int submeshI = 0; submeshI < numSubmeshes; ++submeshI) {
+            // Read the buffers in place, rather than copy them to new ones.
+            IndexedMesh submesh = mesh.getSubmesh(submeshI);
+            FloatBuffer positions = submesh.getVertexPositions();
+            int numFloats = 3 * submesh.countVertices();
+            builder.putInt(numFloats);
+            for (int i = 0; i < numFloats; ++i) {
+                builder.putFloat(positions.get(i));
+            }
+
+            IndexBuffer indices = submesh.getIndexBuffer();
+            int numIndices = indices.size();
+            builder.putInt(numIndices);
+            for (int i = 0; i < numIndices; ++i) {
+                builder.putInt(indices.get(i));
+            }
+        }
+        String key = builder.finish();
+
+        Entry entry = entries.computeIfAbsent(key, newEntry);
+        MeshCollisionShape result;
+        synchronized (entry) {
+            result = (MeshCollisionShape) entry.shape;
+            if (result == null) {
+                try {
+                    result = new MeshCollisionShape(useCompression, mesh);
+                    result.setScale(scale);
+                } catch (RuntimeException exception) {
+                    // Don't leave an empty entry behind.
+                    entries.remove(key, entry);
+                    throw exception;
+                }
+                entry.shape = result;
+                numMisses.incrementAndGet();
+            } else {
+                numHits.incrementAndGet();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Return a shared mesh shape based on the specified JME mesh and scale.
+     *
+     * @param jmeMesh the mesh on which to base the shape (not null, must
+     * contain at least one triangle, unaffected)
+     * @param useCompression true to use quantized AABB compression
+     * @param scale the desired scale factors (not null, unaffected)
+     * @return a shape with the specified scale, new or pre-existing
+     */
+    public MeshCollisionShape mesh(
+            Mesh jmeMesh, boolean useCompression, Vector3f scale) {
+        Validate.nonNull(jmeMesh, "JME mesh");
+        Validate.nonNull(scale, "scale");
+
+        KeyBuilder builder = new KeyBuilder(jmeMeshKind);
+        builder.putInt(useCompression ? 1 : 0);
+        builder.putScale(scale);
+        builder.putInt(jmeMesh.getMode().ordinal());
+        FloatBuffer positions
+                = jmeMesh.getFloatBuffer(VertexBuffer.Type.Position);
+        builder.putFloats(positions);
+        IndexBuffer indices = jmeMesh.getIndexBuffer();
+        if (indices == null) {
+            builder.putInt(-1);
+        } else {
+            int numIndices = indices.size();
+            builder.putInt(numIndices);
+            for (int i = 0; i < numIndices; ++i) {
+                builder.putInt(indices.get(i));
+            }
+        }
+        String key = builder.finish();
+
+        Entry entry = entries.computeIfAbsent(key, newEntry);
+        MeshCollisionShape result;
+        synchronized (entry) {
+            result = (MeshCollisionShape) entry.shape;
+            if (result == null) {
+                try {
+                    result = new MeshCollisionShape(jmeMesh, useCompression);
+                    result.setScale(scale);
+                } catch (RuntimeException exception) {
+                    // Don't leave an empty entry behind.
+                    entries.remove(key, entry);
+                    throw exception;
+                }
+                entry.shape = result;
+                numMisses.incrementAndGet();
+            } else {
+                numHits.incrementAndGet();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Remove the specified shape from the registry. The shape itself is
+     * unaffected.
+     *
+     * @param shape the shape to remove (not null, unaffected)
+     * @return true if it was interned, otherwise false
+     */
+    public boolean remove(CollisionShape shape) {
+        Validate.nonNull(shape, "shape");
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().shape == shape) {
+                iterator.remove();
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
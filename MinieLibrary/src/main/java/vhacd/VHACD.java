@@ -30,12 +30,15 @@
 package vhacd;
 
 import com.jme3.util.BufferUtils;
-import com.jme3.util.SafeArrayList;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import jme3utilities.Validate;
 import jme3utilities.math.MyVector3f;
@@ -45,6 +48,32 @@ import jme3utilities.math.MyVector3f;
  * Decomposition on an indexed mesh.
  */
 final public class VHACD {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * State of a single decomposition, private to the thread that runs it.
+     */
+    private static class Job {
+        /**
+         * hulls computed so far (not null)
+         */
+        final private List<VHACDHull> hulls = new ArrayList<>(50);
+        /**
+         * listener for this job only, or null if none
+         */
+        final private VHACDProgressListener listener;
+
+        /**
+         * Instantiate a job with the specified listener.
+         *
+         * @param listener the listener for this job only (alias created) or
+         * null for none
+         */
+        Job(VHACDProgressListener listener) {
+            this.listener = listener;
+        }
+    }
     // *************************************************************************
     // constants and loggers
 
@@ -61,14 +90,14 @@ final public class VHACD {
     // fields
 
     /**
-     * list of registered progress listeners
+     * list of progress listeners registered for all decompositions
      */
     final private static Collection<VHACDProgressListener> progressListeners
-            = new SafeArrayList<>(VHACDProgressListener.class);
+            = new CopyOnWriteArrayList<>();
     /**
-     * list of hulls computed during the latest decomposition
+     * decomposition in progress on each thread, or null if none
      */
-    private static List<VHACDHull> results;
+    final private static ThreadLocal<Job> currentJob = new ThreadLocal<>();
     // *************************************************************************
     // constructors
 
@@ -81,7 +110,7 @@ final public class VHACD {
     // new methods exposed
 
     /**
-     * Register the specified progress listener.
+     * Register the specified progress listener for all decompositions.
      *
      * @param listener the listener to register (not null, alias created)
      */
@@ -111,11 +140,84 @@ final public class VHACD {
 
         FloatBuffer positionsBuffer = BufferUtils.createFloatBuffer(positions);
         IntBuffer indexBuffer = BufferUtils.createIntBuffer(indices);
-        results = new ArrayList<>(50);
-        compute(positionsBuffer, indexBuffer, params.nativeId(),
-                params.getDebugEnabled());
+        List<VHACDHull> result
+                = decompose(positionsBuffer, indexBuffer, params, null);
+
+        return result;
+    }
+
+    /**
+     * Generate convex hulls to approximate the specified mesh, passing the
+     * buffers straight to native code without copying them. The entire
+     * capacity of each buffer is used.
+     *
+     * @param positions the positions of all mesh vertices (not null, direct,
+     * capacity a multiple of 3, unaffected)
+     * @param indices the vertex indices of all mesh triangles (not null,
+     * direct, capacity a multiple of 3, unaffected)
+     * @param params the tuning parameters to use (not null, unaffected)
+     * @return a new list of hulls, or an empty list if the algorithm failed
+     */
+    public static List<VHACDHull> compute(FloatBuffer positions,
+            IntBuffer indices, VHACDParameters params) {
+        Validate.nonNull(positions, "positions");
+        Validate.nonNull(indices, "indices");
+        Validate.nonNull(params, "parameters");
+        Validate.require(positions.isDirect(), "a direct position buffer");
+        Validate.require(indices.isDirect(), "a direct index buffer");
+        assert positions.capacity() % MyVector3f.numAxes == 0 :
+                positions.capacity();
+        assert indices.capacity() % vpt == 0 : indices.capacity();
+
+        List<VHACDHull> result = decompose(positions, indices, params, null);
 
-        return results;
+        return result;
+    }
+
+    /**
+     * Start a decomposition job on the specified executor. The inputs are
+     * copied before this method returns, so the caller may modify them while
+     * the job runs. Each job collects its own hulls and notifies its own
+     * listener, so jobs on different threads don't interfere.
+     *
+     * @param positions the positions of all mesh vertices (not null, length a
+     * multiple of 3, unaffected)
+     * @param indices the vertex indices of all mesh triangles (not null, length
+     * a multiple of 3, unaffected)
+     * @param params the tuning parameters to use (not null, unaffected)
+     * @param listener a progress listener for this job only (alias created) or
+     * null for none
+     * @param executor the executor to run the job (not null)
+     * @return a new future that completes with a new list of hulls, or an
+     * empty list if the algorithm failed
+     */
+    public static CompletableFuture<List<VHACDHull>> computeAsync(
+            float[] positions, int[] indices, VHACDParameters params,
+            final VHACDProgressListener listener, Executor executor) {
+        Validate.nonNull(positions, "positions");
+        Validate.nonNull(indices, "indices");
+        Validate.nonNull(params, "parameters");
+        Validate.nonNull(executor, "executor");
+        assert positions.length % MyVector3f.numAxes == 0 : positions.length;
+        assert indices.length % vpt == 0 : indices.length;
+
+        final FloatBuffer positionsBuffer
+                = BufferUtils.createFloatBuffer(positions);
+        final IntBuffer indexBuffer = BufferUtils.createIntBuffer(indices);
+        final VHACDParameters paramsCopy = params.clone();
+
+        Supplier<List<VHACDHull>> job = new Supplier<List<VHACDHull>>() {
+            @Override
+            public List<VHACDHull> get() {
+                List<VHACDHull> hulls = decompose(
+                        positionsBuffer, indexBuffer, paramsCopy, listener);
+                return hulls;
+            }
+        };
+        CompletableFuture<List<VHACDHull>> result
+                = CompletableFuture.supplyAsync(job, executor);
+
+        return result;
     }
 
     /**
@@ -141,7 +243,35 @@ final public class VHACD {
      */
     private static void addHull(long hullId) {
         VHACDHull hull = new VHACDHull(hullId);
-        results.add(hull);
+        Job job = currentJob.get();
+        job.hulls.add(hull);
+    }
+
+    /**
+     * Decompose the specified mesh on the current thread.
+     *
+     * @param positions the positions of all mesh vertices (not null, direct,
+     * unaffected)
+     * @param indices the vertex indices of all mesh triangles (not null,
+     * direct, unaffected)
+     * @param params the tuning parameters to use (not null, unaffected)
+     * @param listener a progress listener for this decomposition only (alias
+     * created) or null for none
+     * @return a new list of hulls, or an empty list if the algorithm failed
+     */
+    private static List<VHACDHull> decompose(FloatBuffer positions,
+            IntBuffer indices, VHACDParameters params,
+            VHACDProgressListener listener) {
+        Job job = new Job(listener);
+        currentJob.set(job);
+        try {
+            compute(positions, indices, params.nativeId(),
+                    params.getDebugEnabled());
+        } finally {
+            currentJob.remove();
+        }
+
+        return job.hulls;
     }
 
     /**
@@ -163,6 +293,12 @@ final public class VHACD {
             listener.update(overallPercent, stagePercent,
                     operationPercent, stageName, operationName);
         }
+
+        Job job = currentJob.get();
+        if (job != null && job.listener != null) {
+            job.listener.update(overallPercent, stagePercent,
+                    operationPercent, stageName, operationName);
+        }
     }
     // *************************************************************************
     // native private methods
@@ -35,6 +35,10 @@ import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import jme3utilities.Validate;
 import jme3utilities.math.MyVector3f;
@@ -45,6 +49,32 @@ import vhacd.VHACDProgressListener;
  * Decomposition on an indexed mesh.
  */
 final public class Vhacd4 {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * State of a single decomposition, private to the thread that runs it.
+     */
+    private static class Job {
+        /**
+         * hulls computed so far (not null)
+         */
+        final private List<Vhacd4Hull> hulls = new ArrayList<>(50);
+        /**
+         * listener for this job only, or null if none
+         */
+        final private VHACDProgressListener listener;
+
+        /**
+         * Instantiate a job with the specified listener.
+         *
+         * @param listener the listener for this job only (alias created) or
+         * null for none
+         */
+        Job(VHACDProgressListener listener) {
+            this.listener = listener;
+        }
+    }
     // *************************************************************************
     // constants and loggers
 
@@ -61,14 +91,14 @@ final public class Vhacd4 {
     // fields
 
     /**
-     * list of registered progress listeners
+     * list of progress listeners registered for all decompositions
      */
     final private static Collection<VHACDProgressListener> progressListeners
-            = new ArrayList<>(4);
+            = new CopyOnWriteArrayList<>();
     /**
-     * list of hulls computed during the latest decomposition
+     * decomposition in progress on each thread, or null if none
      */
-    private static List<Vhacd4Hull> results;
+    final private static ThreadLocal<Job> currentJob = new ThreadLocal<>();
     // *************************************************************************
     // constructors
 
@@ -81,7 +111,7 @@ final public class Vhacd4 {
     // new methods exposed
 
     /**
-     * Register the specified progress listener.
+     * Register the specified progress listener for all decompositions.
      *
      * @param listener the listener to register (not null, alias created)
      */
@@ -111,11 +141,92 @@ final public class Vhacd4 {
 
         FloatBuffer positionsBuffer = BufferUtils.createFloatBuffer(positions);
         IntBuffer indexBuffer = BufferUtils.createIntBuffer(indices);
-        results = new ArrayList<>(50);
-        compute(positionsBuffer, indexBuffer, params.nativeId(),
-                params.getDebugEnabled());
+        List<Vhacd4Hull> result
+                = decompose(positionsBuffer, indexBuffer, params, null);
+
+        return result;
+    }
+
+    /**
+     * Generate convex hulls to approximate the specified mesh, passing the
+     * buffers straight to native code without copying them. The entire
+     * capacity of each buffer is used.
+     *
+     * @param positions the positions of all mesh vertices (not null, direct,
+     * capacity a multiple of 3, unaffected)
+     * @param indices the vertex indices of all mesh triangles (not null,
+     * direct, capacity a multiple of 3, unaffected)
+     * @param params the tuning parameters to use (not null, unaffected)
+     * @return a new list of hulls, or an empty list if the algorithm failed
+     */
+    public static List<Vhacd4Hull> compute(FloatBuffer positions,
+            IntBuffer indices, Vhacd4Parameters params) {
+        Validate.nonNull(positions, "positions");
+        Validate.nonNull(indices, "indices");
+        Validate.nonNull(params, "parameters");
+        Validate.require(positions.isDirect(), "a direct position buffer");
+        Validate.require(indices.isDirect(), "a direct index buffer");
+        assert positions.capacity() % MyVector3f.numAxes == 0 :
+                positions.capacity();
+        assert indices.capacity() % vpt == 0 : indices.capacity();
+
+        List<Vhacd4Hull> result = decompose(positions, indices, params, null);
 
-        return results;
+        return result;
+    }
+
+    /**
+     * Start a decomposition job on the specified executor. The inputs are
+     * copied before this method returns, so the caller may modify them while
+     * the job runs. Each job collects its own hulls and notifies its own
+     * listener, so jobs on different threads don't interfere. The job runs
+     * the decomposition synchronously on the executor's thread, regardless of
+     * the "async" parameter, so that progress updates reach the job's
+     * listener.
+     *
+     * @param positions the positions of all mesh vertices (not null, length a
+     * multiple of 3, unaffected)
+     * @param indices the vertex indices of all mesh triangles (not null, length
+     * a multiple of 3, unaffected)
+     * @param params the tuning parameters to use (not null, unaffected)
+     * @param listener a progress listener for this job only (alias created) or
+     * null for none
+     * @param executor the executor to run the job (not null)
+     * @return a new future that completes with a new list of hulls, or an
+     * empty list if the algorithm failed
+     */
+    public static CompletableFuture<List<Vhacd4Hull>> computeAsync(
+            float[] positions, int[] indices, Vhacd4Parameters params,
+            final VHACDProgressListener listener, Executor executor) {
+        Validate.nonNull(positions, "positions");
+        Validate.nonNull(indices, "indices");
+        Validate.nonNull(params, "parameters");
+        Validate.nonNull(executor, "executor");
+        assert positions.length % MyVector3f.numAxes == 0 : positions.length;
+        assert indices.length % vpt == 0 : indices.length;
+
+        final FloatBuffer positionsBuffer
+                = BufferUtils.createFloatBuffer(positions);
+        final IntBuffer indexBuffer = BufferUtils.createIntBuffer(indices);
+        final Vhacd4Parameters paramsCopy = params.clone();
+        /*
+         * Native async mode would report progress from a native thread,
+         * which has no current job.
+         */
+        paramsCopy.setAsync(false);
+
+        Supplier<List<Vhacd4Hull>> job = new Supplier<List<Vhacd4Hull>>() {
+            @Override
+            public List<Vhacd4Hull> get() {
+                List<Vhacd4Hull> hulls = decompose(
+                        positionsBuffer, indexBuffer, paramsCopy, listener);
+                return hulls;
+            }
+        };
+        CompletableFuture<List<Vhacd4Hull>> result
+                = CompletableFuture.supplyAsync(job, executor);
+
+        return result;
     }
 
     /**
@@ -141,7 +252,35 @@ final public class Vhacd4 {
      */
     private static void addHull(long hullId) {
         Vhacd4Hull hull = new Vhacd4Hull(hullId);
-        results.add(hull);
+        Job job = currentJob.get();
+        job.hulls.add(hull);
+    }
+
+    /**
+     * Decompose the specified mesh on the current thread.
+     *
+     * @param positions the positions of all mesh vertices (not null, direct,
+     * unaffected)
+     * @param indices the vertex indices of all mesh triangles (not null,
+     * direct, unaffected)
+     * @param params the tuning parameters to use (not null, unaffected)
+     * @param listener a progress listener for this decomposition only (alias
+     * created) or null for none
+     * @return a new list of hulls, or an empty list if the algorithm failed
+     */
+    private static List<Vhacd4Hull> decompose(FloatBuffer positions,
+            IntBuffer indices, Vhacd4Parameters params,
+            VHACDProgressListener listener) {
+        Job job = new Job(listener);
+        currentJob.set(job);
+        try {
+            compute(positions, indices, params.nativeId(),
+                    params.getDebugEnabled());
+        } finally {
+            currentJob.remove();
+        }
+
+        return job.hulls;
     }
 
     /**
@@ -163,6 +302,12 @@ final public class Vhacd4 {
             listener.update(overallPercent, stagePercent,
                     operationPercent, stageName, operationName);
         }
+
+        Job job = currentJob.get();
+        if (job != null && job.listener != null) {
+            job.listener.update(overallPercent, stagePercent,
+                    operationPercent, stageName, operationName);
+        }
     }
     // *************************************************************************
     // native private methods
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2023 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.bullet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the StripedLongMap class against a HashMap.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class StripedLongMapTest {
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Apply a long random sequence of insertions and removals to both maps,
+     * verifying that they agree after each operation.
+     */
+    @Test
+    public void testRandomOperations() {
+        StripedLongMap<String> map = new StripedLongMap<>();
+        Map<Long, String> reference = new HashMap<>(999);
+        Random generator = new Random(5L);
+
+        for (int iteration = 0; iteration < 50_000; ++iteration) {
+            // Use 16-byte aligned keys, like native addresses.
+            long key = 16L * (1 + generator.nextInt(4_000));
+            if (generator.nextBoolean()) {
+                String value = Integer.toString(iteration);
+                Assert.assertEquals(
+                        reference.put(key, value), map.put(key, value));
+            } else {
+                Assert.assertEquals(reference.remove(key), map.remove(key));
+            }
+            Assert.assertEquals(reference.size(), map.size());
+        }
+
+        for (long key = 16L; key <= 16L * 4_000; key += 16L) {
+            Assert.assertEquals(reference.get(key), map.get(key));
+            Assert.assertEquals(
+                    reference.containsKey(key), map.containsKey(key));
+        }
+        Assert.assertEquals(reference.size(), map.values().size());
+    }
+}
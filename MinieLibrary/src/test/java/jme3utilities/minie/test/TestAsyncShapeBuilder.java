@@ -0,0 +1,150 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import com.jme3.bullet.collision.shapes.HullCollisionShape;
+import com.jme3.bullet.collision.shapes.MeshCollisionShape;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.bullet.util.AsyncShapeBuilder;
+import com.jme3.scene.shape.Box;
+import com.jme3.system.NativeLibraryLoader;
+import java.nio.FloatBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test AsyncShapeBuilder: shapes are built on the executor's threads, and
+ * finished shapes are added to a space on the physics thread.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestAsyncShapeBuilder {
+    // *************************************************************************
+    // fields
+
+    /**
+     * thread that ran the most recent custom build
+     */
+    private static volatile Thread buildThread;
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Build shapes on a pool, add one to a space, and verify that a failed
+     * build propagates.
+     *
+     * @throws Exception if a build fails unexpectedly or the test is
+     * interrupted
+     */
+    @Test
+    public void testAsyncShapeBuilder() throws Exception {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        AsyncShapeBuilder builder = new AsyncShapeBuilder(pool);
+
+        // Custom builds run on the pool, not on the invoking thread.
+        CompletableFuture<HullCollisionShape> hullFuture = builder.build(
+                new Supplier<HullCollisionShape>() {
+            @Override
+            public HullCollisionShape get() {
+                buildThread = Thread.currentThread();
+                float[] points = {0f, 0f, 0f, 1f, 0f, 0f, 0f, 1f, 0f};
+                return new HullCollisionShape(points);
+            }
+        });
+        Assert.assertEquals(3, hullFuture.get().countHullVertices());
+        Assert.assertNotSame(Thread.currentThread(), buildThread);
+
+        FloatBuffer coordinates = FloatBuffer.wrap(new float[]{
+            0f, 0f, 0f, 1f, 0f, 0f, 0f, 1f, 0f, 0f, 0f, 1f
+        });
+        HullCollisionShape hull = builder.hullShape(coordinates).get();
+        Assert.assertEquals(4, hull.countHullVertices());
+
+        Box box = new Box(1f, 1f, 1f);
+        CompletableFuture<MeshCollisionShape> meshFuture
+                = builder.meshShape(box, true);
+
+        // Add a static body for the mesh shape on the physics thread.
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        CompletableFuture<PhysicsRigidBody> bodyFuture = builder.addWhenBuilt(
+                meshFuture, space,
+                new Function<CollisionShape, PhysicsRigidBody>() {
+            @Override
+            public PhysicsRigidBody apply(CollisionShape shape) {
+                return new PhysicsRigidBody(
+                        shape, PhysicsRigidBody.massForStatic);
+            }
+        });
+        meshFuture.get();
+        /*
+         * The body is added during a simulation step,
+         * once the pool has enqueued the task.
+         */
+        for (int i = 0; i < 100 && !bodyFuture.isDone(); ++i) {
+            Thread.sleep(10L);
+            space.update(0.02f, 1);
+        }
+        PhysicsRigidBody body = bodyFuture.get(1L, TimeUnit.SECONDS);
+        Assert.assertTrue(space.contains(body));
+
+        // A failed build completes its futures exceptionally.
+        CompletableFuture<CollisionShape> failedFuture = builder.build(
+                new Supplier<CollisionShape>() {
+            @Override
+            public CollisionShape get() {
+                throw new IllegalStateException("test");
+            }
+        });
+        bodyFuture = builder.addWhenBuilt(failedFuture, space,
+                new Function<CollisionShape, PhysicsRigidBody>() {
+            @Override
+            public PhysicsRigidBody apply(CollisionShape shape) {
+                return new PhysicsRigidBody(shape);
+            }
+        });
+        try {
+            bodyFuture.get();
+            Assert.fail("Expected an ExecutionException.");
+        } catch (ExecutionException exception) {
+            // expected
+        }
+
+        pool.shutdown();
+        Assert.assertTrue(pool.awaitTermination(10L, TimeUnit.SECONDS));
+    }
+}
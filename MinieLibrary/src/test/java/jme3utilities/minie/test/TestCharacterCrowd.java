@@ -0,0 +1,129 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.bullet.control.BetterCharacterControl;
+import com.jme3.bullet.control.CharacterCrowdManager;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.Vector3f;
+import com.jme3.system.NativeLibraryLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the batched probes of CharacterCrowdManager, including a member that
+ * overrides {@code checkOnGround()}.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestCharacterCrowd {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * A character that counts invocations of its ground check.
+     */
+    private static class CountingCharacter extends BetterCharacterControl {
+        /**
+         * number of invocations of {@code checkOnGround()}
+         */
+        private int numChecks = 0;
+
+        /**
+         * Instantiate a character with the specified dimensions.
+         *
+         * @param radius the radius (&gt;0)
+         * @param height the height (&gt;2*radius)
+         * @param mass the mass (&gt;0)
+         */
+        CountingCharacter(float radius, float height, float mass) {
+            super(radius, height, mass);
+        }
+
+        /**
+         * Count the invocation, then update the {@code onGround} status.
+         */
+        @Override
+        protected void checkOnGround() {
+            ++numChecks;
+            super.checkOnGround();
+        }
+    }
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Drop 2 characters onto a floor, duck and un-duck one of them, and
+     * verify that the crowd honors the other's override.
+     */
+    @Test
+    public void testCharacterCrowd() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        PhysicsRigidBody floor = new PhysicsRigidBody(
+                new BoxCollisionShape(10f, 1f, 10f),
+                PhysicsRigidBody.massForStatic);
+        floor.setPhysicsLocation(new Vector3f(0f, -1f, 0f));
+        space.addCollisionObject(floor);
+
+        BetterCharacterControl plain
+                = new BetterCharacterControl(0.5f, 2f, 1f);
+        CountingCharacter counting = new CountingCharacter(0.5f, 2f, 1f);
+        plain.setPhysicsSpace(space);
+        counting.setPhysicsSpace(space);
+        plain.warp(new Vector3f(-2f, 0.1f, 0f));
+        counting.warp(new Vector3f(2f, 0.1f, 0f));
+
+        CharacterCrowdManager crowd = new CharacterCrowdManager(space);
+        crowd.add(plain);
+        crowd.add(counting);
+        Assert.assertEquals(2, crowd.countMembers());
+        Assert.assertEquals(1, space.countTickListeners());
+
+        for (int stepI = 0; stepI < 60; ++stepI) {
+            space.update(1f / 60, 0);
+        }
+        Assert.assertTrue(plain.isOnGround());
+        Assert.assertTrue(counting.isOnGround());
+        Assert.assertTrue(counting.numChecks >= 60);
+
+        // Duck, then un-duck with nothing overhead.
+        plain.setDucked(true);
+        space.update(1f / 60, 0);
+        Assert.assertTrue(plain.isDucked());
+        plain.setDucked(false);
+        space.update(1f / 60, 0);
+        Assert.assertFalse(plain.isDucked());
+
+        crowd.remove(plain);
+        crowd.remove(counting);
+        Assert.assertEquals(2, space.countTickListeners());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.DefaultContactManager;
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.PhysicsCollisionEvent;
+import com.jme3.bullet.collision.PhysicsCollisionListener;
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.bullet.collision.shapes.SphereCollisionShape;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.Vector3f;
+import com.jme3.system.NativeLibraryLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test that recycled collision events behave like newly allocated ones.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestCollisionEventRecycling {
+    // *************************************************************************
+    // fields
+
+    /**
+     * number of events checked
+     */
+    private static int numChecked;
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Drop a ball onto a box with recycling enabled, and compare each
+     * delivered event with a plain event for the same point of contact.
+     */
+    @Test
+    public void testCollisionEventRecycling() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        DefaultContactManager manager = new DefaultContactManager(space);
+        space.setContactManager(manager);
+        manager.setRecycleEvents(true);
+
+        PhysicsRigidBody floor = new PhysicsRigidBody(
+                new BoxCollisionShape(1f), PhysicsRigidBody.massForStatic);
+        space.addCollisionObject(floor);
+        PhysicsRigidBody ball
+                = new PhysicsRigidBody(new SphereCollisionShape(0.5f), 1f);
+        ball.setPhysicsLocation(new Vector3f(0f, 1.45f, 0f));
+        space.addCollisionObject(ball);
+
+        numChecked = 0;
+        space.addCollisionListener(new PhysicsCollisionListener() {
+            @Override
+            public void collision(PhysicsCollisionEvent event) {
+                PhysicsCollisionEvent plain = new PhysicsCollisionEvent(
+                        event.getObjectA(), event.getObjectB(),
+                        event.nativeId());
+                Assert.assertEquals(plain, event);
+                Assert.assertEquals(event, plain);
+                Assert.assertEquals(plain.hashCode(), event.hashCode());
+
+                PhysicsCollisionEvent swapped = new PhysicsCollisionEvent(
+                        event.getObjectB(), event.getObjectA(),
+                        event.nativeId());
+                Assert.assertNotEquals(swapped, event);
+                ++numChecked;
+            }
+        });
+
+        for (int stepI = 0; stepI < 10; ++stepI) {
+            space.update(0.02f, 1);
+            space.distributeEvents();
+        }
+        Assert.assertTrue(numChecked > 0);
+        Assert.assertTrue(manager.countPooledEvents() > 0);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import com.jme3.bullet.collision.shapes.CompoundCollisionShape;
+import com.jme3.bullet.collision.shapes.SphereCollisionShape;
+import com.jme3.bullet.collision.shapes.infos.CompoundConnectivity;
+import com.jme3.system.NativeLibraryLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test connectivity analysis of compound shapes.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestCompoundConnectivity {
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Test pruning, grouping, and removal on a chain of spheres.
+     */
+    @Test
+    public void testCompoundConnectivity() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        // 3 overlapping spheres in a chain, plus one far away
+        CollisionShape sphere = new SphereCollisionShape(1f);
+        CompoundCollisionShape compound = new CompoundCollisionShape();
+        compound.addChildShape(sphere, 0f, 0f, 0f);
+        compound.addChildShape(sphere, 1.5f, 0f, 0f);
+        compound.addChildShape(sphere, 3f, 0f, 0f);
+        compound.addChildShape(sphere, 10f, 0f, 0f);
+
+        CompoundConnectivity connectivity = compound.connectivity(null);
+        Assert.assertEquals(2, connectivity.countPairTests());
+        Assert.assertTrue(connectivity.intersects(0, 1));
+        Assert.assertTrue(connectivity.intersects(1, 2));
+        Assert.assertFalse(connectivity.intersects(0, 2));
+        Assert.assertTrue(connectivity.isConnected(0, 2));
+        Assert.assertEquals(2, connectivity.countGroups());
+
+        int[] map = new int[4];
+        Assert.assertEquals(2, compound.countGroups(null, map));
+        Assert.assertArrayEquals(new int[]{0, 0, 0, 1}, map);
+
+        // Removing the middle sphere splits the chain.
+        connectivity.removeChild(1);
+        Assert.assertEquals(3, connectivity.countActive());
+        Assert.assertEquals(3, connectivity.groupMap(map));
+        Assert.assertArrayEquals(new int[]{0, -1, 1, 2}, map);
+        Assert.assertFalse(connectivity.isConnected(0, 2));
+    }
+}
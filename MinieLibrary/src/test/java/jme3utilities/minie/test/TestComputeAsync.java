@@ -0,0 +1,255 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.system.NativeLibraryLoader;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Assert;
+import org.junit.Test;
+import vhacd.VHACD;
+import vhacd.VHACDHull;
+import vhacd.VHACDParameters;
+import vhacd.VHACDProgressListener;
+import vhacd4.Vhacd4;
+import vhacd4.Vhacd4Hull;
+import vhacd4.Vhacd4Parameters;
+
+/**
+ * Run 2 decomposition jobs concurrently with VHACD.computeAsync() and
+ * Vhacd4.computeAsync(), and verify that each job's hulls and progress
+ * updates belong to that job alone.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestComputeAsync {
+    // *************************************************************************
+    // classes and enums
+
+    /**
+     * Progress listener that records which threads invoked it.
+     */
+    private static class ThreadRecorder implements VHACDProgressListener {
+        /**
+         * threads that invoked the listener (identity-based, guarded by the
+         * set)
+         */
+        final private Set<Thread> threads = Collections.newSetFromMap(
+                new IdentityHashMap<Thread, Boolean>(4));
+
+        /**
+         * Return the single thread that invoked the listener.
+         *
+         * @return the pre-existing thread (not null)
+         */
+        Thread onlyThread() {
+            synchronized (threads) {
+                Assert.assertEquals(1, threads.size());
+                Thread result = threads.iterator().next();
+
+                return result;
+            }
+        }
+
+        /**
+         * Record the invoking thread.
+         *
+         * @param overallPercent ignored
+         * @param stagePercent ignored
+         * @param operationPercent ignored
+         * @param stageName ignored
+         * @param operationName ignored
+         */
+        @Override
+        public void update(double overallPercent, double stagePercent,
+                double operationPercent, String stageName,
+                String operationName) {
+            synchronized (threads) {
+                threads.add(Thread.currentThread());
+            }
+        }
+    }
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * X offset of the 2nd job's mesh
+     */
+    final private static float farX = 100f;
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Decompose 2 distant boxes concurrently using V-HACD version 2.
+     *
+     * @throws ExecutionException if a job fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test
+    public void testVhacd2() throws ExecutionException, InterruptedException {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        VHACDParameters params = new VHACDParameters();
+        params.setVoxelResolution(10_000);
+        ThreadRecorder nearListener = new ThreadRecorder();
+        ThreadRecorder farListener = new ThreadRecorder();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CompletableFuture<List<VHACDHull>> nearFuture = VHACD.computeAsync(
+                boxPositions(0f), boxIndices(), params, nearListener,
+                executor);
+        CompletableFuture<List<VHACDHull>> farFuture = VHACD.computeAsync(
+                boxPositions(farX), boxIndices(), params, farListener,
+                executor);
+
+        List<VHACDHull> nearHulls = nearFuture.get();
+        Assert.assertFalse(nearHulls.isEmpty());
+        for (VHACDHull hull : nearHulls) {
+            assertNear(hull.clonePositions(), 0f);
+        }
+        List<VHACDHull> farHulls = farFuture.get();
+        Assert.assertFalse(farHulls.isEmpty());
+        for (VHACDHull hull : farHulls) {
+            assertNear(hull.clonePositions(), farX);
+        }
+        executor.shutdown();
+
+        assertSeparateThreads(nearListener, farListener);
+    }
+
+    /**
+     * Decompose 2 distant boxes concurrently using V-HACD version 4.
+     *
+     * @throws ExecutionException if a job fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test
+    public void testVhacd4() throws ExecutionException, InterruptedException {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        Vhacd4Parameters params = new Vhacd4Parameters();
+        params.setVoxelResolution(10_000);
+        ThreadRecorder nearListener = new ThreadRecorder();
+        ThreadRecorder farListener = new ThreadRecorder();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CompletableFuture<List<Vhacd4Hull>> nearFuture = Vhacd4.computeAsync(
+                boxPositions(0f), boxIndices(), params, nearListener,
+                executor);
+        CompletableFuture<List<Vhacd4Hull>> farFuture = Vhacd4.computeAsync(
+                boxPositions(farX), boxIndices(), params, farListener,
+                executor);
+
+        List<Vhacd4Hull> nearHulls = nearFuture.get();
+        Assert.assertFalse(nearHulls.isEmpty());
+        for (Vhacd4Hull hull : nearHulls) {
+            assertNear(hull.clonePositions(), 0f);
+        }
+        List<Vhacd4Hull> farHulls = farFuture.get();
+        Assert.assertFalse(farHulls.isEmpty());
+        for (Vhacd4Hull hull : farHulls) {
+            assertNear(hull.clonePositions(), farX);
+        }
+        executor.shutdown();
+
+        assertSeparateThreads(nearListener, farListener);
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Verify that every vertex of a hull lies near the specified X
+     * coordinate.
+     *
+     * @param positions the hull's vertex positions (not null, unaffected)
+     * @param centerX the X coordinate of the job's mesh
+     */
+    private static void assertNear(float[] positions, float centerX) {
+        Assert.assertTrue(positions.length > 0);
+        for (int i = 0; i < positions.length; i += 3) {
+            Assert.assertEquals(centerX, positions[i], 2f);
+        }
+    }
+
+    /**
+     * Verify that each listener was invoked by a single pool thread, and that
+     * the 2 jobs ran on different threads.
+     *
+     * @param listener1 the first job's listener (not null)
+     * @param listener2 the 2nd job's listener (not null)
+     */
+    private static void assertSeparateThreads(
+            ThreadRecorder listener1, ThreadRecorder listener2) {
+        Thread thread1 = listener1.onlyThread();
+        Thread thread2 = listener2.onlyThread();
+        Assert.assertNotSame(thread1, thread2);
+        Assert.assertNotSame(Thread.currentThread(), thread1);
+        Assert.assertNotSame(Thread.currentThread(), thread2);
+    }
+
+    /**
+     * Generate the vertex indices of a box with 12 outward-facing triangles.
+     *
+     * @return a new array
+     */
+    private static int[] boxIndices() {
+        int[] result = {
+            0, 2, 1, 1, 2, 3, // -Z face
+            4, 5, 6, 5, 7, 6, // +Z face
+            0, 1, 4, 1, 5, 4, // -Y face
+            2, 6, 3, 3, 6, 7, // +Y face
+            0, 4, 2, 2, 4, 6, // -X face
+            1, 3, 5, 3, 7, 5 // +X face
+        };
+
+        return result;
+    }
+
+    /**
+     * Generate the vertex positions of a box with half extents of 1, centered
+     * at the specified X coordinate.
+     *
+     * @param centerX the X coordinate of the box's center
+     * @return a new array
+     */
+    private static float[] boxPositions(float centerX) {
+        float[] result = new float[24];
+        for (int vertexI = 0; vertexI < 8; ++vertexI) {
+            result[3 * vertexI] = centerX + (((vertexI & 1) == 0) ? -1f : 1f);
+            result[3 * vertexI + 1] = ((vertexI & 2) == 0) ? -1f : 1f;
+            result[3 * vertexI + 2] = ((vertexI & 4) == 0) ? -1f : 1f;
+        }
+
+        return result;
+    }
+}
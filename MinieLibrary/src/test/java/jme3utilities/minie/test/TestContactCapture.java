@@ -0,0 +1,127 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.DefaultContactManager;
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.ContactPointFlag;
+import com.jme3.bullet.collision.ManifoldPoints;
+import com.jme3.bullet.collision.PhysicsCollisionEvent;
+import com.jme3.bullet.collision.PhysicsCollisionListener;
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.bullet.collision.shapes.SphereCollisionShape;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.Vector3f;
+import com.jme3.system.NativeLibraryLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test that captured contact points reflect the solver results of the step
+ * in which they were queued.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestContactCapture {
+    // *************************************************************************
+    // fields
+
+    /**
+     * largest captured impulse seen
+     */
+    private static float maxImpulse;
+    /**
+     * number of events checked
+     */
+    private static int numChecked;
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Drop a ball onto a box with capture enabled, and compare each captured
+     * event with the native point it was captured from.
+     */
+    @Test
+    public void testContactCapture() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        DefaultContactManager manager = new DefaultContactManager(space);
+        space.setContactManager(manager);
+        manager.setCaptureContactPoints(true);
+        Assert.assertEquals(1, space.countTickListeners());
+
+        PhysicsRigidBody floor = new PhysicsRigidBody(
+                new BoxCollisionShape(1f), PhysicsRigidBody.massForStatic);
+        space.addCollisionObject(floor);
+        PhysicsRigidBody ball
+                = new PhysicsRigidBody(new SphereCollisionShape(0.5f), 1f);
+        ball.setPhysicsLocation(new Vector3f(0f, 2f, 0f));
+        space.addCollisionObject(ball);
+
+        maxImpulse = 0f;
+        numChecked = 0;
+        PhysicsCollisionListener listener = new PhysicsCollisionListener() {
+            @Override
+            public void collision(PhysicsCollisionEvent event) {
+                Assert.assertTrue(event.isCaptured());
+                /*
+                 * The space hasn't been stepped since the capture,
+                 * so the native point should still match.
+                 */
+                long pointId = event.nativeId();
+                float nativeImpulse = ManifoldPoints.getAppliedImpulse(pointId);
+                Assert.assertEquals(
+                        nativeImpulse, event.getAppliedImpulse(), 0f);
+
+                int nativeFlags = ManifoldPoints.getFlags(pointId);
+                boolean nativeLateral
+                        = (nativeFlags & ContactPointFlag.LATERAL_FRICTION)
+                        != 0x0;
+                Assert.assertEquals(
+                        nativeLateral, event.isLateralFrictionInitialized());
+
+                maxImpulse = Math.max(maxImpulse, event.getAppliedImpulse());
+                ++numChecked;
+            }
+        };
+        space.addCollisionListener(listener);
+        space.addOngoingCollisionListener(listener);
+
+        for (int stepI = 0; stepI < 50; ++stepI) {
+            space.update(0.02f, 1);
+            space.distributeEvents();
+        }
+        Assert.assertTrue(numChecked > 0);
+        Assert.assertTrue(maxImpulse > 0f);
+
+        // Disabling capture should de-register its tick listener.
+        manager.setCaptureContactPoints(false);
+        Assert.assertFalse(manager.isCapturingContactPoints());
+        Assert.assertEquals(0, space.countTickListeners());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.Vector3f;
+import com.jme3.system.NativeLibraryLoader;
+import com.jme3.util.BufferUtils;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test bulk copying of rigid-body states from a space that contains static,
+ * kinematic, and dynamic bodies.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestCopyRigidBodyStates {
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Copy the states of mixed bodies, with and without velocities, and
+     * verify the slots.
+     */
+    @Test
+    public void testCopyRigidBodyStates() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        CollisionShape shape = new BoxCollisionShape(0.5f);
+
+        PhysicsRigidBody staticBody
+                = new PhysicsRigidBody(shape, PhysicsRigidBody.massForStatic);
+        staticBody.setPhysicsLocation(new Vector3f(0f, -10f, 0f));
+        space.addCollisionObject(staticBody);
+
+        PhysicsRigidBody kinematicBody = new PhysicsRigidBody(shape, 1f);
+        kinematicBody.setKinematic(true);
+        kinematicBody.setPhysicsLocation(new Vector3f(10f, 0f, 0f));
+        space.addCollisionObject(kinematicBody);
+
+        PhysicsRigidBody dynamicBody = new PhysicsRigidBody(shape, 1f);
+        dynamicBody.setPhysicsLocation(new Vector3f(-10f, 0f, 0f));
+        space.addCollisionObject(dynamicBody);
+
+        space.update(0.02f, 1); // let the dynamic body fall
+
+        FloatBuffer states = BufferUtils.createFloatBuffer(3 * 13);
+        List<PhysicsRigidBody> bodies = new ArrayList<>(3);
+        int numSlots = space.copyRigidBodyStates(states, false, true, bodies);
+        Assert.assertEquals(3, numSlots);
+        Assert.assertEquals(3, bodies.size());
+
+        for (int slotI = 0; slotI < numSlots; ++slotI) {
+            PhysicsRigidBody body = bodies.get(slotI);
+            int base = 13 * slotI;
+
+            Vector3f location = body.getPhysicsLocation(null);
+            Assert.assertEquals(location.x, states.get(base), 0f);
+            Assert.assertEquals(location.y, states.get(base + 1), 0f);
+            Assert.assertEquals(location.z, states.get(base + 2), 0f);
+
+            if (body == dynamicBody) {
+                Vector3f velocity = body.getLinearVelocity(null);
+                Assert.assertEquals(velocity.y, states.get(base + 8), 0f);
+                Assert.assertTrue(states.get(base + 8) < 0f);
+            } else {
+                for (int i = 7; i < 13; ++i) {
+                    Assert.assertEquals(0f, states.get(base + i), 0f);
+                }
+            }
+        }
+
+        // The static body is never active, so it should be skipped.
+        numSlots = space.copyRigidBodyStates(states, true, false, bodies);
+        Assert.assertFalse(bodies.contains(staticBody));
+        Assert.assertEquals(bodies.size(), numSlots);
+    }
+}
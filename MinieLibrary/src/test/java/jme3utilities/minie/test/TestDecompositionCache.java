@@ -0,0 +1,75 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.util.DecompositionCache;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test storing and loading entries of a DecompositionCache.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestDecompositionCache {
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Store 2 hulls, load them back, then clear the cache.
+     *
+     * @throws IOException if the temporary directory can't be created
+     */
+    @Test
+    public void testDecompositionCache() throws IOException {
+        File directory = Files.createTempDirectory("vhacd").toFile();
+        DecompositionCache cache = new DecompositionCache(directory);
+        String key = "0123456789abcdef";
+        Assert.assertNull(cache.load(key));
+
+        List<float[]> hulls = new ArrayList<>(2);
+        hulls.add(new float[]{0f, 0f, 0f, 1f, 0f, 0f, 0f, 1f, 0f, 0f, 0f, 1f});
+        hulls.add(new float[]{-1f, 2.5f, 3f, 4f, -5f, 6.25f});
+        cache.store(key, hulls);
+
+        List<float[]> loaded = cache.load(key);
+        Assert.assertNotNull(loaded);
+        Assert.assertEquals(2, loaded.size());
+        for (int i = 0; i < 2; ++i) {
+            Assert.assertArrayEquals(hulls.get(i), loaded.get(i), 0f);
+        }
+
+        Assert.assertEquals(1, cache.clear());
+        Assert.assertNull(cache.load(key));
+        Assert.assertTrue(directory.delete());
+    }
+}
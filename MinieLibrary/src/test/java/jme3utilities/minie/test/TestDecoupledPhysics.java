@@ -0,0 +1,127 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.BulletAppState;
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import com.jme3.bullet.control.RigidBodyControl;
+import com.jme3.bullet.control.SnapshotSyncManager;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.system.NativeLibraryLoader;
+import java.util.concurrent.Callable;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the DECOUPLED threading mode: controls are claimed as they're added,
+ * kinematic transforms are applied on the physics thread, dynamic spatials
+ * follow the snapshots, and debug visualization stays off.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestDecoupledPhysics {
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Run a kinematic and a dynamic control in a decoupled space.
+     *
+     * @throws Exception if a physics task fails or the test is interrupted
+     */
+    @Test
+    public void testDecoupledPhysics() throws Exception {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        BulletAppState appState = new BulletAppState();
+        appState.setThreadingType(BulletAppState.ThreadingType.DECOUPLED);
+        appState.startPhysics();
+        final PhysicsSpace space = appState.getPhysicsSpace();
+        SnapshotSyncManager manager = appState.getSnapshotSyncManager();
+        Assert.assertNotNull(manager);
+
+        CollisionShape shape = new BoxCollisionShape(0.5f);
+        Node kinematicNode = new Node("kinematic");
+        final RigidBodyControl kinematicControl
+                = new RigidBodyControl(shape, 1f);
+        kinematicControl.setKinematic(true);
+        kinematicNode.addControl(kinematicControl);
+
+        Node dynamicNode = new Node("dynamic");
+        dynamicNode.setLocalTranslation(10f, 0f, 0f);
+        final RigidBodyControl dynamicControl
+                = new RigidBodyControl(shape, 1f);
+        dynamicNode.addControl(dynamicControl);
+
+        space.enqueue(new Callable<Void>() {
+            @Override
+            public Void call() {
+                space.addCollisionObject(kinematicControl);
+                space.addCollisionObject(dynamicControl);
+                return null;
+            }
+        }).get();
+        Assert.assertEquals(2, manager.countClaimed());
+
+        // The kinematic transform is posted and applied by the physics thread.
+        kinematicNode.setLocalTranslation(3f, 0f, 0f);
+        kinematicNode.updateLogicalState(0.02f);
+        Thread.sleep(100L);
+        Vector3f location = space.enqueue(new Callable<Vector3f>() {
+            @Override
+            public Vector3f call() {
+                return kinematicControl.getPhysicsLocation(null);
+            }
+        }).get();
+        Assert.assertEquals(3f, location.x, 1e-4f);
+
+        // The dynamic spatial follows the snapshots as the body falls.
+        appState.setDebugEnabled(true); // ignored in DECOUPLED mode
+        for (int frame = 0; frame < 20; ++frame) {
+            appState.update(0.02f);
+            Thread.sleep(20L);
+        }
+        Assert.assertTrue(dynamicNode.getLocalTranslation().y < 0f);
+        Assert.assertEquals(10f, dynamicNode.getLocalTranslation().x, 1e-4f);
+
+        // Removal releases the control.
+        space.enqueue(new Callable<Void>() {
+            @Override
+            public Void call() {
+                space.removeCollisionObject(dynamicControl);
+                return null;
+            }
+        }).get();
+        Assert.assertEquals(1, manager.countClaimed());
+
+        appState.stopPhysics();
+        Assert.assertFalse(appState.isRunning());
+        Assert.assertEquals(0, manager.countClaimed());
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.GhostOverlapTracker;
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.GhostOverlapListener;
+import com.jme3.bullet.collision.PhysicsCollisionObject;
+import com.jme3.bullet.collision.shapes.SphereCollisionShape;
+import com.jme3.bullet.objects.PhysicsGhostObject;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.Vector3f;
+import com.jme3.system.NativeLibraryLoader;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the enter/exit deltas reported by GhostOverlapTracker, including
+ * changes to the tracked set made from within a listener.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestGhostOverlapTracker {
+    // *************************************************************************
+    // fields
+
+    /**
+     * number of objects reported as entering
+     */
+    private static int numEntered;
+    /**
+     * number of objects reported as exiting
+     */
+    private static int numExited;
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Move a kinematic body into and out of 2 ghosts, untracking one of them
+     * from a listener.
+     */
+    @Test
+    public void testGhostOverlapTracker() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        SphereCollisionShape shape = new SphereCollisionShape(1f);
+        final PhysicsGhostObject ghost1 = new PhysicsGhostObject(shape);
+        space.addCollisionObject(ghost1);
+        final PhysicsGhostObject ghost2 = new PhysicsGhostObject(shape);
+        ghost2.setPhysicsLocation(new Vector3f(0.5f, 0f, 0f));
+        space.addCollisionObject(ghost2);
+
+        PhysicsRigidBody body = new PhysicsRigidBody(shape, 1f);
+        body.setKinematic(true);
+        body.setPhysicsLocation(new Vector3f(20f, 0f, 0f));
+        space.addCollisionObject(body);
+
+        final GhostOverlapTracker tracker = new GhostOverlapTracker(space);
+        tracker.track(ghost1);
+        tracker.track(ghost2);
+        numEntered = 0;
+        numExited = 0;
+        tracker.addListener(new GhostOverlapListener() {
+            @Override
+            public void overlapsChanged(PhysicsGhostObject ghost,
+                    List<PhysicsCollisionObject> entered,
+                    List<PhysicsCollisionObject> exited) {
+                numEntered += entered.size();
+                numExited += exited.size();
+                /*
+                 * Untrack the 2nd ghost while the tracker is iterating.
+                 * It should be skipped for the rest of this step.
+                 */
+                if (ghost == ghost1 && tracker.isTracked(ghost2)) {
+                    tracker.untrack(ghost2);
+                }
+            }
+        });
+
+        // The ghosts overlap each other from the start.
+        space.update(0.02f, 1);
+        Assert.assertEquals(1, numEntered);
+        Assert.assertEquals(0, numExited);
+        Assert.assertEquals(1, tracker.countTracked());
+
+        // Move the body into the remaining ghost.
+        body.setPhysicsLocation(new Vector3f(0f, 0f, 0f));
+        space.update(0.02f, 1);
+        Assert.assertEquals(2, numEntered);
+        Assert.assertEquals(0, numExited);
+
+        // No change, no report.
+        space.update(0.02f, 1);
+        Assert.assertEquals(2, numEntered);
+        Assert.assertEquals(0, numExited);
+
+        // Move it out again.
+        body.setPhysicsLocation(new Vector3f(20f, 0f, 0f));
+        space.update(0.02f, 1);
+        Assert.assertEquals(2, numEntered);
+        Assert.assertEquals(1, numExited);
+
+        tracker.untrack(ghost1);
+        Assert.assertEquals(0, tracker.countTracked());
+        Assert.assertEquals(0, space.countTickListeners());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.collision.shapes.MeshCollisionShape;
+import com.jme3.bullet.collision.shapes.infos.IndexedMesh;
+import com.jme3.bullet.util.MeshShapeCodec;
+import com.jme3.math.Vector3f;
+import com.jme3.system.NativeLibraryLoader;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test round trips through the binary codec for mesh shapes.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestMeshShapeCodec {
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Encode a mesh shape and decode it from heap and direct buffers.
+     */
+    @Test
+    public void testMeshShapeCodec() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        Vector3f[] positions = {
+            new Vector3f(0f, 0f, 0f), new Vector3f(1f, 0f, 0f),
+            new Vector3f(0f, 0f, 1f), new Vector3f(1f, 0f, 1f)
+        };
+        int[] indices = {0, 1, 2, 2, 1, 3};
+        IndexedMesh submesh = new IndexedMesh(positions, indices);
+        MeshCollisionShape original = new MeshCollisionShape(true, submesh);
+        original.setScale(new Vector3f(2f, 1f, 3f));
+
+        ByteBuffer encoded = MeshShapeCodec.encode(original);
+        assertEquivalent(original, MeshShapeCodec.decode(encoded));
+        Assert.assertFalse(encoded.hasRemaining());
+
+        encoded.rewind();
+        ByteBuffer direct = ByteBuffer.allocateDirect(encoded.limit());
+        direct.put(encoded).flip();
+        assertEquivalent(original, MeshShapeCodec.decode(direct));
+    }
+    // *************************************************************************
+    // private methods
+
+    private static void assertEquivalent(
+            MeshCollisionShape expected, MeshCollisionShape actual) {
+        Assert.assertEquals(expected.isCompressed(), actual.isCompressed());
+        Assert.assertEquals(expected.countSubmeshes(), actual.countSubmeshes());
+        Assert.assertEquals(
+                expected.countMeshTriangles(), actual.countMeshTriangles());
+        Assert.assertEquals(
+                expected.getScale(null), actual.getScale(null));
+        Assert.assertEquals(expected.getMargin(), actual.getMargin(), 0f);
+
+        FloatBuffer expectedPositions
+                = expected.getSubmesh(0).copyVertexPositions();
+        FloatBuffer actualPositions
+                = actual.getSubmesh(0).copyVertexPositions();
+        Assert.assertEquals(expectedPositions.capacity(),
+                actualPositions.capacity());
+        for (int i = 0; i < expectedPositions.capacity(); ++i) {
+            Assert.assertEquals(
+                    expectedPositions.get(i), actualPositions.get(i), 0f);
+        }
+    }
+}
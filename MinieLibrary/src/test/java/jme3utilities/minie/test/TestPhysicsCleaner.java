@@ -0,0 +1,147 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.PhysicsCleaner;
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.system.NativeLibraryLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the EXPLICIT and PHYSICS_UPDATE policies of PhysicsCleaner.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestPhysicsCleaner {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * number of objects to create and drop in each test
+     */
+    final private static int numObjects = 20;
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Drop objects under the EXPLICIT policy, then verify that they remain
+     * in the backlog until drained.
+     *
+     * @throws InterruptedException if interrupted while awaiting the garbage
+     * collector
+     */
+    @Test
+    public void testExplicitPolicy() throws InterruptedException {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsCleaner.setPolicy(PhysicsCleaner.Policy.EXPLICIT);
+        try {
+            PhysicsCleaner.drain(Integer.MAX_VALUE);
+            dropObjects();
+            int before = PhysicsCleaner.countBacklog();
+            Assert.assertTrue(before >= numObjects);
+
+            // A limited drain frees exactly the requested number.
+            Assert.assertEquals(0, PhysicsCleaner.drain(0));
+            Assert.assertEquals(5, PhysicsCleaner.drain(5));
+            int after = PhysicsCleaner.countBacklog();
+            Assert.assertTrue(after >= before - 5);
+
+            // Nothing else frees them, not even a physics update.
+            PhysicsSpace space
+                    = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+            space.update(0.02f, 1);
+            Assert.assertTrue(PhysicsCleaner.countBacklog() >= after);
+
+            int numFreed = PhysicsCleaner.drain(Integer.MAX_VALUE);
+            Assert.assertTrue(numFreed >= after);
+        } finally {
+            PhysicsCleaner.setPolicy(PhysicsCleaner.Policy.BACKGROUND_THREAD);
+        }
+    }
+
+    /**
+     * Drop objects under the PHYSICS_UPDATE policy, then verify that a
+     * physics update frees them.
+     *
+     * @throws InterruptedException if interrupted while awaiting the garbage
+     * collector
+     */
+    @Test
+    public void testPhysicsUpdatePolicy() throws InterruptedException {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        long saveBudget = PhysicsCleaner.updateBudget();
+        PhysicsCleaner.setUpdateBudget(1_000_000_000L);
+        PhysicsCleaner.setPolicy(PhysicsCleaner.Policy.PHYSICS_UPDATE);
+        try {
+            PhysicsCleaner.drain(Integer.MAX_VALUE);
+            dropObjects();
+            Assert.assertTrue(PhysicsCleaner.countBacklog() >= numObjects);
+
+            space.update(0.02f, 1);
+            Assert.assertTrue(PhysicsCleaner.countBacklog() < numObjects);
+
+            // A zero budget frees nothing.
+            PhysicsCleaner.setUpdateBudget(0L);
+            dropObjects();
+            int before = PhysicsCleaner.countBacklog();
+            space.update(0.02f, 1);
+            Assert.assertTrue(PhysicsCleaner.countBacklog() >= before);
+        } finally {
+            PhysicsCleaner.setPolicy(PhysicsCleaner.Policy.BACKGROUND_THREAD);
+            PhysicsCleaner.setUpdateBudget(saveBudget);
+        }
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Create some native objects, drop all references to them, and wait for
+     * the garbage collector to report them unused.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static void dropObjects() throws InterruptedException {
+        int before = PhysicsCleaner.countBacklog();
+        for (int i = 0; i < numObjects; ++i) {
+            new BoxCollisionShape(1f + i);
+        }
+
+        for (int attempt = 0; attempt < 100; ++attempt) {
+            if (PhysicsCleaner.countBacklog() >= before + numObjects) {
+                return;
+            }
+            System.gc();
+            Thread.sleep(10L);
+        }
+        Assert.fail("The garbage collector didn't report the objects.");
+    }
+}
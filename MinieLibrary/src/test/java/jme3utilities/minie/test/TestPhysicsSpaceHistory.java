@@ -0,0 +1,256 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.PhysicsSpaceHistory;
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.Vector3f;
+import com.jme3.system.NativeLibraryLoader;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test a round trip through PhysicsSpaceHistory: capture, delta encoding,
+ * decoding into a full ring, and restore, with kinematic and dynamic
+ * bodies. Also test recovery from truncated deltas and undersized buffers.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestPhysicsSpaceHistory {
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Replicate a history through deltas and restore from the replica.
+     */
+    @Test
+    public void testPhysicsSpaceHistory() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        CollisionShape shape = new BoxCollisionShape(0.5f);
+
+        PhysicsRigidBody floor
+                = new PhysicsRigidBody(shape, PhysicsRigidBody.massForStatic);
+        floor.setPhysicsLocation(new Vector3f(0f, -10f, 0f));
+        space.addCollisionObject(floor);
+
+        PhysicsRigidBody kinematicBody = new PhysicsRigidBody(shape, 1f);
+        kinematicBody.setKinematic(true);
+        space.addCollisionObject(kinematicBody);
+
+        PhysicsRigidBody dynamicBody = new PhysicsRigidBody(shape, 1f);
+        dynamicBody.setPhysicsLocation(new Vector3f(10f, 0f, 0f));
+        space.addCollisionObject(dynamicBody);
+
+        // The sender retains every tick; the receiver's ring holds only 3.
+        PhysicsSpaceHistory sender = new PhysicsSpaceHistory(space, 8);
+        PhysicsSpaceHistory receiver = new PhysicsSpaceHistory(space, 3);
+        Assert.assertEquals(0, sender.register(kinematicBody));
+        Assert.assertEquals(1, sender.register(dynamicBody));
+        Assert.assertEquals(0, receiver.register(kinematicBody));
+        Assert.assertEquals(1, receiver.register(dynamicBody));
+
+        Vector3f[] dynamicLocations = new Vector3f[6];
+        for (long tick = 1L; tick <= 5L; ++tick) {
+            kinematicBody.setPhysicsLocation(new Vector3f(0f, tick, 0f));
+            space.update(0.02f, 1);
+            sender.capture(tick);
+            dynamicLocations[(int) tick]
+                    = dynamicBody.getPhysicsLocation(null);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        sender.encodeFull(2L, buffer);
+        sender.encodeDelta(2L, 3L, buffer);
+        sender.encodeDelta(3L, 4L, buffer);
+        buffer.flip();
+        for (long tick = 2L; tick <= 4L; ++tick) {
+            Assert.assertEquals(tick, receiver.decodeDelta(buffer));
+        }
+        Assert.assertEquals(3, receiver.countSaved());
+        Assert.assertEquals(2L, receiver.oldestTick());
+
+        // The base is the oldest tick, so decoding evicts it.
+        buffer.clear();
+        sender.encodeDelta(2L, 5L, buffer);
+        buffer.flip();
+        Assert.assertEquals(5L, receiver.decodeDelta(buffer));
+        Assert.assertFalse(receiver.isSaved(2L));
+        Assert.assertEquals(3L, receiver.oldestTick());
+        Assert.assertEquals(5L, receiver.newestTick());
+
+        // Both histories encode tick 5 identically.
+        ByteBuffer expected = ByteBuffer.allocate(4096);
+        sender.encodeFull(5L, expected);
+        expected.flip();
+        ByteBuffer actual = ByteBuffer.allocate(4096);
+        receiver.encodeFull(5L, actual);
+        actual.flip();
+        Assert.assertEquals(expected, actual);
+
+        // Restore the replica of tick 5 after simulating further.
+        space.update(0.02f, 1);
+        space.update(0.02f, 1);
+        Assert.assertTrue(receiver.restore(5L));
+        Vector3f location = dynamicBody.getPhysicsLocation(null);
+        Assert.assertEquals(dynamicLocations[5], location);
+        location = kinematicBody.getPhysicsLocation(null);
+        Assert.assertEquals(5f, location.y, 0f);
+
+        // An unregistered body is skipped during restore.
+        Assert.assertTrue(sender.unregister(dynamicBody));
+        Assert.assertFalse(sender.unregister(dynamicBody));
+        dynamicBody.setPhysicsLocation(new Vector3f(20f, 0f, 0f));
+        Assert.assertTrue(sender.restore(3L));
+        Assert.assertEquals(20f, dynamicBody.getPhysicsLocation(null).x, 0f);
+        location = kinematicBody.getPhysicsLocation(null);
+        Assert.assertEquals(3f, location.y, 0f);
+    }
+
+    /**
+     * Decode a truncated delta and verify that the receiver is unchanged and
+     * can still decode and encode.
+     */
+    @Test
+    public void testTruncatedDelta() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        PhysicsSpaceHistory sender = new PhysicsSpaceHistory(space, 4);
+        PhysicsSpaceHistory receiver = new PhysicsSpaceHistory(space, 4);
+        addFallingBodies(space, sender, receiver);
+        for (long tick = 1L; tick <= 2L; ++tick) {
+            space.update(0.02f, 1);
+            sender.capture(tick);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        sender.encodeFull(1L, buffer);
+        buffer.flip();
+        Assert.assertEquals(1L, receiver.decodeDelta(buffer));
+
+        buffer.clear();
+        sender.encodeDelta(1L, 2L, buffer);
+        buffer.flip();
+        ByteBuffer truncated = buffer.duplicate();
+        truncated.limit(buffer.limit() - 20); // within the last body
+        try {
+            receiver.decodeDelta(truncated);
+            Assert.fail("Expected a BufferUnderflowException.");
+        } catch (BufferUnderflowException exception) {
+            // expected
+        }
+        Assert.assertEquals(1, receiver.countSaved());
+        Assert.assertEquals(1L, receiver.newestTick());
+        assertSameEncoding(sender, receiver, 1L);
+
+        // The complete delta still decodes correctly.
+        Assert.assertEquals(2L, receiver.decodeDelta(buffer));
+        assertSameEncoding(sender, receiver, 2L);
+    }
+
+    /**
+     * Encode into an undersized buffer and verify that later encodings are
+     * unaffected.
+     */
+    @Test
+    public void testUndersizedBuffer() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        PhysicsSpaceHistory sender = new PhysicsSpaceHistory(space, 4);
+        PhysicsSpaceHistory receiver = new PhysicsSpaceHistory(space, 4);
+        addFallingBodies(space, sender, receiver);
+        for (long tick = 1L; tick <= 2L; ++tick) {
+            space.update(0.02f, 1);
+            sender.capture(tick);
+        }
+
+        try {
+            sender.encodeDelta(1L, 2L, ByteBuffer.allocate(30));
+            Assert.fail("Expected a BufferOverflowException.");
+        } catch (BufferOverflowException exception) {
+            // expected
+        }
+
+        // Retry with adequate storage.
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        sender.encodeFull(1L, buffer);
+        sender.encodeDelta(1L, 2L, buffer);
+        buffer.flip();
+        Assert.assertEquals(1L, receiver.decodeDelta(buffer));
+        Assert.assertEquals(2L, receiver.decodeDelta(buffer));
+        assertSameEncoding(sender, receiver, 2L);
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Add 2 falling bodies to the specified space and register them with the
+     * specified histories.
+     *
+     * @param space the space to populate (not null)
+     * @param history1 the first history (not null)
+     * @param history2 the 2nd history (not null)
+     */
+    private static void addFallingBodies(PhysicsSpace space,
+            PhysicsSpaceHistory history1, PhysicsSpaceHistory history2) {
+        CollisionShape shape = new BoxCollisionShape(0.5f);
+        for (int i = 0; i < 2; ++i) {
+            PhysicsRigidBody body = new PhysicsRigidBody(shape, 1f);
+            body.setPhysicsLocation(new Vector3f(5f * i, 0f, 0f));
+            space.addCollisionObject(body);
+            history1.register(body);
+            history2.register(body);
+        }
+    }
+
+    /**
+     * Verify that 2 histories encode the specified tick identically.
+     *
+     * @param expected the reference history (not null)
+     * @param actual the history to test (not null)
+     * @param tick the tick to encode (saved in both histories)
+     */
+    private static void assertSameEncoding(PhysicsSpaceHistory expected,
+            PhysicsSpaceHistory actual, long tick) {
+        ByteBuffer expectedBytes = ByteBuffer.allocate(4096);
+        expected.encodeFull(tick, expectedBytes);
+        expectedBytes.flip();
+        ByteBuffer actualBytes = ByteBuffer.allocate(4096);
+        actual.encodeFull(tick, actualBytes);
+        actualBytes.flip();
+        Assert.assertEquals(expectedBytes, actualBytes);
+    }
+}
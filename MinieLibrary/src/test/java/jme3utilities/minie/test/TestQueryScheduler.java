@@ -0,0 +1,100 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.QueryScheduler;
+import com.jme3.bullet.collision.PhysicsRayTestResult;
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.bullet.collision.shapes.SphereCollisionShape;
+import com.jme3.bullet.objects.PhysicsGhostObject;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.Vector3f;
+import com.jme3.system.NativeLibraryLoader;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test deferred execution of queries by a QueryScheduler.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestQueryScheduler {
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Submit ray and contact tests, then execute them explicitly and as a
+     * tick listener.
+     *
+     * @throws ExecutionException if a query failed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test
+    public void testQueryScheduler()
+            throws ExecutionException, InterruptedException {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        PhysicsRigidBody box = new PhysicsRigidBody(
+                new BoxCollisionShape(1f), PhysicsRigidBody.massForStatic);
+        space.addCollisionObject(box);
+        QueryScheduler scheduler = new QueryScheduler(space);
+
+        Future<List<PhysicsRayTestResult>> hit = scheduler.rayTest(
+                new Vector3f(0f, 5f, 0f), new Vector3f(0f, -5f, 0f));
+        Future<List<PhysicsRayTestResult>> miss = scheduler.rayTest(
+                new Vector3f(5f, 5f, 0f), new Vector3f(5f, -5f, 0f));
+        PhysicsGhostObject ghost
+                = new PhysicsGhostObject(new SphereCollisionShape(0.5f));
+        ghost.setPhysicsLocation(new Vector3f(0f, 1.2f, 0f));
+        Future<Integer> contacts = scheduler.contactTest(ghost, null);
+
+        // Nothing executes until the batch does.
+        Assert.assertEquals(3, scheduler.countPending());
+        Assert.assertFalse(hit.isDone());
+
+        Assert.assertEquals(3, scheduler.executePending());
+        Assert.assertEquals(0, scheduler.countPending());
+        Assert.assertEquals(1, hit.get().size());
+        Assert.assertSame(box, hit.get().get(0).getCollisionObject());
+        Assert.assertEquals(0.4f, hit.get().get(0).getHitFraction(), 1e-5f);
+        Assert.assertTrue(miss.get().isEmpty());
+        Assert.assertTrue(contacts.get() > 0);
+
+        // As a tick listener, the scheduler executes after each step.
+        space.addTickListener(scheduler);
+        Future<List<PhysicsRayTestResult>> later = scheduler.rayTest(
+                new Vector3f(0f, -5f, 0f), new Vector3f(0f, 5f, 0f));
+        space.update(0.02f, 1);
+        Assert.assertTrue(later.isDone());
+        Assert.assertEquals(1, later.get().size());
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.DesktopAssetManager;
+import com.jme3.asset.ModelKey;
+import com.jme3.asset.plugins.ClasspathLocator;
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.RotationOrder;
+import com.jme3.bullet.animation.CenterHeuristic;
+import com.jme3.bullet.animation.DacConfiguration;
+import com.jme3.bullet.animation.DynamicAnimControl;
+import com.jme3.bullet.animation.LinkConfig;
+import com.jme3.bullet.animation.MassHeuristic;
+import com.jme3.bullet.animation.RagdollLodManager;
+import com.jme3.bullet.animation.RagdollLodManager.Tier;
+import com.jme3.bullet.animation.RangeOfMotion;
+import com.jme3.bullet.animation.ShapeHeuristic;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.export.binary.BinaryLoader;
+import com.jme3.material.plugins.J3MLoader;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Spatial;
+import com.jme3.system.NativeLibraryLoader;
+import com.jme3.texture.plugins.AWTLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test tier transitions of a RagdollLodManager, including the deferred
+ * demotion of a character in ragdoll mode.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestRagdollLodManager {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * AssetManager to load Jaime
+     */
+    final private static AssetManager assetManager = new DesktopAssetManager();
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Move the viewer away from Jaime and back, verifying the tier and the
+     * bodies in the space after each update.
+     */
+    @Test
+    public void testRagdollLodManager() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        assetManager.registerLoader(AWTLoader.class, "jpg", "png");
+        assetManager.registerLoader(BinaryLoader.class, "j3o");
+        assetManager.registerLoader(J3MLoader.class, "j3m", "j3md");
+        assetManager.registerLocator(null, ClasspathLocator.class);
+
+        ModelKey key = new ModelKey("Models/Jaime/Jaime.j3o");
+        Spatial jaime = assetManager.loadModel(key);
+        DynamicAnimControl dac = createDac();
+        jaime.addControl(dac);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        dac.setPhysicsSpace(space);
+        jaime.updateLogicalState(0.02f);
+        jaime.updateGeometricState();
+        space.update(0.02f, 1); // make the links ready for dynamic mode
+        int numAllBodies = space.countRigidBodies();
+        Assert.assertEquals(4, numAllBodies);
+
+        RagdollLodManager manager = new RagdollLodManager();
+        manager.setDistances(20f, 50f, 100f);
+        manager.setKinematicDepth(1);
+        manager.add(dac);
+
+        manager.update(new Vector3f(10f, 0f, 0f));
+        Assert.assertEquals(Tier.Dynamic, manager.getTier(dac));
+
+        // A ragdoll isn't demoted until all its links are kinematic.
+        dac.setRagdollMode();
+        manager.update(new Vector3f(30f, 0f, 0f));
+        Assert.assertEquals(Tier.Dynamic, manager.getTier(dac));
+        Assert.assertEquals(numAllBodies, space.countRigidBodies());
+
+        dac.setKinematicMode();
+        manager.update(new Vector3f(30f, 0f, 0f));
+        Assert.assertEquals(Tier.Kinematic, manager.getTier(dac));
+        PhysicsRigidBody spineBody = dac.findBoneLink("spine").getRigidBody();
+        PhysicsRigidBody headBody = dac.findBoneLink("head").getRigidBody();
+        Assert.assertTrue(space.contains(spineBody));
+        Assert.assertFalse(space.contains(headBody));
+        Assert.assertEquals(2, space.countRigidBodies());
+
+        manager.update(new Vector3f(60f, 0f, 0f));
+        Assert.assertEquals(Tier.Proxy, manager.getTier(dac));
+        PhysicsRigidBody proxy = manager.getProxy(dac);
+        Assert.assertNotNull(proxy);
+        Assert.assertTrue(space.contains(proxy));
+        Assert.assertEquals(1, space.countRigidBodies());
+
+        manager.update(new Vector3f(150f, 0f, 0f));
+        Assert.assertEquals(Tier.Detached, manager.getTier(dac));
+        Assert.assertNull(manager.getProxy(dac));
+        Assert.assertEquals(0, space.countRigidBodies());
+
+        // Hysteresis keeps the character detached just inside the threshold.
+        manager.update(new Vector3f(95f, 0f, 0f));
+        Assert.assertEquals(Tier.Detached, manager.getTier(dac));
+        manager.update(new Vector3f(85f, 0f, 0f));
+        Assert.assertEquals(Tier.Proxy, manager.getTier(dac));
+
+        // Forced tiers override the distance.
+        manager.setForcedTier(dac, Tier.Kinematic);
+        manager.update(new Vector3f(85f, 0f, 0f));
+        Assert.assertEquals(Tier.Kinematic, manager.getTier(dac));
+        Assert.assertEquals(2, space.countRigidBodies());
+
+        manager.setForcedTier(dac, null);
+        manager.update(new Vector3f(10f, 0f, 0f));
+        Assert.assertEquals(Tier.Dynamic, manager.getTier(dac));
+        Assert.assertEquals(numAllBodies, space.countRigidBodies());
+        Assert.assertTrue(space.contains(headBody));
+
+        manager.remove(dac);
+        Assert.assertEquals(0, manager.countManaged());
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Generate a DynamicAnimControl for Jaime with a chain of 3 bone links:
+     * spine, ribs, and head.
+     *
+     * @return a new instance, not added to any Spatial
+     */
+    private static DynamicAnimControl createDac() {
+        DynamicAnimControl result = new DynamicAnimControl();
+        LinkConfig hull = new LinkConfig(0.005f, MassHeuristic.Mass,
+                ShapeHeuristic.VertexHull, new Vector3f(1f, 1f, 1f),
+                CenterHeuristic.Mean, RotationOrder.XZY);
+        result.setConfig(DacConfiguration.torsoName, hull);
+        result.link("spine", hull, new RangeOfMotion(1f));
+        result.link("ribs", hull, new RangeOfMotion(0.6f, 0.4f, 0.4f));
+        result.link("head", hull,
+                new RangeOfMotion(0.3f, -0.6f, 0.5f, -0.5f, 0.5f, -0.5f));
+
+        return result;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.DesktopAssetManager;
+import com.jme3.asset.ModelKey;
+import com.jme3.asset.plugins.ClasspathLocator;
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.RotationOrder;
+import com.jme3.bullet.animation.CenterHeuristic;
+import com.jme3.bullet.animation.DacConfiguration;
+import com.jme3.bullet.animation.DynamicAnimControl;
+import com.jme3.bullet.animation.LinkConfig;
+import com.jme3.bullet.animation.MassHeuristic;
+import com.jme3.bullet.animation.RagdollPoseScheduler;
+import com.jme3.bullet.animation.RangeOfMotion;
+import com.jme3.bullet.animation.ShapeHeuristic;
+import com.jme3.export.binary.BinaryLoader;
+import com.jme3.material.plugins.J3MLoader;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.jme3.system.NativeLibraryLoader;
+import com.jme3.texture.plugins.AWTLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test deferred link updates of a RagdollPoseScheduler, including the
+ * removal of a member that already deferred its update.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestRagdollPoseScheduler {
+    // *************************************************************************
+    // constants and loggers
+
+    /**
+     * AssetManager to load Jaime
+     */
+    final private static AssetManager assetManager = new DesktopAssetManager();
+    /**
+     * time interval between frames (in seconds)
+     */
+    final private static float tpf = 0.02f;
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Move 2 characters and verify that their links follow, both while
+     * scheduled and after one of them leaves the scheduler mid-frame.
+     */
+    @Test
+    public void testRagdollPoseScheduler() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        assetManager.registerLoader(AWTLoader.class, "jpg", "png");
+        assetManager.registerLoader(BinaryLoader.class, "j3o");
+        assetManager.registerLoader(J3MLoader.class, "j3m", "j3md");
+        assetManager.registerLocator(null, ClasspathLocator.class);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        RagdollPoseScheduler scheduler = new RagdollPoseScheduler();
+        Node rootNode = new Node("root");
+
+        ModelKey key = new ModelKey("Models/Jaime/Jaime.j3o");
+        Spatial[] models = new Spatial[2];
+        DynamicAnimControl[] dacs = new DynamicAnimControl[2];
+        for (int i = 0; i < 2; ++i) {
+            models[i] = assetManager.loadModel(key);
+            rootNode.attachChild(models[i]);
+            dacs[i] = createDac();
+            models[i].addControl(dacs[i]);
+            dacs[i].setPhysicsSpace(space);
+            scheduler.add(dacs[i]);
+        }
+        Assert.assertEquals(2, scheduler.countMembers());
+
+        // The scheduler is updated after the models.
+        Node schedulerNode = new Node("scheduler");
+        schedulerNode.addControl(scheduler);
+        rootNode.attachChild(schedulerNode);
+
+        rootNode.updateLogicalState(tpf);
+        rootNode.updateGeometricState();
+        float x0 = spineX(dacs[0]);
+        float x1 = spineX(dacs[1]);
+
+        // Scheduled updates follow the models.
+        for (Spatial model : models) {
+            model.move(5f, 0f, 0f);
+        }
+        rootNode.updateGeometricState();
+        rootNode.updateLogicalState(tpf);
+        Assert.assertEquals(x0 + 5f, spineX(dacs[0]), 1e-3f);
+        Assert.assertEquals(x1 + 5f, spineX(dacs[1]), 1e-3f);
+
+        /*
+         * Update a model on its own, so its links are deferred,
+         * then remove it before the scheduler runs.
+         */
+        models[0].move(5f, 0f, 0f);
+        rootNode.updateGeometricState();
+        models[0].updateLogicalState(tpf);
+        scheduler.remove(dacs[0]);
+        Assert.assertEquals(x0 + 10f, spineX(dacs[0]), 1e-3f);
+        Assert.assertEquals(1, scheduler.countMembers());
+
+        // The removed member updates its own links from now on.
+        models[0].move(5f, 0f, 0f);
+        rootNode.updateGeometricState();
+        rootNode.updateLogicalState(tpf);
+        Assert.assertEquals(x0 + 15f, spineX(dacs[0]), 1e-3f);
+        Assert.assertEquals(x1 + 5f, spineX(dacs[1]), 1e-3f);
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Generate a DynamicAnimControl for Jaime.
+     *
+     * @return a new instance, not added to any Spatial
+     */
+    private static DynamicAnimControl createDac() {
+        DynamicAnimControl result = new DynamicAnimControl();
+        LinkConfig hull = new LinkConfig(0.005f, MassHeuristic.Mass,
+                ShapeHeuristic.VertexHull, new Vector3f(1f, 1f, 1f),
+                CenterHeuristic.Mean, RotationOrder.XZY);
+        result.setConfig(DacConfiguration.torsoName, hull);
+        result.link("spine", hull, new RangeOfMotion(1f));
+        result.link("ribs", hull, new RangeOfMotion(0.6f, 0.4f, 0.4f));
+
+        return result;
+    }
+
+    /**
+     * Return the X coordinate of the kinematic transform of the spine link.
+     *
+     * @param dac the control to query (not null, unaffected)
+     * @return the coordinate (in physics-space coordinates)
+     */
+    private static float spineX(DynamicAnimControl dac) {
+        float result = dac.findBoneLink("spine").physicsTransform(null)
+                .getTranslation().x;
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.system.NativeLibraryLoader;
+import com.jme3.util.BufferUtils;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test batched ray tests using primitive buffers.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestRayTestClosest {
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Cast 2 rays at a static box: one that hits and one that misses.
+     */
+    @Test
+    public void testRayTestClosest() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        BoxCollisionShape box = new BoxCollisionShape(1f);
+        PhysicsRigidBody body
+                = new PhysicsRigidBody(box, PhysicsRigidBody.massForStatic);
+        space.addCollisionObject(body);
+
+        FloatBuffer endpoints = BufferUtils.createFloatBuffer(
+                0f, 5f, 0f, 0f, -5f, 0f, // hits the top face of the box
+                5f, 5f, 0f, 5f, -5f, 0f // misses the box
+        );
+        FloatBuffer fractions = BufferUtils.createFloatBuffer(2);
+        FloatBuffer normals = BufferUtils.createFloatBuffer(6);
+        LongBuffer pcoIds = LongBuffer.allocate(2);
+        IntBuffer indices = BufferUtils.createIntBuffer(4);
+
+        int numHits = space.rayTestClosest(
+                endpoints, 2, fractions, normals, pcoIds, indices);
+        Assert.assertEquals(1, numHits);
+
+        Assert.assertEquals(0.4f, fractions.get(0), 1e-5f);
+        Assert.assertEquals(1f, normals.get(1), 1e-5f);
+        Assert.assertEquals(body.nativeId(), pcoIds.get(0));
+
+        Assert.assertEquals(1f, fractions.get(1), 0f);
+        Assert.assertEquals(0f, normals.get(4), 0f);
+        Assert.assertEquals(0L, pcoIds.get(1));
+        Assert.assertEquals(-1, indices.get(2));
+        Assert.assertEquals(-1, indices.get(3));
+    }
+}
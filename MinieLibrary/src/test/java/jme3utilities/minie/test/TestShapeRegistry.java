@@ -0,0 +1,170 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.collision.shapes.HullCollisionShape;
+import com.jme3.bullet.collision.shapes.MeshCollisionShape;
+import com.jme3.bullet.collision.shapes.infos.CompoundMesh;
+import com.jme3.bullet.collision.shapes.infos.IndexedMesh;
+import com.jme3.bullet.util.ShapeRegistry;
+import com.jme3.math.Vector3f;
+import com.jme3.system.NativeLibraryLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test interning of hull and mesh shapes by ShapeRegistry.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestShapeRegistry {
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Look up the same hull from many threads at once, and verify that it's
+     * built only once.
+     *
+     * @throws ExecutionException if a lookup fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test
+    public void testConcurrentLookups()
+            throws ExecutionException, InterruptedException {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        final ShapeRegistry registry = new ShapeRegistry();
+        final Vector3f unitScale = new Vector3f(1f, 1f, 1f);
+        final float[] points = {
+            0f, 0f, 0f, 1f, 0f, 0f, 0f, 1f, 0f, 0f, 0f, 1f
+        };
+        int numLookups = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<HullCollisionShape>> futures = new ArrayList<>(numLookups);
+        for (int i = 0; i < numLookups; ++i) {
+            futures.add(executor.submit(new Callable<HullCollisionShape>() {
+                @Override
+                public HullCollisionShape call() {
+                    return registry.hull(points.clone(), unitScale);
+                }
+            }));
+        }
+
+        HullCollisionShape first = futures.get(0).get();
+        for (Future<HullCollisionShape> future : futures) {
+            Assert.assertSame(first, future.get());
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(numLookups - 1, registry.countHits());
+        Assert.assertEquals(1L, registry.countMisses());
+        Assert.assertEquals(1, registry.countShapes());
+    }
+
+    /**
+     * Look up hulls and meshes with identical and differing content and
+     * scales, and verify which lookups share shapes.
+     */
+    @Test
+    public void testShapeRegistry() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        ShapeRegistry registry = new ShapeRegistry();
+        Vector3f unitScale = new Vector3f(1f, 1f, 1f);
+        Vector3f doubleScale = new Vector3f(2f, 2f, 2f);
+
+        // hulls
+        float[] points = {
+            0f, 0f, 0f, 1f, 0f, 0f, 0f, 1f, 0f, 0f, 0f, 1f
+        };
+        HullCollisionShape hull1 = registry.hull(points, unitScale);
+        HullCollisionShape hull2 = registry.hull(points.clone(), unitScale);
+        Assert.assertSame(hull1, hull2);
+        HullCollisionShape hull3 = registry.hull(points, doubleScale);
+        Assert.assertNotSame(hull1, hull3);
+        Assert.assertEquals(doubleScale, hull3.getScale(null));
+
+        // meshes from equal but distinct CompoundMeshes
+        CompoundMesh mesh1 = createMesh(0f);
+        CompoundMesh mesh2 = createMesh(0f);
+        MeshCollisionShape shape1 = registry.mesh(mesh1, true, unitScale);
+        MeshCollisionShape shape2 = registry.mesh(mesh2, true, unitScale);
+        Assert.assertSame(shape1, shape2);
+
+        // differing content, compression, or scale
+        MeshCollisionShape shape3
+                = registry.mesh(createMesh(0.5f), true, unitScale);
+        Assert.assertNotSame(shape1, shape3);
+        MeshCollisionShape shape4 = registry.mesh(mesh1, false, unitScale);
+        Assert.assertNotSame(shape1, shape4);
+        MeshCollisionShape shape5 = registry.mesh(mesh1, true, doubleScale);
+        Assert.assertNotSame(shape1, shape5);
+
+        Assert.assertEquals(2L, registry.countHits());
+        Assert.assertEquals(6L, registry.countMisses());
+        Assert.assertEquals(6, registry.countShapes());
+
+        Assert.assertTrue(registry.remove(shape1));
+        Assert.assertFalse(registry.remove(shape1));
+        MeshCollisionShape shape6 = registry.mesh(mesh2, true, unitScale);
+        Assert.assertNotSame(shape1, shape6);
+
+        registry.clear();
+        Assert.assertEquals(0, registry.countShapes());
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Generate a CompoundMesh with 2 triangles in a single submesh.
+     *
+     * @param apexY the Y coordinate of the shared apex
+     * @return a new mesh
+     */
+    private static CompoundMesh createMesh(float apexY) {
+        Vector3f[] positions = {
+            new Vector3f(0f, 0f, 0f),
+            new Vector3f(1f, 0f, 0f),
+            new Vector3f(0f, 0f, 1f),
+            new Vector3f(1f, apexY, 1f)
+        };
+        int[] indices = {0, 1, 2, 1, 3, 2};
+        IndexedMesh submesh = new IndexedMesh(positions, indices);
+
+        CompoundMesh result = new CompoundMesh();
+        result.add(submesh);
+
+        return result;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.SummaryContactManager;
+import com.jme3.bullet.collision.ContactSummary;
+import com.jme3.bullet.collision.ContactSummaryListener;
+import com.jme3.bullet.collision.PhysicsCollisionObject;
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.bullet.collision.shapes.SphereCollisionShape;
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.Vector3f;
+import com.jme3.system.NativeLibraryLoader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the pair keying and impulse folding of SummaryContactManager.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestSummaryContactManager {
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Rest a ball on a box and verify that the summary distributed after the
+     * very first step reports the impulse computed by that step's solver.
+     */
+    @Test
+    public void testFirstStepImpulse() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        SummaryContactManager manager = new SummaryContactManager(space);
+        space.setContactManager(manager);
+
+        PhysicsRigidBody floor = new PhysicsRigidBody(
+                new BoxCollisionShape(1f), PhysicsRigidBody.massForStatic);
+        PhysicsRigidBody ball
+                = new PhysicsRigidBody(new SphereCollisionShape(0.5f), 1f);
+        ball.setPhysicsLocation(new Vector3f(0f, 1.5f, 0f));
+        space.addCollisionObject(floor);
+        space.addCollisionObject(ball);
+
+        final List<ContactSummary> summaries = new ArrayList<>(4);
+        manager.addSummaryListener(new ContactSummaryListener() {
+            @Override
+            public void onContactSummary(ContactSummary summary) {
+                Assert.assertTrue(summary.hasStarted());
+                Assert.assertTrue(summary.countPoints() > 0);
+                Assert.assertTrue(summary.maxImpulse() > 0f);
+                summaries.add(summary);
+            }
+        });
+
+        space.update(0.02f, 1);
+        manager.distributeEvents();
+        Assert.assertEquals(1, summaries.size());
+    }
+
+    /**
+     * Drop a ball onto a box, creating the objects in both orders, and verify
+     * that each distribution yields a single summary for the pair, headed by
+     * the object with the lower native ID.
+     */
+    @Test
+    public void testSummaryContactManager() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        dropBall(true);
+        dropBall(false);
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Drop a ball onto a static box and check the resulting summaries.
+     *
+     * @param floorFirst true to create the box before the ball, false to
+     * create the ball first
+     */
+    private static void dropBall(boolean floorFirst) {
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        SummaryContactManager manager = new SummaryContactManager(space);
+        space.setContactManager(manager);
+
+        PhysicsRigidBody ball;
+        PhysicsRigidBody floor;
+        SphereCollisionShape ballShape = new SphereCollisionShape(0.5f);
+        BoxCollisionShape floorShape = new BoxCollisionShape(1f);
+        if (floorFirst) {
+            floor = new PhysicsRigidBody(
+                    floorShape, PhysicsRigidBody.massForStatic);
+            ball = new PhysicsRigidBody(ballShape, 1f);
+        } else {
+            ball = new PhysicsRigidBody(ballShape, 1f);
+            floor = new PhysicsRigidBody(
+                    floorShape, PhysicsRigidBody.massForStatic);
+        }
+        ball.setPhysicsLocation(new Vector3f(0f, 1.45f, 0f));
+        space.addCollisionObject(floor);
+        space.addCollisionObject(ball);
+
+        final PhysicsCollisionObject expectedA
+                = (ball.nativeId() < floor.nativeId()) ? ball : floor;
+        final float expectedSign = (expectedA == ball) ? 1f : -1f;
+        final List<PhysicsCollisionObject> headers = new ArrayList<>(4);
+        manager.addSummaryListener(new ContactSummaryListener() {
+            @Override
+            public void onContactSummary(ContactSummary summary) {
+                headers.add(summary.getObjectA());
+                if (summary.countPoints() > 0) {
+                    /*
+                     * The normal on B points toward A, so its sign
+                     * depends on which object heads the pair.
+                     */
+                    Vector3f normal = summary.averageNormal(null);
+                    Assert.assertTrue(normal.y * expectedSign > 0f);
+                }
+            }
+        });
+
+        int numSummaries = 0;
+        for (int stepI = 0; stepI < 20; ++stepI) {
+            space.update(0.02f, 1);
+            headers.clear();
+            manager.distributeEvents();
+
+            Assert.assertTrue(headers.size() <= 1);
+            for (PhysicsCollisionObject header : headers) {
+                Assert.assertSame(expectedA, header);
+                ++numSummaries;
+            }
+        }
+        Assert.assertTrue(numSummaries > 0);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ Copyright (c) 2023, Stephen Gold
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+ notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ notice, this list of conditions and the following disclaimer in the
+ documentation and/or other materials provided with the distribution.
+ * Neither the name of the copyright holder nor the names of its contributors
+ may be used to endorse or promote products derived from this software without
+ specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jme3utilities.minie.test;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import com.jme3.bullet.collision.shapes.SphereCollisionShape;
+import com.jme3.bullet.control.RigidBodyControl;
+import com.jme3.bullet.control.TransformSyncManager;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.system.NativeLibraryLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test that TransformSyncManager synchronizes bodies that are repositioned or
+ * woken without any contact, and that it claims controls added later.
+ *
+ * @author Stephen Gold sgold@sonic.net
+ */
+public class TestTransformSyncManager {
+    // *************************************************************************
+    // new methods exposed
+
+    /**
+     * Put a body to sleep, then teleport it, wake it, and add a 2nd body.
+     */
+    @Test
+    public void testTransformSyncManager() {
+        NativeLibraryLoader.loadNativeLibrary("bulletjme", true);
+
+        PhysicsSpace space = new PhysicsSpace(PhysicsSpace.BroadphaseType.DBVT);
+        space.setGravity(new Vector3f(0f, 0f, 0f));
+        TransformSyncManager manager = new TransformSyncManager(space);
+        space.addSpaceListener(manager);
+        manager.setScanBudget(0); // rely on the hooks alone
+
+        CollisionShape shape = new SphereCollisionShape(0.5f);
+        Node node1 = new Node("node1");
+        RigidBodyControl control1 = new RigidBodyControl(shape, 1f);
+        node1.addControl(control1);
+        control1.setPhysicsSpace(space);
+
+        manager.update();
+        Assert.assertEquals(1, manager.countClaimed());
+
+        // Let the body fall asleep.
+        for (int stepI = 0; stepI < 200 && control1.isActive(); ++stepI) {
+            space.update(1f / 60, 0);
+            manager.update();
+        }
+        Assert.assertFalse(control1.isActive());
+        manager.update();
+        Assert.assertEquals(0, manager.countAwake());
+
+        // Teleport the sleeping body.
+        Vector3f teleport = new Vector3f(3f, 4f, 5f);
+        control1.setPhysicsLocation(teleport);
+        Assert.assertFalse(control1.isActive());
+        manager.update();
+        assertLocation(teleport, node1);
+
+        // Wake the body without any contact.
+        control1.setLinearVelocity(new Vector3f(1f, 0f, 0f));
+        space.update(1f / 60, 0);
+        manager.update();
+        Assert.assertTrue(node1.getLocalTranslation().x > teleport.x);
+
+        // Add a 2nd control, which should be claimed during the next update.
+        Node node2 = new Node("node2");
+        RigidBodyControl control2 = new RigidBodyControl(shape, 1f);
+        node2.addControl(control2);
+        control2.setPhysicsSpace(space);
+        manager.update();
+        Assert.assertEquals(2, manager.countClaimed());
+
+        // Remove both controls, which should release them.
+        control2.setPhysicsSpace(null);
+        space.removeCollisionObject(control1);
+        manager.update();
+        Assert.assertEquals(0, manager.countClaimed());
+    }
+    // *************************************************************************
+    // private methods
+
+    /**
+     * Verify that the specified node is at the expected location.
+     *
+     * @param expected the expected location (not null, unaffected)
+     * @param node the node to test (not null, unaffected)
+     */
+    private static void assertLocation(Vector3f expected, Node node) {
+        Vector3f actual = node.getLocalTranslation();
+        Assert.assertEquals(expected.x, actual.x, 1e-5f);
+        Assert.assertEquals(expected.y, actual.y, 1e-5f);
+        Assert.assertEquals(expected.z, actual.z, 1e-5f);
+    }
+}